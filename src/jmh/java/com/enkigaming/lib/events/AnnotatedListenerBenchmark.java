@@ -0,0 +1,129 @@
+package com.enkigaming.lib.events;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures calling a listener method marked with Listen via the invokers AnnotatedListener creates, against calling a
+ * hand-written listener and against calling the method via reflection.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnotatedListenerBenchmark
+{
+    /**
+     * Object with a listener method that does the least possible work while not being optimised away.
+     */
+    public static class Subscriber
+    {
+        long calls = 0;
+        
+        @Listen
+        public void onEvent(Object sender, EventArgs args)
+        { calls++; }
+    }
+    
+    /**
+     * Listener that calls a method via reflection, as a baseline.
+     */
+    public static class ReflectiveListener implements EventListener<EventArgs>
+    {
+        public ReflectiveListener(Object target, Method method)
+        {
+            this.target = target;
+            this.method = method;
+        }
+        
+        final Object target;
+        final Method method;
+        
+        @Override
+        public void onEvent(Object sender, EventArgs args)
+        {
+            try
+            { method.invoke(target, sender, args); }
+            catch(IllegalAccessException e)
+            { throw new RuntimeException(e); }
+            catch(InvocationTargetException e)
+            { throw new RuntimeException(e.getCause()); }
+        }
+    }
+    
+    Subscriber subscriber;
+    EventArgs args;
+    
+    EventListener<EventArgs> handWritten;
+    EventListener<EventArgs> generated;
+    EventListener<EventArgs> methodHandle;
+    EventListener<EventArgs> reflective;
+    
+    @Setup
+    public void setUp() throws NoSuchMethodException
+    {
+        subscriber = new Subscriber();
+        args = new StandardEventArgs();
+        Method method = Subscriber.class.getMethod("onEvent", Object.class, EventArgs.class);
+        
+        handWritten = new EventListener<EventArgs>()
+        {
+            @Override
+            public void onEvent(Object sender, EventArgs args)
+            { subscriber.onEvent(sender, args); }
+        };
+        
+        generated = (EventListener<EventArgs>)AnnotatedListener.getListenersOf(subscriber).get(0);
+        
+        methodHandle = new AnnotatedListener<EventArgs>(subscriber, new AnnotatedListener.ListenerMethod(
+                method,
+                EventArgs.class,
+                ListenerPriority.Normal.getNumericalValue(),
+                AnnotatedListener.makeMethodHandleInvoker(method),
+                false));
+        
+        reflective = new ReflectiveListener(subscriber, method);
+    }
+    
+    @Benchmark
+    public long handWritten()
+    {
+        handWritten.onEvent(this, args);
+        return subscriber.calls;
+    }
+    
+    @Benchmark
+    public long generated()
+    {
+        generated.onEvent(this, args);
+        return subscriber.calls;
+    }
+    
+    @Benchmark
+    public long methodHandle()
+    {
+        methodHandle.onEvent(this, args);
+        return subscriber.calls;
+    }
+    
+    @Benchmark
+    public long reflective()
+    {
+        reflective.onEvent(this, args);
+        return subscriber.calls;
+    }
+}
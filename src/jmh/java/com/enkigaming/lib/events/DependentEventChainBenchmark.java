@@ -0,0 +1,86 @@
+package com.enkigaming.lib.events;
+
+import com.enkigaming.lib.encapsulatedfunctions.Converger;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures raising a StandardEvent at the top of a chain of dependent events, each with its own listeners.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DependentEventChainBenchmark
+{
+    /**
+     * The number of dependent events below the raised event, each dependent on the one before.
+     */
+    @Param({"1", "2", "3", "4", "5"})
+    public int depth;
+    
+    /**
+     * The number of listeners registered to each event in the chain.
+     */
+    @Param({"1", "10"})
+    public int listenersPerEvent;
+    
+    StandardEvent<EventArgs> event;
+    
+    int listenerCalls = 0;
+    
+    @Setup
+    public void setUp()
+    {
+        Converger<Object, EventArgs, EventArgs> argsGetter = new Converger<Object, EventArgs, EventArgs>()
+        {
+            @Override
+            public EventArgs get(Object sender, EventArgs parentArgs)
+            { return new StandardEventArgs(); }
+        };
+        
+        event = new StandardEvent<EventArgs>();
+        StandardEvent<EventArgs> current = event;
+        ListenerPriority[] priorities = ListenerPriority.values();
+        
+        for(int i = 0; i <= depth; i++)
+        {
+            for(int j = 0; j < listenersPerEvent; j++)
+                current.register(new EventListener<EventArgs>()
+                {
+                    @Override
+                    public void onEvent(Object sender, EventArgs args)
+                    { listenerCalls++; }
+                }, priorities[(i + j) % priorities.length]);
+            
+            if(i < depth)
+            {
+                StandardEvent<EventArgs> dependent = new StandardEvent<EventArgs>();
+                current.register(dependent, argsGetter);
+                current = dependent;
+            }
+        }
+    }
+    
+    @Benchmark
+    public int raiseAndRaisePostEvent()
+    {
+        EventArgs args = new StandardEventArgs();
+        event.raise(this, args);
+        event.raisePostEvent(this, args);
+        return listenerCalls;
+    }
+}
@@ -0,0 +1,24 @@
+package com.enkigaming.lib.events;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the event system's benchmarks with the GC profiler, so that allocation rates are reported alongside throughput.
+ * Any arguments are passed on to JMH as command-line options, e.g. a regex of the benchmarks to run.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+public class EventBenchmarks
+{
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException
+    {
+        new Runner(new OptionsBuilder().parent(new CommandLineOptions(args))
+                                       .include(EventBenchmarks.class.getPackage().getName() + ".*Benchmark")
+                                       .addProfiler(GCProfiler.class)
+                                       .build()).run();
+    }
+}
@@ -0,0 +1,83 @@
+package com.enkigaming.lib.events;
+
+import com.enkigaming.lib.tuples.Pair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures raising a StandardEvent alongside other events, pre- and post-event.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RaiseAlongsideBenchmark
+{
+    /**
+     * The total number of events raised together, including the one raiseAlongside is called on.
+     */
+    @Param({"2", "5", "10", "25", "50"})
+    public int eventCount;
+    
+    /**
+     * The number of listeners registered to each event.
+     */
+    @Param({"10"})
+    public int listenersPerEvent;
+    
+    List<StandardEvent<EventArgs>> events;
+    
+    int listenerCalls = 0;
+    
+    @Setup
+    public void setUp()
+    {
+        events = new ArrayList<StandardEvent<EventArgs>>();
+        ListenerPriority[] priorities = ListenerPriority.values();
+        
+        for(int i = 0; i < eventCount; i++)
+        {
+            StandardEvent<EventArgs> event = new StandardEvent<EventArgs>();
+            
+            for(int j = 0; j < listenersPerEvent; j++)
+                event.register(new EventListener<EventArgs>()
+                {
+                    @Override
+                    public void onEvent(Object sender, EventArgs args)
+                    { listenerCalls++; }
+                }, priorities[(i + j) % priorities.length]);
+            
+            events.add(event);
+        }
+    }
+    
+    @Benchmark
+    public int raiseAlongsideAndRaisePostEventAlongside()
+    {
+        EventArgs args = new StandardEventArgs();
+        List<Pair<StandardEvent<EventArgs>, EventArgs>> otherEvents
+            = new ArrayList<Pair<StandardEvent<EventArgs>, EventArgs>>(eventCount - 1);
+        
+        for(int i = 1; i < eventCount; i++)
+            otherEvents.add(new Pair<StandardEvent<EventArgs>, EventArgs>(events.get(i), new StandardEventArgs()));
+        
+        events.get(0).raiseAlongside(this, args, false, otherEvents);
+        events.get(0).raisePostEventAlongside(this, args, otherEvents);
+        return listenerCalls;
+    }
+}
@@ -0,0 +1,111 @@
+package com.enkigaming.lib.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures raising a StandardEvent pre- and post-event with differing numbers and kinds of listeners.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RaiseBenchmark
+{
+    /**
+     * Listener that does the least possible work while not being optimised away.
+     */
+    public static class CountingListener implements EventListener<EventArgs>
+    {
+        public CountingListener(RaiseBenchmark benchmark)
+        { this.benchmark = benchmark; }
+        
+        final RaiseBenchmark benchmark;
+        
+        @Override
+        public void onEvent(Object sender, EventArgs args)
+        { benchmark.listenerCalls++; }
+    }
+    
+    /**
+     * CountingListener, weakly registered.
+     */
+    public static class WeakCountingListener extends CountingListener
+    {
+        public WeakCountingListener(RaiseBenchmark benchmark)
+        { super(benchmark); }
+        
+        @WeakListener
+        @Override
+        public void onEvent(Object sender, EventArgs args)
+        { benchmark.listenerCalls++; }
+    }
+    
+    /**
+     * The number of listeners registered to the event.
+     */
+    @Param({"1", "10", "100", "1000"})
+    public int listenerCount;
+    
+    /**
+     * Whether listeners are spread across all priorities, or all registered at the normal priority.
+     */
+    @Param({"false", "true"})
+    public boolean mixedPriorities;
+    
+    /**
+     * Whether listeners are weakly registered.
+     */
+    @Param({"false", "true"})
+    public boolean weakListeners;
+    
+    StandardEvent<EventArgs> event;
+    
+    /**
+     * Holds onto the listeners, so that weakly registered ones aren't collected mid-benchmark.
+     */
+    List<EventListener<EventArgs>> listeners;
+    
+    int listenerCalls = 0;
+    
+    @Setup
+    public void setUp()
+    {
+        event = new StandardEvent<EventArgs>();
+        listeners = new ArrayList<EventListener<EventArgs>>();
+        ListenerPriority[] priorities = ListenerPriority.values();
+        
+        for(int i = 0; i < listenerCount; i++)
+        {
+            EventListener<EventArgs> listener = weakListeners ? new WeakCountingListener(this)
+                                                              : new CountingListener(this);
+            
+            listeners.add(listener);
+            event.register(listener, mixedPriorities ? priorities[i % priorities.length] : ListenerPriority.Normal);
+        }
+    }
+    
+    @Benchmark
+    public int raiseAndRaisePostEvent()
+    {
+        EventArgs args = new StandardEventArgs();
+        event.raise(this, args);
+        event.raisePostEvent(this, args);
+        return listenerCalls;
+    }
+}
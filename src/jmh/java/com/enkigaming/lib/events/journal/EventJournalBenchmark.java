@@ -0,0 +1,117 @@
+package com.enkigaming.lib.events.journal;
+
+import com.enkigaming.lib.events.Event;
+import com.enkigaming.lib.events.EventListener;
+import com.enkigaming.lib.events.StandardEvent;
+import com.enkigaming.lib.events.StandardEventArgs;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures raising an event with and without recording it to a journal, and replaying a recorded journal.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventJournalBenchmark
+{
+    public static class NumberArgs extends StandardEventArgs
+    {
+        public NumberArgs(long number)
+        { this.number = number; }
+        
+        final long number;
+    }
+    
+    static final ArgsCodec<NumberArgs> codec = new ArgsCodec<NumberArgs>()
+    {
+        @Override
+        public void encode(NumberArgs args, ByteBuffer buffer)
+        { buffer.putLong(args.number); }
+        
+        @Override
+        public NumberArgs decode(ByteBuffer buffer)
+        { return new NumberArgs(buffer.getLong()); }
+    };
+    
+    EventJournal journal;
+    StandardEvent<NumberArgs> plain;
+    Event<NumberArgs> journalling;
+    JournalReplayer replayer;
+    List<JournalEntry> recorded;
+    
+    long total = 0;
+    
+    @Setup
+    public void setUp() throws IOException
+    {
+        File file = File.createTempFile("journal", ".bin");
+        file.deleteOnExit();
+        
+        journal = new EventJournal(file, 1 << 20);
+        plain = new StandardEvent<NumberArgs>();
+        journalling = new JournallingEvent<NumberArgs>(plain, journal, 1, codec);
+        
+        plain.register(new EventListener<NumberArgs>()
+        {
+            @Override
+            public void onEvent(Object sender, NumberArgs args)
+            { total += args.number; }
+        });
+        
+        for(int i = 0; i < 1000; i++)
+            raise(journalling, i);
+        
+        recorded = journal.getEntries();
+        replayer = new JournalReplayer();
+        replayer.register(1, plain, codec);
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException
+    { journal.close(); }
+    
+    long raise(Event<NumberArgs> event, long number)
+    {
+        NumberArgs args = new NumberArgs(number);
+        event.raise(this, args);
+        event.raisePostEvent(this, args);
+        return total;
+    }
+    
+    @Benchmark
+    public long raiseWithoutJournal()
+    { return raise(plain, 1); }
+    
+    @Benchmark
+    public long raiseWithJournal()
+    { return raise(journalling, 1); }
+    
+    /**
+     * Replays 1000 recorded raises.
+     */
+    @Benchmark
+    public long replay()
+    {
+        replayer.replay(recorded);
+        return total;
+    }
+}
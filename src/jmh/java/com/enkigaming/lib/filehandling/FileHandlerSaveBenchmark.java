@@ -0,0 +1,141 @@
+package com.enkigaming.lib.filehandling;
+
+import com.enkigaming.lib.filehandling.CSVFileHandler.CSVRowMember;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures saving and loading a CSV file of a million rows, in the same shape as the username cache, with saves
+ * written atomically through a temporary file and written directly to the file. Run via main, with the jmh sources
+ * compiled against jmh-core and jmh-generator-annprocess; any arguments are passed on to JMH as command-line options.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FileHandlerSaveBenchmark
+{
+    @Param({"1000000"})
+    int rowCount;
+    
+    @Param({"true", "false"})
+    boolean atomic;
+    
+    String[] ids;
+    String[] names;
+    File file;
+    CSVFileHandler handler;
+    long rowsLoaded = 0;
+    
+    @Setup
+    public void setUp() throws IOException
+    {
+        ids = new String[rowCount];
+        names = new String[rowCount];
+        
+        for(int i = 0; i < rowCount; i++)
+        {
+            ids[i] = UUID.randomUUID().toString();
+            names[i] = "Player" + i;
+        }
+        
+        file = File.createTempFile("benchmark", ".csv");
+        file.deleteOnExit();
+        
+        handler = new CSVFileHandler("Benchmark", file)
+        {
+            @Override
+            protected void onNoFileToInterpret()
+            { /* Nothin' here */ }
+            
+            @Override
+            protected List<String> getColumnNames()
+            { return Arrays.asList("Player ID", "Last recorded username"); }
+            
+            @Override
+            protected void preInterpretation()
+            { /* Nothin' here */ }
+            
+            @Override
+            protected boolean interpretRow(List<String> row)
+            {
+                rowsLoaded++;
+                return row.size() == 2;
+            }
+            
+            @Override
+            protected void postInterpretation()
+            { /* Nothin' here */ }
+            
+            @Override
+            protected void preSave()
+            { /* Nothin' here */ }
+            
+            @Override
+            protected List<CSVRowMember> getRow(int rowNumber)
+            {
+                if(rowNumber >= rowCount)
+                    return null;
+                
+                return Arrays.asList(new CSVRowMember(ids[rowNumber], false),
+                                     new CSVRowMember(names[rowNumber], true));
+            }
+            
+            @Override
+            protected void postSave()
+            { /* Nothin' here */ }
+        };
+        
+        handler.setSavesAtomically(atomic);
+        handler.save();
+    }
+    
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException
+    {
+        new Runner(new OptionsBuilder().parent(new CommandLineOptions(args))
+                                       .include(FileHandlerSaveBenchmark.class.getName())
+                                       .build()).run();
+    }
+    
+    @TearDown
+    public void tearDown()
+    { file.delete(); }
+    
+    @Benchmark
+    public long save()
+    {
+        handler.save();
+        return file.length();
+    }
+    
+    @Benchmark
+    public long load()
+    {
+        handler.load();
+        return rowsLoaded;
+    }
+}
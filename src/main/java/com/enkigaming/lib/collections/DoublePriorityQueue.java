@@ -0,0 +1,353 @@
+package com.enkigaming.lib.collections;
+
+import com.enkigaming.lib.exceptions.NullArgumentException;
+import com.enkigaming.lib.tuples.Triplet;
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A queue of pairs of values ordered by a double priority, lowest first, where values with the same priority are kept
+ * in the order they were added. Priorities are held as primitive doubles, and both values in parallel arrays, so that
+ * values may be added and drawn from the queue without boxing or wrapping them via the peekPriority, peekFirst,
+ * peekThird, and skip methods. The queue is sorted at most once between additions, and drawing from it only advances
+ * a cursor.
+ *
+ * As a Queue, members are presented as triplets of the first value, the priority, and the third value. Not
+ * thread-safe.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ * @param <TFirst> The type of the first value of each member.
+ * @param <TThird> The type of the third value of each member, the second being the priority.
+ */
+public class DoublePriorityQueue<TFirst, TThird> extends AbstractQueue<Triplet<TFirst, Double, TThird>>
+{
+    //<editor-fold defaultstate="collapsed" desc="Constructors">
+    /**
+     * Constructor. Generates the queue with no values.
+     */
+    public DoublePriorityQueue()
+    { this(8); }
+    
+    /**
+     * Constructor. Generates the queue with no values, with room for the passed number of values before it needs to
+     * grow.
+     * @param initialCapacity The number of values to make room for.
+     */
+    public DoublePriorityQueue(int initialCapacity)
+    {
+        if(initialCapacity < 1)
+            initialCapacity = 1;
+        
+        firsts     = new Object[initialCapacity];
+        priorities = new double[initialCapacity];
+        thirds     = new Object[initialCapacity];
+    }
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Fields">
+    /**
+     * The first values of the members. Those before head have already been drawn from the queue.
+     */
+    Object[] firsts;
+    
+    /**
+     * The priorities of the members, at the same positions as their values.
+     */
+    double[] priorities;
+    
+    /**
+     * The third values of the members, at the same positions as their first values.
+     */
+    Object[] thirds;
+    
+    /**
+     * The position of the next member in the queue.
+     */
+    int head = 0;
+    
+    /**
+     * The position after the last member in the queue.
+     */
+    int tail = 0;
+    
+    /**
+     * Whether or not the members from head to tail are currently in order of priority.
+     */
+    boolean sorted = true;
+    
+    /**
+     * The next member wrapped as a triplet, where it has been peeked at as one and hasn't since changed. Kept so that
+     * repeated peeks return the same object, as CombinedQueue relies on.
+     */
+    Triplet<TFirst, Double, TThird> headTriplet = null;
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Methods">
+    //<editor-fold defaultstate="collapsed" desc="Next value getters/poppers">
+    /**
+     * Ensures the queue is non-empty and in order, ready to read the next member.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    void prepareHead()
+    {
+        if(head >= tail)
+            throw new NoSuchElementException();
+        
+        if(!sorted)
+            sort();
+    }
+    
+    /**
+     * Gets the first value of the member at the passed position. Only values of TFirst are ever stored in firsts.
+     * @param index The position of the member.
+     * @return The first value of the member.
+     */
+    @SuppressWarnings("unchecked")
+    TFirst firstAt(int index)
+    { return (TFirst)firsts[index]; }
+    
+    /**
+     * Gets the third value of the member at the passed position. Only values of TThird are ever stored in thirds.
+     * @param index The position of the member.
+     * @return The third value of the member.
+     */
+    @SuppressWarnings("unchecked")
+    TThird thirdAt(int index)
+    { return (TThird)thirds[index]; }
+    
+    /**
+     * Gets the priority of the next member in the queue.
+     * @return The priority of the next member.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    public double peekPriority()
+    {
+        prepareHead();
+        return priorities[head];
+    }
+    
+    /**
+     * Gets the first value of the next member in the queue.
+     * @return The first value of the next member.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    public TFirst peekFirst()
+    {
+        prepareHead();
+        return firstAt(head);
+    }
+    
+    /**
+     * Gets the third value of the next member in the queue.
+     * @return The third value of the next member.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    public TThird peekThird()
+    {
+        prepareHead();
+        return thirdAt(head);
+    }
+    
+    /**
+     * Removes the next member from the queue, without returning it.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    public void skip()
+    {
+        prepareHead();
+        firsts[head] = null;
+        thirds[head] = null;
+        head++;
+        headTriplet = null;
+    }
+    
+    @Override
+    public Triplet<TFirst, Double, TThird> peek()
+    {
+        if(head >= tail)
+            return null;
+        
+        prepareHead();
+        
+        if(headTriplet == null)
+            headTriplet = new Triplet<TFirst, Double, TThird>(firstAt(head), priorities[head], thirdAt(head));
+        
+        return headTriplet;
+    }
+    
+    @Override
+    public Triplet<TFirst, Double, TThird> poll()
+    {
+        Triplet<TFirst, Double, TThird> next = peek();
+        
+        if(next != null)
+            skip();
+        
+        return next;
+    }
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Accessors">
+    @Override
+    public int size()
+    { return tail - head; }
+    
+    @Override
+    public boolean isEmpty()
+    { return tail <= head; }
+    
+    /**
+     * Gets an iterator over the members of the queue, in order. The iterator doesn't support removal, and becomes
+     * invalid if the queue is modified.
+     * @return A new iterator.
+     */
+    @Override
+    public Iterator<Triplet<TFirst, Double, TThird>> iterator()
+    {
+        if(!sorted && head < tail)
+            sort();
+        
+        return new Iterator<Triplet<TFirst, Double, TThird>>()
+        {
+            int position = head;
+            
+            @Override
+            public boolean hasNext()
+            { return position < tail; }
+            
+            @Override
+            public Triplet<TFirst, Double, TThird> next()
+            {
+                if(position >= tail)
+                    throw new NoSuchElementException();
+                
+                Triplet<TFirst, Double, TThird> next
+                    = new Triplet<TFirst, Double, TThird>(firstAt(position),
+                                                          priorities[position],
+                                                          thirdAt(position));
+                
+                position++;
+                return next;
+            }
+            
+            @Override
+            public void remove()
+            { throw new UnsupportedOperationException("Not supported."); }
+        };
+    }
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Mutators">
+    /**
+     * Adds a member to the queue, after any members already present with the same priority.
+     * @param first The first value of the member.
+     * @param priority The priority of the member.
+     * @param third The third value of the member.
+     */
+    public void add(TFirst first, double priority, TThird third)
+    {
+        if(tail == firsts.length)
+            makeRoom();
+        
+        if(tail > head && priority < priorities[tail - 1])
+        {
+            sorted = false;
+            headTriplet = null;
+        }
+        
+        firsts[tail]     = first;
+        priorities[tail] = priority;
+        thirds[tail]     = third;
+        tail++;
+    }
+    
+    @Override
+    public boolean offer(Triplet<TFirst, Double, TThird> e)
+    {
+        if(e == null)
+            throw new NullArgumentException("e");
+        
+        add(e.getFirst(), e.getSecond(), e.getThird());
+        return true;
+    }
+    
+    @Override
+    public void clear()
+    {
+        Arrays.fill(firsts, head, tail, null);
+        Arrays.fill(thirds, head, tail, null);
+        head = tail = 0;
+        sorted = true;
+        headTriplet = null;
+    }
+    
+    /**
+     * Makes room for at least one more member, by discarding drawn members or growing the arrays.
+     */
+    void makeRoom()
+    {
+        int size = tail - head;
+        int newLength = size * 2 < firsts.length ? firsts.length : firsts.length * 2;
+        
+        Object[] newFirsts = newLength == firsts.length ? firsts : new Object[newLength];
+        double[] newPriorities = newLength == firsts.length ? priorities : new double[newLength];
+        Object[] newThirds = newLength == firsts.length ? thirds : new Object[newLength];
+        
+        System.arraycopy(firsts,     head, newFirsts,     0, size);
+        System.arraycopy(priorities, head, newPriorities, 0, size);
+        System.arraycopy(thirds,     head, newThirds,     0, size);
+        
+        if(newFirsts == firsts)
+        {
+            Arrays.fill(firsts, size, tail, null);
+            Arrays.fill(thirds, size, tail, null);
+        }
+        
+        firsts     = newFirsts;
+        priorities = newPriorities;
+        thirds     = newThirds;
+        head = 0;
+        tail = size;
+    }
+    
+    /**
+     * Puts the members from head to tail in order of priority, keeping members with the same priority in the order
+     * they were added. Merge sort on the parallel arrays, as the order of equal members needs to be kept.
+     */
+    void sort()
+    {
+        int size = tail - head;
+        Object[] firstsBuffer = new Object[size];
+        double[] prioritiesBuffer = new double[size];
+        Object[] thirdsBuffer = new Object[size];
+        
+        for(int width = 1; width < size; width *= 2)
+        {
+            for(int start = 0; start < size; start += width * 2)
+            {
+                int middle = Math.min(start + width, size), end = Math.min(start + width * 2, size);
+                int left = start, right = middle, out = start;
+                
+                while(left < middle || right < end)
+                {
+                    int from = (right >= end || (left < middle && priorities[head + left] <= priorities[head + right]))
+                             ? left++ : right++;
+                    
+                    firstsBuffer[out]     = firsts[head + from];
+                    prioritiesBuffer[out] = priorities[head + from];
+                    thirdsBuffer[out]     = thirds[head + from];
+                    out++;
+                }
+            }
+            
+            System.arraycopy(firstsBuffer,     0, firsts,     head, size);
+            System.arraycopy(prioritiesBuffer, 0, priorities, head, size);
+            System.arraycopy(thirdsBuffer,     0, thirds,     head, size);
+        }
+        
+        sorted = true;
+    }
+    //</editor-fold>
+    //</editor-fold>
+}
@@ -0,0 +1,320 @@
+package com.enkigaming.lib.collections;
+
+import com.enkigaming.lib.encapsulatedfunctions.Transformer;
+import com.enkigaming.lib.exceptions.NullArgumentException;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+/**
+ * Queue that draws values from other contained queues, as CombinedQueue does, but which keeps a heap of the contained
+ * queues ordered by the comparables derived from their next values, so drawing a value only needs to reorder the queue
+ * it was drawn from rather than check every contained queue.
+ *
+ * Snapshot contract: The contained queues must not be modified other than through this queue while it's in use, and
+ * the values in them must not be changed in ways that change the comparables derived from them. In exchange, it
+ * doesn't lock on or copy the contained queues. Where that can't be guaranteed, use CombinedQueue.
+ *
+ * Where the next values of multiple queues have equal comparables, the value is drawn from the queue passed in first.
+ * null comparables come last. Not thread-safe.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ * @param <T> The type of object to be drawn from the queue.
+ */
+public class SnapshotCombinedQueue<T> extends AbstractQueue<T>
+{
+    //<editor-fold defaultstate="collapsed" desc="Constructors">
+    /**
+     * Constructor. Generates with next-value-getting lambda object and queues to draw from.
+     * @param keyGetter The lambda object used for grabbing the comparable used for determining the next value.
+     * Determines the next value from the next items in each of the held queues.
+     * @param queues The queues from which to draw values.
+     */
+    @SuppressWarnings("unchecked")
+    public SnapshotCombinedQueue(Transformer<T, ? extends Comparable<?>> keyGetter, Queue<? extends T>... queues)
+    { this(keyGetter, Arrays.asList(queues)); }
+    
+    /**
+     * Constructor. Generates with next-value-getting lambda object and queues to draw from.
+     * @param keyGetter The lambda object used for grabbing the comparable used for determining the next value.
+     * Determines the next value from the next items in each of the held queues.
+     * @param queues The queues from which to draw values, in the order they should be drawn from where their next
+     * values are equal.
+     */
+    public SnapshotCombinedQueue(Transformer<T, ? extends Comparable<?>> keyGetter,
+                                 Collection<? extends Queue<? extends T>> queues)
+    {
+        if(keyGetter == null)
+            throw new NullArgumentException("keyGetter");
+        
+        if(queues == null)
+            throw new NullArgumentException("queues");
+        
+        this.keyGetter = keyGetter;
+        this.memberQueues = newQueueArray(queues.size());
+        this.keys = new Comparable<?>[queues.size()];
+        this.heap = new int[queues.size()];
+        
+        int i = 0;
+        
+        for(Queue<? extends T> queue : queues)
+        {
+            if(queue == null)
+                throw new NullArgumentException("Member of queues");
+            
+            memberQueues[i] = queue;
+            
+            if(!queue.isEmpty())
+            {
+                keys[i] = getKeyOf(queue);
+                heap[heapSize++] = i;
+            }
+            
+            i++;
+        }
+        
+        for(int j = heapSize / 2 - 1; j >= 0; j--)
+            siftDown(j);
+    }
+    
+    /**
+     * Constructor. Generates with next-value-getting lambda object and queues to draw from.
+     * @param queues The queues from which to draw values, in the order they should be drawn from where their next
+     * values are equal.
+     * @param keyGetter The lambda object used for grabbing the comparable used for determining the next value.
+     * Determines the next value from the next items in each of the held queues.
+     */
+    public SnapshotCombinedQueue(Collection<? extends Queue<? extends T>> queues,
+                                 Transformer<T, ? extends Comparable<?>> keyGetter)
+    { this(keyGetter, queues); }
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Fields">
+    /**
+     * The queues getting values drawn from, in the order they were passed in.
+     */
+    final Queue<? extends T>[] memberQueues;
+    
+    /**
+     * The lambda object that derives the comparable used for determining the next value from the values held in the
+     * queues.
+     */
+    final Transformer<T, ? extends Comparable<?>> keyGetter;
+    
+    /**
+     * The comparables derived from the next values of each of the member queues, at the same positions.
+     */
+    final Comparable<?>[] keys;
+    
+    /**
+     * Binary min-heap of the positions of non-empty member queues, ordered by their keys.
+     */
+    final int[] heap;
+    
+    /**
+     * The number of positions in the heap.
+     */
+    int heapSize = 0;
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Methods">
+    //<editor-fold defaultstate="collapsed" desc="Heap">
+    /**
+     * Gets the comparable derived from the next value of the passed queue.
+     * @param queue The queue to get the key of. Must not be empty.
+     * @return The comparable derived from the queue's next value, or null if the next value is null.
+     */
+    Comparable<?> getKeyOf(Queue<? extends T> queue)
+    {
+        T next = queue.peek();
+        return next == null ? null : keyGetter.get(next);
+    }
+    
+    /**
+     * Compares two keys. Keys are all derived by the same key getter, so are assumed to be comparable to eachother.
+     * @param first One key.
+     * @param second Another key.
+     * @return The result of comparing the first key to the second.
+     */
+    @SuppressWarnings("unchecked")
+    static int compare(Comparable<?> first, Comparable<?> second)
+    { return ((Comparable<Object>)first).compareTo(second); }
+    
+    /**
+     * Creates an array of queues of the passed type. Arrays of parameterised types can't be created directly, but an
+     * empty array of queues of anything can safely be filled with only these.
+     * @param <TValue> The type of the values in the queues.
+     * @param length The length of the array.
+     * @return A new array of the passed length, filled with nulls.
+     */
+    @SuppressWarnings("unchecked")
+    static <TValue> Queue<? extends TValue>[] newQueueArray(int length)
+    { return (Queue<? extends TValue>[])new Queue<?>[length]; }
+    
+    /**
+     * Gets whether the member queue at one position should be drawn from before the member queue at another.
+     * @param first The position of one member queue.
+     * @param second The position of another member queue.
+     * @return True if the first member queue comes first, otherwise false.
+     */
+    boolean comesBefore(int first, int second)
+    {
+        Comparable<?> firstKey = keys[first], secondKey = keys[second];
+        
+        if(firstKey == null || secondKey == null)
+        {
+            if(firstKey != secondKey)
+                return secondKey == null;
+        }
+        else
+        {
+            int comparison = compare(firstKey, secondKey);
+            
+            if(comparison != 0)
+                return comparison < 0;
+        }
+        
+        return first < second;
+    }
+    
+    /**
+     * Moves the member queue at the passed position in the heap down the heap until it's in order.
+     * @param position The position in the heap to move down from.
+     */
+    void siftDown(int position)
+    {
+        int queueIndex = heap[position];
+        
+        for(;;)
+        {
+            int child = position * 2 + 1;
+            
+            if(child >= heapSize)
+                break;
+            
+            if(child + 1 < heapSize && comesBefore(heap[child + 1], heap[child]))
+                child++;
+            
+            if(!comesBefore(heap[child], queueIndex))
+                break;
+            
+            heap[position] = heap[child];
+            position = child;
+        }
+        
+        heap[position] = queueIndex;
+    }
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Next value getters/poppers">
+    @Override
+    public T peek()
+    { return heapSize == 0 ? null : memberQueues[heap[0]].peek(); }
+    
+    @Override
+    public T poll()
+    {
+        if(heapSize == 0)
+            return null;
+        
+        return remove();
+    }
+    
+    @Override
+    public T remove()
+    {
+        if(heapSize == 0)
+            throw new NoSuchElementException();
+        
+        int queueIndex = heap[0];
+        Queue<? extends T> queue = memberQueues[queueIndex];
+        T next = queue.remove();
+        
+        if(queue.isEmpty())
+        {
+            keys[queueIndex] = null;
+            heap[0] = heap[--heapSize];
+        }
+        else
+            keys[queueIndex] = getKeyOf(queue);
+        
+        if(heapSize > 0)
+            siftDown(0);
+        
+        return next;
+    }
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Accessors">
+    /**
+     * Gets the queues from which the combined queue draws values.
+     * @return A collection of the contained queues. Modifying the collection will not modify the the contents of this
+     * queue.
+     */
+    public Collection<Queue<? extends T>> getQueues()
+    { return new ArrayList<Queue<? extends T>>(Arrays.asList(memberQueues)); }
+    
+    /**
+     * Gets the combined size of all queues referenced by this combined queue.
+     * @return The combined size of all referenced queues.
+     */
+    @Override
+    public int size()
+    {
+        int currentSize = 0;
+        
+        for(int i = 0; i < heapSize; i++)
+            currentSize += memberQueues[heap[i]].size();
+        
+        return currentSize;
+    }
+    
+    @Override
+    public boolean isEmpty()
+    { return heapSize == 0; }
+    
+    /**
+     * Gets an iterator over the values of all referenced queues, queue by queue rather than in the order they would be
+     * drawn. Doesn't support removal.
+     * @return A new iterator.
+     */
+    @Override
+    public Iterator<T> iterator()
+    {
+        Collection<T> values = new ArrayList<T>();
+        
+        for(Queue<? extends T> i : memberQueues)
+            values.addAll(i);
+        
+        final Iterator<T> valuesIterator = values.iterator();
+        
+        return new Iterator<T>()
+        {
+            @Override
+            public boolean hasNext()
+            { return valuesIterator.hasNext(); }
+            
+            @Override
+            public T next()
+            { return valuesIterator.next(); }
+            
+            @Override
+            public void remove()
+            { throw new UnsupportedOperationException("Not supported."); }
+        };
+    }
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Mutators">
+    @Override
+    public boolean offer(T e)
+    {
+        throw new UnsupportedOperationException("Combined queue does not contain members, it draws values from "
+                                              + "other queues.");
+    }
+    //</editor-fold>
+    //</editor-fold>
+}
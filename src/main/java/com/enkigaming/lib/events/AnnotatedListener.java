@@ -0,0 +1,438 @@
+package com.enkigaming.lib.events;
+
+import com.enkigaming.lib.exceptions.NullArgumentException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An event listener that calls a method marked with Listen on an object. The method is called via an invoker generated
+ * once per method, rather than via reflection, so that calling it costs about the same as calling a hand-written
+ * listener.
+ *
+ * Two annotated listeners are equal where they call the same method on the same object, so a listener for a method can
+ * be deregistered using another created for the same method and object.
+ *
+ * Where the method is marked with WeakListener, or the object's class has a method marked with it, the listener only
+ * weakly refers to the object and is registered weakly, so being subscribed doesn't stop the object from being garbage
+ * collected. The listeners for such methods are kept for as long as the object is, and are the same listener objects
+ * each time they're got for it.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ * @param <T> The type of the eventargs object the method takes.
+ */
+public final class AnnotatedListener<T extends EventArgs> implements EventListener<T>
+{
+    //<editor-fold defaultstate="collapsed" desc="Nested classes">
+    /**
+     * Calls a listener method on the object passed to it.
+     */
+    protected static interface Invoker
+    {
+        /**
+         * Calls the listener method.
+         * @param target The object to call the method on.
+         * @param sender The sender, passed as the method's first argument.
+         * @param args The event args, passed as the method's second argument.
+         */
+        void invoke(Object target, Object sender, EventArgs args);
+    }
+    
+    /**
+     * A method marked with Listen, along with everything needed to create listeners for it.
+     */
+    protected static final class ListenerMethod
+    {
+        ListenerMethod(Method method,
+                       Class<? extends EventArgs> argsType,
+                       double priority,
+                       Invoker invoker,
+                       boolean weak)
+        {
+            this.method     = method;
+            this.argsType   = argsType;
+            this.priority   = priority;
+            this.invoker    = invoker;
+            this.concurrent = method.isAnnotationPresent(ConcurrentListener.class);
+            this.weak       = weak;
+        }
+        
+        final Method method;
+        final Class<? extends EventArgs> argsType;
+        final double priority;
+        final Invoker invoker;
+        final boolean concurrent;
+        final boolean weak;
+    }
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Constructors">
+    /**
+     * Constructor.
+     * @param target The object to call the method on.
+     * @param listenerMethod The method to call.
+     */
+    AnnotatedListener(Object target, ListenerMethod listenerMethod)
+    {
+        this.target         = listenerMethod.weak ? null : target;
+        this.weakTarget     = listenerMethod.weak ? new WeakReference<Object>(target) : null;
+        this.targetHash     = System.identityHashCode(target);
+        this.listenerMethod = listenerMethod;
+    }
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Fields">
+    /**
+     * The object the method is called on, or null where the method is weakly listening.
+     */
+    final Object target;
+    
+    /**
+     * A weak reference to the object the method is called on, or null where the method isn't weakly listening.
+     */
+    final WeakReference<Object> weakTarget;
+    
+    /**
+     * The identity hash code of the object the method is called on, kept so it doesn't change once a weakly referred
+     * to object is collected.
+     */
+    final int targetHash;
+    
+    /**
+     * The method called, and its invoker.
+     */
+    final ListenerMethod listenerMethod;
+    
+    /**
+     * The methods marked with Listen of each class, including those inherited, found and given invokers once per
+     * class.
+     */
+    protected static final ClassValue<List<ListenerMethod>> listenerMethods = new ClassValue<List<ListenerMethod>>()
+    {
+        @Override
+        protected List<ListenerMethod> computeValue(Class<?> type)
+        { return findListenerMethods(type); }
+    };
+    
+    /**
+     * The listeners for the weakly listening methods of each object that has any, by weak keys of the objects, so that
+     * they're kept from being garbage collected for as long as the objects are, but no longer. Keyed the same way as
+     * RecordingEventMetrics keys its records, with null where a method isn't weakly listening.
+     */
+    protected static final ConcurrentMap<Object, AnnotatedListener<?>[]> weakListeners
+        = new ConcurrentHashMap<Object, AnnotatedListener<?>[]>();
+    
+    /**
+     * The queue the keys of objects in weakListeners are enqueued on once the objects have been garbage collected, so
+     * that their listeners can be discarded.
+     */
+    protected static final ReferenceQueue<Object> staleTargets = new ReferenceQueue<Object>();
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Methods">
+    //<editor-fold defaultstate="collapsed" desc="Static methods">
+    /**
+     * Creates listeners for all of the methods of the passed object marked with Listen, including inherited ones.
+     * @param target The object to create listeners for.
+     * @return The listeners for the object's methods. Empty if it has none marked with Listen.
+     */
+    public static List<AnnotatedListener<?>> getListenersOf(Object target)
+    {
+        if(target == null)
+            throw new NullArgumentException("target");
+        
+        List<ListenerMethod> methods = listenerMethods.get(target.getClass());
+        List<AnnotatedListener<?>> listeners = new ArrayList<AnnotatedListener<?>>(methods.size());
+        AnnotatedListener<?>[] weak = getWeakListenersOf(target, methods);
+        
+        for(int i = 0; i < methods.size(); i++)
+            listeners.add(weak != null && weak[i] != null ? weak[i] : new AnnotatedListener<EventArgs>(target,
+                                                                                                     methods.get(i)));
+        
+        return listeners;
+    }
+    
+    /**
+     * Gets the listeners for the weakly listening methods of the passed object, creating them where they haven't been
+     * created for it yet.
+     * @param target The object to get the listeners of.
+     * @param methods The listener methods of the object's class.
+     * @return The listeners, at the same positions as their methods, with null for methods that aren't weakly
+     * listening. null if none of the methods are.
+     */
+    static AnnotatedListener<?>[] getWeakListenersOf(Object target, List<ListenerMethod> methods)
+    {
+        AnnotatedListener<?>[] weak = null;
+        
+        for(int i = 0; i < methods.size(); i++)
+        {
+            if(!methods.get(i).weak)
+                continue;
+            
+            if(weak == null)
+            {
+                weak = weakListeners.get(new RecordingEventMetrics.LookupKey(target));
+                
+                if(weak != null)
+                    return weak;
+                
+                weak = new AnnotatedListener<?>[methods.size()];
+            }
+            
+            weak[i] = new AnnotatedListener<EventArgs>(target, methods.get(i));
+        }
+        
+        if(weak == null)
+            return null;
+        
+        for(Reference<?> i = staleTargets.poll(); i != null; i = staleTargets.poll())
+            weakListeners.remove(i);
+        
+        AnnotatedListener<?>[] existing
+            = weakListeners.putIfAbsent(new RecordingEventMetrics.WeakKey(target, staleTargets), weak);
+        
+        return existing != null ? existing : weak;
+    }
+    
+    /**
+     * Finds the methods marked with Listen declared in the passed class and its superclasses, and gives each an
+     * invoker.
+     * @param type The class to search.
+     * @return The listener methods found.
+     * @throws IllegalArgumentException If a method marked with Listen doesn't have the form of a listener method.
+     */
+    protected static List<ListenerMethod> findListenerMethods(Class<?> type)
+    {
+        List<ListenerMethod> found = new ArrayList<ListenerMethod>();
+        boolean weakType = StandardEvent.weakListenerClasses.get(type);
+        Set<String> overridden = new HashSet<String>(); // Signatures of methods already found further down.
+        
+        for(Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass())
+        {
+            for(Method method : current.getDeclaredMethods())
+            {
+                String signature = method.getName() + Arrays.toString(method.getParameterTypes());
+                
+                if(!Modifier.isPrivate(method.getModifiers()) && !overridden.add(signature))
+                    continue;
+                
+                Listen annotation = method.getAnnotation(Listen.class);
+                
+                if(annotation == null)
+                    continue;
+                
+                Class<?>[] parameterTypes = method.getParameterTypes();
+                
+                if(Modifier.isStatic(method.getModifiers())
+                || method.getReturnType() != void.class
+                || parameterTypes.length != 2
+                || parameterTypes[0] != Object.class
+                || !EventArgs.class.isAssignableFrom(parameterTypes[1]))
+                {
+                    throw new IllegalArgumentException("Methods marked with Listen should be non-static, return void, "
+                                                       + "and take an Object and an EventArgs. " + method
+                                                       + " doesn't.");
+                }
+                
+                found.add(new ListenerMethod(method,
+                                             parameterTypes[1].asSubclass(EventArgs.class),
+                                             annotation.priority().getNumericalValue(),
+                                             makeInvoker(method),
+                                             weakType || method.isAnnotationPresent(WeakListener.class)));
+            }
+        }
+        
+        return Collections.unmodifiableList(found);
+    }
+    
+    /**
+     * Creates an invoker for the passed method. Where possible, generates a class implementing Invoker that calls the
+     * method directly, via LambdaMetafactory. Where the method isn't accessible to do so, or LambdaMetafactory isn't
+     * available, falls back to calling a method handle of the method.
+     * @param method The method to create an invoker for.
+     * @return The invoker.
+     */
+    protected static Invoker makeInvoker(Method method)
+    {
+        if(isPubliclyAccessible(method))
+        {
+            try
+            { return generateInvoker(method); }
+            catch(Throwable e)
+            { /* Fall back to calling a method handle. */ }
+        }
+        
+        return makeMethodHandleInvoker(method);
+    }
+    
+    /**
+     * Gets whether or not the passed method, and the classes it's nested in, are public, such that a generated class
+     * outside of them could call it directly.
+     * @param method The method to check.
+     * @return True if the method and its declaring classes are public, otherwise false.
+     */
+    static boolean isPubliclyAccessible(Method method)
+    {
+        if(!Modifier.isPublic(method.getModifiers()))
+            return false;
+        
+        for(Class<?> i = method.getDeclaringClass(); i != null; i = i.getEnclosingClass())
+            if(!Modifier.isPublic(i.getModifiers()))
+                return false;
+        
+        return true;
+    }
+    
+    /**
+     * Generates a class implementing Invoker that calls the passed method directly.
+     * @param method The method to call. Should be public, in a public class.
+     * @return The generated invoker.
+     * @throws Throwable If the invoker couldn't be generated.
+     */
+    static Invoker generateInvoker(Method method) throws Throwable
+    {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        
+        CallSite site = LambdaMetafactory.metafactory(
+                lookup,
+                "invoke",
+                MethodType.methodType(Invoker.class),
+                MethodType.methodType(void.class, Object.class, Object.class, EventArgs.class),
+                lookup.unreflect(method),
+                MethodType.methodType(void.class,
+                                      method.getDeclaringClass(),
+                                      Object.class,
+                                      method.getParameterTypes()[1]));
+        
+        return (Invoker)site.getTarget().invoke();
+    }
+    
+    /**
+     * Creates an invoker that calls the passed method via a method handle, for where it can't be called by a generated
+     * class.
+     * @param method The method to call.
+     * @return The invoker.
+     */
+    static Invoker makeMethodHandleInvoker(Method method)
+    {
+        final MethodHandle handle;
+        
+        try
+        {
+            method.setAccessible(true);
+            handle = MethodHandles.lookup().unreflect(method)
+                                  .asType(MethodType.methodType(void.class,
+                                                                Object.class,
+                                                                Object.class,
+                                                                EventArgs.class));
+        }
+        catch(IllegalAccessException e)
+        { throw new IllegalArgumentException("Couldn't access " + method + ".", e); }
+        
+        return new Invoker()
+        {
+            @Override
+            public void invoke(Object target, Object sender, EventArgs args)
+            {
+                try
+                { handle.invokeExact(target, sender, args); }
+                catch(RuntimeException e)
+                { throw e; }
+                catch(Error e)
+                { throw e; }
+                catch(Throwable e)
+                { throw new RuntimeException(e); }
+            }
+        };
+    }
+    //</editor-fold>
+    
+    /**
+     * Gets the object the method is called on.
+     * @return The target object, or null if it was weakly referred to and has since been garbage collected.
+     */
+    public Object getTarget()
+    { return weakTarget == null ? target : weakTarget.get(); }
+    
+    /**
+     * Gets the method called.
+     * @return The method marked with Listen.
+     */
+    public Method getMethod()
+    { return listenerMethod.method; }
+    
+    /**
+     * Gets the type of event args the method takes.
+     * @return The class of the method's second parameter.
+     */
+    @SuppressWarnings("unchecked")
+    public Class<T> getArgsType()
+    { return (Class<T>)listenerMethod.argsType; }
+    
+    /**
+     * Gets the priority the method is marked as being subscribed at.
+     * @return The numerical value of the method's priority.
+     */
+    public double getPriority()
+    { return listenerMethod.priority; }
+    
+    /**
+     * Gets whether or not the method is marked with ConcurrentListener.
+     * @return True if the method may be called at the same time as other concurrent listeners, otherwise false.
+     */
+    public boolean isConcurrent()
+    { return listenerMethod.concurrent; }
+    
+    /**
+     * Gets whether or not the method or its object's class is marked with WeakListener.
+     * @return True if this only weakly refers to the object the method is called on and should be registered weakly,
+     * otherwise false.
+     */
+    public boolean isWeak()
+    { return listenerMethod.weak; }
+    
+    @Override
+    public void onEvent(Object sender, T args)
+    {
+        Object current = getTarget();
+        
+        if(current != null) // Otherwise, weakly referred to and since garbage collected.
+            listenerMethod.invoker.invoke(current, sender, args);
+    }
+    
+    @Override
+    public boolean equals(Object obj)
+    {
+        if(obj == this)
+            return true;
+        
+        if(!(obj instanceof AnnotatedListener))
+            return false;
+        
+        AnnotatedListener<?> other = (AnnotatedListener<?>)obj;
+        Object current = getTarget();
+        
+        return current != null
+            && other.getTarget() == current
+            && other.listenerMethod.method.equals(listenerMethod.method);
+    }
+    
+    @Override
+    public int hashCode()
+    { return targetHash * 31 + listenerMethod.method.hashCode(); }
+    //</editor-fold>
+}
@@ -0,0 +1,26 @@
+package com.enkigaming.lib.events;
+
+/**
+ * What a QueuedEvent does with a raise when its queue is full.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+public enum BackPressurePolicy
+{
+    /**
+     * The raising thread waits until the consumer thread has drained enough of the queue for the raise to fit. Raises
+     * from the consumer thread, or made before the queue has a consumer thread, are dropped instead.
+     */
+    Block,
+    
+    /**
+     * The oldest raise still in the queue is dropped to make room, without its listeners ever being called.
+     */
+    DropOldest,
+    
+    /**
+     * Raises with the same key as a raise still in the queue replace that raise's sender and args, keeping its place in
+     * the queue, whether or not the queue is full. Where the queue is full and no raise in it has the same key, the
+     * raising thread waits as with Block.
+     */
+    Coalesce
+}
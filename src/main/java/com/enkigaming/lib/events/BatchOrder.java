@@ -0,0 +1,20 @@
+package com.enkigaming.lib.events;
+
+/**
+ * The order in which listeners are called when raising an event with a batch of event args objects.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+public enum BatchOrder
+{
+    /**
+     * Each event args object is passed to all of the listeners before the next event args object is passed to any,
+     * as though the event had been raised separately with each.
+     */
+    ArgsMajor,
+    
+    /**
+     * Each listener is passed all of the event args objects before the next listener is passed any, so that each
+     * listener is called for the whole batch at once.
+     */
+    ListenerMajor
+}
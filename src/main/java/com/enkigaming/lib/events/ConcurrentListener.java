@@ -0,0 +1,24 @@
+package com.enkigaming.lib.events;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the listener as independent of other listeners, such that it may be called at the same time as other listeners
+ * marked with this of the same priority, on other threads. Only honoured for listeners registered at Monitor priority
+ * or later, but before Post, as the args passed to those can't be modified. The next priority's listeners aren't
+ * called until all of the listeners called at the same time have returned.
+ * 
+ * This annotation should be applied to the onEvent(Object, T) method, or to a method marked with Listen. Listeners
+ * marked with this should be safe to call from any thread, and shouldn't rely on being called before or after any
+ * other listener of the same priority.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ConcurrentListener
+{
+    /* Nothin' here */
+}
@@ -3,7 +3,10 @@ package com.enkigaming.lib.events;
 import com.enkigaming.lib.encapsulatedfunctions.Converger;
 import com.enkigaming.lib.tuples.Pair;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 /**
  * The observer pattern encapsulated into a class, designed to behave similarly to C#'s style of events while adding
@@ -129,6 +132,87 @@ public interface Event<T extends EventArgs>
      */
     public void raisePostEvent(Object sender, T args);
     
+    /**
+     * Calls the onEvent methods on all event listeners registered to this event with a priority of less than the
+     * monitor priority, then hands those with a priority of or greater than the monitor priority but less than the
+     * post-event priority off to the passed executor, returning once they've been handed off.
+     *
+     * As monitor listeners can't modify the event args, cancellation is still decided before this returns. The parts of
+     * asynchronous raises of the same event handed off to executors are run one at a time, in the order they were
+     * raised. Where a part is handed off while an earlier part is still waiting or running, it may be run on the
+     * executor the earlier part was handed off to, rather than the passed executor.
+     *
+     * Implementations whose listeners may only be called on a particular thread, such as ThreadConfinedEvent, may
+     * instead call the monitor listeners on the calling thread before returning, without using the passed executor,
+     * returning a future that's already done.
+     *
+     * For implementations: Marks the event args used as using pre-event before doing anything with it, and used
+     * pre-event on the calling thread once the monitor listeners have been handed off. The post-event raise should be
+     * done with raisePostEventAsync, or after the returned future is done, so that the post-event listeners are called
+     * after the monitor listeners.
+     * @param sender The object in which the event was raised.
+     * @param args The object encapsulating relevant properties of the event raise.
+     * @param executor The executor on which to call the monitor listeners.
+     * @return A future that's done once the monitor listeners have been called, throwing anything thrown by them.
+     */
+    public Future<?> raiseAsync(Object sender, T args, Executor executor);
+    
+    /**
+     * Hands off calling the onEvent methods on all event listeners registered to this event with a priority of or
+     * greater than the post-event priority to the passed executor. They're called after the parts of any previous
+     * asynchronous raises of this event handed off to executors, including the monitor listeners of the raiseAsync
+     * call the passed args were used in.
+     *
+     * As with raiseAsync, implementations whose listeners may only be called on a particular thread may instead call
+     * them on the calling thread before returning.
+     * @param sender The object in which the event was raised.
+     * @param args The object encapsulating relevant properties of the event raise.
+     * @param executor The executor on which to call the post-event listeners.
+     * @return A future that's done once the post-event listeners have been called, throwing anything thrown by them or
+     * by marking the args as being used post-event.
+     */
+    public Future<?> raisePostEventAsync(Object sender, T args, Executor executor);
+    
+    //<editor-fold defaultstate="collapsed" desc="Raise Batch">
+    /**
+     * Raises this event with each of the passed event args objects, as though raise had been called with each in turn,
+     * working out which listeners and dependent events to call only once for the whole batch.
+     * @param sender The object in which the event was raised.
+     * @param args The objects encapsulating relevant properties of each event raise.
+     */
+    public void raiseBatch(Object sender, List<? extends T> args);
+    
+    /**
+     * Raises this event with each of the passed event args objects, working out which listeners and dependent events to
+     * call only once for the whole batch.
+     *
+     * For implementations: The same listeners and dependent events should be called for every event args object in
+     * the batch, regardless of any registered or deregistered while it's being raised.
+     * @param sender The object in which the event was raised.
+     * @param args The objects encapsulating relevant properties of each event raise.
+     * @param order Whether to pass each event args object to all listeners in turn, or each listener all of the event
+     * args objects in turn.
+     */
+    public void raiseBatch(Object sender, List<? extends T> args, BatchOrder order);
+    
+    /**
+     * Raises this event post-event with each of the passed event args objects, as though raisePostEvent had been called
+     * with each in turn.
+     * @param sender The object in which the event was raised.
+     * @param args The objects encapsulating relevant properties of each event raise.
+     */
+    public void raisePostEventBatch(Object sender, List<? extends T> args);
+    
+    /**
+     * Raises this event post-event with each of the passed event args objects.
+     * @param sender The object in which the event was raised.
+     * @param args The objects encapsulating relevant properties of each event raise.
+     * @param order Whether to pass each event args object to all listeners in turn, or each listener all of the event
+     * args objects in turn.
+     */
+    public void raisePostEventBatch(Object sender, List<? extends T> args, BatchOrder order);
+    //</editor-fold>
+    
     //<editor-fold defaultstate="collapsed" desc="Raise Alongside">
     /**
      * Raises multiple other events while at the same time raising this one. All events are raised together, alongside
@@ -0,0 +1,95 @@
+package com.enkigaming.lib.events;
+
+import com.enkigaming.lib.exceptions.NullArgumentException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A pool of reusable event args objects, for frequently raised events where creating a new event args object for
+ * every raise would be wasteful. Event args are taken from the pool before raising an event, and given back once the
+ * post-event raise has finished, at which point they're reset and kept for the next raise.
+ *
+ * Listeners of events raised with pooled args shouldn't hold onto the args (or any args generated from them) after
+ * the raise has finished, as they'll be reset and passed to the next raise.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ * @param <T> The type of the event args pooled.
+ */
+public abstract class EventArgsPool<T extends ResettableEventArgs>
+{
+    /**
+     * Creates a new pool.
+     * @param maxIdle The maximum number of unused event args objects the pool keeps hold of. Event args given back
+     * when the pool already holds this many are discarded.
+     */
+    public EventArgsPool(int maxIdle)
+    {
+        if(maxIdle < 0)
+            throw new IllegalArgumentException("maxIdle can't be negative.");
+        
+        this.maxIdle = maxIdle;
+    }
+    
+    /**
+     * The maximum number of unused event args objects kept.
+     */
+    protected final int maxIdle;
+    
+    /**
+     * The unused event args objects, ready to be taken. All of these have been reset.
+     */
+    protected final Deque<T> idle = new ArrayDeque<T>();
+    
+    /**
+     * Creates a new event args object, for when there aren't any unused ones in the pool to be taken.
+     * @return A new event args object that hasn't been used in an event raise.
+     */
+    protected abstract T makeNew();
+    
+    /**
+     * Takes an unused event args object from the pool, or creates a new one if there aren't any.
+     * @return An event args object ready to be used in an event raise.
+     */
+    public T take()
+    {
+        T args;
+        
+        synchronized(idle)
+        { args = idle.pollLast(); }
+        
+        return args != null ? args : makeNew();
+    }
+    
+    /**
+     * Gives an event args object back to the pool, to be reused. The event args object is reset.
+     * @param args The event args object to give back.
+     * @return True if the pool kept the event args object, or false if the pool was already full and it was discarded.
+     * @throws com.enkigaming.lib.events.exceptions.EventArgsResetWhileInUseException If the event args object has been
+     * used in a pre-event raise, but not yet a post-event raise.
+     */
+    public boolean giveBack(T args)
+    {
+        if(args == null)
+            throw new NullArgumentException("args");
+        
+        args.reset();
+        
+        synchronized(idle)
+        {
+            if(idle.size() >= maxIdle)
+                return false;
+            
+            idle.addLast(args);
+            return true;
+        }
+    }
+    
+    /**
+     * Gets the number of unused event args objects currently held by the pool.
+     * @return The number of event args objects that can be taken without creating new ones.
+     */
+    public int getIdleCount()
+    {
+        synchronized(idle)
+        { return idle.size(); }
+    }
+}
@@ -0,0 +1,447 @@
+package com.enkigaming.lib.events;
+
+import com.enkigaming.lib.events.StandardEvent.DependencyClosure;
+import com.enkigaming.lib.events.StandardEvent.DispatchPlan;
+import com.enkigaming.lib.events.StandardEvent.MergedPlan;
+import com.enkigaming.lib.exceptions.NullArgumentException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A central collection of events, one per type of event args, that listeners can subscribe to by args type rather than
+ * by holding a reference to an event. Publishing an event args object calls the listeners subscribed to its class and
+ * to every supertype of it, so subscribing to, say, StandardEventArgs receives every published StandardEventArgs.
+ *
+ * The supertypes of each class of args published are worked out once, and the listeners subscribed to them are merged
+ * into a single dispatch plan that's only recompiled where subscriptions change, so publishing doesn't walk the class
+ * hierarchy or re-sort listeners.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+public class EventBus
+{
+    //<editor-fold defaultstate="collapsed" desc="Nested classes">
+    /**
+     * The merged plan of a route, along with what it was compiled from, so it can be checked for being out of date.
+     */
+    static final class CompiledRoute
+    {
+        CompiledRoute(int typesVersion,
+                      StandardEvent<?> event,
+                      StandardEvent<?>[] sources,
+                      DispatchPlan<?>[] sourcePlans,
+                      MergedPlan plan)
+        {
+            this.typesVersion = typesVersion;
+            this.event        = event;
+            this.sources      = sources;
+            this.sourcePlans  = sourcePlans;
+            this.plan         = plan;
+        }
+        
+        /**
+         * The version of the bus's collection of events this was compiled against.
+         */
+        final int typesVersion;
+        
+        /**
+         * The bus's event for the args class, which published args are raised as.
+         */
+        final StandardEvent<?> event;
+        
+        /**
+         * The events of the args class and its supertypes that existed when this was compiled.
+         */
+        final StandardEvent<?>[] sources;
+        
+        /**
+         * The dispatch plans of the source events when this was compiled, at the same positions.
+         */
+        final DispatchPlan<?>[] sourcePlans;
+        
+        /**
+         * The listeners and dependent events of all of the source events, cascadingly, merged into a single plan.
+         */
+        final MergedPlan plan;
+    }
+    
+    /**
+     * How args of a particular class are published. Rather than being an event itself, it holds the merged plans of
+     * the bus's events for the class and all of its supertypes, and raises the bus's event for the class with them, so
+     * published args' events are always the bus's events, which listeners and dependent events can be registered to.
+     */
+    protected class Route
+    {
+        /**
+         * Constructor.
+         * @param argsType The class of args published via this route.
+         */
+        Route(Class<? extends EventArgs> argsType)
+        {
+            this.argsType = argsType;
+            this.hierarchy = getEventArgsHierarchy(argsType);
+        }
+        
+        /**
+         * The class of args published via this route.
+         */
+        final Class<? extends EventArgs> argsType;
+        
+        /**
+         * The args class and its supertypes that are EventArgs types, most specific first.
+         */
+        final Class<?>[] hierarchy;
+        
+        /**
+         * The current merged plan, or null where it hasn't been compiled yet.
+         */
+        volatile CompiledRoute compiled = null;
+        
+        /**
+         * Gets the class of args published via this route.
+         * @return The args class.
+         */
+        public Class<? extends EventArgs> getArgsType()
+        { return argsType; }
+        
+        /**
+         * Gets the merged plan of the bus's events for the args class and its supertypes, recompiling it where it's
+         * out of date.
+         * @return The compiled plan.
+         */
+        CompiledRoute getCompiled()
+        {
+            CompiledRoute current = compiled;
+            
+            if(current == null || !isUpToDate(current))
+            {
+                current = compile();
+                compiled = current;
+            }
+            
+            return current;
+        }
+        
+        /**
+         * Checks whether a compiled plan still reflects the bus's subscriptions.
+         * @param current The compiled plan.
+         * @return True if no events have been added to the bus, none of the source events' plans have changed, and
+         * none of their dependants have had their registrations changed since it was compiled, otherwise false.
+         */
+        boolean isUpToDate(CompiledRoute current)
+        {
+            if(current.typesVersion != typesVersion.get())
+                return false;
+            
+            for(int i = 0; i < current.sources.length; i++)
+                if(current.sources[i].getDispatchPlan() != current.sourcePlans[i])
+                    return false;
+            
+            return current.plan.closure.isUpToDate() && current.plan.isUpToDate(current.plan.closure);
+        }
+        
+        /**
+         * Merges the current dispatch plans of the bus's events for the args class and its supertypes.
+         * @return The compiled plan.
+         */
+        CompiledRoute compile()
+        {
+            getEvent(argsType); // Created first, so that it's among the sources.
+            int version = typesVersion.get(); // Read first, so events added while compiling cause a recompile.
+            List<StandardEvent<?>> sources = new ArrayList<StandardEvent<?>>();
+            
+            for(Class<?> type : hierarchy)
+            {
+                StandardEvent<?> event = EventBus.this.events.get(type);
+                
+                if(event != null)
+                    sources.add(event);
+            }
+            
+            DispatchPlan<?>[] sourcePlans = new DispatchPlan<?>[sources.size()];
+            DispatchPlan.Builder<EventArgs> builder = new DispatchPlan<EventArgs>().toBuilder();
+            
+            // Added from least to most specific, so that where the same listener is subscribed to more than one of the
+            // types, it's called at the priority it was subscribed with to the most specific.
+            for(int i = sources.size() - 1; i >= 0; i--)
+            {
+                // Published args are always of the type of the events they're passed to, or a subtype of it.
+                @SuppressWarnings("unchecked")
+                DispatchPlan<EventArgs> plan = (DispatchPlan<EventArgs>)sources.get(i).getDispatchPlan();
+                sourcePlans[i] = plan;
+                
+                for(int j = 0; j < plan.getListenerCount(); j++)
+                {
+                    @SuppressWarnings("unchecked")
+                    EventListener<EventArgs> listener = (EventListener<EventArgs>)plan.getListener(j);
+                    
+                    if(listener != null)
+                        builder.addListener(listener, plan.priorities[j], plan.isWeakListener(j));
+                }
+                
+                for(int j = 0; j < plan.getDependentEventCount(); j++)
+                {
+                    Event<?> dependent = plan.getDependentEvent(j);
+                    
+                    if(dependent != null)
+                        builder.addDependentEvent(dependent, plan.argsGetters[j], plan.isWeakDependentEvent(j));
+                }
+            }
+            
+            StandardEvent<?> event = sources.get(0); // The event for the args class itself.
+            MergedPlan plan = new MergedPlan(new DependencyClosure(event, builder.build()));
+            return new CompiledRoute(version, event, sources.toArray(new StandardEvent<?>[0]), sourcePlans, plan);
+        }
+        
+        /**
+         * Raises the bus's event for the args class with the merged plan, up until the post-event priority.
+         * @param sender The object publishing the args.
+         * @param args The args to publish, of the args class.
+         */
+        void raise(Object sender, EventArgs args)
+        {
+            CompiledRoute current = getCompiled();
+            current.event.raise(current.plan, sender, args);
+        }
+        
+        /**
+         * Raises the bus's event for the args class post-event, calling the post-event listeners gathered when the
+         * args were raised pre-event.
+         * @param sender The object publishing the args.
+         * @param args The args to publish, of the args class.
+         */
+        void raisePostEvent(Object sender, EventArgs args)
+        {
+            // The args are of the class the event is for.
+            @SuppressWarnings("unchecked")
+            StandardEvent<EventArgs> event = (StandardEvent<EventArgs>)getEvent(argsType);
+            event.raisePostEvent(sender, args);
+        }
+    }
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Fields">
+    /**
+     * The events listeners are subscribed to, by the type of args they listen for.
+     */
+    protected final ConcurrentMap<Class<?>, StandardEvent<?>> events = new ConcurrentHashMap<Class<?>, StandardEvent<?>>();
+    
+    /**
+     * The routes args are published through, by the class of the args.
+     */
+    protected final ConcurrentMap<Class<?>, Route> routes = new ConcurrentHashMap<Class<?>, Route>();
+    
+    /**
+     * Incremented whenever an event is added to events, so that routes know to check for new supertype events.
+     */
+    protected final AtomicInteger typesVersion = new AtomicInteger(0);
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Methods">
+    /**
+     * Gets the types of the passed class's supertypes (including itself) that are EventArgs types. That is, classes
+     * and interfaces that are or extend EventArgs.
+     * @param argsType The class to get the hierarchy of.
+     * @return The EventArgs types in the passed class's hierarchy, with classes ordered from most to least specific,
+     * followed by interfaces.
+     */
+    protected static Class<?>[] getEventArgsHierarchy(Class<?> argsType)
+    {
+        Set<Class<?>> classes = new LinkedHashSet<Class<?>>();
+        Set<Class<?>> interfaces = new LinkedHashSet<Class<?>>();
+        
+        for(Class<?> current = argsType; current != null; current = current.getSuperclass())
+        {
+            if(EventArgs.class.isAssignableFrom(current))
+                classes.add(current);
+            
+            addEventArgsInterfaces(current, interfaces);
+        }
+        
+        classes.addAll(interfaces);
+        return classes.toArray(new Class<?>[classes.size()]);
+    }
+    
+    /**
+     * Adds the EventArgs interfaces implemented by the passed type to the passed set, cascadingly.
+     * @param type The type to get the interfaces of.
+     * @param interfaces The set to add the interfaces to.
+     */
+    private static void addEventArgsInterfaces(Class<?> type, Set<Class<?>> interfaces)
+    {
+        for(Class<?> i : type.getInterfaces())
+        {
+            if(EventArgs.class.isAssignableFrom(i) && interfaces.add(i))
+                addEventArgsInterfaces(i, interfaces);
+        }
+    }
+    
+    /**
+     * Gets the bus's event for the passed type of args, creating it if it doesn't exist yet. Listeners registered to
+     * it are called for published args of the type or any subtype of it, and dependent events registered to it are
+     * raised alongside.
+     * @param <T> The type of args.
+     * @param argsType The class of the type of args.
+     * @return The event for the type of args.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends EventArgs> Event<T> getEvent(Class<T> argsType)
+    {
+        if(argsType == null)
+            throw new NullArgumentException("argsType");
+        
+        StandardEvent<?> event = events.get(argsType);
+        
+        if(event == null)
+        {
+            StandardEvent<T> newEvent = new StandardEvent<T>();
+            event = events.putIfAbsent(argsType, newEvent);
+            
+            if(event == null)
+            {
+                event = newEvent;
+                typesVersion.incrementAndGet();
+            }
+        }
+        
+        return (Event<T>)event; // Events are only ever stored by the class of the args they take.
+    }
+    
+    /**
+     * Subscribes a listener to published args of the passed type, or any subtype of it, at the normal priority.
+     * @param <T> The type of args.
+     * @param argsType The class of the type of args to listen for.
+     * @param listener The listener to subscribe.
+     */
+    public <T extends EventArgs> void subscribe(Class<T> argsType, EventListener<T> listener)
+    { getEvent(argsType).register(listener); }
+    
+    /**
+     * Subscribes a listener to published args of the passed type, or any subtype of it.
+     * @param <T> The type of args.
+     * @param argsType The class of the type of args to listen for.
+     * @param listener The listener to subscribe.
+     * @param priority The priority to subscribe the listener at.
+     */
+    public <T extends EventArgs> void subscribe(Class<T> argsType, EventListener<T> listener, double priority)
+    { getEvent(argsType).register(listener, priority); }
+    
+    /**
+     * Subscribes a listener to published args of the passed type, or any subtype of it.
+     * @param <T> The type of args.
+     * @param argsType The class of the type of args to listen for.
+     * @param listener The listener to subscribe.
+     * @param priority The priority to subscribe the listener at.
+     */
+    public <T extends EventArgs> void subscribe(Class<T> argsType, EventListener<T> listener, ListenerPriority priority)
+    { getEvent(argsType).register(listener, priority); }
+    
+    /**
+     * Unsubscribes a listener from published args of the passed type.
+     * @param <T> The type of args.
+     * @param argsType The class of the type of args the listener was subscribed to.
+     * @param listener The listener to unsubscribe.
+     * @return The listener, or null if it wasn't subscribed to the passed type.
+     */
+    public <T extends EventArgs> EventListener<T> unsubscribe(Class<T> argsType, EventListener<T> listener)
+    {
+        @SuppressWarnings("unchecked")
+        Event<T> event = (Event<T>)events.get(argsType);
+        return event == null ? null : event.deregister(listener);
+    }
+    
+    /**
+     * Subscribes all of the methods of the passed object marked with Listen, each to the type of args it takes, at the
+     * priority it's marked with.
+     * @param target The object to subscribe the methods of.
+     * @return The listeners subscribed for the object's methods.
+     * @throws IllegalArgumentException If a method marked with Listen doesn't have the form of a listener method.
+     */
+    public List<AnnotatedListener<?>> subscribeAnnotated(Object target)
+    {
+        List<AnnotatedListener<?>> listeners = AnnotatedListener.getListenersOf(target);
+        
+        for(AnnotatedListener<?> i : listeners)
+            subscribe(i);
+        
+        return listeners;
+    }
+    
+    private <T extends EventArgs> void subscribe(AnnotatedListener<T> listener)
+    { getEvent(listener.getArgsType()).register(listener, listener.getPriority()); }
+    
+    /**
+     * Unsubscribes all of the methods of the passed object marked with Listen.
+     * @param target The object to unsubscribe the methods of.
+     * @return The number of methods that were subscribed and have been unsubscribed.
+     */
+    public int unsubscribeAnnotated(Object target)
+    {
+        int unsubscribed = 0;
+        
+        for(AnnotatedListener<?> i : AnnotatedListener.getListenersOf(target))
+            if(unsubscribe(i) != null)
+                unsubscribed++;
+        
+        return unsubscribed;
+    }
+    
+    private <T extends EventArgs> EventListener<T> unsubscribe(AnnotatedListener<T> listener)
+    { return unsubscribe(listener.getArgsType(), listener); }
+    
+    /**
+     * Gets the route args of the passed class are published through, creating it if it doesn't exist yet.
+     * @param argsType The class of the args.
+     * @return The route for the class.
+     */
+    protected Route getRoute(Class<? extends EventArgs> argsType)
+    {
+        Route route = routes.get(argsType);
+        
+        if(route == null)
+        {
+            Route newRoute = new Route(argsType);
+            route = routes.putIfAbsent(argsType, newRoute);
+            
+            if(route == null)
+                route = newRoute;
+        }
+        
+        return route;
+    }
+    
+    /**
+     * Publishes the passed args, calling the listeners subscribed to its class or any supertype of it up until the
+     * post-event priority, as a pre-event raise. publishPostEvent should be called with the same args afterwards.
+     *
+     * The args' event is set to an event representing everything subscribed to the args' class.
+     * @param sender The object publishing the args.
+     * @param args The args to publish.
+     */
+    public void publish(Object sender, EventArgs args)
+    {
+        if(args == null)
+            throw new NullArgumentException("args");
+        
+        getRoute(args.getClass()).raise(sender, args);
+    }
+    
+    /**
+     * Calls the listeners subscribed to the passed args' class or any supertype of it that are at the post-event
+     * priority, as a post-event raise. Should be called after publish has been called with the same args.
+     * @param sender The object publishing the args.
+     * @param args The args to publish.
+     */
+    public void publishPostEvent(Object sender, EventArgs args)
+    {
+        if(args == null)
+            throw new NullArgumentException("args");
+        
+        getRoute(args.getClass()).raisePostEvent(sender, args);
+    }
+    //</editor-fold>
+}
@@ -5,6 +5,7 @@ import com.enkigaming.lib.tuples.Pair;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -56,7 +57,7 @@ public class EventMethods
             return;
         
         alongsideEvents.remove(toCallOn);
-        ((Event<EventArgs>)toCallOn.getFirst()).raiseAlongside(sender, toCallOn.getSecond(), events);
+        ((Event<EventArgs>)toCallOn.getFirst()).raiseAlongside(sender, toCallOn.getSecond(), alongsideEvents);
     }
     
     /**
@@ -69,6 +70,17 @@ public class EventMethods
     public static void raiseMultiple(Object sender, boolean shareCancellation,
                                      Collection<? extends Pair<? extends Event<?>, ? extends EventArgs>> events)
     {
+        if(!shareCancellation)
+        {
+            Event<EventArgs> soleEvent = getSoleEvent(events);
+            
+            if(soleEvent != null)
+            {
+                soleEvent.raiseBatch(sender, getArgs(events), BatchOrder.ListenerMajor);
+                return;
+            }
+        }
+        
         Collection<Pair<? extends Event<?>, ? extends EventArgs>> alongsideEvents
                 = new ArrayList<Pair<? extends Event<?>, ? extends EventArgs>>(events);
         Pair<? extends Event<?>, ? extends EventArgs> toCallOn = null;
@@ -83,7 +95,8 @@ public class EventMethods
             return;
         
         alongsideEvents.remove(toCallOn);
-        ((Event<EventArgs>)toCallOn.getFirst()).raiseAlongside(sender, toCallOn.getSecond(), shareCancellation, events);
+        ((Event<EventArgs>)toCallOn.getFirst()).raiseAlongside(sender, toCallOn.getSecond(), shareCancellation,
+                                                               alongsideEvents);
     }
     
     /**
@@ -111,7 +124,7 @@ public class EventMethods
      * @param events An array of pairs of events to be raised and the eventargs to be passed to their listeners.
      */
     public static void raiseMultiplePostEvent(Object sender, Pair<? extends Event<?>, ? extends EventArgs>... events)
-    { raiseMultiple(sender, Arrays.asList(events)); }
+    { raiseMultiplePostEvent(sender, Arrays.asList(events)); }
     
     /**
      * Raises multiple events together post-event using the EventArgs objects they're paired with.
@@ -121,6 +134,14 @@ public class EventMethods
     public static void raiseMultiplePostEvent(Object sender,
                                               Collection<? extends Pair<? extends Event<?>, ? extends EventArgs>> events)
     {
+        Event<EventArgs> soleEvent = getSoleEvent(events);
+        
+        if(soleEvent != null)
+        {
+            soleEvent.raisePostEventBatch(sender, getArgs(events), BatchOrder.ListenerMajor);
+            return;
+        }
+        
         Collection<Pair<? extends Event<?>, ? extends EventArgs>> alongsideEvents
                 = new ArrayList<Pair<? extends Event<?>, ? extends EventArgs>>(events);
         
@@ -136,7 +157,7 @@ public class EventMethods
             return;
         
         alongsideEvents.remove(toCallOn);
-        ((Event<EventArgs>)toCallOn.getFirst()).raisePostEventAlongside(sender, toCallOn.getSecond(), events);
+        ((Event<EventArgs>)toCallOn.getFirst()).raisePostEventAlongside(sender, toCallOn.getSecond(), alongsideEvents);
     }
     
     /**
@@ -146,6 +167,47 @@ public class EventMethods
      */
     public static void raiseMultiplePostEvent(Object sender, Map<? extends Event<?>, ? extends EventArgs> events)
     { raiseMultiplePostEvent(sender, CollectionMethods.getMapAsCollectionOfPairs(events)); }
+    
+    /**
+     * Gets the event that all of the passed pairs are of, where there's more than one pair and they're all of the same
+     * event, so that they may be raised as a batch.
+     * @param events The pairs of events and eventargs.
+     * @return The event all of the pairs are of, or null if there's less than two pairs or they're of different events.
+     * Only ever passed the args it's paired with, so is treated as taking any args.
+     */
+    @SuppressWarnings("unchecked")
+    static Event<EventArgs> getSoleEvent(Collection<? extends Pair<? extends Event<?>, ? extends EventArgs>> events)
+    {
+        if(events.size() < 2)
+            return null;
+        
+        Event<?> soleEvent = null;
+        
+        for(Pair<? extends Event<?>, ? extends EventArgs> i : events)
+        {
+            if(i == null || i.getFirst() == null || (soleEvent != null && i.getFirst() != soleEvent))
+                return null;
+            
+            soleEvent = i.getFirst();
+        }
+        
+        return (Event<EventArgs>)soleEvent;
+    }
+    
+    /**
+     * Gets the eventargs of the passed pairs, in order.
+     * @param events The pairs of events and eventargs.
+     * @return A list of the eventargs of the passed pairs.
+     */
+    static List<EventArgs> getArgs(Collection<? extends Pair<? extends Event<?>, ? extends EventArgs>> events)
+    {
+        List<EventArgs> args = new ArrayList<EventArgs>(events.size());
+        
+        for(Pair<? extends Event<?>, ? extends EventArgs> i : events)
+            args.add(i.getSecond());
+        
+        return args;
+    }
     //</editor-fold>
     
     //<editor-fold defaultstate="collapsed" desc="Event args relating">
@@ -0,0 +1,55 @@
+package com.enkigaming.lib.events;
+
+/**
+ * Receives measurements of events being raised and their listeners being called, for working out which events and
+ * listeners take up the most time. Set with StandardEvent.setMetrics.
+ *
+ * Implementations are called from whichever threads events are raised on, and so should be thread-safe, and should be
+ * quick enough not to meaningfully add to the time being measured.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+public interface EventMetrics
+{
+    /**
+     * Metrics that don't record anything. Where this is used, events don't measure anything, and no time is spent
+     * timing listeners.
+     */
+    public static final EventMetrics NONE = new EventMetrics()
+    {
+        @Override
+        public boolean isEnabled()
+        { return false; }
+        
+        @Override
+        public void eventRaised(Event<? extends EventArgs> event, EventArgs args)
+        { /* Nothin' here */ }
+        
+        @Override
+        public void listenerCalled(EventListener<? extends EventArgs> listener, EventArgs args, long nanoseconds)
+        { /* Nothin' here */ }
+    };
+    
+    /**
+     * Gets whether or not this should be passed measurements. Where this returns false, events skip measuring
+     * entirely. Only checked when the metrics are set with StandardEvent.setMetrics, so should always return the same.
+     * @return True if events should measure their raises and listeners and pass them to this, otherwise false.
+     */
+    boolean isEnabled();
+    
+    /**
+     * Called once an event has been raised and its listeners up until the post-event priority have been called, so
+     * the event args' cancellation state is final.
+     * @param event The event raised.
+     * @param args The event args the event was raised with.
+     */
+    void eventRaised(Event<? extends EventArgs> event, EventArgs args);
+    
+    /**
+     * Called after an event listener has been called, including where it threw.
+     * @param listener The listener called.
+     * @param args The event args the listener was passed. Their getEvent method returns the event the listener is
+     * registered to.
+     * @param nanoseconds The time the listener took, in nanoseconds.
+     */
+    void listenerCalled(EventListener<? extends EventArgs> listener, EventArgs args, long nanoseconds);
+}
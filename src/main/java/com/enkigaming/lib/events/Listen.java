@@ -0,0 +1,26 @@
+package com.enkigaming.lib.events;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method as an event listener, to be subscribed to the event for the type of its args when the object it's a
+ * method of is subscribed to an EventBus, without needing to write an EventListener class for it.
+ * 
+ * This annotation should be applied to methods taking an Object (the sender) and an event args object, in that order,
+ * and returning void, like EventListener's onEvent method. The type of the second parameter is the type of args the
+ * method is subscribed to.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Listen
+{
+    /**
+     * The priority to subscribe the method at.
+     * @return The method's listener priority.
+     */
+    ListenerPriority priority() default ListenerPriority.Normal;
+}
\ No newline at end of file
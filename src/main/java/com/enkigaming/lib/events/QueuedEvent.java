@@ -0,0 +1,572 @@
+package com.enkigaming.lib.events;
+
+import com.enkigaming.lib.encapsulatedfunctions.Transformer;
+import com.enkigaming.lib.exceptions.NullArgumentException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Accepts raises of an event from any thread into a bounded queue, and raises them on a single consumer thread, such
+ * as the server thread once per tick. The queue is a ring that raising threads add to without locking, by claiming the
+ * next position in it, and the event's listeners are only ever called on the consumer thread, so the event can be a
+ * ThreadConfinedEvent. Where coalescing, raising threads and the consumer thread hold the queue's lock while adding to
+ * or taking from the queue, as coalescing replaces raises already in it.
+ *
+ * Where the queue is full, raises are handled as per the queue's back-pressure policy. The depth of the queue, how
+ * many raises were dropped or coalesced, and how long raises wait in the queue are recorded, to be read via the getters
+ * for them.
+ *
+ * Queued raises are raised pre-event and then post-event when drained, so the raising thread can't see the outcome of
+ * the raise, such as whether it was cancelled. The consumer thread is either the thread passed to the constructor, or
+ * the thread the queue is first drained from. That the queue is only drained from it is only checked where assertions
+ * are enabled. As nothing else drains the queue, raises from the consumer thread never wait for room in the queue, and
+ * nor do raises made before the queue has a consumer thread, as they may have been made from the thread that would
+ * become it. Queues that block should be constructed with their consumer thread where they may fill before they're
+ * first drained.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ * @param <T> The type of the eventargs object passed to the event's listeners.
+ */
+public class QueuedEvent<T extends EventArgs>
+{
+    //<editor-fold defaultstate="collapsed" desc="Constructors">
+    /**
+     * Creates a queue for the passed event.
+     * @param event The event to raise on the consumer thread.
+     * @param capacity The most raises the queue can hold at once.
+     * @param policy What to do with raises when the queue is full. May not be Coalesce, as that needs a key getter.
+     */
+    public QueuedEvent(Event<T> event, int capacity, BackPressurePolicy policy)
+    { this(event, capacity, policy, null, null); }
+    
+    /**
+     * Creates a queue for the passed event that coalesces raises with the same key.
+     * @param event The event to raise on the consumer thread.
+     * @param capacity The most raises the queue can hold at once.
+     * @param keyGetter Gets the key of the args of a raise. Raises with equal keys are coalesced. Raises with null keys
+     * are never coalesced.
+     */
+    public QueuedEvent(Event<T> event, int capacity, Transformer<? super T, ?> keyGetter)
+    { this(event, capacity, BackPressurePolicy.Coalesce, keyGetter, null); }
+    
+    /**
+     * Creates a queue for the passed event.
+     * @param event The event to raise on the consumer thread.
+     * @param capacity The most raises the queue can hold at once.
+     * @param policy What to do with raises when the queue is full.
+     * @param keyGetter Gets the key of the args of a raise, where the policy is Coalesce. Otherwise, ignored.
+     * @param consumerThread The thread the queue should only be drained from, or null to be the first thread it's
+     * drained from.
+     */
+    public QueuedEvent(Event<T> event,
+                       int capacity,
+                       BackPressurePolicy policy,
+                       Transformer<? super T, ?> keyGetter,
+                       Thread consumerThread)
+    {
+        if(event == null)
+            throw new NullArgumentException("event");
+        
+        if(policy == null)
+            throw new NullArgumentException("policy");
+        
+        if(policy == BackPressurePolicy.Coalesce && keyGetter == null)
+            throw new NullArgumentException("keyGetter");
+        
+        if(capacity < 1)
+            throw new IllegalArgumentException("Capacity must be at least 1.");
+        
+        this.event = event;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.keyGetter = policy == BackPressurePolicy.Coalesce ? keyGetter : null;
+        this.consumerThread = consumerThread;
+        
+        senders = new Object[capacity];
+        args = new EventArgs[capacity];
+        keys = new Object[capacity];
+        queuedAt = new long[capacity];
+        queuedKeys = this.keyGetter == null ? null : new HashMap<Object, Long>();
+        sequences = new AtomicLongArray(capacity);
+        
+        for(int i = 0; i < capacity; i++)
+            sequences.set(i, i * 2);
+    }
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Fields">
+    protected final Event<T> event;
+    protected final int capacity;
+    protected final BackPressurePolicy policy;
+    protected final Transformer<? super T, ?> keyGetter;
+    
+    /**
+     * The thread the queue should only be drained from, or null where it hasn't been drained yet and wasn't
+     * constructed with one.
+     */
+    protected volatile Thread consumerThread;
+    
+    /**
+     * The senders of the queued raises, as a ring indexed by position modulo capacity.
+     */
+    protected final Object[] senders;
+    
+    /**
+     * The args of the queued raises, at the same positions as their senders.
+     */
+    protected final EventArgs[] args;
+    
+    /**
+     * The keys of the queued raises, at the same positions as their senders. Only used where coalescing.
+     */
+    protected final Object[] keys;
+    
+    /**
+     * The values of System.nanoTime when each of the queued raises were queued, at the same positions as their
+     * senders.
+     */
+    protected final long[] queuedAt;
+    
+    /**
+     * The state of each index of the ring. Where an index's sequence is twice the position that'll next be queued
+     * there, it's free to be claimed by a raising thread. Where it's one more than that, the raise queued there is
+     * ready to be taken. Where it's less, a raise is still being queued there, or the raise queued there a lap earlier
+     * is still being taken. Writes to the ring's arrays are published to other threads by setting the sequence
+     * afterwards. Positions are doubled so that a queued raise can't be mistaken for a free index, even with a
+     * capacity of 1.
+     */
+    protected final AtomicLongArray sequences;
+    
+    /**
+     * The positions of the queued raises with non-null keys, by their keys. null where not coalescing. Only accessed
+     * while holding queueBusy.
+     */
+    protected final Map<Object, Long> queuedKeys;
+    
+    /**
+     * The position of the next raise to take from the queue. Only ever increases.
+     */
+    protected final AtomicLong head = new AtomicLong(0);
+    
+    /**
+     * The position the next raise will be queued at. Only ever increases.
+     */
+    protected final AtomicLong tail = new AtomicLong(0);
+    
+    /**
+     * Held while adding to or taking from the queue where coalescing. Waited on by raising threads blocked by a full
+     * queue.
+     */
+    protected final Object queueBusy = new Object();
+    
+    /**
+     * The number of raising threads waiting for room in the queue, so that draining only takes queueBusy to wake them
+     * where there are any.
+     */
+    protected final AtomicInteger waitingRaisers = new AtomicInteger(0);
+    
+    protected final AtomicInteger maxDepth = new AtomicInteger(0);
+    protected final AtomicLong droppedCount = new AtomicLong(0);
+    protected final AtomicLong coalescedCount = new AtomicLong(0);
+    
+    // Only written by the consumer thread.
+    protected volatile long drainedCount = 0;
+    protected volatile long totalLatency = 0;
+    protected volatile long maxLatency = 0;
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Methods">
+    /**
+     * Gets the event raises are queued for. Listeners and dependent events should be registered to this.
+     * @return The event raised on the consumer thread.
+     */
+    public Event<T> getEvent()
+    { return event; }
+    
+    /**
+     * Gets the thread the queue should only be drained from.
+     * @return The consumer thread, or null if it wasn't constructed with one and hasn't been drained yet.
+     */
+    public Thread getConsumerThread()
+    { return consumerThread; }
+    
+    /**
+     * Gets the policy raises are handled as per when the queue is full.
+     * @return The back-pressure policy.
+     */
+    public BackPressurePolicy getPolicy()
+    { return policy; }
+    
+    /**
+     * Checks that the queue is being drained on its consumer thread, making the current thread its consumer thread
+     * where it doesn't have one yet.
+     * @return True if the current thread is the consumer thread, otherwise false.
+     */
+    protected boolean checkDrainingThread()
+    {
+        Thread current = Thread.currentThread();
+        
+        if(consumerThread == null)
+            consumerThread = current;
+        
+        return consumerThread == current;
+    }
+    
+    /**
+     * Queues a raise of the event, to be raised on the consumer thread next time the queue is drained. May be called
+     * from any thread. Where the queue is full, the raise is handled as per the queue's back-pressure policy.
+     * @param sender The object raising the event.
+     * @param args The args to raise the event with. Shouldn't be used by the raising thread after being queued.
+     * @return True if the raise was queued or coalesced with a raise already queued. False if the raising thread was
+     * interrupted while waiting for room in the queue, in which case the raise isn't queued and the thread's
+     * interrupted status is set, or if the queue was full and would have to be waited on by its own consumer thread,
+     * which would never drain it, or before the queue has a consumer thread, in which case the raise is dropped.
+     */
+    public boolean raise(Object sender, T args)
+    {
+        if(args == null)
+            throw new NullArgumentException("args");
+        
+        if(keyGetter == null)
+            return queue(sender, args, null);
+        
+        Object key = keyGetter.get(args);
+        
+        synchronized(queueBusy)
+        { return queue(sender, args, key); }
+    }
+    
+    /**
+     * Queues a raise, coalescing it with a raise already queued with the same key where there is one, and handling it
+     * as per the queue's back-pressure policy where the queue is full. Should only be called while holding queueBusy
+     * where coalescing.
+     * @param sender The object raising the event.
+     * @param args The args to raise the event with.
+     * @param key The key of the args, or null where they shouldn't be coalesced.
+     * @return True if the raise was queued or coalesced, otherwise false.
+     */
+    protected boolean queue(Object sender, EventArgs args, Object key)
+    {
+        for(;;)
+        {
+            if(key != null)
+            {
+                Long queuedPosition = queuedKeys.get(key);
+                
+                if(queuedPosition != null)
+                {
+                    int index = (int)(queuedPosition % capacity);
+                    senders[index] = sender;
+                    this.args[index] = args;
+                    coalescedCount.incrementAndGet();
+                    return true;
+                }
+            }
+            
+            if(offer(sender, args, key))
+                return true;
+            
+            if(tail.get() - head.get() < capacity)
+            {
+                // A raise is still being taken from the index this would be queued at.
+                Thread.yield();
+                continue;
+            }
+            
+            if(policy == BackPressurePolicy.DropOldest)
+            {
+                if(poll(null, null, null, 0))
+                    droppedCount.incrementAndGet();
+                else
+                    Thread.yield(); // The oldest raise is still being queued.
+                
+                continue;
+            }
+            
+            Thread consumer = consumerThread;
+            
+            if(consumer == null || consumer == Thread.currentThread())
+            {
+                droppedCount.incrementAndGet();
+                return false;
+            }
+            
+            if(!awaitRoom())
+                return false;
+        }
+    }
+    
+    /**
+     * Adds a raise to the end of the queue, where there's room for it.
+     * @param sender The object raising the event.
+     * @param args The args to raise the event with.
+     * @param key The key of the args, or null where they shouldn't be coalesced.
+     * @return True if the raise was queued, false if there wasn't room for it.
+     */
+    protected boolean offer(Object sender, EventArgs args, Object key)
+    {
+        for(;;)
+        {
+            long position = tail.get();
+            int index = (int)(position % capacity);
+            long sequence = sequences.get(index);
+            
+            if(sequence < position * 2)
+                return false;
+            
+            if(sequence > position * 2 || !tail.compareAndSet(position, position + 1))
+                continue; // Claimed by another raising thread.
+            
+            senders[index] = sender;
+            this.args[index] = args;
+            keys[index] = key;
+            queuedAt[index] = System.nanoTime();
+            
+            if(key != null)
+                queuedKeys.put(key, position);
+            
+            sequences.set(index, position * 2 + 1);
+            
+            int depth = (int)(position + 1 - head.get());
+            
+            for(int max = maxDepth.get(); depth > max && !maxDepth.compareAndSet(max, depth); max = maxDepth.get())
+            { /* Nothin' here */ }
+            
+            return true;
+        }
+    }
+    
+    /**
+     * Takes the raise at the head of the queue out of it, where there is one that's finished being queued. Should
+     * only be called while holding queueBusy where coalescing.
+     * @param toSenders The array to put the raise's sender into, or null to drop the raise.
+     * @param toArgs The array to put the raise's args into, or null to drop the raise.
+     * @param toQueuedAt The array to put when the raise was queued into, or null to drop the raise.
+     * @param toIndex The index in the passed arrays to put the raise at.
+     * @return True if a raise was taken, false if there wasn't one ready to be taken.
+     */
+    protected boolean poll(Object[] toSenders, EventArgs[] toArgs, long[] toQueuedAt, int toIndex)
+    {
+        for(;;)
+        {
+            long position = head.get();
+            int index = (int)(position % capacity);
+            long sequence = sequences.get(index);
+            
+            if(sequence < position * 2 + 1)
+                return false;
+            
+            if(sequence > position * 2 + 1 || !head.compareAndSet(position, position + 1))
+                continue; // Taken by a raising thread dropping it.
+            
+            if(toSenders != null)
+            {
+                toSenders[toIndex] = senders[index];
+                toArgs[toIndex] = args[index];
+                toQueuedAt[toIndex] = queuedAt[index];
+            }
+            
+            if(keys[index] != null)
+                queuedKeys.remove(keys[index]);
+            
+            senders[index] = null;
+            args[index] = null;
+            keys[index] = null;
+            sequences.set(index, (position + capacity) * 2);
+            return true;
+        }
+    }
+    
+    /**
+     * Waits until there's room in the queue.
+     * @return True if there's room in the queue, false if the current thread was interrupted while waiting, in which
+     * case its interrupted status is set.
+     */
+    protected boolean awaitRoom()
+    {
+        waitingRaisers.incrementAndGet();
+        
+        try
+        {
+            synchronized(queueBusy)
+            {
+                while(tail.get() - head.get() >= capacity)
+                    queueBusy.wait();
+            }
+            
+            return true;
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        finally
+        { waitingRaisers.decrementAndGet(); }
+    }
+    
+    /**
+     * Raises all of the raises currently queued, in the order they were queued. Raises queued by the event's listeners
+     * while draining are left for the next drain. Should only be called from the consumer thread.
+     * @return The number of raises raised.
+     */
+    public int drain()
+    { return drain(Integer.MAX_VALUE); }
+    
+    /**
+     * Raises up to the passed number of the raises currently queued, in the order they were queued. Should only be
+     * called from the consumer thread. Where a raise throws, the rest of the drained raises are still raised, and the
+     * first exception thrown is rethrown afterwards.
+     * @param maxRaises The most raises to raise.
+     * @return The number of raises raised.
+     */
+    public int drain(int maxRaises)
+    {
+        boolean onConsumerThread = checkDrainingThread();
+        assert onConsumerThread : "Queued event drained from a thread other than its consumer.";
+        
+        int count = (int)Math.min(maxRaises, tail.get() - head.get());
+        
+        if(count <= 0)
+            return 0;
+        
+        Object[] drainedSenders = new Object[count];
+        EventArgs[] drainedArgs = new EventArgs[count];
+        long[] drainedQueuedAt = new long[count];
+        int drained = 0;
+        
+        if(keyGetter == null)
+        {
+            while(drained < count && poll(drainedSenders, drainedArgs, drainedQueuedAt, drained))
+                drained++;
+        }
+        else
+        {
+            synchronized(queueBusy)
+            {
+                while(drained < count && poll(drainedSenders, drainedArgs, drainedQueuedAt, drained))
+                    drained++;
+            }
+        }
+        
+        if(waitingRaisers.get() > 0)
+        {
+            synchronized(queueBusy)
+            { queueBusy.notifyAll(); }
+        }
+        
+        recordLatencies(drainedQueuedAt, drained);
+        RuntimeException thrown = null;
+        
+        for(int i = 0; i < drained; i++)
+        {
+            // Only args of T are ever queued.
+            @SuppressWarnings("unchecked")
+            T currentArgs = (T)drainedArgs[i];
+            
+            try
+            {
+                event.raise(drainedSenders[i], currentArgs);
+                event.raisePostEvent(drainedSenders[i], currentArgs);
+            }
+            catch(RuntimeException e)
+            {
+                if(thrown == null)
+                    thrown = e;
+            }
+        }
+        
+        if(thrown != null)
+            throw thrown;
+        
+        return drained;
+    }
+    
+    /**
+     * Records how long the passed number of drained raises spent in the queue. Should only be called from the
+     * consumer thread.
+     * @param drainedQueuedAt The values of System.nanoTime when each of the drained raises were queued.
+     * @param drained The number of drained raises.
+     */
+    protected void recordLatencies(long[] drainedQueuedAt, int drained)
+    {
+        long now = System.nanoTime();
+        long latencies = 0;
+        long max = maxLatency;
+        
+        for(int i = 0; i < drained; i++)
+        {
+            long latency = now - drainedQueuedAt[i];
+            latencies += latency;
+            
+            if(latency > max)
+                max = latency;
+        }
+        
+        totalLatency += latencies;
+        maxLatency = max;
+        drainedCount += drained;
+    }
+    
+    /**
+     * Gets the number of raises currently queued.
+     * @return The depth of the queue.
+     */
+    public int getDepth()
+    { return (int)Math.max(0, Math.min(capacity, tail.get() - head.get())); }
+    
+    /**
+     * Gets the most raises the queue can hold at once.
+     * @return The queue's capacity.
+     */
+    public int getCapacity()
+    { return capacity; }
+    
+    /**
+     * Gets the most raises the queue has held at once.
+     * @return The greatest depth the queue has reached.
+     */
+    public int getMaxDepth()
+    { return maxDepth.get(); }
+    
+    /**
+     * Gets the number of raises dropped from the queue, without being raised, to make room for others.
+     * @return The number of dropped raises.
+     */
+    public long getDroppedCount()
+    { return droppedCount.get(); }
+    
+    /**
+     * Gets the number of raises coalesced into raises already queued.
+     * @return The number of coalesced raises.
+     */
+    public long getCoalescedCount()
+    { return coalescedCount.get(); }
+    
+    /**
+     * Gets the number of raises drained from the queue to be raised.
+     * @return The number of drained raises.
+     */
+    public long getDrainedCount()
+    { return drainedCount; }
+    
+    /**
+     * Gets the average time raises spent in the queue, from being queued until being drained.
+     * @return The average latency of drained raises in nanoseconds, or 0 where none have been drained yet.
+     */
+    public double getAverageLatency()
+    {
+        long drained = drainedCount;
+        return drained == 0 ? 0 : (double)totalLatency / drained;
+    }
+    
+    /**
+     * Gets the longest time a raise spent in the queue, from being queued until being drained.
+     * @return The greatest latency of a drained raise in nanoseconds, or 0 where none have been drained yet.
+     */
+    public long getMaxLatency()
+    { return maxLatency; }
+    //</editor-fold>
+}
@@ -0,0 +1,409 @@
+package com.enkigaming.lib.events;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Event metrics that keep counts of event raises and cancellations per event, and histograms of the time taken by
+ * listeners per listener, or per method for annotated listeners. Raises and listener calls are recorded without
+ * locking. Events and listeners are only weakly held, so those that are no longer in use are forgotten along with their
+ * records.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+public class RecordingEventMetrics implements EventMetrics
+{
+    //<editor-fold defaultstate="collapsed" desc="Nested classes">
+    /**
+     * Histogram of durations in nanoseconds, bucketed by powers of two, which can be recorded into concurrently without
+     * locking.
+     */
+    public static class Histogram
+    {
+        /**
+         * The number of recorded durations in each bucket. Bucket n holds durations of at least 2^(n-1) and less than
+         * 2^n nanoseconds, with bucket 0 holding durations of 0.
+         */
+        final AtomicLongArray buckets = new AtomicLongArray(64);
+        
+        /**
+         * The number of recorded durations.
+         */
+        final LongAdder count = new LongAdder();
+        
+        /**
+         * The sum of all recorded durations.
+         */
+        final LongAdder total = new LongAdder();
+        
+        /**
+         * The longest recorded duration.
+         */
+        final AtomicLong max = new AtomicLong(0);
+        
+        /**
+         * Records a duration.
+         * @param nanoseconds The duration in nanoseconds.
+         */
+        public void record(long nanoseconds)
+        {
+            if(nanoseconds < 0)
+                nanoseconds = 0;
+            
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(nanoseconds));
+            count.increment();
+            total.add(nanoseconds);
+            
+            for(long currentMax = max.get(); nanoseconds > currentMax; currentMax = max.get())
+                if(max.compareAndSet(currentMax, nanoseconds))
+                    break;
+        }
+        
+        /**
+         * Gets the number of recorded durations.
+         * @return The number of recorded durations.
+         */
+        public long getCount()
+        { return count.sum(); }
+        
+        /**
+         * Gets the sum of all recorded durations.
+         * @return The total recorded duration in nanoseconds.
+         */
+        public long getTotalNanoseconds()
+        { return total.sum(); }
+        
+        /**
+         * Gets the longest recorded duration.
+         * @return The longest recorded duration in nanoseconds.
+         */
+        public long getMaxNanoseconds()
+        { return max.get(); }
+        
+        /**
+         * Gets the mean recorded duration.
+         * @return The mean recorded duration in nanoseconds, or 0 if none have been recorded.
+         */
+        public double getMeanNanoseconds()
+        {
+            long currentCount = count.sum();
+            return currentCount == 0 ? 0 : (double)total.sum() / currentCount;
+        }
+        
+        /**
+         * Gets an upper bound of the duration that the passed fraction of recorded durations were no longer than,
+         * accurate to the next power of two.
+         * @param fraction The fraction, between 0 and 1. e.g. 0.99 for the 99th percentile.
+         * @return The upper bound of the bucket the percentile falls in, in nanoseconds.
+         */
+        public long getPercentileNanoseconds(double fraction)
+        {
+            long currentCount = count.sum();
+            
+            if(currentCount == 0)
+                return 0;
+            
+            long threshold = (long)Math.ceil(currentCount * fraction);
+            long seen = 0;
+            
+            for(int i = 0; i < 64; i++)
+            {
+                seen += buckets.get(i);
+                
+                if(seen >= threshold)
+                    return i == 0 ? 0 : Math.min(max.get(), (i == 63 ? Long.MAX_VALUE : (1L << i) - 1));
+            }
+            
+            return max.get();
+        }
+    }
+    
+    /**
+     * The raises recorded of a single event.
+     */
+    public static class EventRecord
+    {
+        /**
+         * The number of times the event was raised.
+         */
+        final LongAdder raises = new LongAdder();
+        
+        /**
+         * The number of times the event was raised and cancelled.
+         */
+        final LongAdder cancellations = new LongAdder();
+        
+        /**
+         * Gets the number of times the event was raised.
+         * @return The number of raises.
+         */
+        public long getRaiseCount()
+        { return raises.sum(); }
+        
+        /**
+         * Gets the number of times the event was cancelled by its pre-event listeners.
+         * @return The number of cancelled raises.
+         */
+        public long getCancellationCount()
+        { return cancellations.sum(); }
+        
+        /**
+         * Gets the fraction of raises of the event that were cancelled.
+         * @return The fraction of raises cancelled, between 0 and 1.
+         */
+        public double getCancellationRate()
+        {
+            long currentRaises = raises.sum();
+            return currentRaises == 0 ? 0 : (double)cancellations.sum() / currentRaises;
+        }
+    }
+    
+    /**
+     * A map key weakly referring to an object, equal to other keys referring to the same object, so that records can
+     * be kept in a concurrent map by identity without keeping what they're of from being garbage collected. Once the
+     * object has been collected, the key is only equal to itself.
+     */
+    protected static final class WeakKey extends WeakReference<Object>
+    {
+        WeakKey(Object referent, ReferenceQueue<Object> queue)
+        {
+            super(referent, queue);
+            hash = System.identityHashCode(referent);
+        }
+        
+        final int hash;
+        
+        @Override
+        public int hashCode()
+        { return hash; }
+        
+        @Override
+        public boolean equals(Object obj)
+        {
+            if(obj == this)
+                return true;
+            
+            Object referent = get();
+            
+            if(referent == null)
+                return false;
+            
+            if(obj instanceof WeakKey)
+                return ((WeakKey)obj).get() == referent;
+            
+            return obj instanceof LookupKey && ((LookupKey)obj).referent == referent;
+        }
+    }
+    
+    /**
+     * A map key strongly referring to an object, equal to weak keys referring to the same object. Used for looking up
+     * records without creating a weak reference for every lookup.
+     */
+    protected static final class LookupKey
+    {
+        LookupKey(Object referent)
+        { this.referent = referent; }
+        
+        final Object referent;
+        
+        @Override
+        public int hashCode()
+        { return System.identityHashCode(referent); }
+        
+        @Override
+        public boolean equals(Object obj)
+        {
+            if(obj instanceof WeakKey)
+                return ((WeakKey)obj).get() == referent;
+            
+            return obj instanceof LookupKey && ((LookupKey)obj).referent == referent;
+        }
+    }
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Fields">
+    /**
+     * The recorded raises of each event, by weak keys of the events.
+     */
+    protected final ConcurrentMap<Object, EventRecord> events = new ConcurrentHashMap<Object, EventRecord>();
+    
+    /**
+     * The recorded durations of each listener, by weak keys of the listeners, or of their methods for annotated
+     * listeners, so that the listeners of a method are recorded together whichever objects they call it on.
+     */
+    protected final ConcurrentMap<Object, Histogram> listeners = new ConcurrentHashMap<Object, Histogram>();
+    
+    /**
+     * The queue the keys of events and listeners are enqueued on once they've been garbage collected, so that their
+     * records can be discarded.
+     */
+    protected final ReferenceQueue<Object> staleKeys = new ReferenceQueue<Object>();
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Methods">
+    @Override
+    public boolean isEnabled()
+    { return true; }
+    
+    @Override
+    public void eventRaised(Event<? extends EventArgs> event, EventArgs args)
+    {
+        EventRecord record = events.get(new LookupKey(event));
+        
+        if(record == null)
+            record = putIfAbsent(events, event, new EventRecord());
+        
+        record.raises.increment();
+        
+        if(args.isCancelled())
+            record.cancellations.increment();
+    }
+    
+    @Override
+    public void listenerCalled(EventListener<? extends EventArgs> listener, EventArgs args, long nanoseconds)
+    {
+        Object key = getListenerKey(listener);
+        Histogram histogram = listeners.get(new LookupKey(key));
+        
+        if(histogram == null)
+            histogram = putIfAbsent(listeners, key, new Histogram());
+        
+        histogram.record(nanoseconds);
+    }
+    
+    /**
+     * Gets what the durations of the passed listener are recorded against.
+     * @param listener The listener.
+     * @return The listener's method where it's an annotated listener, otherwise the listener itself.
+     */
+    protected static Object getListenerKey(EventListener<? extends EventArgs> listener)
+    { return listener instanceof AnnotatedListener ? ((AnnotatedListener<?>)listener).getMethod() : listener; }
+    
+    /**
+     * Adds the passed record to the passed map, weakly keyed by the passed object, unless a record is already present
+     * for it. Discards the records of objects that have since been garbage collected first.
+     * @param <TRecord> The type of the record.
+     * @param records The map to add the record to.
+     * @param of The object the record is of.
+     * @param record The record to add.
+     * @return The record already present for the object, or the passed record where there wasn't one.
+     */
+    protected <TRecord> TRecord putIfAbsent(ConcurrentMap<Object, TRecord> records, Object of, TRecord record)
+    {
+        for(Reference<?> i = staleKeys.poll(); i != null; i = staleKeys.poll())
+        {
+            events.remove(i);
+            listeners.remove(i);
+        }
+        
+        TRecord existing = records.putIfAbsent(new WeakKey(of, staleKeys), record);
+        return existing != null ? existing : record;
+    }
+    
+    /**
+     * Gets the recorded raises of the passed event.
+     * @param event The event to get the record of.
+     * @return The record of the event's raises, or null if none have been recorded.
+     */
+    public EventRecord getEventRecord(Event<? extends EventArgs> event)
+    { return events.get(new LookupKey(event)); }
+    
+    /**
+     * Gets the recorded durations of the passed listener, or where it's an annotated listener, of all of the listeners
+     * of its method.
+     * @param listener The listener.
+     * @return The histogram of durations of the listener, or null if none have been recorded.
+     */
+    public Histogram getListenerHistogram(EventListener<? extends EventArgs> listener)
+    { return listeners.get(new LookupKey(getListenerKey(listener))); }
+    
+    /**
+     * Discards everything recorded so far.
+     */
+    public void reset()
+    {
+        events.clear();
+        listeners.clear();
+    }
+    
+    /**
+     * Gets a human-readable summary of what's been recorded, one line per event or listener, with listeners ordered by
+     * the total time taken, longest first. Intended for printing via a command.
+     * @param maxListeners The maximum number of listeners to include.
+     * @return The lines of the summary.
+     */
+    public List<String> getReport(int maxListeners)
+    {
+        List<String> lines = new ArrayList<String>();
+        
+        for(Map.Entry<Object, EventRecord> i : events.entrySet())
+        {
+            Object event = ((WeakKey)i.getKey()).get();
+            
+            if(event != null)
+                lines.add(String.format("%s: %d raises, %.1f%% cancelled",
+                                        event,
+                                        i.getValue().getRaiseCount(),
+                                        i.getValue().getCancellationRate() * 100));
+        }
+        
+        List<Map.Entry<Object, Histogram>> listenerEntries = new ArrayList<Map.Entry<Object, Histogram>>();
+        
+        for(Map.Entry<Object, Histogram> i : listeners.entrySet())
+            if(((WeakKey)i.getKey()).get() != null)
+                listenerEntries.add(i);
+        
+        Collections.sort(listenerEntries, new Comparator<Map.Entry<Object, Histogram>>()
+        {
+            @Override
+            public int compare(Map.Entry<Object, Histogram> o1, Map.Entry<Object, Histogram> o2)
+            {
+                long total1 = o1.getValue().getTotalNanoseconds(), total2 = o2.getValue().getTotalNanoseconds();
+                return total1 < total2 ? 1 : (total1 == total2 ? 0 : -1);
+            }
+        });
+        
+        for(int i = 0; i < listenerEntries.size() && i < maxListeners; i++)
+        {
+            Histogram histogram = listenerEntries.get(i).getValue();
+            
+            lines.add(String.format("%s: %d calls, %dns total, %.0fns mean, <=%dns p99, %dns max",
+                                    describeListener(((WeakKey)listenerEntries.get(i).getKey()).get()),
+                                    histogram.getCount(),
+                                    histogram.getTotalNanoseconds(),
+                                    histogram.getMeanNanoseconds(),
+                                    histogram.getPercentileNanoseconds(0.99),
+                                    histogram.getMaxNanoseconds()));
+        }
+        
+        return lines;
+    }
+    
+    /**
+     * Gets a name for what listener durations are recorded against, for reports.
+     * @param key The listener or method, or null where it's since been garbage collected.
+     * @return The method's class and name, or the listener's class and identity hash code.
+     */
+    protected static String describeListener(Object key)
+    {
+        if(key instanceof Method)
+            return ((Method)key).getDeclaringClass().getName() + "." + ((Method)key).getName();
+        
+        if(key == null)
+            return "(collected)";
+        
+        return key.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(key));
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,22 @@
+package com.enkigaming.lib.events;
+
+/**
+ * An event args object that can be returned to the state it was in before it was first used in an event raise, so that
+ * it can be reused, e.g. via EventArgsPool, rather than creating a new one for every raise of a frequently raised
+ * event. Kept separate from EventArgs, so that implementations of it that can't be reused aren't required to be.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+public interface ResettableEventArgs extends EventArgs
+{
+    /**
+     * Returns the event args object to the state it was in before it was first used in an event raise, so that it can
+     * be used in another. Clears the event, parent args, dependent args, related master args, listener queue,
+     * cancellation state and mutability.
+     * 
+     * Dependent args generated from this in previous raises still reference this as their parent args, so they
+     * shouldn't be held onto by listeners of events whose args are reused.
+     * @throws com.enkigaming.lib.events.exceptions.EventArgsResetWhileInUseException If the event args (or its master
+     * args) have been marked as being used pre-event, but not yet as having been used post-event.
+     */
+    void reset();
+}
@@ -1,23 +1,39 @@
 package com.enkigaming.lib.events;
 
 import com.enkigaming.lib.collections.CollectionMethods;
-import com.enkigaming.lib.collections.CombinedQueue;
-import com.enkigaming.lib.collections.SortedQueue;
+import com.enkigaming.lib.collections.DoublePriorityQueue;
+import com.enkigaming.lib.collections.SnapshotCombinedQueue;
 import static com.enkigaming.lib.convenience.SanityChecks.*;
 import com.enkigaming.lib.encapsulatedfunctions.Converger;
 import com.enkigaming.lib.encapsulatedfunctions.Transformer;
+import com.enkigaming.lib.events.exceptions.DependentEventCycleException;
+import com.enkigaming.lib.events.exceptions.EventArgsMultipleUseException;
 import com.enkigaming.lib.exceptions.NullArgumentException;
 import com.enkigaming.lib.tuples.Pair;
 import com.enkigaming.lib.tuples.Triplet;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
-import java.util.WeakHashMap;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The standard implementation of the Event interface.
@@ -27,36 +43,1224 @@ import java.util.WeakHashMap;
 public class StandardEvent<T extends EventArgs> implements Event<T>
 {
     /**
-     * The strongly-registered event listeners. Each of these will have their onEvent methods called when this event is
-     * raised.
+     * The current snapshot of this event's registered listeners and dependent events, used when raising it. Never
+     * modified - registering or deregistering a listener or dependent event replaces it with a modified copy, so that
+     * raises can read it without locking, and without copying it.
+     * 
+     * Strongly-registered listeners will have their onEvent methods called when this event is raised. Weakly-registered
+     * listeners will too, until the garbage collector collects them, which being registered won't stop it from doing.
+     * 
+     * Dependent events have their listeners' onEvent methods called alongside the listeners in this event. The
+     * EventArgs objects passed to each dependent event is generated using the converger object stored with the
+     * dependent event. Weakly-registered dependent events will no longer have their listeners called once collected by
+     * the garbage collector.
      */
-    protected final Map<EventListener<T>, Double> listeners = new HashMap<EventListener<T>, Double>();
+    protected volatile DispatchPlan<T> dispatchPlan = new DispatchPlan<T>();
     
     /**
-     * The weakly-registered event listeners. Each of these will have their onEvent methods called when this event is
-     * raised. When the garbage-collector collects a listener in this map (which the map itself won't stop it from
-     * doing), it will no longer be contained within the map, and thus will no longer have its onEvent methods called
-     * when this event is raised.
+     * Held while replacing the dispatch plan, so that concurrent registrations don't overwrite eachother's changes.
+     * Raises never need to hold this.
      */
-    protected final Map<EventListener<T>, Double> weakListeners = new WeakHashMap<EventListener<T>, Double>();
+    protected final Object registrationsBusy = new Object();
     
     /**
-     * The strongly-registered dependent events. Each of these have their listeners' onEvent methods called alongside
-     * the listeners in this event. The EventArgs objects passed to each dependent event is generated using the
-     * converger object stored with the dependent event.
+     * This event's dependent events, cascadingly, flattened as of when it was last needed, or null where it hasn't
+     * been needed yet. Rebuilt on next being needed once out of date.
      */
-    protected final Map<Event<?>, Converger<Object, T, ? extends EventArgs>> dependentEvents
-        = new HashMap<Event<?>, Converger<Object, T, ? extends EventArgs>>();
+    protected volatile DependencyClosure dependencyClosure = null;
     
     /**
-     * The weakly-registered dependent events. Each of these have their listeners' onEvent methods called alongside the
-     * listeners in this event. The EventArgs objects passed to each dependent event is generated using the converger
-     * object stored with the dependent event. When the garbage collector collects an event in this map (which the map
-     * itself won't stop it from doing), it will no longer be contained within the map, and thus will no longer have its
-     * listeners called alongside this event's listeners when this event is raised.
+     * The dispatch plans of this event and its dependent events, cascadingly, merged as of when it was last needed, or
+     * null where it hasn't been needed yet. Rebuilt on next being needed once out of date.
      */
-    protected final Map<Event<?>, Converger<Object, T, ? extends EventArgs>> weakDependentEvents
-        = new WeakHashMap<Event<?>, Converger<Object, T, ? extends EventArgs>>();
+    protected volatile MergedPlan mergedPlan = null;
+    
+    /**
+     * Held while checking that registering dependent events won't make any event dependent on itself and registering
+     * them, so that two events can't concurrently be registered as dependent on eachother.
+     */
+    protected static final Object dependencyGraphBusy = new Object();
+    
+    /**
+     * The queue that references to weakly-registered listeners and dependent events are enqueued on once they've been
+     * garbage collected. Drained whenever the dispatch plan is rebuilt, as rebuilding it drops the collected entries.
+     */
+    protected final ReferenceQueue<Object> staleReferences = new ReferenceQueue<Object>();
+    
+    /**
+     * The parts of asynchronous raises of this event that have been handed off to be run on executors, in the order
+     * they should be run. Also held while checking or modifying asyncRaisesRunning.
+     */
+    protected final Queue<FutureTask<Object>> asyncRaises = new ArrayDeque<FutureTask<Object>>();
+    
+    /**
+     * Whether or not a task is currently running, or waiting to run, on an executor, working through asyncRaises.
+     */
+    protected boolean asyncRaisesRunning = false;
+    
+    /**
+     * The number of times an args getter of one of this event's dependent events hasn't been called on raising it,
+     * because neither the dependent event nor any of its own dependants, cascadingly, had any listeners.
+     */
+    protected final AtomicLong skippedArgsGetterCalls = new AtomicLong(0);
+    
+    /**
+     * The metrics passed measurements of event raises and listener calls. NONE by default, in which case nothing is
+     * measured.
+     */
+    protected static volatile EventMetrics metrics = EventMetrics.NONE;
+    
+    /**
+     * Whether or not the metrics in use are enabled, as of when they were set. Checked before every listener call, so
+     * that listener calls don't pay for a call to the metrics where nothing's being measured. Volatile so that the JIT
+     * can't hoist the check out of loops calling listeners, and so that setting the metrics takes effect straight away
+     * on threads already raising events.
+     */
+    protected static volatile boolean measuring = false;
+    
+    /**
+     * Whether or not each listener class has a method marked with WeakListener, and so should be weakly registered.
+     * Worked out once per class, as checking requires looking through all of the class's methods.
+     */
+    protected static final ClassValue<Boolean> weakListenerClasses = new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            for(Method method : type.getMethods())
+                if(method.isAnnotationPresent(WeakListener.class))
+                    return true;
+            
+            return false;
+        }
+    };
+    
+    /**
+     * Whether or not each listener class has a method marked with ConcurrentListener, worked out once per class.
+     */
+    protected static final ClassValue<Boolean> concurrentListenerClasses = new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            for(Method method : type.getMethods())
+                if(method.isAnnotationPresent(ConcurrentListener.class))
+                    return true;
+            
+            return false;
+        }
+    };
+    
+    /**
+     * The pool listeners marked with ConcurrentListener are called on, alongside the thread raising the event. The
+     * common pool by default.
+     */
+    protected static volatile ForkJoinPool concurrentListenerPool = ForkJoinPool.commonPool();
+    
+    /**
+     * An immutable snapshot of an event's listeners, sorted by priority, and its directly dependent events along with
+     * their args getters. Used when raising an event so that its listeners don't need to be copied and sorted on every
+     * raise.
+     * @param <T> The type of the eventargs object passed to the listeners in this plan.
+     */
+    protected static final class DispatchPlan<T extends EventArgs>
+    {
+        /**
+         * Constructor. Creates a plan with no listeners or dependent events.
+         */
+        DispatchPlan()
+        {
+            this(new EventListener<?>[0], StandardEvent.<EventListener<?>>newWeakReferenceArray(0), new double[0],
+                 new Event<?>[0], StandardEvent.<Event<?>>newWeakReferenceArray(0),
+                 StandardEvent.<T>newArgsGetterArray(0), 0);
+        }
+        
+        /**
+         * Constructor. Creates a plan with the passed listeners and dependent events, which should already be in order.
+         * @param listeners The strongly-registered listeners, null where weakly registered.
+         * @param weakListeners The weakly-registered listeners, null where strongly registered.
+         * @param priorities The priorities of the listeners, in ascending order.
+         * @param dependentEvents The strongly-registered dependent events, null where weakly registered.
+         * @param weakDependentEvents The weakly-registered dependent events, null where strongly registered.
+         * @param argsGetters The args getters of the dependent events.
+         * @param dependentEventsVersion The number of times dependent events have been registered or deregistered.
+         */
+        DispatchPlan(EventListener<?>[] listeners,
+                     WeakReference<EventListener<?>>[] weakListeners,
+                     double[] priorities,
+                     Event<?>[] dependentEvents,
+                     WeakReference<Event<?>>[] weakDependentEvents,
+                     Converger<Object, T, ? extends EventArgs>[] argsGetters,
+                     long dependentEventsVersion)
+        {
+            this.listeners           = listeners;
+            this.weakListeners       = weakListeners;
+            this.priorities          = priorities;
+            this.dependentEvents     = dependentEvents;
+            this.weakDependentEvents = weakDependentEvents;
+            this.argsGetters         = argsGetters;
+            this.dependentEventsVersion = dependentEventsVersion;
+        }
+        
+        /**
+         * Compiles a plan from the passed listeners and dependent events, all of which are treated as being strongly
+         * registered. Used for events that aren't StandardEvents.
+         * @param <T> The type of the eventargs object passed to the listeners.
+         * @param listeners The listeners and their priorities.
+         * @param dependentEvents The dependent events and their args getters.
+         * @return A plan containing the passed listeners and dependent events.
+         */
+        static <T extends EventArgs> DispatchPlan<T> compile(
+                Map<EventListener<T>, Double> listeners,
+                Map<Event<?>, Converger<Object, T, ? extends EventArgs>> dependentEvents)
+        {
+            Builder<T> builder = new DispatchPlan<T>().toBuilder();
+            
+            for(Map.Entry<EventListener<T>, Double> i : listeners.entrySet())
+                builder.addListener(i.getKey(), i.getValue(), false);
+            
+            for(Map.Entry<Event<?>, Converger<Object, T, ? extends EventArgs>> i : dependentEvents.entrySet())
+                builder.addDependentEvent(i.getKey(), i.getValue(), false);
+            
+            return builder.build();
+        }
+        
+        /**
+         * The strongly-registered listeners, in order of priority. Null at positions held by weakly-registered
+         * listeners.
+         */
+        final EventListener<?>[] listeners;
+        
+        /**
+         * References to the weakly-registered listeners, at the positions they hold in the priority order. Null at
+         * positions held by strongly-registered listeners.
+         */
+        final WeakReference<EventListener<?>>[] weakListeners;
+        
+        /**
+         * The priorities of the listeners, in ascending order.
+         */
+        final double[] priorities;
+        
+        /**
+         * The strongly-registered dependent events. Null at positions held by weakly-registered dependent events.
+         */
+        final Event<?>[] dependentEvents;
+        
+        /**
+         * References to the weakly-registered dependent events. Null at positions held by strongly-registered ones.
+         */
+        final WeakReference<Event<?>>[] weakDependentEvents;
+        
+        /**
+         * The args getters of the dependent events, at the same positions as the events they're for.
+         */
+        final Converger<Object, T, ? extends EventArgs>[] argsGetters;
+        
+        /**
+         * Incremented from the previous plan's each time a plan is built with dependent events added or removed, so
+         * that dependency closures can tell whether an event's dependent events have changed without comparing them.
+         * Unchanged by listeners being registered or deregistered, or collected dependent events being dropped.
+         */
+        final long dependentEventsVersion;
+        
+        /**
+         * Gets the number of listeners in this plan, including weakly-registered listeners that may have since been
+         * garbage collected.
+         * @return The number of listeners.
+         */
+        int getListenerCount()
+        { return priorities.length; }
+        
+        /**
+         * Gets the listener at the given position in the priority order.
+         * @param index The position of the listener.
+         * @return The listener, or null if it was weakly registered and has since been garbage collected.
+         */
+        EventListener<?> getListener(int index)
+        {
+            EventListener<?> listener = listeners[index];
+            return listener != null ? listener : weakListeners[index].get();
+        }
+        
+        /**
+         * Gets whether or not the listener at the given position was weakly registered.
+         * @param index The position of the listener.
+         * @return True if it was weakly registered, false if it was strongly registered.
+         */
+        boolean isWeakListener(int index)
+        { return listeners[index] == null; }
+        
+        /**
+         * Gets the number of dependent events in this plan, including weakly-registered events that may have since
+         * been garbage collected.
+         * @return The number of dependent events.
+         */
+        int getDependentEventCount()
+        { return argsGetters.length; }
+        
+        /**
+         * Gets the dependent event at the given position.
+         * @param index The position of the dependent event.
+         * @return The dependent event, or null if it was weakly registered and has since been garbage collected.
+         */
+        Event<?> getDependentEvent(int index)
+        {
+            Event<?> event = dependentEvents[index];
+            return event != null ? event : weakDependentEvents[index].get();
+        }
+        
+        /**
+         * Gets whether or not the dependent event at the given position was weakly registered.
+         * @param index The position of the dependent event.
+         * @return True if it was weakly registered, false if it was strongly registered.
+         */
+        boolean isWeakDependentEvent(int index)
+        { return dependentEvents[index] == null; }
+        
+        /**
+         * Gets a builder containing the contents of this plan, less any weakly-registered listeners or dependent events
+         * that have been garbage collected, for creating a modified copy of it.
+         * @return A new builder.
+         */
+        Builder<T> toBuilder()
+        { return new Builder<T>(this); }
+        
+        /**
+         * Gets a builder containing the contents of this plan, less any weakly-registered listeners or dependent events
+         * that have been garbage collected, which registers references to weakly-registered listeners and dependent
+         * events added to it with the passed reference queue.
+         * @param staleReferences The queue to register new weak references with.
+         * @return A new builder.
+         */
+        Builder<T> toBuilder(ReferenceQueue<Object> staleReferences)
+        {
+            Builder<T> builder = new Builder<T>(this);
+            builder.staleReferences = staleReferences;
+            return builder;
+        }
+        
+        /**
+         * Mutable copy of a dispatch plan, used for creating a modified plan when registrations change.
+         * @param <T> The type of the eventargs object passed to the listeners in the plan.
+         */
+        static final class Builder<T extends EventArgs>
+        {
+            Builder(DispatchPlan<T> source)
+            {
+                for(int i = 0; i < source.getListenerCount(); i++)
+                {
+                    if(source.getListener(i) == null)
+                        continue;
+                    
+                    listeners.add(source.listeners[i]);
+                    weakListeners.add(source.weakListeners[i]);
+                    priorities.add(source.priorities[i]);
+                }
+                
+                for(int i = 0; i < source.getDependentEventCount(); i++)
+                {
+                    if(source.getDependentEvent(i) == null)
+                        continue;
+                    
+                    dependentEvents.add(source.dependentEvents[i]);
+                    weakDependentEvents.add(source.weakDependentEvents[i]);
+                    argsGetters.add(source.argsGetters[i]);
+                }
+                
+                dependentEventsVersion = source.dependentEventsVersion;
+            }
+            
+            final List<EventListener<?>> listeners = new ArrayList<EventListener<?>>();
+            final List<WeakReference<EventListener<?>>> weakListeners = new ArrayList<WeakReference<EventListener<?>>>();
+            final List<Double> priorities = new ArrayList<Double>();
+            final List<Event<?>> dependentEvents = new ArrayList<Event<?>>();
+            final List<WeakReference<Event<?>>> weakDependentEvents = new ArrayList<WeakReference<Event<?>>>();
+            final List<Converger<Object, T, ? extends EventArgs>> argsGetters
+                = new ArrayList<Converger<Object, T, ? extends EventArgs>>();
+            
+            /**
+             * The queue references to weakly-registered listeners and dependent events are registered with, so that
+             * the event knows when they've been collected. Null where they aren't registered with one.
+             */
+            ReferenceQueue<Object> staleReferences = null;
+            
+            /**
+             * The dependent events version of the plan this builder was created from.
+             */
+            final long dependentEventsVersion;
+            
+            /**
+             * Whether or not any dependent events have been added or removed since this builder was created.
+             */
+            boolean dependentEventsChanged = false;
+            
+            /**
+             * Adds a listener, after any listeners already present with the same priority. If the listener is already
+             * present, it's moved to its new priority.
+             * @param listener The listener to add.
+             * @param priority The priority to add it at.
+             * @param weak Whether or not to hold the listener weakly.
+             */
+            void addListener(EventListener<T> listener, double priority, boolean weak)
+            {
+                removeListener(listener);
+                
+                int position = priorities.size();
+                
+                while(position > 0 && priorities.get(position - 1) > priority)
+                    position--;
+                
+                listeners.add(position, weak ? null : listener);
+                weakListeners.add(position, weak ? new WeakReference<EventListener<?>>(listener, staleReferences)
+                                                 : null);
+                priorities.add(position, priority);
+            }
+            
+            /**
+             * Removes a listener.
+             * @param listener The listener to remove.
+             * @return True if it was present, false if it wasn't.
+             */
+            boolean removeListener(EventListener<?> listener)
+            {
+                for(int i = 0; i < priorities.size(); i++)
+                {
+                    EventListener<?> current = listeners.get(i) != null ? listeners.get(i) : weakListeners.get(i).get();
+                    
+                    if(listener.equals(current))
+                    {
+                        listeners.remove(i);
+                        weakListeners.remove(i);
+                        priorities.remove(i);
+                        return true;
+                    }
+                }
+                
+                return false;
+            }
+            
+            /**
+             * Adds a dependent event. If the event is already present, its args getter is replaced.
+             * @param event The event to add.
+             * @param argsGetter The args getter for generating the event's args from the args passed to this one.
+             * @param weak Whether or not to hold the event weakly.
+             */
+            void addDependentEvent(Event<?> event, Converger<Object, T, ? extends EventArgs> argsGetter, boolean weak)
+            {
+                removeDependentEvent(event);
+                dependentEvents.add(weak ? null : event);
+                weakDependentEvents.add(weak ? new WeakReference<Event<?>>(event, staleReferences) : null);
+                argsGetters.add(argsGetter);
+                dependentEventsChanged = true;
+            }
+            
+            /**
+             * Removes a dependent event.
+             * @param event The event to remove.
+             * @param weak Whether to remove the event where it's weakly registered, rather than strongly registered.
+             * @return True if it was present with the specified strength, false if it wasn't.
+             */
+            boolean removeDependentEvent(Event<?> event, boolean weak)
+            {
+                for(int i = 0; i < argsGetters.size(); i++)
+                {
+                    Event<?> current = weak ? (weakDependentEvents.get(i) == null ? null : weakDependentEvents.get(i).get())
+                                            : dependentEvents.get(i);
+                    
+                    if(event.equals(current))
+                    {
+                        dependentEvents.remove(i);
+                        weakDependentEvents.remove(i);
+                        argsGetters.remove(i);
+                        dependentEventsChanged = true;
+                        return true;
+                    }
+                }
+                
+                return false;
+            }
+            
+            /**
+             * Removes a dependent event, whether it was strongly or weakly registered.
+             * @param event The event to remove.
+             * @return True if it was present, false if it wasn't.
+             */
+            boolean removeDependentEvent(Event<?> event)
+            { return removeDependentEvent(event, false) | removeDependentEvent(event, true); }
+            
+            /**
+             * Creates a dispatch plan from the current contents of this builder.
+             * @return A new dispatch plan.
+             */
+            DispatchPlan<T> build()
+            {
+                double[] priorityArray = new double[priorities.size()];
+                
+                for(int i = 0; i < priorityArray.length; i++)
+                    priorityArray[i] = priorities.get(i);
+                
+                WeakReference<EventListener<?>>[] weakListenerArray = newWeakReferenceArray(weakListeners.size());
+                WeakReference<Event<?>>[] weakDependentEventArray = newWeakReferenceArray(weakDependentEvents.size());
+                Converger<Object, T, ? extends EventArgs>[] argsGetterArray = newArgsGetterArray(argsGetters.size());
+                
+                return new DispatchPlan<T>(listeners.toArray(new EventListener<?>[listeners.size()]),
+                                           weakListeners.toArray(weakListenerArray),
+                                           priorityArray,
+                                           dependentEvents.toArray(new Event<?>[dependentEvents.size()]),
+                                           weakDependentEvents.toArray(weakDependentEventArray),
+                                           argsGetters.toArray(argsGetterArray),
+                                           dependentEventsChanged ? dependentEventsVersion + 1 : dependentEventsVersion);
+            }
+        }
+    }
+    
+    /**
+     * The dependent events of an event, cascadingly, each appearing once, in an order where every event comes after all
+     * of the events it's directly dependent on, along with the dependent event registrations between them. Where an
+     * event is dependent on the event this is the closure of via more than one chain of registrations, it's still only
+     * in the closure once, although it has its args generated and its listeners called once per chain on raising it.
+     * 
+     * Built from the dependent events of the events in it as they were at the time, and only valid for as long as none
+     * of them have had dependent events registered or deregistered since. This is checked against each event's own
+     * dependent events version, so registering listeners, or registering anything to events outside of the closure,
+     * doesn't make it out of date. The dependent events of events that aren't StandardEvents are compared against those
+     * recorded instead. Dependent events garbage collected since are skipped over until then.
+     */
+    protected static final class DependencyClosure
+    {
+        /**
+         * Constructor. Sorts the passed event and its dependent events, cascadingly, as they currently are.
+         * @param event The event to get the closure of.
+         * @throws DependentEventCycleException If the event is, cascadingly, dependent on itself.
+         */
+        DependencyClosure(Event<? extends EventArgs> event)
+        { this(event, null); }
+        
+        /**
+         * Constructor. Sorts the passed event and its dependent events, cascadingly, as they currently are, using the
+         * passed plan for the passed event's dependent events rather than its own, where one is passed.
+         * @param event The event to get the closure of.
+         * @param rootPlan The plan to use for the event, or null to use its own.
+         * @throws DependentEventCycleException If the event is, cascadingly, dependent on itself.
+         */
+        DependencyClosure(Event<? extends EventArgs> event, DispatchPlan<?> rootPlan)
+        {
+            Map<Event<?>, DispatchPlan<?>> plansByEvent = new IdentityHashMap<Event<?>, DispatchPlan<?>>();
+            Map<Event<?>, Event<?>[]> dependentsByEvent = new IdentityHashMap<Event<?>, Event<?>[]>();
+            Set<Event<?>> chain = Collections.newSetFromMap(new IdentityHashMap<Event<?>, Boolean>());
+            List<Event<?>> finished = new ArrayList<Event<?>>();
+            
+            this.rootPlan = rootPlan;
+            visit(event, rootPlan != null ? rootPlan : getDispatchPlanOf(event), chain, plansByEvent, dependentsByEvent,
+                  finished);
+            
+            int size = finished.size();
+            Map<Event<?>, Integer> positions = new IdentityHashMap<Event<?>, Integer>();
+            List<List<Integer>> parentsLists = new ArrayList<List<Integer>>();
+            List<List<Converger<Object, EventArgs, ? extends EventArgs>>> argsGettersLists
+                = new ArrayList<List<Converger<Object, EventArgs, ? extends EventArgs>>>();
+            boolean[] strong = new boolean[size];
+            
+            events = new Event<?>[size];
+            weakEvents = newWeakReferenceArray(size);
+            dependentEventsVersions = new long[size];
+            nonStandardPlans = new DispatchPlan<?>[size];
+            edgeStarts = new int[size + 1];
+            strong[0] = true;
+            
+            // Events finish being visited after all of their dependants, so the reverse of that is a topological order.
+            for(int i = 0; i < size; i++)
+            {
+                positions.put(finished.get(size - 1 - i), i);
+                parentsLists.add(new ArrayList<Integer>());
+                argsGettersLists.add(new ArrayList<Converger<Object, EventArgs, ? extends EventArgs>>());
+            }
+            
+            int edgeCount = 0;
+            
+            for(int i = 0; i < size; i++)
+            {
+                Event<?> current = finished.get(size - 1 - i);
+                Event<?>[] dependents = dependentsByEvent.get(current);
+                
+                // Args getters are only ever passed args of the type of the event they're registered to.
+                @SuppressWarnings("unchecked")
+                DispatchPlan<EventArgs> plan = (DispatchPlan<EventArgs>)plansByEvent.get(current);
+                
+                if(current instanceof StandardEvent)
+                    dependentEventsVersions[i] = plan.dependentEventsVersion;
+                else
+                    nonStandardPlans[i] = plan;
+                
+                for(int j = 0; j < dependents.length; j++)
+                {
+                    if(dependents[j] == null) // Weakly registered and since garbage collected.
+                        continue;
+                    
+                    int dependent = positions.get(dependents[j]);
+                    parentsLists.get(dependent).add(i);
+                    argsGettersLists.get(dependent).add(plan.argsGetters[j]);
+                    strong[dependent] |= !plan.isWeakDependentEvent(j);
+                    edgeCount++;
+                }
+            }
+            
+            edgeParents = new int[edgeCount];
+            edgeArgsGetters = newArgsGetterArray(edgeCount);
+            
+            for(int i = 0, edge = 0; i < size; i++)
+            {
+                Event<?> current = finished.get(size - 1 - i);
+                
+                if(strong[i])
+                    events[i] = current;
+                else
+                    weakEvents[i] = new WeakReference<Event<?>>(current);
+                
+                edgeStarts[i] = edge;
+                
+                for(int j = 0; j < parentsLists.get(i).size(); j++, edge++)
+                {
+                    edgeParents[edge] = parentsLists.get(i).get(j);
+                    edgeArgsGetters[edge] = argsGettersLists.get(i).get(j);
+                }
+            }
+            
+            edgeStarts[size] = edgeCount;
+        }
+        
+        /**
+         * The plan used for the event this is the closure of in place of its own, or null where its own was used. Where
+         * present, the closure isn't responsible for checking whether it's up to date.
+         */
+        final DispatchPlan<?> rootPlan;
+        
+        /**
+         * The events in this closure, starting with the event it's the closure of, with every event after all of the
+         * events it's directly dependent on. null where only weakly registered to the events it's dependent on, in
+         * which case it's in weakEvents at the same position instead.
+         */
+        final Event<?>[] events;
+        
+        /**
+         * References to the events in this closure only weakly registered to the events they're dependent on, so that
+         * being in a closure doesn't stop them from being garbage collected. null where strongly registered to any.
+         */
+        final WeakReference<Event<?>>[] weakEvents;
+        
+        /**
+         * The dependent events versions of the dispatch plans of the StandardEvents at the same positions, as they were
+         * when this closure was built.
+         */
+        final long[] dependentEventsVersions;
+        
+        /**
+         * The plans compiled for the events at the same positions that aren't StandardEvents when this closure was
+         * built, to compare their dependent events against. null at positions of StandardEvents.
+         */
+        final DispatchPlan<?>[] nonStandardPlans;
+        
+        /**
+         * The positions in edgeParents and edgeArgsGetters of the first registrations of the events at the same
+         * positions as dependent events, followed by the total number of registrations. The registrations of each event
+         * are in the order of the positions of the events they're registered to.
+         */
+        final int[] edgeStarts;
+        
+        /**
+         * The positions in this closure of the events each registration is to.
+         */
+        final int[] edgeParents;
+        
+        /**
+         * The args getters of the registrations at the same positions.
+         */
+        final Converger<Object, EventArgs, ? extends EventArgs>[] edgeArgsGetters;
+        
+        /**
+         * Visits the passed event and, cascadingly, its dependent events that haven't already been visited, adding
+         * each to the passed list once all of its dependants have been.
+         * @throws DependentEventCycleException If any of the event's dependants are in the passed chain of events.
+         */
+        private static void visit(Event<?> event,
+                                  DispatchPlan<?> plan,
+                                  Set<Event<?>> chain,
+                                  Map<Event<?>, DispatchPlan<?>> plans,
+                                  Map<Event<?>, Event<?>[]> dependents,
+                                  List<Event<?>> finished)
+        {
+            Event<?>[] eventDependents = new Event<?>[plan.getDependentEventCount()];
+            
+            chain.add(event);
+            plans.put(event, plan);
+            dependents.put(event, eventDependents);
+            
+            for(int i = 0; i < eventDependents.length; i++)
+                eventDependents[i] = plan.getDependentEvent(i);
+            
+            // Visited last first, so that the reversed order has dependants in the order they were registered.
+            for(int i = eventDependents.length - 1; i >= 0; i--)
+            {
+                Event<?> dependent = eventDependents[i];
+                
+                if(dependent == null) // Weakly registered and since garbage collected.
+                    continue;
+                
+                if(chain.contains(dependent))
+                    throw new DependentEventCycleException("Event is dependent on itself: " + dependent);
+                
+                if(!plans.containsKey(dependent))
+                    visit(dependent, getDispatchPlanOf(dependent), chain, plans, dependents, finished);
+            }
+            
+            chain.remove(event);
+            finished.add(event);
+        }
+        
+        /**
+         * Gets the number of events in this closure, including the event it's the closure of.
+         * @return The number of events in this closure.
+         */
+        int size()
+        { return events.length; }
+        
+        /**
+         * Gets the event at the passed position in this closure.
+         * @param index The position of the event.
+         * @return The event, or null where it was weakly registered and has since been garbage collected.
+         */
+        Event<?> getEvent(int index)
+        { return events[index] != null ? events[index] : weakEvents[index].get(); }
+        
+        /**
+         * Gets whether or not the passed event is in this closure, as in, whether it's the event this is the closure of
+         * or dependent on it, cascadingly.
+         * @param event The event to look for.
+         * @return True if the event is in this closure, otherwise false.
+         */
+        boolean contains(Event<?> event)
+        {
+            for(int i = 0; i < events.length; i++)
+                if(getEvent(i) == event)
+                    return true;
+            
+            return false;
+        }
+        
+        /**
+         * Gets whether or not this closure still reflects the events in it and their dependent events, as in, whether
+         * none of the events in it have had dependent events registered or deregistered since it was built. Where it
+         * was built from a plan other than the event's own, that plan is assumed to be up to date.
+         * @return True if this closure is up to date, otherwise false.
+         */
+        boolean isUpToDate()
+        {
+            for(int i = rootPlan != null ? 1 : 0; i < events.length; i++)
+            {
+                Event<?> event = getEvent(i);
+                
+                if(event == null) // Weakly registered and since garbage collected, so its dependants no longer matter.
+                    continue;
+                
+                if(nonStandardPlans[i] == null
+                   ? ((StandardEvent<?>)event).getDispatchPlan().dependentEventsVersion != dependentEventsVersions[i]
+                   : !hasDependentEvents(event, nonStandardPlans[i]))
+                    return false;
+            }
+            
+            return true;
+        }
+        
+        /**
+         * Gets whether or not the passed event's dependent events and their args getters are those in the passed plan.
+         * @param event The event to check.
+         * @param plan The plan compiled for the event.
+         * @return True if the event has the same dependent events, with the same args getters, otherwise false.
+         */
+        private static boolean hasDependentEvents(Event<?> event, DispatchPlan<?> plan)
+        {
+            Map<Event<? extends EventArgs>, ?> current = event.getDirectlyDependentEventsAndArgsGetters();
+            
+            if(current.size() != plan.getDependentEventCount())
+                return false;
+            
+            for(int i = 0; i < plan.getDependentEventCount(); i++)
+                if(current.get(plan.dependentEvents[i]) != plan.argsGetters[i])
+                    return false;
+            
+            return true;
+        }
+    }
+    
+    /**
+     * The dispatch plans of an event and all of its dependent events at one point in time, merged into a single order
+     * of listeners. StandardEvents keep theirs for as long as it's up to date, so raising them only generates the args
+     * for each of their dependants and pairs them with the already-merged listeners. Weakly-registered listeners and
+     * dependent events are only referred to via the plans and closure it was built from, so it doesn't stop them from
+     * being garbage collected.
+     */
+    protected static final class MergedPlan
+    {
+        /**
+         * Constructor. Merges the dispatch plans of the passed event and its dependent events, as they currently are.
+         * @param event The event being raised.
+         */
+        MergedPlan(Event<? extends EventArgs> event)
+        { this(getDependencyClosureOf(event)); }
+        
+        /**
+         * Constructor. Merges the dispatch plans of the events in the passed closure, as they currently are, using the
+         * plan the closure was built from for the event it's the closure of, where it was built from one.
+         * @param closure The dependency closure of the event being raised.
+         */
+        MergedPlan(DependencyClosure closure)
+        {
+            List<Integer> entryNodesList = new ArrayList<Integer>();
+            List<Integer> parentsList = new ArrayList<Integer>();
+            List<Converger<Object, EventArgs, ? extends EventArgs>> argsGettersList
+                = new ArrayList<Converger<Object, EventArgs, ? extends EventArgs>>();
+            List<Integer> prunedFromList = new ArrayList<Integer>();
+            this.closure = closure;
+            int size = closure.size();
+            Event<?>[] closureEvents = new Event<?>[size]; // Held so weak dependants can't be collected part-way.
+            boolean[] hasListeners = new boolean[size];
+            nodePlans = new DispatchPlan<?>[size];
+            
+            for(int i = 0; i < size; i++)
+            {
+                closureEvents[i] = closure.getEvent(i);
+                
+                if(closureEvents[i] == null) // Weakly registered and since garbage collected.
+                    continue;
+                
+                nodePlans[i] = i == 0 && closure.rootPlan != null ? closure.rootPlan
+                                                                  : getDispatchPlanOf(closureEvents[i]);
+                hasListeners[i] = nodePlans[i].getListenerCount() > 0;
+            }
+            
+            // Each event comes after the events it's dependent on, so is reached after all of its dependants in reverse.
+            for(int i = size - 1; i > 0; i--)
+                if(hasListeners[i])
+                    for(int j = closure.edgeStarts[i]; j < closure.edgeStarts[i + 1]; j++)
+                        hasListeners[closure.edgeParents[j]] = true;
+            
+            // The positions in this plan of the first and just past the last entries for the events in the closure.
+            // Events are entered once for each entry of each event they're registered to, as in, once per chain of
+            // registrations leading to them, and always after the entries of the events they're dependent on.
+            int[] entriesStarts = new int[size];
+            int[] entriesEnds = new int[size];
+            
+            entryNodesList.add(0);
+            parentsList.add(-1);
+            argsGettersList.add(null);
+            entriesEnds[0] = 1;
+            
+            for(int i = 1; i < size; i++)
+            {
+                entriesStarts[i] = entryNodesList.size();
+                
+                for(int j = closure.edgeStarts[i]; j < closure.edgeStarts[i + 1] && closureEvents[i] != null; j++)
+                {
+                    int parent = closure.edgeParents[j];
+                    
+                    for(int k = entriesStarts[parent]; k < entriesEnds[parent]; k++)
+                    {
+                        if(!hasListeners[i])
+                        {
+                            prunedFromList.add(k);
+                            continue;
+                        }
+                        
+                        entryNodesList.add(i);
+                        parentsList.add(k);
+                        argsGettersList.add(closure.edgeArgsGetters[j]);
+                    }
+                }
+                
+                entriesEnds[i] = entryNodesList.size();
+            }
+            
+            entryNodes = new int[entryNodesList.size()];
+            entryParents = new int[entryNodesList.size()];
+            entryArgsGetters = newArgsGetterArray(entryNodesList.size());
+            prunedFrom = new int[prunedFromList.size()];
+            int total = 0;
+            
+            for(int i = 0; i < entryNodes.length; i++)
+            {
+                entryNodes[i] = entryNodesList.get(i);
+                entryParents[i] = parentsList.get(i);
+                entryArgsGetters[i] = argsGettersList.get(i);
+                total += nodePlans[entryNodes[i]].getListenerCount();
+            }
+            
+            for(int i = 0; i < prunedFrom.length; i++)
+                prunedFrom[i] = prunedFromList.get(i);
+            
+            final double[] allPriorities = new double[total];
+            int[] allEntries = new int[total];
+            int[] allIndices = new int[total];
+            Integer[] order = new Integer[total];
+            
+            for(int i = 0, position = 0; i < entryNodes.length; i++)
+            {
+                DispatchPlan<?> plan = nodePlans[entryNodes[i]];
+                
+                for(int j = 0; j < plan.getListenerCount(); j++, position++)
+                {
+                    allPriorities[position] = plan.priorities[j];
+                    allEntries[position] = i;
+                    allIndices[position] = j;
+                    order[position] = position;
+                }
+            }
+            
+            // The sort is stable, so where listeners share a priority, those of earlier entries come first.
+            Arrays.sort(order, new Comparator<Integer>()
+            {
+                @Override
+                public int compare(Integer first, Integer second)
+                { return Double.compare(allPriorities[first], allPriorities[second]); }
+            });
+            
+            double postPriority = ListenerPriority.Post.getNumericalValue();
+            int postPriorityStart = total;
+            listenerEntries = new int[total];
+            listenerIndices = new int[total];
+            priorities = new double[total];
+            
+            for(int i = 0; i < total; i++)
+            {
+                listenerEntries[i] = allEntries[order[i]];
+                listenerIndices[i] = allIndices[order[i]];
+                priorities[i] = allPriorities[order[i]];
+                
+                if(postPriorityStart == total && priorities[i] >= postPriority)
+                    postPriorityStart = i;
+            }
+            
+            postEventStart = postPriorityStart;
+        }
+        
+        /**
+         * The dependency closure this plan was built from.
+         */
+        final DependencyClosure closure;
+        
+        /**
+         * The dispatch plans of the events in the closure at the same positions, as they were when this plan was
+         * built. null where the event had already been garbage collected.
+         */
+        final DispatchPlan<?>[] nodePlans;
+        
+        /**
+         * The positions in the closure of the events each entry is for, in the order their args should be generated,
+         * starting with the event being raised. Events have an entry for each chain of dependent event registrations
+         * leading to them from the event being raised, unless neither they nor their dependants have any listeners.
+         */
+        final int[] entryNodes;
+        
+        /**
+         * The entries for the events the entries at the same positions are dependent on. -1 for the event being raised.
+         */
+        final int[] entryParents;
+        
+        /**
+         * The args getters used to generate the args of the entries at the same positions from their parents' args.
+         * null for the event being raised.
+         */
+        final Converger<Object, EventArgs, ? extends EventArgs>[] entryArgsGetters;
+        
+        /**
+         * The entries whose dependent events' args getters are skipped, once for each skipped args getter, as neither
+         * the dependent events nor their own dependants have any listeners.
+         */
+        final int[] prunedFrom;
+        
+        /**
+         * The entries the listeners to be called are for, in order of priority.
+         */
+        final int[] listenerEntries;
+        
+        /**
+         * The positions of the listeners at the same positions in the dispatch plans of their events.
+         */
+        final int[] listenerIndices;
+        
+        /**
+         * The priorities of the listeners at the same positions.
+         */
+        final double[] priorities;
+        
+        /**
+         * The position of the first listener with a priority of or greater than the post-event priority.
+         */
+        final int postEventStart;
+        
+        /**
+         * Gets the number of listeners in this plan, including weakly-registered listeners that may have since been
+         * garbage collected.
+         * @return The number of listeners.
+         */
+        int getListenerCount()
+        { return priorities.length; }
+        
+        /**
+         * Gets the listener at the passed position in this plan.
+         * @param position The position of the listener.
+         * @return The listener, or null where it was weakly registered and has since been garbage collected.
+         */
+        EventListener<?> getListener(int position)
+        { return nodePlans[entryNodes[listenerEntries[position]]].getListener(listenerIndices[position]); }
+        
+        /**
+         * Gets whether or not this plan still reflects the listeners and dependent events of the events in it.
+         * @param currentClosure The current dependency closure of the event this plan is for.
+         * @return True if this plan was built from the passed closure and none of the events in it have had their
+         * dispatch plans replaced or been garbage collected since, otherwise false. Where the closure was built from a
+         * plan other than the event's own, that plan is assumed to be up to date.
+         */
+        boolean isUpToDate(DependencyClosure currentClosure)
+        {
+            if(currentClosure != closure)
+                return false;
+            
+            for(int i = closure.rootPlan != null ? 1 : 0; i < nodePlans.length; i++)
+            {
+                Event<?> event = closure.getEvent(i);
+                
+                if(event == null) // Collected since, so rebuilt to let go of its plan.
+                {
+                    if(nodePlans[i] != null)
+                        return false;
+                    
+                    continue;
+                }
+                
+                if(event instanceof StandardEvent ? ((StandardEvent<?>)event).getDispatchPlan() != nodePlans[i]
+                                                  : !hasListeners(event, nodePlans[i]))
+                    return false;
+            }
+            
+            return true;
+        }
+        
+        /**
+         * Gets whether or not the passed event's listeners and their priorities are those in the passed plan.
+         * @param event The event to check.
+         * @param plan The plan compiled for the event.
+         * @return True if the event has the same listeners, with the same priorities, otherwise false.
+         */
+        private static boolean hasListeners(Event<?> event, DispatchPlan<?> plan)
+        {
+            Map<? extends EventListener<?>, Double> current = event.getListenersWithPriorities();
+            
+            if(current.size() != plan.getListenerCount())
+                return false;
+            
+            for(int i = 0; i < plan.getListenerCount(); i++)
+            {
+                Double priority = current.get(plan.listeners[i]);
+                
+                if(priority == null || priority != plan.priorities[i])
+                    return false;
+            }
+            
+            return true;
+        }
+        
+        /**
+         * Generates the args to be passed to the listeners of each of the entries in this plan, from the args passed
+         * to the event being raised.
+         * @param sender The object that caused the event raise.
+         * @param args The args passed to the event being raised.
+         * @return The args for each of the entries in this plan, at the same positions. null for entries of events
+         * that have been garbage collected since this plan was built, and their dependants.
+         */
+        EventArgs[] generateArgs(Object sender, EventArgs args)
+        {
+            EventArgs[] allArgs = new EventArgs[entryNodes.length];
+            allArgs[0] = args;
+            
+            for(int i : prunedFrom)
+                countSkippedArgsGetterCalls(closure.getEvent(entryNodes[i]), 1);
+            
+            args.getTechnicalAccessor().setEvent(closure.getEvent(0));
+            
+            for(int i = 1; i < entryNodes.length; i++)
+            {
+                EventArgs parentArgs = allArgs[entryParents[i]];
+                Event<?> event = closure.getEvent(entryNodes[i]);
+                
+                if(parentArgs == null || event == null) // Weakly registered and since garbage collected.
+                    continue;
+                
+                EventArgs dependentArgs = entryArgsGetters[i].get(sender, parentArgs);
+                
+                dependentArgs.getTechnicalAccessor().setParentArgs(parentArgs);
+                parentArgs.getTechnicalAccessor().addDependentArgs(dependentArgs);
+                dependentArgs.getTechnicalAccessor().setEvent(event);
+                allArgs[i] = dependentArgs;
+            }
+            
+            return allArgs;
+        }
+        
+        /**
+         * Calls the listener at the passed position with the matching args out of the passed args.
+         * @param position The position of the listener.
+         * @param sender The object that caused the event raise.
+         * @param allArgs The args of each of the entries in this plan, as generated by generateArgs.
+         */
+        void callListener(int position, Object sender, EventArgs[] allArgs)
+        {
+            EventArgs args = allArgs[listenerEntries[position]];
+            EventListener<?> listener = getListener(position);
+            
+            if(args == null || listener == null) // Weakly registered and since garbage collected.
+                return;
+            
+            if(priorities[position] >= ListenerPriority.Monitor.getNumericalValue())
+                args.getTechnicalAccessor().makeImmutable();
+            
+            invokeListener(listener, sender, args);
+        }
+        
+        /**
+         * Gets a queue of the post-event listeners in this plan, along with the args to pass to them.
+         * @param allArgs The args of each of the entries in this plan, as generated by generateArgs.
+         * @return A queue of post-event listeners, their priorities, and their args, to be attached to the args passed
+         * to the event being raised.
+         */
+        DoublePriorityQueue<EventListener<? extends EventArgs>, EventArgs> getPostEventQueue(EventArgs[] allArgs)
+        { return getListenerQueue(allArgs, postEventStart); }
+        
+        /**
+         * Gets a queue of the listeners in this plan from the passed position onwards, along with the args to pass to
+         * them.
+         * @param allArgs The args of each of the entries in this plan, as generated by generateArgs.
+         * @param start The position of the first listener to include.
+         * @return A queue of listeners, their priorities, and their args, in order of priority.
+         */
+        DoublePriorityQueue<EventListener<? extends EventArgs>, EventArgs> getListenerQueue(EventArgs[] allArgs,
+                                                                                           int start)
+        {
+            DoublePriorityQueue<EventListener<? extends EventArgs>, EventArgs> queue
+                = new DoublePriorityQueue<EventListener<? extends EventArgs>, EventArgs>(priorities.length - start);
+            
+            for(int i = start; i < priorities.length; i++)
+            {
+                EventArgs args = allArgs[listenerEntries[i]];
+                EventListener<?> listener = getListener(i);
+                
+                if(args != null && listener != null) // Otherwise, weakly registered and since garbage collected.
+                    queue.add(listener, priorities[i], args);
+            }
+            
+            return queue;
+        }
+    }
+    
+    /**
+     * Gets the current snapshot of this event's listeners and dependent events.
+     * @return The current dispatch plan for this event.
+     */
+    protected DispatchPlan<T> getDispatchPlan()
+    { return dispatchPlan; }
+    
+    /**
+     * Replaces this event's dispatch plan. Dependency closures containing this event are only marked as out of date
+     * where the new plan was built with dependent events added or removed. Should be called while holding
+     * registrationsBusy where registrations may be made concurrently.
+     * @param plan The new dispatch plan.
+     */
+    protected void setDispatchPlan(DispatchPlan<T> plan)
+    { dispatchPlan = plan; }
+    
+    /**
+     * Gets this event's dependent events, cascadingly, sorted so that each comes after the events it's dependent on.
+     * Only rebuilt where this event or any of its dependants have had dependent events registered or deregistered
+     * since it was last built.
+     * @return This event's dependency closure.
+     */
+    protected DependencyClosure getDependencyClosure()
+    {
+        DependencyClosure closure = dependencyClosure;
+        
+        if(closure == null || !closure.isUpToDate())
+            dependencyClosure = closure = new DependencyClosure(this);
+        
+        return closure;
+    }
+    
+    /**
+     * Gets the dispatch plans of this event and its dependent events, cascadingly, merged into a single order of
+     * listeners. Only rebuilt where this event or any of its dependants have had listeners or dependent events
+     * registered or deregistered since it was last built.
+     * @return This event's merged plan.
+     */
+    protected MergedPlan getMergedPlan()
+    {
+        MergedPlan plan = mergedPlan;
+        
+        if(plan == null || !plan.isUpToDate(getDependencyClosure()))
+            mergedPlan = plan = new MergedPlan(this);
+        
+        return plan;
+    }
+    
+    /**
+     * Checks that registering the passed events as dependent on this one wouldn't make this event dependent on
+     * itself, cascadingly.
+     * @param events The events to be registered as dependent events.
+     * @throws DependentEventCycleException If this event is any of the passed events, or dependent on any of them,
+     * cascadingly.
+     */
+    protected void checkForDependencyCycles(Collection<? extends Event<? extends EventArgs>> events)
+    {
+        for(Event<? extends EventArgs> i : events)
+            if(i == this || getDependencyClosureOf(i).contains(this))
+                throw new DependentEventCycleException("Registering " + i + " as dependent on " + this
+                                                       + " would make it dependent on itself.");
+    }
+    
+    /**
+     * Gets a builder for a modified copy of the current dispatch plan, without any collected weakly-registered
+     * listeners or dependent events. Discards the references enqueued as collected, as the builder won't contain them.
+     * Should be called while holding registrationsBusy where registrations may be made concurrently.
+     * @return A new builder.
+     */
+    protected DispatchPlan.Builder<T> getPlanBuilder()
+    {
+        while(staleReferences.poll() != null)
+        { /* Nothin' here - the builder drops collected entries. */ }
+        
+        return dispatchPlan.toBuilder(staleReferences);
+    }
+    
+    /**
+     * Removes weakly-registered listeners and dependent events that have been garbage collected from this event's
+     * dispatch plan. Raises skip collected entries anyway, so this only frees the space they take up, and only rebuilds
+     * the plan where the garbage collector has reported entries as collected since the plan was last rebuilt. Intended
+     * to be called periodically, e.g. once per server tick, for events that are rarely registered to.
+     * @return The number of collected listeners and dependent events removed.
+     */
+    public int purgeStaleWeakRegistrations()
+    {
+        if(staleReferences.poll() == null)
+            return 0;
+        
+        synchronized(registrationsBusy)
+        {
+            DispatchPlan<T> oldPlan = dispatchPlan;
+            DispatchPlan<T> newPlan = getPlanBuilder().build();
+            setDispatchPlan(newPlan);
+            
+            return (oldPlan.getListenerCount()       - newPlan.getListenerCount())
+                 + (oldPlan.getDependentEventCount() - newPlan.getDependentEventCount());
+        }
+    }
     
     /**
      * Gets a map containing all of the events weakly registered as dependent events to this one, along with the
@@ -64,40 +1268,61 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
      * @return A map containing the aforementioned events (as the keys) and convergers.
      */
     protected Map<Event<? extends EventArgs>, Converger<Object, T, ? extends EventArgs>> getWeakDependantsWithGetters()
-    {
-        synchronized(weakDependentEvents)
-        { return new HashMap<Event<? extends EventArgs>, Converger<Object, T, ? extends EventArgs>>(weakDependentEvents); }
-    }
+    { return getDependantsWithGetters(false, true); }
     
     /**
      * Gets a collection containing the events weakly registered as dependent events to this one.
      * @return A collection containing the aforementioned events.
      */
     protected Collection<Event<? extends EventArgs>> getWeakDependants()
+    { return getWeakDependantsWithGetters().keySet(); }
+    
+    /**
+     * Gets a map containing events registered as dependent events to this one, along with the convergers used for
+     * generating their event args when this event is raised.
+     * @param includeStrong Whether or not to include strongly-registered dependent events.
+     * @param includeWeak Whether or not to include weakly-registered dependent events.
+     * @return A map containing the aforementioned events (as the keys) and convergers.
+     */
+    protected Map<Event<? extends EventArgs>, Converger<Object, T, ? extends EventArgs>>
+        getDependantsWithGetters(boolean includeStrong, boolean includeWeak)
     {
-        synchronized(weakDependentEvents)
-        { return new HashSet<Event<? extends EventArgs>>(weakDependentEvents.keySet()); }
+        DispatchPlan<T> plan = getDispatchPlan();
+        Map<Event<? extends EventArgs>, Converger<Object, T, ? extends EventArgs>> result
+            = new HashMap<Event<? extends EventArgs>, Converger<Object, T, ? extends EventArgs>>();
+        
+        for(int i = 0; i < plan.getDependentEventCount(); i++)
+        {
+            if(!(plan.isWeakDependentEvent(i) ? includeWeak : includeStrong))
+                continue;
+            
+            Event<?> event = plan.getDependentEvent(i);
+            
+            if(event != null)
+                result.put(event, plan.argsGetters[i]);
+        }
+        
+        return result;
     }
     
     @Override
     public Collection<Event<? extends EventArgs>> getDependentEvents(boolean includeThis,
                                                                      boolean includeDependantsCascadingly)
     {
-        Collection<Event<? extends EventArgs>> result = new HashSet<Event<? extends EventArgs>>();
-        
-        synchronized(dependentEvents)
-        { result.addAll(dependentEvents.keySet()); }
-        
-        result.addAll(getWeakDependants());
+        Collection<Event<? extends EventArgs>> result
+            = new HashSet<Event<? extends EventArgs>>(getDirectlyDependentEventsAndArgsGetters().keySet());
         
         if(includeDependantsCascadingly)
         {
-            Collection<Event<? extends EventArgs>> cascadingDependants = new HashSet<Event<? extends EventArgs>>();
-            
-            for(Event<? extends EventArgs> i : result)
-                cascadingDependants.addAll(i.getDependentEvents(false, true));
+            DependencyClosure closure = getDependencyClosure();
             
-            result.addAll(cascadingDependants);
+            for(int i = 1; i < closure.size(); i++)
+            {
+                Event<?> dependant = closure.getEvent(i);
+                
+                if(dependant != null)
+                    result.add(dependant);
+            }
         }
         
         if(includeThis)
@@ -125,54 +1350,48 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
     @Override
     public Map<Event<? extends EventArgs>, Converger<Object, T, ? extends EventArgs>>
         getDirectlyDependentEventsAndArgsGetters()
-    {
-        Map<Event<? extends EventArgs>, Converger<Object, T, ? extends EventArgs>> result = new HashMap<Event<? extends EventArgs>, Converger<Object, T, ? extends EventArgs>>();
-        
-        synchronized(dependentEvents)
-        { result.putAll(dependentEvents); }
-        
-        result.putAll(getWeakDependantsWithGetters());
-        
-        return result;
-    }
+    { return getDependantsWithGetters(true, true); }
     
     protected Map<EventListener<T>, Double> getWeakListenersWithPriorities()
-    {
-        synchronized(weakListeners)
-        { return new HashMap<EventListener<T>, Double>(weakListeners); }
-    }
+    { return getListenersWithPriorities(false, true); }
     
     protected Collection<EventListener<T>> getWeakListeners()
+    { return getWeakListenersWithPriorities().keySet(); }
+    
+    /**
+     * Gets a map containing listeners registered to this event, along with their priorities.
+     * @param includeStrong Whether or not to include strongly-registered listeners.
+     * @param includeWeak Whether or not to include weakly-registered listeners.
+     * @return A map containing the aforementioned listeners (as the keys) and priorities.
+     */
+    protected Map<EventListener<T>, Double> getListenersWithPriorities(boolean includeStrong, boolean includeWeak)
     {
-        synchronized(weakListeners)
-        { return new HashSet<EventListener<T>>(weakListeners.keySet()); }
+        DispatchPlan<T> plan = getDispatchPlan();
+        Map<EventListener<T>, Double> result = new HashMap<EventListener<T>, Double>();
+        
+        for(int i = 0; i < plan.getListenerCount(); i++)
+        {
+            if(!(plan.isWeakListener(i) ? includeWeak : includeStrong))
+                continue;
+            
+            // Only listeners of T are ever added to this event's plan.
+            @SuppressWarnings("unchecked")
+            EventListener<T> listener = (EventListener<T>)plan.getListener(i);
+            
+            if(listener != null)
+                result.put(listener, plan.priorities[i]);
+        }
+        
+        return result;
     }
         
     @Override
     public Collection<EventListener<T>> getListeners()
-    {
-        Collection<EventListener<T>> returnListeners = new HashSet<EventListener<T>>();
-        
-        synchronized(listeners)
-        { returnListeners.addAll(listeners.keySet()); }
-        
-        returnListeners.addAll(getWeakListeners());
-        
-        return returnListeners;
-    }
+    { return getListenersWithPriorities().keySet(); }
 
     @Override
     public Map<EventListener<T>, Double> getListenersWithPriorities()
-    {
-        Map<EventListener<T>, Double> returnListeners = new HashMap<EventListener<T>, Double>();
-        
-        synchronized(listeners)
-        { returnListeners.putAll(listeners); }
-        
-        returnListeners.putAll(getWeakListenersWithPriorities());
-        
-        return returnListeners;
-    }
+    { return getListenersWithPriorities(true, true); }
 
     @Override
     public Collection<EventListener<? extends EventArgs>> getDependentListeners(boolean includeListenersOfThis,
@@ -207,6 +1426,14 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
                                          Queue<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>> listenersQueue,
                                          boolean shareCancellation)
     {
+        if(listenersQueue instanceof DoublePriorityQueue)
+        {
+            callListenersPreEvent(sender,
+                                  (DoublePriorityQueue<EventListener<? extends EventArgs>, EventArgs>)listenersQueue,
+                                  shareCancellation);
+            return;
+        }
+        
         boolean currentCancellationState = false;
         
         while(!listenersQueue.isEmpty())
@@ -225,60 +1452,582 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
             if(shareCancellation)
                 current.getThird().setCancelled(currentCancellationState);
             
-            // The type arguments of current.getListener() are guaranteed to match the type arguments of
-            // current.getArgs().
-            ((EventListener<EventArgs>)current.getFirst()).onEvent(sender, current.getThird());
+            invokeListener(current.getFirst(), sender, current.getThird());
+            
+            if(shareCancellation)
+                currentCancellationState = current.getThird().isCancelled();
+        }
+    }
+    
+    /**
+     * Calls the pre-event listeners in the passed queue, drawing them from it, without unwrapping or boxing their
+     * priorities.
+     * @param sender The object that caused the event raise.
+     * @param listenersQueue The listeners to call, their priorities, and the args to pass to them.
+     * @param shareCancellation Whether or not the cancellation state of each args object should be passed onto the
+     * next.
+     */
+    protected void callListenersPreEvent(Object sender,
+                                         DoublePriorityQueue<EventListener<? extends EventArgs>, EventArgs> listenersQueue,
+                                         boolean shareCancellation)
+    { callListenersPreEvent(sender, listenersQueue, shareCancellation, ListenerPriority.Post.getNumericalValue()); }
+    
+    /**
+     * Calls the listeners in the passed queue with a priority below the passed priority, drawing them from it, without
+     * unwrapping or boxing their priorities.
+     * @param sender The object that caused the event raise.
+     * @param listenersQueue The listeners to call, their priorities, and the args to pass to them.
+     * @param shareCancellation Whether or not the cancellation state of each args object should be passed onto the
+     * next.
+     * @param untilPriority The priority at which to stop calling listeners, leaving them in the queue.
+     */
+    protected void callListenersPreEvent(Object sender,
+                                         DoublePriorityQueue<EventListener<? extends EventArgs>, EventArgs> listenersQueue,
+                                         boolean shareCancellation,
+                                         double untilPriority)
+    {
+        boolean currentCancellationState = false;
+        double monitorPriority = ListenerPriority.Monitor.getNumericalValue();
+        boolean concurrent = !shareCancellation && callsListenersConcurrently();
+        
+        while(!listenersQueue.isEmpty())
+        {
+            double currentPriority = listenersQueue.peekPriority();
+            
+            if(currentPriority >= untilPriority)
+                break;
+            
+            EventListener<? extends EventArgs> currentListener = listenersQueue.peekFirst();
+            EventArgs currentArgs = listenersQueue.peekThird();
+            listenersQueue.skip();
+            
+            if(currentPriority >= monitorPriority)
+            {
+                currentArgs.getTechnicalAccessor().makeImmutable();
+                
+                if(concurrent
+                && callConcurrentListeners(sender, listenersQueue, currentListener, currentPriority, currentArgs))
+                    continue;
+            }
+            
+            if(shareCancellation)
+                currentArgs.setCancelled(currentCancellationState);
+            
+            invokeListener(currentListener, sender, currentArgs);
+            
+            if(shareCancellation)
+                currentCancellationState = currentArgs.isCancelled();
+        }
+    }
+    
+    /**
+     * Where the passed listener is marked with ConcurrentListener and is followed in the passed queue by others of the
+     * same priority also marked with it, draws them from the queue and calls them all at the same time, including the
+     * passed listener. The listeners are only called where their priority is Monitor or later, but before Post.
+     * @param sender The object that caused the event raise.
+     * @param listenersQueue The queue the passed listener was drawn from.
+     * @param listener The listener just drawn from the queue, not yet called.
+     * @param priority The priority of the passed listener.
+     * @param args The args to pass to the passed listener, already made immutable.
+     * @return True if the passed listener was called alongside those that follow it, otherwise false, in which case it
+     * should be called as normal.
+     */
+    protected boolean callConcurrentListeners(Object sender,
+                                              DoublePriorityQueue<EventListener<? extends EventArgs>, EventArgs> listenersQueue,
+                                              EventListener<? extends EventArgs> listener,
+                                              double priority,
+                                              EventArgs args)
+    {
+        if(priority < ListenerPriority.Monitor.getNumericalValue()
+        || priority >= ListenerPriority.Post.getNumericalValue()
+        || listenersQueue.isEmpty()
+        || listenersQueue.peekPriority() != priority
+        || !isConcurrentListener(listener)
+        || !isConcurrentListener(listenersQueue.peekFirst()))
+            return false;
+        
+        List<EventListener<? extends EventArgs>> listeners = new ArrayList<EventListener<? extends EventArgs>>();
+        List<EventArgs> listenersArgs = new ArrayList<EventArgs>();
+        
+        listeners.add(listener);
+        listenersArgs.add(args);
+        
+        while(!listenersQueue.isEmpty()
+           && listenersQueue.peekPriority() == priority
+           && isConcurrentListener(listenersQueue.peekFirst()))
+        {
+            EventArgs nextArgs = listenersQueue.peekThird();
+            
+            nextArgs.getTechnicalAccessor().makeImmutable();
+            listeners.add(listenersQueue.peekFirst());
+            listenersArgs.add(nextArgs);
+            listenersQueue.skip();
+        }
+        
+        invokeListenersConcurrently(sender, listeners, listenersArgs);
+        return true;
+    }
+    
+    /**
+     * Calls a listener once for each of the passed args, as done by batch raises calling each listener for every args
+     * before moving on to the next. Where the listener is marked with ConcurrentListener and its priority is one at
+     * which that's honoured, the calls are made at the same time, as they would be by callListenersPreEvent, otherwise
+     * one at a time, in order.
+     * @param sender The object that caused the event raise.
+     * @param listeners The listener, once for each args. (So that it can be passed as-is to invokeListenersConcurrently)
+     * @param priority The priority of the listener.
+     * @param args The args to pass to the listener at the same positions.
+     */
+    protected void callListenerForEach(Object sender,
+                                       List<EventListener<? extends EventArgs>> listeners,
+                                       double priority,
+                                       List<EventArgs> args)
+    {
+        if(listeners.size() > 1
+        && callsListenersConcurrently()
+        && priority >= ListenerPriority.Monitor.getNumericalValue()
+        && priority < ListenerPriority.Post.getNumericalValue()
+        && isConcurrentListener(listeners.get(0)))
+        {
+            for(EventArgs i : args)
+                i.getTechnicalAccessor().makeImmutable();
+            
+            invokeListenersConcurrently(sender, listeners, args);
+            return;
+        }
+        
+        for(int i = 0; i < listeners.size(); i++)
+            invokeListener(listeners.get(i), sender, args.get(i));
+    }
+    
+    protected void callListenersPostEvent(Object sender,
+                                          Queue<Triplet<EventListener<?>, Double, EventArgs>> listenersQueue)
+    {
+        if(listenersQueue instanceof DoublePriorityQueue)
+        {
+            DoublePriorityQueue<EventListener<?>, EventArgs> queue
+                = (DoublePriorityQueue<EventListener<?>, EventArgs>)listenersQueue;
+            
+            while(!queue.isEmpty())
+            {
+                EventListener<?> currentListener = queue.peekFirst();
+                EventArgs currentArgs = queue.peekThird();
+                queue.skip();
+                
+                invokeListener(currentListener, sender, currentArgs);
+            }
+            
+            return;
+        }
+        
+        while(!listenersQueue.isEmpty())
+        {
+            Triplet<EventListener<?>, Double, EventArgs> current = listenersQueue.poll();
+            
+            invokeListener(current.getFirst(), sender, current.getThird());
+        }
+    }
+
+    @Override
+    public void raise(Object sender, T args)
+    {
+        if(args == null)
+            throw new NullArgumentException("args");
+        
+        raise(getMergedPlan(), sender, args);
+    }
+    
+    /**
+     * Raises this event with the listeners and dependent events of the passed merged plan, up until the post-event
+     * priority. Used by raise with this event's own plan, and by event buses with plans merging the plans of several
+     * events.
+     * @param plan The merged plan to raise this event with, whose closure starts with this event.
+     * @param sender The object in which the event was raised.
+     * @param args The object encapsulating relevant properties of the event raise. Must be of the type this event
+     * takes.
+     */
+    protected void raise(MergedPlan plan, Object sender, EventArgs args)
+    {
+        args.getTechnicalAccessor().markAsUsingPreEvent();
+        
+        DoublePriorityQueue<EventListener<? extends EventArgs>, EventArgs> listenersQueue
+            = plan.getListenerQueue(plan.generateArgs(sender, args), 0);
+        
+        // Sharing cancellation state not necessary: As all event args will be derived from the passed args, they'll all
+        // defer their cancellation state to it.
+        callListenersPreEvent(sender, listenersQueue, false);
+        recordRaise(this, args);
+        
+        // Attach queue to args for later reference.
+        args.getTechnicalAccessor().setListenerQueue(listenersQueue);
+        
+        args.getTechnicalAccessor().markAsUsedPreEvent();
+    }
+
+    @Override
+    public void raisePostEvent(Object sender, T args)
+    {
+        if(args == null)
+            throw new NullArgumentException("args");
+        
+        args.getTechnicalAccessor().markAsUsingPostEvent();
+        callListenersPostEvent(sender, args.getTechnicalAccessor().getListenerQueue());
+        args.getTechnicalAccessor().markAsUsedPostEvent();
+    }
+
+    @Override
+    public Future<?> raiseAsync(final Object sender, final T args, Executor executor)
+    {
+        if(args == null)
+            throw new NullArgumentException("args");
+        
+        if(executor == null)
+            throw new NullArgumentException("executor");
+        
+        args.getTechnicalAccessor().markAsUsingPreEvent();
+        
+        DoublePriorityQueue<EventListener<? extends EventArgs>, EventArgs> listenersQueue
+            = getThisAndDependentArgsAsQueue(sender, args);
+        
+        callListenersPreEvent(sender, listenersQueue, false, ListenerPriority.Monitor.getNumericalValue());
+        recordRaise(this, args);
+        
+        // Monitor listeners are moved into their own queue, so that the listener queue attached to the args isn't
+        // touched by more than one thread. Their args are made immutable before they're handed off.
+        final DoublePriorityQueue<EventListener<? extends EventArgs>, EventArgs> monitorQueue
+            = new DoublePriorityQueue<EventListener<? extends EventArgs>, EventArgs>();
+        
+        double postPriority = ListenerPriority.Post.getNumericalValue();
+        
+        while(!listenersQueue.isEmpty() && listenersQueue.peekPriority() < postPriority)
+        {
+            EventArgs currentArgs = listenersQueue.peekThird();
+            currentArgs.getTechnicalAccessor().makeImmutable();
+            monitorQueue.add(listenersQueue.peekFirst(), listenersQueue.peekPriority(), currentArgs);
+            listenersQueue.skip();
+        }
+        
+        args.getTechnicalAccessor().setListenerQueue(listenersQueue);
+        args.getTechnicalAccessor().markAsUsedPreEvent();
+        
+        return submitAsyncRaise(new Runnable()
+        {
+            @Override
+            public void run()
+            { callListenersPreEvent(sender, monitorQueue, false); }
+        }, executor);
+    }
+    
+    @Override
+    public Future<?> raisePostEventAsync(final Object sender, final T args, Executor executor)
+    {
+        if(args == null)
+            throw new NullArgumentException("args");
+        
+        if(executor == null)
+            throw new NullArgumentException("executor");
+        
+        return submitAsyncRaise(new Runnable()
+        {
+            @Override
+            public void run()
+            { raisePostEvent(sender, args); }
+        }, executor);
+    }
+    
+    /**
+     * Queues part of an asynchronous raise to be run after any previously queued, starting a task on the passed
+     * executor to run them if one isn't already running. Where the executor rejects the task, the queued raises are run
+     * on the calling thread instead.
+     * 
+     * There's one queue per event rather than per executor, so where a task is already running or waiting to run on
+     * another executor, the passed part of the raise is run by that task, on that executor, rather than on the passed
+     * one. This keeps the parts of raises of the same event in order, at the cost of not honouring the passed executor.
+     * @param raise The part of the raise to run.
+     * @param executor The executor to run it on, if there isn't already a task running on another executor.
+     * @return A future that's done once the passed part of the raise has been run.
+     * @throws RuntimeException Anything thrown by the executor other than a RejectedExecutionException, in which case
+     * the passed part of the raise isn't run.
+     */
+    protected Future<?> submitAsyncRaise(Runnable raise, Executor executor)
+    {
+        FutureTask<Object> task = new FutureTask<Object>(raise, null);
+        
+        synchronized(asyncRaises)
+        {
+            asyncRaises.add(task);
+            
+            if(asyncRaisesRunning)
+                return task;
+            
+            asyncRaisesRunning = true;
+        }
+        
+        Runnable runner = new Runnable()
+        {
+            @Override
+            public void run()
+            { runAsyncRaises(); }
+        };
+        
+        try
+        { executor.execute(runner); }
+        catch(RejectedExecutionException e)
+        { runner.run(); }
+        catch(RuntimeException e)
+        {
+            abandonAsyncRaise(task);
+            throw e;
+        }
+        catch(Error e)
+        {
+            abandonAsyncRaise(task);
+            throw e;
+        }
+        
+        return task;
+    }
+    
+    /**
+     * Removes a part of an asynchronous raise from the queue after failing to start a task to run the queue. Where
+     * other parts were queued in the meantime, expecting the failed task to run them, they're run on the calling thread
+     * instead, as though the executor had rejected the task. Otherwise, the queue is marked as not being run.
+     * @param task The part of the raise to remove.
+     */
+    protected void abandonAsyncRaise(FutureTask<Object> task)
+    {
+        synchronized(asyncRaises)
+        {
+            asyncRaises.remove(task);
+            
+            if(asyncRaises.isEmpty())
+            {
+                asyncRaisesRunning = false;
+                return;
+            }
+        }
+        
+        runAsyncRaises();
+    }
+    
+    /**
+     * Runs the queued parts of asynchronous raises, one at a time, until there are none left.
+     */
+    protected void runAsyncRaises()
+    {
+        for(;;)
+        {
+            FutureTask<Object> next;
+            
+            synchronized(asyncRaises)
+            {
+                next = asyncRaises.poll();
+                
+                if(next == null)
+                {
+                    asyncRaisesRunning = false;
+                    return;
+                }
+            }
+            
+            // Anything thrown is kept by the future task, to be thrown from its get method.
+            next.run();
+        }
+    }
+    
+    @Override
+    public void raiseBatch(Object sender, List<? extends T> args)
+    { raiseBatch(sender, args, BatchOrder.ArgsMajor); }
+    
+    @Override
+    public void raiseBatch(Object sender, List<? extends T> args, BatchOrder order)
+    {
+        if(args == null)
+            throw new NullArgumentException("args");
+        
+        if(order == null)
+            throw new NullArgumentException("order");
+        
+        for(T i : args)
+            if(i == null)
+                throw new NullArgumentException("Member of args.");
+        
+        if(args.isEmpty())
+            return;
+        
+        MergedPlan plan = getMergedPlan();
+        
+        if(order == BatchOrder.ArgsMajor)
+        {
+            for(T i : args)
+            {
+                i.getTechnicalAccessor().markAsUsingPreEvent();
+                EventArgs[] allArgs = plan.generateArgs(sender, i);
+                
+                for(int j = 0; j < plan.postEventStart; j++)
+                    plan.callListener(j, sender, allArgs);
+                
+                recordRaise(this, i);
+                i.getTechnicalAccessor().setListenerQueue(plan.getPostEventQueue(allArgs));
+                i.getTechnicalAccessor().markAsUsedPreEvent();
+            }
+            
+            return;
+        }
+        
+        // Every args is marked as in use before any listeners are called, so duplicates are caught before any are
+        // marked, and where marking or generating dependent args fails part way through, the args already marked are
+        // finished rather than left in use.
+        Set<EventArgs> masterArgs = Collections.newSetFromMap(new IdentityHashMap<EventArgs, Boolean>());
+        
+        for(T i : args)
+            if(!masterArgs.add(i.getMasterArgs()))
+                throw new EventArgsMultipleUseException("The same args were passed more than once.");
+        
+        EventArgs[][] allArgs = new EventArgs[args.size()][];
+        int marked = 0;
+        
+        try
+        {
+            for(; marked < allArgs.length; marked++)
+                args.get(marked).getTechnicalAccessor().markAsUsingPreEvent();
+            
+            for(int i = 0; i < allArgs.length; i++)
+                allArgs[i] = plan.generateArgs(sender, args.get(i));
+        }
+        catch(RuntimeException e)
+        {
+            for(int i = 0; i < marked; i++)
+                finishUnraisedArgs(args.get(i));
             
-            if(shareCancellation)
-                currentCancellationState = current.getThird().isCancelled();
+            throw e;
+        }
+        
+        for(int i = 0; i < plan.postEventStart; i++)
+            for(EventArgs[] j : allArgs)
+                plan.callListener(i, sender, j);
+        
+        for(int i = 0; i < allArgs.length; i++)
+        {
+            recordRaise(this, args.get(i));
+            args.get(i).getTechnicalAccessor().setListenerQueue(plan.getPostEventQueue(allArgs[i]));
+            args.get(i).getTechnicalAccessor().markAsUsedPreEvent();
         }
     }
     
-    protected void callListenersPostEvent(Object sender,
-                                          Queue<Triplet<EventListener<?>, Double, EventArgs>> listenersQueue)
+    /**
+     * Marks args that were marked as being used pre-event in a batch raise that failed before any listeners were called
+     * as having been used pre-event and post-event, so that they aren't left in use and can be reset.
+     * @param args The args to finish.
+     */
+    private static void finishUnraisedArgs(EventArgs args)
     {
-        while(!listenersQueue.isEmpty())
-        {
-            Triplet<EventListener<?>, Double, EventArgs> current = listenersQueue.poll();
-            
-            // The type arguments of current.getListener() are guaranteed to match the type arguments of
-            // current.getArgs().
-            ((EventListener<EventArgs>)current.getFirst()).onEvent(sender, current.getThird());
-        }
+        EventArgs.TechnicalAccessor accessor = args.getTechnicalAccessor();
+        accessor.markAsUsedPreEvent();
+        accessor.markAsUsingPostEvent();
+        accessor.markAsUsedPostEvent();
     }
-
+    
     @Override
-    public void raise(Object sender, T args)
+    public void raisePostEventBatch(Object sender, List<? extends T> args)
+    { raisePostEventBatch(sender, args, BatchOrder.ArgsMajor); }
+    
+    @Override
+    public void raisePostEventBatch(Object sender, List<? extends T> args, BatchOrder order)
     {
         if(args == null)
             throw new NullArgumentException("args");
         
-        args.getTechnicalAccessor().markAsUsingPreEvent();
+        if(order == null)
+            throw new NullArgumentException("order");
         
-        Queue<Triplet<EventListener<?>, Double, EventArgs>> listenersQueue
-            = getThisAndDependentArgsAsQueue(sender, args);
+        for(T i : args)
+            if(i == null)
+                throw new NullArgumentException("Member of args.");
         
-        // Sharing cancellation state not necessary: As all event args will be derived from the passed args, they'll all
-        // defer their cancellation state to it.
-        callListenersPreEvent(sender, listenersQueue, false);
+        if(order == BatchOrder.ArgsMajor)
+        {
+            for(T i : args)
+                raisePostEvent(sender, i);
+            
+            return;
+        }
         
-        // Attach queue to args for later reference.
-        args.getTechnicalAccessor().setListenerQueue(listenersQueue);
+        // As with raiseBatch, duplicates are caught before any args are marked, and where marking fails part way
+        // through, the args already marked are finished rather than left in use.
+        Set<EventArgs> masterArgs = Collections.newSetFromMap(new IdentityHashMap<EventArgs, Boolean>());
         
-        args.getTechnicalAccessor().markAsUsedPreEvent();
-    }
-
-    @Override
-    public void raisePostEvent(Object sender, T args)
-    {
-        if(args == null)
-            throw new NullArgumentException("args");
+        for(T i : args)
+            if(!masterArgs.add(i.getMasterArgs()))
+                throw new EventArgsMultipleUseException("The same args were passed more than once.");
         
-        args.getTechnicalAccessor().markAsUsingPostEvent();
-        callListenersPostEvent(sender, args.getTechnicalAccessor().getListenerQueue());
-        args.getTechnicalAccessor().markAsUsedPostEvent();
+        List<Queue<Triplet<EventListener<?>, Double, EventArgs>>> queues
+            = new ArrayList<Queue<Triplet<EventListener<?>, Double, EventArgs>>>(args.size());
+        
+        try
+        {
+            for(T i : args)
+            {
+                i.getTechnicalAccessor().markAsUsingPostEvent();
+                queues.add(i.getTechnicalAccessor().getListenerQueue());
+            }
+        }
+        catch(RuntimeException e)
+        {
+            for(int i = 0; i < queues.size(); i++)
+                args.get(i).getTechnicalAccessor().markAsUsedPostEvent();
+            
+            throw e;
+        }
+        
+        List<EventListener<? extends EventArgs>> listeners = new ArrayList<EventListener<? extends EventArgs>>();
+        List<EventArgs> listenersArgs = new ArrayList<EventArgs>();
+        
+        // Where the args were raised together in a batch, their queues hold the same listeners in the same order, so
+        // the next listener can be called for each args in turn. Otherwise, this falls back to calling whichever
+        // listener is next across all of the queues for every args it's next for.
+        for(;;)
+        {
+            Triplet<EventListener<?>, Double, EventArgs> next = null;
+            int nextQueue = -1;
+            
+            for(int i = 0; i < queues.size(); i++)
+            {
+                Triplet<EventListener<?>, Double, EventArgs> current = queues.get(i).peek();
+                
+                if(current != null && (next == null || current.getSecond() < next.getSecond()))
+                {
+                    next = current;
+                    nextQueue = i;
+                }
+            }
+            
+            if(next == null)
+                break;
+            
+            for(int i = nextQueue; i < queues.size(); i++)
+            {
+                Triplet<EventListener<?>, Double, EventArgs> current = queues.get(i).peek();
+                
+                if(current != null
+                && current.getFirst() == next.getFirst()
+                && current.getSecond().doubleValue() == next.getSecond().doubleValue())
+                {
+                    queues.get(i).remove();
+                    listeners.add(current.getFirst());
+                    listenersArgs.add(current.getThird());
+                }
+            }
+            
+            callListenerForEach(sender, listeners, next.getSecond(), listenersArgs);
+            listeners.clear();
+            listenersArgs.clear();
+        }
+        
+        for(T i : args)
+            i.getTechnicalAccessor().markAsUsedPostEvent();
     }
-
+    
     @Override
     public void raiseAlongside(Object sender, T args,
                                Pair<? extends Event<?>, ? extends EventArgs> otherEvent)
@@ -329,8 +2078,8 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
         for(Pair<? extends Event<?>, ? extends EventArgs> i : otherEvents)
             i.getSecond().getTechnicalAccessor().markAsUsingPreEvent();
         
-        Collection<Queue<Triplet<EventListener<?>, Double, EventArgs>>> queues
-            = new HashSet<Queue<Triplet<EventListener<?>, Double, EventArgs>>>();
+        List<Queue<Triplet<EventListener<?>, Double, EventArgs>>> queues
+            = new ArrayList<Queue<Triplet<EventListener<?>, Double, EventArgs>>>(otherEvents.size() + 1);
         
         args.getTechnicalAccessor().setListenerQueue(getThisAndDependentArgsAsQueue(sender, args));
         queues.add(args.getTechnicalAccessor().getListenerQueue());
@@ -344,15 +2093,19 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
         }
         
         Queue<Triplet<EventListener<?>, Double, EventArgs>> combinedQueue
-            = new CombinedQueue<Triplet<EventListener<?>, Double, EventArgs>>
-                (queues, new Transformer<Triplet<EventListener<?>, Double, EventArgs>, Comparable>()
+            = new SnapshotCombinedQueue<Triplet<EventListener<?>, Double, EventArgs>>
+                (queues, new Transformer<Triplet<EventListener<?>, Double, EventArgs>, Double>()
         {
             @Override
-            public Comparable get(Triplet<EventListener<?>, Double, EventArgs> parent)
+            public Double get(Triplet<EventListener<?>, Double, EventArgs> parent)
             { return parent.getSecond(); }
         });
         
         callListenersPreEvent(sender, combinedQueue, shareCancellation);
+        recordRaise(this, args);
+        
+        for(Pair<? extends Event<?>, ? extends EventArgs> i : otherEvents)
+            recordRaise(i.getFirst(), i.getSecond());
         
         args.getTechnicalAccessor().markAsUsedPreEvent();
         
@@ -400,8 +2153,8 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
         for(Pair<? extends Event<?>, ? extends EventArgs> i : otherEvents)
             i.getSecond().getTechnicalAccessor().markAsUsingPostEvent();
         
-        Collection<Queue<Triplet<EventListener<?>, Double, EventArgs>>> queues
-            = new HashSet<Queue<Triplet<EventListener<?>, Double, EventArgs>>>();
+        List<Queue<Triplet<EventListener<?>, Double, EventArgs>>> queues
+            = new ArrayList<Queue<Triplet<EventListener<?>, Double, EventArgs>>>(otherEvents.size() + 1);
         
         queues.add(args.getTechnicalAccessor().getListenerQueue());
         
@@ -409,11 +2162,11 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
             queues.add(i.getSecond().getTechnicalAccessor().getListenerQueue());
         
         Queue<Triplet<EventListener<?>, Double, EventArgs>> combinedQueue
-            = new CombinedQueue<Triplet<EventListener<?>, Double, EventArgs>>
-                (queues, new Transformer<Triplet<EventListener<?>, Double, EventArgs>, Comparable>()
+            = new SnapshotCombinedQueue<Triplet<EventListener<?>, Double, EventArgs>>
+                (queues, new Transformer<Triplet<EventListener<?>, Double, EventArgs>, Double>()
         {
             @Override
-            public Comparable get(Triplet<EventListener<?>, Double, EventArgs> parent)
+            public Double get(Triplet<EventListener<?>, Double, EventArgs> parent)
             { return parent.getSecond(); }
         });
         
@@ -442,16 +2195,188 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
     public void register(Collection<EventListener<T>> listeners)
     { register(listeners, ListenerPriority.Normal.getNumericalValue()); }
     
+    /**
+     * Sets the metrics to pass measurements of raises of all StandardEvents and calls of their listeners to. Whether
+     * they're enabled is checked once, here. Listeners already being called when the metrics are changed are passed to
+     * the metrics that were in use when they were called.
+     * @param newMetrics The metrics to use, or EventMetrics.NONE (or null) to stop measuring.
+     */
+    public static void setMetrics(EventMetrics newMetrics)
+    {
+        if(newMetrics == null)
+            newMetrics = EventMetrics.NONE;
+        
+        metrics = newMetrics;
+        measuring = newMetrics.isEnabled();
+    }
+    
+    /**
+     * Gets the metrics measurements of raises of all StandardEvents and calls of their listeners are passed to.
+     * @return The metrics in use, EventMetrics.NONE where nothing is being measured.
+     */
+    public static EventMetrics getMetrics()
+    { return metrics; }
+    
+    /**
+     * Calls the passed listener with the passed args, timing it where metrics are enabled.
+     * @param listener The listener to call.
+     * @param sender The object that caused the event raise.
+     * @param args The args to pass to the listener. Must be of the type the listener accepts.
+     */
+    protected static void invokeListener(EventListener<? extends EventArgs> listener, Object sender, EventArgs args)
+    {
+        // The type arguments of the listener are guaranteed by the callers to match the type arguments of the args.
+        @SuppressWarnings("unchecked")
+        EventListener<EventArgs> castedListener = (EventListener<EventArgs>)listener;
+        
+        if(!measuring)
+        {
+            castedListener.onEvent(sender, args);
+            return;
+        }
+        
+        EventMetrics currentMetrics = metrics;
+        long start = System.nanoTime();
+        
+        try
+        { castedListener.onEvent(sender, args); }
+        finally
+        { currentMetrics.listenerCalled(listener, args, System.nanoTime() - start); }
+    }
+    
+    /**
+     * Passes the passed raise to the metrics, where they're enabled.
+     * @param event The event raised.
+     * @param args The args it was raised with.
+     */
+    protected static void recordRaise(Event<? extends EventArgs> event, EventArgs args)
+    {
+        if(measuring)
+            metrics.eventRaised(event, args);
+    }
+    
+    /**
+     * Gets whether or not the passed listener should be weakly registered, as marked by the WeakListener annotation.
+     * @param listener The listener to check.
+     * @return True if the listener's class has a method marked with WeakListener, or the listener calls a method marked
+     * with it or on an object whose class has one, otherwise false.
+     */
+    protected static boolean isWeakListener(EventListener<?> listener)
+    {
+        if(listener instanceof AnnotatedListener)
+            return ((AnnotatedListener<?>)listener).isWeak();
+        
+        return weakListenerClasses.get(listener.getClass());
+    }
+    
+    /**
+     * Gets whether or not the passed listener may be called at the same time as other listeners of the same priority,
+     * as marked by the ConcurrentListener annotation.
+     * @param listener The listener to check.
+     * @return True if the listener's class has a method marked with ConcurrentListener, or the listener calls a method
+     * marked with it, otherwise false.
+     */
+    protected static boolean isConcurrentListener(EventListener<?> listener)
+    {
+        if(listener instanceof AnnotatedListener)
+            return ((AnnotatedListener<?>)listener).isConcurrent();
+        
+        return concurrentListenerClasses.get(listener.getClass());
+    }
+    
+    /**
+     * Sets the pool listeners marked with ConcurrentListener are called on.
+     * @param pool The pool to use, or null to use the common pool.
+     */
+    public static void setConcurrentListenerPool(ForkJoinPool pool)
+    { concurrentListenerPool = pool == null ? ForkJoinPool.commonPool() : pool; }
+    
+    /**
+     * Gets the pool listeners marked with ConcurrentListener are called on.
+     * @return The pool in use.
+     */
+    public static ForkJoinPool getConcurrentListenerPool()
+    { return concurrentListenerPool; }
+    
+    /**
+     * Gets whether or not this event calls listeners marked with ConcurrentListener at the same time as eachother.
+     * Where it doesn't, they're called one at a time like any other listener.
+     * @return True if listeners may be called concurrently, otherwise false.
+     */
+    protected boolean callsListenersConcurrently()
+    { return true; }
+    
+    /**
+     * Calls the passed listeners at the same time, one on the current thread and the rest on the concurrent listener
+     * pool, and waits for all of them to return. Where any throw, the first thrown is rethrown once all have returned.
+     * @param sender The object that caused the event raise.
+     * @param listeners The listeners to call.
+     * @param args The args to pass to the listeners at the same positions.
+     */
+    protected static void invokeListenersConcurrently(final Object sender,
+                                                      List<EventListener<? extends EventArgs>> listeners,
+                                                      List<EventArgs> args)
+    {
+        ForkJoinPool pool = concurrentListenerPool;
+        List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(listeners.size() - 1);
+        
+        for(int i = 1; i < listeners.size(); i++)
+        {
+            final EventListener<? extends EventArgs> listener = listeners.get(i);
+            final EventArgs listenerArgs = args.get(i);
+            
+            tasks.add(pool.submit(new Runnable()
+            {
+                @Override
+                public void run()
+                { invokeListener(listener, sender, listenerArgs); }
+            }));
+        }
+        
+        RuntimeException thrownException = null;
+        Error thrownError = null;
+        
+        try
+        { invokeListener(listeners.get(0), sender, args.get(0)); }
+        catch(RuntimeException e)
+        { thrownException = e; }
+        catch(Error e)
+        { thrownError = e; }
+        
+        for(ForkJoinTask<?> task : tasks)
+        {
+            try
+            { task.join(); }
+            catch(RuntimeException e)
+            {
+                if(thrownException == null && thrownError == null)
+                    thrownException = e;
+            }
+            catch(Error e)
+            {
+                if(thrownException == null && thrownError == null)
+                    thrownError = e;
+            }
+        }
+        
+        if(thrownError != null)
+            throw thrownError;
+        
+        if(thrownException != null)
+            throw thrownException;
+    }
+    
     @Override
     public void register(EventListener<T> listener, double priority) // Main
     {
-        for(Method method : listener.getClass().getMethods())
-            if(method.isAnnotationPresent(WeakListener.class))
-                synchronized(weakListeners)
-                { weakListeners.put(listener, priority); }
+        boolean weak = isWeakListener(listener);
         
-        synchronized(listeners)
-        { listeners.put(listener, priority); }
+        synchronized(registrationsBusy)
+        {
+            DispatchPlan.Builder<T> builder = getPlanBuilder();
+            builder.addListener(listener, priority, weak);
+            setDispatchPlan(builder.build());
+        }
     }
     
     @Override
@@ -474,30 +2399,23 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
         
         for(EventListener<T> i : listeners)
         {
-            boolean wasWeak = false;
-            
-            for(Method method : i.getClass().getMethods())
-                if(method.isAnnotationPresent(WeakListener.class))
-                {
-                    weaks.add(i);
-                    wasWeak = true;
-                    break;
-                }
-            
-            if(!wasWeak)
+            if(isWeakListener(i))
+                weaks.add(i);
+            else
                 strongs.add(i);
         }
         
-        synchronized(this.listeners)
+        synchronized(registrationsBusy)
         {
+            DispatchPlan.Builder<T> builder = getPlanBuilder();
+            
             for(EventListener<T> i : strongs)
-                this.listeners.put(i, priority);
-        }
-        
-        synchronized(weakListeners)
-        {
+                builder.addListener(i, priority, false);
+            
             for(EventListener<T> i : weaks)
-                this.weakListeners.put(i, priority);
+                builder.addListener(i, priority, true);
+            
+            setDispatchPlan(builder.build());
         }
     }
     
@@ -535,10 +2453,7 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
     
     @Override
     public <TArgs extends EventArgs> void register(Converger<Object, T, TArgs> eventArgsGetter, Event<TArgs> event)
-    {
-        synchronized(dependentEvents) 
-        { dependentEvents.put(event, eventArgsGetter); }
-    }
+    { register(eventArgsGetter, Arrays.asList(event)); }
     
     @Override
     public <TArgs extends EventArgs> void register(Converger<Object, T, TArgs> eventArgsGetter,
@@ -548,13 +2463,7 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
     @Override
     public <TArgs extends EventArgs> void register(Converger<Object, T, TArgs> eventArgsGetter,
                                                    Collection<? extends Event<? extends TArgs>> events)
-    {
-        synchronized(dependentEvents)
-        {
-            for(Event<? extends TArgs> i : events)
-                dependentEvents.put(i, eventArgsGetter);
-        }
-    }
+    { register(eventArgsGetter, events, true); }
     
     @Override
     public <TArgs extends EventArgs> void register(Event<TArgs> event,
@@ -566,16 +2475,7 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
     public <TArgs extends EventArgs> void register(Converger<Object, T, TArgs> eventArgsGetter,
                                                    Event<TArgs> event,
                                                    boolean stronglyRegistered)
-    {
-        if(stronglyRegistered)
-        {
-            register(eventArgsGetter, event);
-            return;
-        }
-        
-        synchronized(weakDependentEvents)
-        { weakDependentEvents.put(event, eventArgsGetter); }
-    }
+    { register(eventArgsGetter, Arrays.asList(event), stronglyRegistered); }
     
     @Override
     public <TArgs extends EventArgs> void register(Converger<Object, T, TArgs> eventArgsGetter,
@@ -606,49 +2506,49 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
                                                    Collection<? extends Event<? extends TArgs>> events,
                                                    boolean stronglyRegistered)
     {
-        if(stronglyRegistered)
-        {
-            register(eventArgsGetter, events);
-            return;
-        }
-        
-        synchronized(weakDependentEvents)
+        synchronized(dependencyGraphBusy)
         {
-            for(Event<? extends TArgs> event : events)
-                weakDependentEvents.put(event, eventArgsGetter);
+            checkForDependencyCycles(events);
+            
+            synchronized(registrationsBusy)
+            {
+                DispatchPlan.Builder<T> builder = getPlanBuilder();
+                
+                for(Event<? extends TArgs> event : events)
+                    builder.addDependentEvent(event, eventArgsGetter, !stronglyRegistered);
+                
+                setDispatchPlan(builder.build());
+            }
         }
     }
 
     @Override
     public EventListener<T> deregister(EventListener<T> listener)
-    {
-        synchronized(listeners)
-        {
-            if(listeners.remove(listener) != null)
-                return listener;
-        }
-        
-        synchronized(weakListeners)
-        { return weakListeners.remove(listener) != null ? listener : null; }
-    }
+    { return deregister(Arrays.asList(listener)).isEmpty() ? null : listener; }
 
     @Override
     public Collection<EventListener<T>> deregister(EventListener<T>... listeners)
+    { return deregister(Arrays.asList(listeners)); }
+    
+    /**
+     * Deregisters the passed listeners from this event, such that they'll no longer be called when it's raised.
+     * @param listeners The listeners to deregister.
+     * @return The listeners that were deregistered. That is, the passed listeners that were registered.
+     */
+    protected Collection<EventListener<T>> deregister(Collection<EventListener<T>> listeners)
     {
         Collection<EventListener<T>> deregistered = new HashSet<EventListener<T>>();
         
-        synchronized(this.listeners)
-        {
-            for(EventListener<T> i : listeners)
-                if(this.listeners.remove(i) != null)
-                    deregistered.add(i);
-        }
-        
-        synchronized(weakListeners)
+        synchronized(registrationsBusy)
         {
+            DispatchPlan.Builder<T> builder = getPlanBuilder();
+            
             for(EventListener<T> i : listeners)
-                if(weakListeners.remove(i) != null)
+                if(builder.removeListener(i))
                     deregistered.add(i);
+            
+            if(!deregistered.isEmpty())
+                setDispatchPlan(builder.build());
         }
         
         return deregistered;
@@ -657,16 +2557,17 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
     @Override
     public Event<? extends EventArgs> deregister(Event<? extends EventArgs> event)
     {
-        synchronized(dependentEvents)
+        synchronized(registrationsBusy)
         {
-            if(dependentEvents.remove(event) != null)
-                return event;
+            DispatchPlan.Builder<T> builder = getPlanBuilder();
+            boolean removedStrong = builder.removeDependentEvent(event, false);
+            boolean removedWeak   = builder.removeDependentEvent(event, true);
+            
+            if(removedStrong || removedWeak)
+                setDispatchPlan(builder.build());
+            
+            return removedStrong ? event : null;
         }
-        
-        synchronized(weakDependentEvents)
-        { weakDependentEvents.remove(event); }
-        
-        return null;
     }
 
     @Override
@@ -674,18 +2575,16 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
     {
         Collection<Event<? extends EventArgs>> deregistered = new HashSet<Event<? extends EventArgs>>();
         
-        synchronized(dependentEvents)
-        {
-            for(Event<? extends EventArgs> i : events)
-                if(this.dependentEvents.remove(i) != null)
-                    deregistered.add(i);
-        }
-        
-        synchronized(weakDependentEvents)
+        synchronized(registrationsBusy)
         {
+            DispatchPlan.Builder<T> builder = getPlanBuilder();
+            
             for(Event<? extends EventArgs> i : events)
-                if(weakDependentEvents.remove(i) != null)
+                if(builder.removeDependentEvent(i))
                     deregistered.add(i);
+            
+            if(!deregistered.isEmpty())
+                setDispatchPlan(builder.build());
         }
         
         return deregistered;
@@ -701,33 +2600,113 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
         return args;
     }
     
-    // Needs to be static. Calls itself recursively on other event objects that may or may not have this method.
-    private static <T extends EventArgs> Collection<EventArgs> generateThisAndDependentArgs(Event<T> event, Object sender, T args)
+    /**
+     * Creates an array of weak references to objects of the passed type. Arrays of parameterised types can't be
+     * created directly, but an empty array of weak references to anything can safely be filled with only these.
+     * @param <TReferent> The type of the objects referenced.
+     * @param length The length of the array.
+     * @return A new array of the passed length, filled with nulls.
+     */
+    @SuppressWarnings("unchecked")
+    static <TReferent> WeakReference<TReferent>[] newWeakReferenceArray(int length)
+    { return (WeakReference<TReferent>[])new WeakReference<?>[length]; }
+    
+    /**
+     * Creates an array of args getters taking args of the passed type. Arrays of parameterised types can't be created
+     * directly, but an empty array of any convergers can safely be filled with only these.
+     * @param <TArgs> The type of the args the args getters take.
+     * @param length The length of the array.
+     * @return A new array of the passed length, filled with nulls.
+     */
+    @SuppressWarnings("unchecked")
+    static <TArgs extends EventArgs> Converger<Object, TArgs, ? extends EventArgs>[] newArgsGetterArray(int length)
+    { return (Converger<Object, TArgs, ? extends EventArgs>[])new Converger<?, ?, ?>[length]; }
+    
+    /**
+     * Gets the dispatch plan of the passed event. Where the event is a StandardEvent, this is its cached plan.
+     * Otherwise, a plan is compiled from the event's current listeners and dependent events.
+     * @param event The event to get the dispatch plan of.
+     * @return The passed event's dispatch plan.
+     */
+    protected static DispatchPlan<? extends EventArgs> getDispatchPlanOf(Event<? extends EventArgs> event)
+    {
+        if(event instanceof StandardEvent)
+            return ((StandardEvent<? extends EventArgs>)event).getDispatchPlan();
+        
+        Event<EventArgs> castedEvent = (Event<EventArgs>)event;
+        
+        return DispatchPlan.compile(castedEvent.getListenersWithPriorities(),
+                                    castedEvent.getDirectlyDependentEventsAndArgsGetters());
+    }
+    
+    /**
+     * Gets the dependency closure of the passed event. Where the event is a StandardEvent, this is its cached closure.
+     * Otherwise, a closure is built from the event's current listeners and dependent events.
+     * @param event The event to get the dependency closure of.
+     * @return The passed event's dependency closure.
+     */
+    protected static DependencyClosure getDependencyClosureOf(Event<? extends EventArgs> event)
     {
-        Collection<EventArgs> allArgs = new HashSet<EventArgs>();
+        if(event instanceof StandardEvent)
+            return ((StandardEvent<? extends EventArgs>)event).getDependencyClosure();
         
-        args.getTechnicalAccessor().setEvent(event);
-        allArgs.add(args);
+        return new DependencyClosure(event);
+    }
+    
+    /**
+     * Gets the merged plan of the passed event. Where the event is a StandardEvent, this is its cached plan. Otherwise,
+     * a plan is merged from the event's current listeners and dependent events.
+     * @param event The event to get the merged plan of.
+     * @return The passed event's merged plan.
+     */
+    protected static MergedPlan getMergedPlanOf(Event<? extends EventArgs> event)
+    {
+        if(event instanceof StandardEvent)
+            return ((StandardEvent<? extends EventArgs>)event).getMergedPlan();
         
-        Map<Event<?>, Converger<Object, T, ? extends EventArgs>> eventsAndArgsGetters
-            = event.getDirectlyDependentEventsAndArgsGetters();
+        return new MergedPlan(event);
+    }
+    
+    /**
+     * Gets whether or not the passed event, or any event dependent on it, cascadingly, has any listeners registered.
+     * Where it doesn't, there's no need to generate args for it on raising an event it's dependent on.
+     * @param event The event to check.
+     * @return True if the event or any of its dependants have listeners, otherwise false.
+     */
+    protected static boolean hasListenersCascadingly(Event<? extends EventArgs> event)
+    {
+        DependencyClosure closure = getDependencyClosureOf(event);
         
-        for(Map.Entry<Event<?>, Converger<Object, T, ? extends EventArgs>> i : eventsAndArgsGetters.entrySet())
+        for(int i = 0; i < closure.size(); i++)
         {
-            EventArgs iArgs = i.getValue().get(sender, args);
-            
-            iArgs.getTechnicalAccessor().setEvent(event);
-            iArgs.getTechnicalAccessor().setParentArgs(args);
-            
-            args.getTechnicalAccessor().addDependentArgs(iArgs);
+            Event<?> current = closure.getEvent(i);
             
-            // The generic type arguments of iArgs are guaranteed to match the generic type arguments of i.getKey().
-            allArgs.addAll(generateThisAndDependentArgs((Event<EventArgs>)i.getKey(), sender, iArgs));
+            if(current != null && getDispatchPlanOf(current).getListenerCount() > 0)
+                return true;
         }
         
-        return allArgs;
+        return false;
     }
     
+    /**
+     * Records that args getters of dependent events of the passed event weren't called, where it's a StandardEvent.
+     * @param event The event the dependent events with the args getters are dependent on.
+     * @param count The number of calls skipped.
+     */
+    protected static void countSkippedArgsGetterCalls(Event<? extends EventArgs> event, long count)
+    {
+        if(event instanceof StandardEvent)
+            ((StandardEvent<?>)event).skippedArgsGetterCalls.addAndGet(count);
+    }
+    
+    /**
+     * Gets the number of times an args getter of one of this event's dependent events hasn't been called on raising
+     * it, because neither the dependent event nor any of its dependants had any listeners registered.
+     * @return The number of skipped args getter calls.
+     */
+    public long getSkippedArgsGetterCount()
+    { return skippedArgsGetterCalls.get(); }
+    
     // 6/6/2015 - I'm reading this back and dismaying at how much of a mess the internal technical methods of this
     //            class are, while trying to document it. What's daft is that the tidier approach I used in previous
     //            incarnations of my events system used a tinier internal class signature, which resulted in far
@@ -741,21 +2720,8 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
     //            with bells and whistles, I can't even just make a sub-class of its events that adds some of those
     //            missing features :< ) But for now, it works, and I have no reason nor need to tamper with it. I'd just
     //            like to direct you towards this comic strip: 
-    protected Queue<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>> getThisAndDependentArgsAsQueue(Object sender, T args)
-    {
-        Collection<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>> listenerArgsPairings = new HashSet<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>>();
-        
-        for(EventArgs i : generateThisAndDependentArgs(this, sender, args))
-            for(Map.Entry<? extends EventListener<? extends EventArgs>, Double> j : i.getEvent().getListenersWithPriorities().entrySet())
-                listenerArgsPairings.add(new Triplet<EventListener<? extends EventArgs>, Double, EventArgs>(j.getKey(), j.getValue(), i));
-        
-        return new SortedQueue<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>>(listenerArgsPairings, new Transformer<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>, Comparable>()
-        {
-            @Override
-            public Comparable get(Triplet<EventListener<? extends EventArgs>, Double, EventArgs> parent)
-            { return parent.getSecond(); }
-        });
-    }
+    protected DoublePriorityQueue<EventListener<? extends EventArgs>, EventArgs> getThisAndDependentArgsAsQueue(Object sender, T args)
+    { return getEventAndDependantsArgsAsQueue(this, sender, args); }
     
     /**
      * Gets a collection containing the eventargs objects to be passed to all dependent events during an event raise.
@@ -769,32 +2735,13 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
                                                                           Object sender,
                                                                           EventArgs args)
     {
-        // I believe this is technically referred to as the "Fuck it all" pattern. Replace this whole bit with something
-        // cleaner at a later date. Maybe when I look into optimising this.
-        Event<EventArgs> castedEvent = (Event<EventArgs>)event;
-        
-        Collection<EventArgs> allArgs = new HashSet<EventArgs>();
-        
-        args.getTechnicalAccessor().setEvent(event);
-        allArgs.add(args);
-        
-        Map<Event<?>, Converger<Object, EventArgs, ? extends EventArgs>> eventsAndArgsGetters
-            = castedEvent.getDirectlyDependentEventsAndArgsGetters();
+        Collection<EventArgs> result = new HashSet<EventArgs>();
         
-        for(Map.Entry<Event<?>, Converger<Object, EventArgs, ? extends EventArgs>> i : eventsAndArgsGetters.entrySet())
-        {
-            EventArgs iArgs = i.getValue().get(sender, args);
-            
-            iArgs.getTechnicalAccessor().setEvent(event);
-            iArgs.getTechnicalAccessor().setParentArgs(args);
-            
-            args.getTechnicalAccessor().addDependentArgs(iArgs);
-            
-            // The generic type arguments of iArgs are guaranteed to match the generic type arguments of i.getKey().
-            allArgs.addAll(generateThisAndDependentArgs((Event<EventArgs>)i.getKey(), sender, iArgs));
-        }
+        for(EventArgs i : getMergedPlanOf(event).generateArgs(sender, args))
+            if(i != null) // Null for dependants garbage collected since the plan was merged.
+                result.add(i);
         
-        return allArgs;
+        return result;
     }
     
     /**
@@ -808,19 +2755,9 @@ public class StandardEvent<T extends EventArgs> implements Event<T>
      * eventargs objects to be passed to them, sorted by their priorities so that the earliest priorities are next in
      * the queue.
      */
-    protected static Queue<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>> getEventAndDependantsArgsAsQueue(Event<?> event, Object sender, EventArgs args)
+    protected static DoublePriorityQueue<EventListener<? extends EventArgs>, EventArgs> getEventAndDependantsArgsAsQueue(Event<?> event, Object sender, EventArgs args)
     {
-        Collection<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>> listenerArgsPairings = new HashSet<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>>();
-        
-        for(EventArgs i : generateEventAndDependantsArgs(event, sender, args))
-            for(Map.Entry<? extends EventListener<? extends EventArgs>, Double> j : i.getEvent().getListenersWithPriorities().entrySet())
-                listenerArgsPairings.add(new Triplet<EventListener<? extends EventArgs>, Double, EventArgs>(j.getKey(), j.getValue(), i));
-        
-        return new SortedQueue<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>>(listenerArgsPairings, new Transformer<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>, Comparable>()
-        {
-            @Override
-            public Comparable get(Triplet<EventListener<? extends EventArgs>, Double, EventArgs> parent)
-            { return parent.getSecond(); }
-        });
+        MergedPlan plan = getMergedPlanOf(event);
+        return plan.getListenerQueue(plan.generateArgs(sender, args), 0);
     }
 }
\ No newline at end of file
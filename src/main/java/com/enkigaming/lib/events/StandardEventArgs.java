@@ -3,6 +3,7 @@ package com.enkigaming.lib.events;
 import com.enkigaming.lib.events.exceptions.EventArgsFinishedBeforeStartedException;
 import com.enkigaming.lib.events.exceptions.EventArgsModifiedWhenImmutableException;
 import com.enkigaming.lib.events.exceptions.EventArgsMultipleUseException;
+import com.enkigaming.lib.events.exceptions.EventArgsResetWhileInUseException;
 import com.enkigaming.lib.events.exceptions.EventArgsUsedPostBeforePreException;
 import com.enkigaming.lib.tuples.Triplet;
 import java.util.ArrayList;
@@ -11,8 +12,9 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
-public class StandardEventArgs implements EventArgs
+public class StandardEventArgs implements ResettableEventArgs
 {
     protected enum Status
     {
@@ -23,22 +25,59 @@ public class StandardEventArgs implements EventArgs
         UsedPostEvent
     }
     
-    Event<? extends EventArgs> event = null;
-    boolean cancelled = false;
-    boolean mutable = true;
-    EventArgs parentArgs = null;
-    Status status = Status.Unused;
-    Queue<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>> listenerQueue = null;
+    /**
+     * The statuses, indexed by ordinal, for decoding the status held in the state word.
+     */
+    static final Status[] STATUSES = Status.values();
+    
+    /**
+     * The bits of the state word holding the ordinal of the args' status.
+     */
+    static final int STATUS_MASK = 0x7;
+    
+    /**
+     * The bit of the state word set where the args have been cancelled.
+     */
+    static final int CANCELLED_BIT = 1 << 3;
+    
+    /**
+     * The bit of the state word set where the args have been made immutable.
+     */
+    static final int IMMUTABLE_BIT = 1 << 4;
+    
+    static final AtomicIntegerFieldUpdater<StandardEventArgs> stateUpdater
+        = AtomicIntegerFieldUpdater.newUpdater(StandardEventArgs.class, "state");
+    
+    volatile Event<? extends EventArgs> event = null;
+    volatile EventArgs parentArgs = null;
+    volatile Queue<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>> listenerQueue = null;
+    
+    /**
+     * The args' status, cancellation and mutability, packed into one word so that they can be read without locking and
+     * changed by compare-and-set. Starts out as unused, not cancelled and mutable. Only meaningful for master args;
+     * dependent args defer to their master args.
+     */
+    volatile int state = 0;
     
     final Set<EventArgs> relatedMasterArgs = new HashSet<EventArgs>();
     final Set<EventArgs> dependentArgs     = new HashSet<EventArgs>();
     
-    final Object cancelledBusy     = new Object();
-    final Object mutableBusy       = new Object();
-    final Object parentArgsBusy    = new Object();
-    final Object eventBusy         = new Object();
-    final Object statusBusy        = new Object();
-    final Object listenerQueueBusy = new Object();
+    /**
+     * Gets the status held in the passed state word.
+     * @param state The state word.
+     * @return The status.
+     */
+    static Status statusOf(int state)
+    { return STATUSES[state & STATUS_MASK]; }
+    
+    /**
+     * Changes the status held in the state word, if the state word hasn't changed since it was read.
+     * @param expectedState The state word as it was read.
+     * @param newStatus The status to change to.
+     * @return True if the status was changed, or false if the state word was changed by something else first.
+     */
+    boolean compareAndSetStatus(int expectedState, Status newStatus)
+    { return stateUpdater.compareAndSet(this, expectedState, (expectedState & ~STATUS_MASK) | newStatus.ordinal()); }
     
     @Override
     public boolean isCancelled()
@@ -48,26 +87,28 @@ public class StandardEventArgs implements EventArgs
         if(master != this)
             return master.isCancelled();
         
-        synchronized(cancelledBusy)
-        { return cancelled; }
+        return (state & CANCELLED_BIT) != 0;
     }
 
     @Override
     public boolean setCancelled(boolean cancellation)
     {
-        if(!shouldBeMutable())
-            throw new EventArgsModifiedWhenImmutableException();
-            
         EventArgs master = getMasterArgs();
 
         if(master != this)
             return master.setCancelled(cancellation);
-
-        synchronized(cancelledBusy)
+        
+        for(;;)
         {
-            boolean oldValue = cancelled;
-            cancelled = cancellation;
-            return oldValue;
+            int current = state;
+            
+            if((current & IMMUTABLE_BIT) != 0)
+                throw new EventArgsModifiedWhenImmutableException();
+            
+            int updated = cancellation ? (current | CANCELLED_BIT) : (current & ~CANCELLED_BIT);
+            
+            if(updated == current || stateUpdater.compareAndSet(this, current, updated))
+                return (current & CANCELLED_BIT) != 0;
         }
     }
 
@@ -79,8 +120,7 @@ public class StandardEventArgs implements EventArgs
         if(master != this)
             return master.shouldBeMutable();
         
-        synchronized(mutableBusy)
-        { return mutable; }
+        return (state & IMMUTABLE_BIT) == 0;
     }
     
     protected void makeImmutable()
@@ -93,8 +133,9 @@ public class StandardEventArgs implements EventArgs
             return;
         }
         
-        synchronized(mutableBusy)
-        { mutable = false; }
+        for(int current = state; (current & IMMUTABLE_BIT) == 0; current = state)
+            if(stateUpdater.compareAndSet(this, current, current | IMMUTABLE_BIT))
+                return;
     }
 
     @Override
@@ -192,41 +233,39 @@ public class StandardEventArgs implements EventArgs
 
     @Override
     public EventArgs getParentArgs()
-    {
-        synchronized(parentArgsBusy)
-        { return parentArgs; }
-    }
+    { return parentArgs; }
     
     protected void setParentArgs(EventArgs args)
-    {
-        synchronized(parentArgsBusy)
-        { parentArgs = args; }
-    }
+    { parentArgs = args; }
 
     @Override
     public EventArgs getMasterArgs()
     {
-        synchronized(parentArgsBusy)
+        EventArgs parent = parentArgs;
+        
+        if(parent == null)
+            return this;
+        
+        // Walks standard args directly rather than recursing, as most dependent args are.
+        while(parent instanceof StandardEventArgs)
         {
-            if(parentArgs == null)
-                return this;
+            EventArgs grandparent = ((StandardEventArgs)parent).parentArgs;
             
-            return parentArgs.getMasterArgs();
+            if(grandparent == null)
+                return parent;
+            
+            parent = grandparent;
         }
+        
+        return parent.getMasterArgs();
     }
 
     @Override
     public Event<? extends EventArgs> getEvent()
-    {
-        synchronized(eventBusy)
-        { return event; }
-    }
+    { return event; }
     
     protected void setEvent(Event<? extends EventArgs> event)
-    {
-        synchronized(eventBusy)
-        { this.event = event; }
-    }
+    { this.event = event; }
     
     protected void markAsUsingPreEvent()
     {
@@ -238,12 +277,15 @@ public class StandardEventArgs implements EventArgs
             return;
         }
         
-        synchronized(statusBusy)
+        for(;;)
         {
-            if(status != Status.Unused)
+            int current = state;
+            
+            if(statusOf(current) != Status.Unused)
                 throw new EventArgsMultipleUseException();
             
-            status = Status.UsingPreEvent;
+            if(compareAndSetStatus(current, Status.UsingPreEvent))
+                return;
         }
     }
 
@@ -257,17 +299,19 @@ public class StandardEventArgs implements EventArgs
             return;
         }
         
-        synchronized(statusBusy)
+        for(;;)
         {
-            switch(status)
+            int current = state;
+            
+            switch(statusOf(current))
             {
                 case Unused:
                     throw new EventArgsFinishedBeforeStartedException("Has not been marked as using pre-event.");
                 case UsingPreEvent:
-                {
-                    status = Status.UsedPreEvent;
+                    if(compareAndSetStatus(current, Status.UsedPreEvent))
+                        return;
+                    
                     break;
-                }
                 case UsedPreEvent:
                 case UsingPostEvent:
                 case UsedPostEvent:
@@ -286,19 +330,21 @@ public class StandardEventArgs implements EventArgs
             return;
         }
         
-        synchronized(statusBusy)
+        for(;;)
         {
-            switch(status)
+            int current = state;
+            
+            switch(statusOf(current))
             {
                 case Unused:
                     throw new EventArgsUsedPostBeforePreException("Has not been marked as being used pre-event.");
                 case UsingPreEvent:
                     throw new EventArgsUsedPostBeforePreException("Has not finished being used pre-event.");
                 case UsedPreEvent:
-                {
-                    status = Status.UsingPostEvent;
+                    if(compareAndSetStatus(current, Status.UsingPostEvent))
+                        return;
+                    
                     break;
-                }
                 case UsingPostEvent:
                 case UsedPostEvent:
                     throw new EventArgsMultipleUseException("Already used post-event.");
@@ -316,9 +362,11 @@ public class StandardEventArgs implements EventArgs
             return;
         }
         
-        synchronized(statusBusy)
+        for(;;)
         {
-            switch(status)
+            int current = state;
+            
+            switch(statusOf(current))
             {
                 case Unused:
                     throw new EventArgsUsedPostBeforePreException("Has not been marked as being used pre-event.");
@@ -327,10 +375,10 @@ public class StandardEventArgs implements EventArgs
                 case UsedPreEvent:
                     throw new EventArgsFinishedBeforeStartedException("Has not been marked as using post-event.");
                 case UsingPostEvent:
-                {
-                    status = Status.UsedPostEvent;
+                    if(compareAndSetStatus(current, Status.UsedPostEvent))
+                        return;
+                    
                     break;
-                }
                 case UsedPostEvent:
                     throw new EventArgsMultipleUseException("Already used post-event.");
             }
@@ -338,17 +386,75 @@ public class StandardEventArgs implements EventArgs
     }
     
     protected void setListenerQueue(Queue<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>> queue)
+    { listenerQueue = queue; }
+    
+    protected Queue<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>> getListenerQueue()
+    { return listenerQueue; }
+    
+    /**
+     * Gets whether or not this event args object is part of an event raise that hasn't finished. That is, whether its
+     * master args have been marked as being used pre-event, but not yet as having been used post-event.
+     * @return True if the event args are in the middle of being used, otherwise false.
+     */
+    protected boolean isInUse()
+    {
+        EventArgs master = getMasterArgs();
+        
+        if(master != this)
+            return master instanceof StandardEventArgs && ((StandardEventArgs)master).isInUse();
+        
+        return isInUse(state);
+    }
+    
+    /**
+     * Gets whether or not the passed state word is of args in the middle of being used.
+     * @param state The state word.
+     * @return True if the status in the state word is between being marked as using pre-event and being marked as
+     * used post-event, otherwise false.
+     */
+    static boolean isInUse(int state)
     {
-        synchronized(listenerQueueBusy)
-        { listenerQueue = queue; }
+        Status status = statusOf(state);
+        return status != Status.Unused && status != Status.UsedPostEvent;
     }
     
-    protected Queue<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>> getListenerQueue()
+    @Override
+    public void reset()
     {
-        synchronized(listenerQueueBusy)
-        { return listenerQueue; }
+        EventArgs master = getMasterArgs();
+        
+        if(master != this && master instanceof StandardEventArgs && ((StandardEventArgs)master).isInUse())
+            throw new EventArgsResetWhileInUseException("Can't be reset until it's been used post-event.");
+        
+        for(int current = state; current != 0; current = state)
+        {
+            if(isInUse(current))
+                throw new EventArgsResetWhileInUseException("Can't be reset until it's been used post-event.");
+            
+            if(stateUpdater.compareAndSet(this, current, 0))
+                break;
+        }
+        
+        setEvent(null);
+        setParentArgs(null);
+        setListenerQueue(null);
+        
+        synchronized(relatedMasterArgs)
+        { relatedMasterArgs.clear(); }
+        
+        synchronized(dependentArgs)
+        { dependentArgs.clear(); }
+        
+        onReset();
     }
     
+    /**
+     * Called when the event args are reset for reuse, after the state held by StandardEventArgs has been reset.
+     * Subclasses holding their own state that should be reset between raises should override this and reset it here.
+     */
+    protected void onReset()
+    { /* Nothin' here */ }
+    
     protected void checkMutability()
     {
         if(!shouldBeMutable())
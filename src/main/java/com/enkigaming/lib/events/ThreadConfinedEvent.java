@@ -0,0 +1,288 @@
+package com.enkigaming.lib.events;
+
+import com.enkigaming.lib.encapsulatedfunctions.Converger;
+import com.enkigaming.lib.exceptions.NullArgumentException;
+import com.enkigaming.lib.tuples.Pair;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * An implementation of the Event interface for events that are only ever registered to and raised from a single
+ * thread, such as the server thread. Behaves the same as StandardEvent, with the same priority and dependent event
+ * semantics, but doesn't take the event's own lock when registering or deregistering listeners and dependent events,
+ * and calls listeners marked with ConcurrentListener one at a time, so can be used wherever a StandardEvent would be
+ * where it's only used from one thread.
+ *
+ * Only the event's own registration lock is removed. Registrations still build a new dispatch plan rather than
+ * modifying the current one, as merged plans cached for this and other events hold onto it, and registering dependent
+ * events still takes the lock shared by all StandardEvents while checking for dependency cycles, as the events
+ * involved may be registered to from other threads.
+ *
+ * Being used from its owner thread is only checked where assertions are enabled, in which case an AssertionError is
+ * thrown where it isn't. Where they're disabled, nothing prevents it from being used from other threads, and doing so
+ * isn't thread-safe. Its owner thread is either the thread passed to its constructor, or the thread it's first raised
+ * from. Registrations before it's first raised may be made from any thread, so that listeners can be registered while
+ * setting up.
+ *
+ * As listeners may only be called on the owner thread, raiseAsync and raisePostEventAsync don't use the passed
+ * executor. They raise the event inline on the calling thread, which must be the owner thread, and return a future
+ * that's already done.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ * @param <T> The type of the eventargs object passed to registered listeners.
+ */
+public class ThreadConfinedEvent<T extends EventArgs> extends StandardEvent<T>
+{
+    /**
+     * Creates an event owned by the first thread it's raised from.
+     */
+    public ThreadConfinedEvent()
+    { this(null); }
+    
+    /**
+     * Creates an event owned by the passed thread.
+     * @param ownerThread The only thread the event should be registered to or raised from, or null to be owned by the
+     * first thread it's raised from.
+     */
+    public ThreadConfinedEvent(Thread ownerThread)
+    { this.ownerThread = ownerThread; }
+    
+    /**
+     * The thread this event should only be used from, or null where it hasn't been raised yet and wasn't constructed
+     * with one. Only checked where assertions are enabled.
+     */
+    protected Thread ownerThread;
+    
+    /**
+     * Gets the thread this event should only be used from.
+     * @return The owner thread, or null if it wasn't constructed with one and either hasn't been raised yet or has only
+     * been raised with assertions disabled.
+     */
+    public Thread getOwnerThread()
+    { return ownerThread; }
+    
+    /**
+     * Checks that the event is being raised on its owner thread, making the current thread its owner thread where it
+     * doesn't have one yet. Intended for use in assert statements.
+     * @return True if the current thread is the owner thread, otherwise false.
+     */
+    protected boolean checkRaisingThread()
+    {
+        Thread current = Thread.currentThread();
+        
+        if(ownerThread == null)
+            ownerThread = current;
+        
+        return ownerThread == current;
+    }
+    
+    /**
+     * Checks that the event is being registered to or deregistered from on its owner thread, where it has one. Intended
+     * for use in assert statements.
+     * @return True if the current thread is the owner thread or there isn't an owner thread yet, otherwise false.
+     */
+    protected boolean checkRegisteringThread()
+    { return ownerThread == null || ownerThread == Thread.currentThread(); }
+    
+    //<editor-fold defaultstate="collapsed" desc="Raising">
+    /**
+     * Listeners of thread-confined events are only ever called on the owner thread, so listeners marked with
+     * ConcurrentListener are called one at a time like any other.
+     * @return False.
+     */
+    @Override
+    protected boolean callsListenersConcurrently()
+    { return false; }
+    
+    @Override
+    public void raise(Object sender, T args)
+    {
+        assert checkRaisingThread() : "Thread-confined event raised from a thread other than its owner.";
+        super.raise(sender, args);
+    }
+    
+    @Override
+    public void raisePostEvent(Object sender, T args)
+    {
+        assert checkRaisingThread() : "Thread-confined event raised from a thread other than its owner.";
+        super.raisePostEvent(sender, args);
+    }
+    
+    @Override
+    public void raiseAlongside(Object sender, T args, boolean shareCancellation,
+                               Collection<? extends Pair<? extends Event<?>, ? extends EventArgs>> otherEvents)
+    {
+        assert checkRaisingThread() : "Thread-confined event raised from a thread other than its owner.";
+        super.raiseAlongside(sender, args, shareCancellation, otherEvents);
+    }
+    
+    @Override
+    public void raisePostEventAlongside(Object sender, T args,
+                                        Collection<? extends Pair<? extends Event<?>, ? extends EventArgs>> otherEvents)
+    {
+        assert checkRaisingThread() : "Thread-confined event raised from a thread other than its owner.";
+        super.raisePostEventAlongside(sender, args, otherEvents);
+    }
+    
+    @Override
+    public void raiseBatch(Object sender, List<? extends T> args, BatchOrder order)
+    {
+        assert checkRaisingThread() : "Thread-confined event raised from a thread other than its owner.";
+        super.raiseBatch(sender, args, order);
+    }
+    
+    @Override
+    public void raisePostEventBatch(Object sender, List<? extends T> args, BatchOrder order)
+    {
+        assert checkRaisingThread() : "Thread-confined event raised from a thread other than its owner.";
+        super.raisePostEventBatch(sender, args, order);
+    }
+    
+    /**
+     * Listeners of thread-confined events may only be called on the owner thread, so this raises the event on the
+     * calling thread, which must be the owner thread, rather than handing any part of it off to the passed executor.
+     * @return A future that's already done.
+     */
+    @Override
+    public Future<?> raiseAsync(Object sender, T args, Executor executor)
+    {
+        if(executor == null)
+            throw new NullArgumentException("executor");
+        
+        raise(sender, args);
+        return completedFuture();
+    }
+    
+    /**
+     * Listeners of thread-confined events may only be called on the owner thread, so this raises the post-event on the
+     * calling thread, which must be the owner thread, rather than handing it off to the passed executor.
+     * @return A future that's already done.
+     */
+    @Override
+    public Future<?> raisePostEventAsync(Object sender, T args, Executor executor)
+    {
+        if(executor == null)
+            throw new NullArgumentException("executor");
+        
+        raisePostEvent(sender, args);
+        return completedFuture();
+    }
+    
+    /**
+     * Gets a future that's already done, for raises that have already been run on the owner thread.
+     * @return A done future.
+     */
+    private static Future<?> completedFuture()
+    {
+        FutureTask<Object> done = new FutureTask<Object>(new Runnable()
+        {
+            @Override
+            public void run()
+            { /* Nothin' here */ }
+        }, null);
+        
+        done.run();
+        return done;
+    }
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Registration">
+    @Override
+    public void register(EventListener<T> listener, double priority)
+    {
+        assert checkRegisteringThread() : "Thread-confined event registered to from a thread other than its owner.";
+        
+        DispatchPlan.Builder<T> builder = getPlanBuilder();
+        builder.addListener(listener, priority, isWeakListener(listener));
+        setDispatchPlan(builder.build());
+    }
+    
+    @Override
+    public void register(Collection<EventListener<T>> listeners, double priority)
+    {
+        assert checkRegisteringThread() : "Thread-confined event registered to from a thread other than its owner.";
+        
+        DispatchPlan.Builder<T> builder = getPlanBuilder();
+        
+        for(EventListener<T> i : new HashSet<EventListener<T>>(listeners))
+            builder.addListener(i, priority, isWeakListener(i));
+        
+        setDispatchPlan(builder.build());
+    }
+    
+    @Override
+    public <TArgs extends EventArgs> void register(Converger<Object, T, TArgs> eventArgsGetter,
+                                                   Collection<? extends Event<? extends TArgs>> events,
+                                                   boolean stronglyRegistered)
+    {
+        assert checkRegisteringThread() : "Thread-confined event registered to from a thread other than its owner.";
+        
+        // Still locked, as the events being registered may be having events registered to them on other threads.
+        synchronized(dependencyGraphBusy)
+        {
+            checkForDependencyCycles(events);
+            DispatchPlan.Builder<T> builder = getPlanBuilder();
+            
+            for(Event<? extends TArgs> event : events)
+                builder.addDependentEvent(event, eventArgsGetter, !stronglyRegistered);
+            
+            setDispatchPlan(builder.build());
+        }
+    }
+    
+    @Override
+    protected Collection<EventListener<T>> deregister(Collection<EventListener<T>> listeners)
+    {
+        assert checkRegisteringThread() : "Thread-confined event deregistered from a thread other than its owner.";
+        
+        Collection<EventListener<T>> deregistered = new HashSet<EventListener<T>>();
+        DispatchPlan.Builder<T> builder = getPlanBuilder();
+        
+        for(EventListener<T> i : listeners)
+            if(builder.removeListener(i))
+                deregistered.add(i);
+        
+        if(!deregistered.isEmpty())
+            setDispatchPlan(builder.build());
+        
+        return deregistered;
+    }
+    
+    @Override
+    public Event<? extends EventArgs> deregister(Event<? extends EventArgs> event)
+    {
+        assert checkRegisteringThread() : "Thread-confined event deregistered from a thread other than its owner.";
+        
+        DispatchPlan.Builder<T> builder = getPlanBuilder();
+        boolean removedStrong = builder.removeDependentEvent(event, false);
+        boolean removedWeak   = builder.removeDependentEvent(event, true);
+        
+        if(removedStrong || removedWeak)
+            setDispatchPlan(builder.build());
+        
+        return removedStrong ? event : null;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<Event<? extends EventArgs>> deregister(Event<? extends EventArgs>... events)
+    {
+        assert checkRegisteringThread() : "Thread-confined event deregistered from a thread other than its owner.";
+        
+        Collection<Event<? extends EventArgs>> deregistered = new HashSet<Event<? extends EventArgs>>();
+        DispatchPlan.Builder<T> builder = getPlanBuilder();
+        
+        for(Event<? extends EventArgs> i : events)
+            if(builder.removeDependentEvent(i))
+                deregistered.add(i);
+        
+        if(!deregistered.isEmpty())
+            setDispatchPlan(builder.build());
+        
+        return deregistered;
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,401 @@
+package com.enkigaming.lib.events;
+
+import com.enkigaming.lib.events.exceptions.EventArgsFinishedBeforeStartedException;
+import com.enkigaming.lib.events.exceptions.EventArgsModifiedWhenImmutableException;
+import com.enkigaming.lib.events.exceptions.EventArgsMultipleUseException;
+import com.enkigaming.lib.events.exceptions.EventArgsResetWhileInUseException;
+import com.enkigaming.lib.events.exceptions.EventArgsUsedPostBeforePreException;
+import com.enkigaming.lib.tuples.Triplet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * A lightweight implementation of the EventArgs interface, for args only ever used on a single thread, such as those
+ * of ThreadConfinedEvents. Has the same state checks as StandardEventArgs, but doesn't lock or use volatile fields,
+ * and doesn't create collections for related or dependent args unless it has any.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+public class ThreadConfinedEventArgs implements ResettableEventArgs
+{
+    protected enum Status
+    {
+        Unused,
+        UsingPreEvent,
+        UsedPreEvent,
+        UsingPostEvent,
+        UsedPostEvent
+    }
+    
+    Event<? extends EventArgs> event = null;
+    boolean cancelled = false;
+    boolean mutable = true;
+    EventArgs parentArgs = null;
+    Status status = Status.Unused;
+    Queue<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>> listenerQueue = null;
+    
+    /**
+     * The related master args, or null where there aren't any.
+     */
+    Set<EventArgs> relatedMasterArgs = null;
+    
+    /**
+     * The directly dependent args, or null where there aren't any.
+     */
+    Set<EventArgs> dependentArgs = null;
+    
+    /**
+     * The technical accessor, created the first time it's requested.
+     */
+    TechnicalAccessor technicalAccessor = null;
+    
+    @Override
+    public boolean isCancelled()
+    {
+        if(parentArgs != null)
+            return getMasterArgs().isCancelled();
+        
+        return cancelled;
+    }
+    
+    @Override
+    public boolean setCancelled(boolean cancellation)
+    {
+        if(parentArgs != null)
+            return getMasterArgs().setCancelled(cancellation);
+        
+        if(!mutable)
+            throw new EventArgsModifiedWhenImmutableException();
+        
+        boolean oldValue = cancelled;
+        cancelled = cancellation;
+        return oldValue;
+    }
+    
+    @Override
+    public boolean shouldBeMutable()
+    {
+        if(parentArgs != null)
+            return getMasterArgs().shouldBeMutable();
+        
+        return mutable;
+    }
+    
+    protected void makeImmutable()
+    {
+        if(parentArgs != null)
+            getMasterArgs().getTechnicalAccessor().makeImmutable();
+        else
+            mutable = false;
+    }
+    
+    @Override
+    public Collection<EventArgs> getRelatedMasterArgs()
+    {
+        if(parentArgs != null)
+            return getMasterArgs().getRelatedMasterArgs();
+        
+        if(relatedMasterArgs == null)
+            return new ArrayList<EventArgs>();
+        
+        return new ArrayList<EventArgs>(relatedMasterArgs);
+    }
+    
+    @Override
+    public Collection<EventArgs> getRelatedArgs()
+    {
+        Collection<EventArgs> masters = new HashSet<EventArgs>(getRelatedMasterArgs());
+        masters.add(getMasterArgs());
+        
+        Collection<EventArgs> relatedArgs = new HashSet<EventArgs>();
+        
+        for(EventArgs i : masters)
+            relatedArgs.addAll(i.getDependentArgs(true, true));
+        
+        relatedArgs.remove(this);
+        
+        return relatedArgs;
+    }
+    
+    protected void addRelatedMasterArgs(EventArgs args)
+    { addRelatedMasterArgs(Collections.singletonList(args)); }
+    
+    protected void addRelatedMasterArgs(EventArgs... args)
+    { addRelatedMasterArgs(Arrays.asList(args)); }
+    
+    protected void addRelatedMasterArgs(Collection<? extends EventArgs> args)
+    {
+        if(relatedMasterArgs == null)
+            relatedMasterArgs = new HashSet<EventArgs>();
+        
+        relatedMasterArgs.addAll(args);
+    }
+    
+    @Override
+    public Collection<EventArgs> getDependentArgs(boolean getDependantsCascadingly)
+    { return getDependentArgs(false, getDependantsCascadingly); }
+    
+    @Override
+    public Collection<EventArgs> getDependentArgs(boolean includeThis, boolean getDependantsCascadingly)
+    {
+        Collection<EventArgs> returnArgs = dependentArgs == null ? new HashSet<EventArgs>()
+                                                                 : new HashSet<EventArgs>(dependentArgs);
+        
+        if(getDependantsCascadingly && dependentArgs != null)
+            for(EventArgs i : dependentArgs)
+                returnArgs.addAll(i.getDependentArgs(false, true));
+        
+        if(includeThis)
+            returnArgs.add(this);
+        
+        return returnArgs;
+    }
+    
+    @Override
+    public Collection<EventArgs> getDependentArgs()
+    { return getDependentArgs(false, true); }
+    
+    @Override
+    public Collection<EventArgs> getDirectlyDependentArgs()
+    { return getDependentArgs(false, false); }
+    
+    protected void addDependentArgs(EventArgs args)
+    {
+        if(dependentArgs == null)
+            dependentArgs = new HashSet<EventArgs>();
+        
+        dependentArgs.add(args);
+    }
+    
+    @Override
+    public EventArgs getParentArgs()
+    { return parentArgs; }
+    
+    protected void setParentArgs(EventArgs args)
+    { parentArgs = args; }
+    
+    @Override
+    public EventArgs getMasterArgs()
+    { return parentArgs == null ? this : parentArgs.getMasterArgs(); }
+    
+    @Override
+    public Event<? extends EventArgs> getEvent()
+    { return event; }
+    
+    protected void setEvent(Event<? extends EventArgs> event)
+    { this.event = event; }
+    
+    protected void markAsUsingPreEvent()
+    {
+        if(parentArgs != null)
+        {
+            getMasterArgs().getTechnicalAccessor().markAsUsingPreEvent();
+            return;
+        }
+        
+        if(status != Status.Unused)
+            throw new EventArgsMultipleUseException();
+        
+        status = Status.UsingPreEvent;
+    }
+    
+    protected void markAsUsedPreEvent()
+    {
+        if(parentArgs != null)
+        {
+            getMasterArgs().getTechnicalAccessor().markAsUsedPreEvent();
+            return;
+        }
+        
+        switch(status)
+        {
+            case Unused:
+                throw new EventArgsFinishedBeforeStartedException("Has not been marked as using pre-event.");
+            case UsingPreEvent:
+            {
+                status = Status.UsedPreEvent;
+                break;
+            }
+            case UsedPreEvent:
+            case UsingPostEvent:
+            case UsedPostEvent:
+                throw new EventArgsMultipleUseException("Already used pre-event.");
+        }
+    }
+    
+    protected void markAsUsingPostEvent()
+    {
+        if(parentArgs != null)
+        {
+            getMasterArgs().getTechnicalAccessor().markAsUsingPostEvent();
+            return;
+        }
+        
+        switch(status)
+        {
+            case Unused:
+                throw new EventArgsUsedPostBeforePreException("Has not been marked as being used pre-event.");
+            case UsingPreEvent:
+                throw new EventArgsUsedPostBeforePreException("Has not finished being used pre-event.");
+            case UsedPreEvent:
+            {
+                status = Status.UsingPostEvent;
+                break;
+            }
+            case UsingPostEvent:
+            case UsedPostEvent:
+                throw new EventArgsMultipleUseException("Already used post-event.");
+        }
+    }
+    
+    protected void markAsUsedPostEvent()
+    {
+        if(parentArgs != null)
+        {
+            getMasterArgs().getTechnicalAccessor().markAsUsedPostEvent();
+            return;
+        }
+        
+        switch(status)
+        {
+            case Unused:
+                throw new EventArgsUsedPostBeforePreException("Has not been marked as being used pre-event.");
+            case UsingPreEvent:
+                throw new EventArgsUsedPostBeforePreException("Has not finished being used pre-event.");
+            case UsedPreEvent:
+                throw new EventArgsFinishedBeforeStartedException("Has not been marked as using post-event.");
+            case UsingPostEvent:
+            {
+                status = Status.UsedPostEvent;
+                break;
+            }
+            case UsedPostEvent:
+                throw new EventArgsMultipleUseException("Already used post-event.");
+        }
+    }
+    
+    protected void setListenerQueue(Queue<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>> queue)
+    { listenerQueue = queue; }
+    
+    protected Queue<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>> getListenerQueue()
+    { return listenerQueue; }
+    
+    /**
+     * Gets whether or not this event args object is part of an event raise that hasn't finished. That is, whether its
+     * master args have been marked as being used pre-event, but not yet as having been used post-event.
+     * @return True if the event args are in the middle of being used, otherwise false.
+     */
+    protected boolean isInUse()
+    {
+        if(parentArgs != null)
+        {
+            EventArgs master = getMasterArgs();
+            
+            if(master instanceof ThreadConfinedEventArgs)
+                return ((ThreadConfinedEventArgs)master).isInUse();
+            
+            if(master instanceof StandardEventArgs)
+                return ((StandardEventArgs)master).isInUse();
+            
+            return false;
+        }
+        
+        return status != Status.Unused && status != Status.UsedPostEvent;
+    }
+    
+    @Override
+    public void reset()
+    {
+        if(isInUse())
+            throw new EventArgsResetWhileInUseException("Can't be reset until it's been used post-event.");
+        
+        event = null;
+        cancelled = false;
+        mutable = true;
+        parentArgs = null;
+        status = Status.Unused;
+        listenerQueue = null;
+        relatedMasterArgs = null;
+        dependentArgs = null;
+        onReset();
+    }
+    
+    /**
+     * Called when the event args are reset for reuse, after the state held by ThreadConfinedEventArgs has been reset.
+     * Subclasses holding their own state that should be reset between raises should override this and reset it here.
+     */
+    protected void onReset()
+    { /* Nothin' here */ }
+    
+    protected void checkMutability()
+    {
+        if(!shouldBeMutable())
+            throw new EventArgsModifiedWhenImmutableException();
+    }
+    
+    @Override
+    public TechnicalAccessor getTechnicalAccessor()
+    {
+        if(technicalAccessor == null)
+            technicalAccessor = new TechnicalAccessor()
+            {
+                @Override
+                public void markAsUsingPreEvent()
+                { ThreadConfinedEventArgs.this.markAsUsingPreEvent(); }
+                
+                @Override
+                public void markAsUsedPreEvent()
+                { ThreadConfinedEventArgs.this.markAsUsedPreEvent(); }
+                
+                @Override
+                public void markAsUsingPostEvent()
+                { ThreadConfinedEventArgs.this.markAsUsingPostEvent(); }
+                
+                @Override
+                public void markAsUsedPostEvent()
+                { ThreadConfinedEventArgs.this.markAsUsedPostEvent(); }
+                
+                @Override
+                public void setEvent(Event<? extends EventArgs> event)
+                { ThreadConfinedEventArgs.this.setEvent(event); }
+                
+                @Override
+                public void setParentArgs(EventArgs args)
+                { ThreadConfinedEventArgs.this.setParentArgs(args); }
+                
+                @Override
+                public void makeImmutable()
+                { ThreadConfinedEventArgs.this.makeImmutable(); }
+                
+                @Override
+                public void addDependentArgs(EventArgs args)
+                { ThreadConfinedEventArgs.this.addDependentArgs(args); }
+                
+                @Override
+                public void addRelatedMasterArgs(EventArgs args)
+                { ThreadConfinedEventArgs.this.addRelatedMasterArgs(args); }
+                
+                @Override
+                public void addRelatedMasterArgs(EventArgs... args)
+                { ThreadConfinedEventArgs.this.addRelatedMasterArgs(args); }
+                
+                @Override
+                public void addRelatedMasterArgs(Collection<? extends EventArgs> args)
+                { ThreadConfinedEventArgs.this.addRelatedMasterArgs(args); }
+                
+                @Override
+                public void setListenerQueue(Queue<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>> listenerQueue)
+                { ThreadConfinedEventArgs.this.setListenerQueue(listenerQueue); }
+                
+                @Override
+                public Queue<Triplet<EventListener<? extends EventArgs>, Double, EventArgs>> getListenerQueue()
+                { return ThreadConfinedEventArgs.this.getListenerQueue(); }
+            };
+        
+        return technicalAccessor;
+    }
+}
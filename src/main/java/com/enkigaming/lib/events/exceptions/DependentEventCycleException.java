@@ -0,0 +1,14 @@
+package com.enkigaming.lib.events.exceptions;
+
+public class DependentEventCycleException extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+    
+    public DependentEventCycleException() { super(); }
+    
+    public DependentEventCycleException(String message) { super(message); }
+    
+    public DependentEventCycleException(String message, Throwable cause) { super(message, cause); }
+    
+    public DependentEventCycleException(Throwable cause) { super(cause); }
+}
@@ -0,0 +1,14 @@
+package com.enkigaming.lib.events.exceptions;
+
+public class EventArgsResetWhileInUseException extends EventArgsStateException
+{
+    private static final long serialVersionUID = 1L;
+    
+    public EventArgsResetWhileInUseException() { super(); }
+    
+    public EventArgsResetWhileInUseException(String message) { super(message); }
+    
+    public EventArgsResetWhileInUseException(String message, Throwable cause) { super(message, cause); }
+    
+    public EventArgsResetWhileInUseException(Throwable cause) { super(cause); }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.enkigaming.lib.events.journal;
+
+import com.enkigaming.lib.events.EventArgs;
+import java.nio.ByteBuffer;
+
+/**
+ * Converts event args to and from bytes, so that they can be written to an event journal and read back to be replayed.
+ * Only the information needed to raise equivalent args needs to be encoded - the state held by the args for the event
+ * system, such as their cancellation state and dependent args, doesn't.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ * @param <T> The type of event args converted.
+ */
+public interface ArgsCodec<T extends EventArgs>
+{
+    /**
+     * Writes the passed args to the passed buffer, starting at its current position.
+     * @param args The args to write.
+     * @param buffer The buffer to write to.
+     * @throws java.nio.BufferOverflowException If the buffer doesn't have enough space remaining, in which case the
+     * args are written again to a larger buffer.
+     */
+    void encode(T args, ByteBuffer buffer);
+    
+    /**
+     * Reads args written by encode from the passed buffer, creating new args to be raised.
+     * @param buffer The buffer to read from, positioned at the start of the args and limited to their end.
+     * @return New, unused args equivalent to those that were written.
+     */
+    T decode(ByteBuffer buffer);
+}
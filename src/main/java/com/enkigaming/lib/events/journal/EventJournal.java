@@ -0,0 +1,333 @@
+package com.enkigaming.lib.events.journal;
+
+import com.enkigaming.lib.events.EventArgs;
+import com.enkigaming.lib.exceptions.NullArgumentException;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only record of event raises, kept in a memory-mapped file used as a ring buffer. Once the file is full,
+ * the oldest entries are overwritten, so the journal always holds the most recent raises that fit in it. As entries
+ * are written to mapped memory rather than through the file, recording a raise costs about as much as copying its
+ * encoded args, and the operating system writes the entries out to the file in the background.
+ *
+ * Each entry holds when the raise was recorded, the id of the event raised, the type of the object that raised it, and
+ * the args it was raised with, as encoded by an args codec. Raises of an event are recorded by wrapping it in a
+ * JournallingEvent, and can be replayed against other events with a JournalReplayer.
+ *
+ * A journal may be recorded to from multiple threads at once. Opening a file that already holds a journal with the
+ * same capacity continues it.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+public class EventJournal implements Closeable
+{
+    //<editor-fold defaultstate="collapsed" desc="Constructors">
+    /**
+     * Creates a journal in the passed file, or continues the journal already in it.
+     * @param file The file to keep the journal in.
+     * @param capacity The number of bytes of entries the journal can hold before it starts overwriting the oldest.
+     * @throws IOException If the file couldn't be opened or mapped.
+     * @throws IllegalArgumentException If the capacity is too small to hold an entry.
+     */
+    public EventJournal(File file, int capacity) throws IOException
+    {
+        if(file == null)
+            throw new NullArgumentException("file");
+        
+        if(capacity < ENTRY_HEADER_SIZE)
+            throw new IllegalArgumentException("Capacity must be at least " + ENTRY_HEADER_SIZE + " bytes.");
+        
+        this.capacity = capacity;
+        this.file = new RandomAccessFile(file, "rw");
+        
+        try
+        {
+            boolean continuing = this.file.length() == FILE_HEADER_SIZE + capacity;
+            buffer = this.file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, FILE_HEADER_SIZE + capacity);
+            
+            if(continuing && buffer.getInt(MAGIC_POSITION) == MAGIC && buffer.getInt(CAPACITY_POSITION) == capacity)
+            {
+                head = buffer.getLong(HEAD_POSITION);
+                tail = buffer.getLong(TAIL_POSITION);
+            }
+            else
+            {
+                buffer.putInt(MAGIC_POSITION, MAGIC);
+                buffer.putInt(CAPACITY_POSITION, capacity);
+                writePositions();
+            }
+        }
+        catch(IOException e)
+        {
+            this.file.close();
+            throw e;
+        }
+    }
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Fields">
+    /**
+     * Marks a file as holding a journal.
+     */
+    protected static final int MAGIC = 0x454A524E;
+    
+    protected static final int MAGIC_POSITION = 0;
+    protected static final int CAPACITY_POSITION = 4;
+    protected static final int HEAD_POSITION = 8;
+    protected static final int TAIL_POSITION = 16;
+    protected static final int FILE_HEADER_SIZE = 24;
+    
+    /**
+     * The size of an entry without its sender type and args: its length, timestamp, event id, and the length of its
+     * sender type.
+     */
+    protected static final int ENTRY_HEADER_SIZE = 4 + 8 + 4 + 2;
+    
+    /**
+     * Written in place of an entry's length where the rest of the file up to the end is unused, as the next entry
+     * didn't fit.
+     */
+    protected static final int PADDING = -1;
+    
+    protected static final Charset UTF8 = Charset.forName("UTF-8");
+    
+    /**
+     * The encoded names of sender classes, worked out once per class.
+     */
+    protected static final ClassValue<byte[]> senderTypeNames = new ClassValue<byte[]>()
+    {
+        @Override
+        protected byte[] computeValue(Class<?> type)
+        { return type.getName().getBytes(UTF8); }
+    };
+    
+    protected final RandomAccessFile file;
+    
+    /**
+     * The whole file, mapped into memory. The file header is at the start, followed by the ring of entries.
+     */
+    protected final MappedByteBuffer buffer;
+    
+    /**
+     * The number of bytes of entries the journal can hold.
+     */
+    protected final int capacity;
+    
+    /**
+     * The number of bytes written to the ring since the journal was created, including those since overwritten. The
+     * next entry is written at this position, modulo the capacity.
+     */
+    protected long head = 0;
+    
+    /**
+     * The position, in the same terms as the head, of the oldest entry not yet overwritten.
+     */
+    protected long tail = 0;
+    
+    /**
+     * Reused for encoding args before they're copied into the ring, so that recording doesn't allocate. Grown where
+     * args don't fit.
+     */
+    protected ByteBuffer scratch = ByteBuffer.allocate(256);
+    
+    /**
+     * Held while writing to or reading from the ring.
+     */
+    protected final Object ringBusy = new Object();
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Methods">
+    /**
+     * Records a raise of an event.
+     * @param <T> The type of the args raised.
+     * @param eventId The id to record the event under.
+     * @param sender The object that raised the event. Only its type is recorded.
+     * @param args The args raised.
+     * @param codec The codec to encode the args with.
+     * @throws IllegalArgumentException If the encoded entry is larger than the journal's capacity.
+     */
+    public <T extends EventArgs> void record(int eventId, Object sender, T args, ArgsCodec<? super T> codec)
+    {
+        byte[] senderType = sender == null ? new byte[0] : senderTypeNames.get(sender.getClass());
+        
+        synchronized(ringBusy)
+        {
+            for(;;)
+            {
+                scratch.clear();
+                
+                try
+                {
+                    codec.encode(args, scratch);
+                    break;
+                }
+                catch(BufferOverflowException e)
+                {
+                    if(scratch.capacity() >= capacity)
+                        throw new IllegalArgumentException("Encoded args are larger than the journal's capacity.", e);
+                    
+                    scratch = ByteBuffer.allocate((int)Math.min((long)scratch.capacity() * 2, capacity));
+                }
+            }
+            
+            scratch.flip();
+            append(System.nanoTime(), eventId, senderType, scratch);
+        }
+    }
+    
+    /**
+     * Writes an entry to the ring, overwriting the oldest entries where there isn't enough space. Should only be
+     * called while holding ringBusy.
+     * @param timestamp When the raise was recorded.
+     * @param eventId The id of the event raised.
+     * @param senderType The encoded name of the sender's class.
+     * @param args The encoded args, between the buffer's position and limit.
+     */
+    protected void append(long timestamp, int eventId, byte[] senderType, ByteBuffer args)
+    {
+        int size = ENTRY_HEADER_SIZE + senderType.length + args.remaining();
+        
+        if(size > capacity)
+            throw new IllegalArgumentException("Entry of " + size + " bytes is larger than the journal's capacity.");
+        
+        int offset = (int)(head % capacity);
+        long start = head;
+        
+        if(capacity - offset < size) // Entries don't wrap around the end, so start again at the beginning.
+        {
+            if(capacity - offset >= 4)
+                buffer.putInt(FILE_HEADER_SIZE + offset, PADDING);
+            
+            start += capacity - offset;
+            offset = 0;
+        }
+        
+        long end = start + size;
+        
+        while(tail < head && tail < end - capacity)
+            tail = getNextEntryPosition(tail);
+        
+        if(tail >= head) // Empty, or every entry has been overwritten.
+            tail = start;
+        
+        int position = FILE_HEADER_SIZE + offset;
+        
+        buffer.putInt(position, size);
+        buffer.putLong(position + 4, timestamp);
+        buffer.putInt(position + 12, eventId);
+        buffer.putShort(position + 16, (short)senderType.length);
+        buffer.position(position + ENTRY_HEADER_SIZE);
+        buffer.put(senderType);
+        buffer.put(args);
+        
+        head = end;
+        writePositions();
+    }
+    
+    /**
+     * Gets the position of the entry after the one at the passed position, skipping over any unused space at the end
+     * of the ring. Should only be called while holding ringBusy.
+     * @param position The position of an entry, in the same terms as the head.
+     * @return The position of the next entry.
+     */
+    protected long getNextEntryPosition(long position)
+    {
+        int offset = (int)(position % capacity);
+        
+        if(capacity - offset < 4)
+            return position + (capacity - offset);
+        
+        int length = buffer.getInt(FILE_HEADER_SIZE + offset);
+        
+        if(length == PADDING)
+            return position + (capacity - offset);
+        
+        return position + length;
+    }
+    
+    /**
+     * Gets whether or not there's an entry, rather than unused space, at the passed position. Should only be called
+     * while holding ringBusy.
+     * @param position A position in the same terms as the head.
+     * @return True if an entry starts at the passed position, otherwise false.
+     */
+    protected boolean isEntryAt(long position)
+    {
+        int offset = (int)(position % capacity);
+        return capacity - offset >= 4 && buffer.getInt(FILE_HEADER_SIZE + offset) != PADDING;
+    }
+    
+    protected void writePositions()
+    {
+        buffer.putLong(HEAD_POSITION, head);
+        buffer.putLong(TAIL_POSITION, tail);
+    }
+    
+    /**
+     * Reads all of the entries currently in the journal.
+     * @return The entries, oldest first.
+     */
+    public List<JournalEntry> getEntries()
+    {
+        List<JournalEntry> entries = new ArrayList<JournalEntry>();
+        
+        synchronized(ringBusy)
+        {
+            for(long i = tail; i < head; i = getNextEntryPosition(i))
+            {
+                if(!isEntryAt(i))
+                    continue;
+                
+                int position = FILE_HEADER_SIZE + (int)(i % capacity);
+                int length = buffer.getInt(position);
+                byte[] senderType = new byte[buffer.getShort(position + 16)];
+                byte[] args = new byte[length - ENTRY_HEADER_SIZE - senderType.length];
+                
+                buffer.position(position + ENTRY_HEADER_SIZE);
+                buffer.get(senderType);
+                buffer.get(args);
+                
+                entries.add(new JournalEntry(buffer.getLong(position + 4),
+                                             buffer.getInt(position + 12),
+                                             new String(senderType, UTF8),
+                                             args));
+            }
+        }
+        
+        return entries;
+    }
+    
+    /**
+     * Gets the number of bytes of entries the journal can hold before it starts overwriting the oldest.
+     * @return The journal's capacity.
+     */
+    public int getCapacity()
+    { return capacity; }
+    
+    /**
+     * Writes any entries the operating system hasn't yet written out to the file. Not needed for the entries to be
+     * read back by getEntries, or for them to survive the JVM exiting, only for them to survive the machine going down.
+     */
+    public void flush()
+    {
+        synchronized(ringBusy)
+        { buffer.force(); }
+    }
+    
+    @Override
+    public void close() throws IOException
+    {
+        flush();
+        file.close();
+    }
+    //</editor-fold>
+}
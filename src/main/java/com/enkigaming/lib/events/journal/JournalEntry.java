@@ -0,0 +1,60 @@
+package com.enkigaming.lib.events.journal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A single recorded raise read back from an event journal.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+public final class JournalEntry
+{
+    /**
+     * Constructor.
+     * @param timestamp The value of System.nanoTime when the raise was recorded.
+     * @param eventId The id the raised event was recorded under.
+     * @param senderType The name of the class of the object that raised the event, or an empty string where it was
+     * raised without one.
+     * @param args The args raised, as encoded by the event's args codec.
+     */
+    public JournalEntry(long timestamp, int eventId, String senderType, byte[] args)
+    {
+        this.timestamp = timestamp;
+        this.eventId = eventId;
+        this.senderType = senderType;
+        this.args = args;
+    }
+    
+    final long timestamp;
+    final int eventId;
+    final String senderType;
+    final byte[] args;
+    
+    /**
+     * Gets when the raise was recorded.
+     * @return The value of System.nanoTime at the time. Only meaningful relative to the timestamps of other entries
+     * recorded while the same JVM was running.
+     */
+    public long getTimestamp()
+    { return timestamp; }
+    
+    /**
+     * Gets the id the raised event was recorded under.
+     * @return The event id.
+     */
+    public int getEventId()
+    { return eventId; }
+    
+    /**
+     * Gets the type of the object that raised the event.
+     * @return The name of the sender's class, or an empty string where there was no sender.
+     */
+    public String getSenderType()
+    { return senderType; }
+    
+    /**
+     * Gets the encoded args, positioned to be passed to the args codec the event was recorded with.
+     * @return A new read-only buffer over the encoded args.
+     */
+    public ByteBuffer getArgs()
+    { return ByteBuffer.wrap(args).asReadOnlyBuffer(); }
+}
@@ -0,0 +1,98 @@
+package com.enkigaming.lib.events.journal;
+
+import com.enkigaming.lib.events.Event;
+import com.enkigaming.lib.events.EventArgs;
+import com.enkigaming.lib.exceptions.NullArgumentException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Raises the events recorded in an event journal again, against events matched up with the recorded events by id, as
+ * fast as possible rather than at the times they were recorded. Intended for reproducing the load an event graph was
+ * under, e.g. in a benchmark.
+ *
+ * Each replayed raise is raised pre-event and then post-event, with the journal entry it was read from as the sender.
+ * Entries with ids no event has been registered for are skipped. Events should be registered before replaying starts.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+public class JournalReplayer
+{
+    /**
+     * An event to replay raises against, along with the codec to decode the recorded args with.
+     * @param <T> The type of the event's args.
+     */
+    protected static final class Target<T extends EventArgs>
+    {
+        Target(Event<T> event, ArgsCodec<? extends T> codec)
+        {
+            this.event = event;
+            this.codec = codec;
+        }
+        
+        final Event<T> event;
+        final ArgsCodec<? extends T> codec;
+        
+        void replay(JournalEntry entry)
+        {
+            T args = codec.decode(entry.getArgs());
+            
+            event.raise(entry, args);
+            event.raisePostEvent(entry, args);
+        }
+    }
+    
+    /**
+     * The events to replay raises against, by the ids the raises were recorded under.
+     */
+    protected final Map<Integer, Target<?>> targets = new HashMap<Integer, Target<?>>();
+    
+    /**
+     * Sets the event raises recorded under the passed id are replayed against.
+     * @param <T> The type of the event's args.
+     * @param eventId The id the raises were recorded under.
+     * @param event The event to raise.
+     * @param codec The codec to decode the recorded args with, normally the one they were encoded with.
+     */
+    public <T extends EventArgs> void register(int eventId, Event<T> event, ArgsCodec<? extends T> codec)
+    {
+        if(event == null)
+            throw new NullArgumentException("event");
+        
+        if(codec == null)
+            throw new NullArgumentException("codec");
+        
+        targets.put(eventId, new Target<T>(event, codec));
+    }
+    
+    /**
+     * Replays the passed entries, in order.
+     * @param entries The entries to replay, as read from a journal.
+     * @return The number of entries replayed, not counting those skipped for having no event registered.
+     */
+    public int replay(List<JournalEntry> entries)
+    {
+        int replayed = 0;
+        
+        for(JournalEntry i : entries)
+        {
+            Target<?> target = targets.get(i.getEventId());
+            
+            if(target == null)
+                continue;
+            
+            target.replay(i);
+            replayed++;
+        }
+        
+        return replayed;
+    }
+    
+    /**
+     * Replays all of the entries currently in the passed journal, oldest first.
+     * @param journal The journal to replay.
+     * @return The number of entries replayed, not counting those skipped for having no event registered.
+     */
+    public int replay(EventJournal journal)
+    { return replay(journal.getEntries()); }
+}
@@ -0,0 +1,413 @@
+package com.enkigaming.lib.events.journal;
+
+import com.enkigaming.lib.encapsulatedfunctions.Converger;
+import com.enkigaming.lib.events.BatchOrder;
+import com.enkigaming.lib.events.Event;
+import com.enkigaming.lib.events.EventArgs;
+import com.enkigaming.lib.events.EventListener;
+import com.enkigaming.lib.events.ListenerPriority;
+import com.enkigaming.lib.exceptions.NullArgumentException;
+import com.enkigaming.lib.tuples.Pair;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * Wraps an event, recording each time it's raised to an event journal before raising the wrapped event. Everything
+ * else is passed straight on to the wrapped event, so this can be used in place of it wherever it's raised from, while
+ * listeners and dependent events may still be registered to either.
+ *
+ * Only the pre-event raises are recorded, with the args as they are before any listeners are called, as replaying a
+ * raise raises it post-event as well. Other events raised alongside this one aren't recorded, unless raised through
+ * their own journalling events. The args raised are still passed to the wrapped event, so their getEvent method
+ * returns the wrapped event rather than this.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ * @param <T> The type of the eventargs object passed to registered listeners.
+ */
+public class JournallingEvent<T extends EventArgs> implements Event<T>
+{
+    /**
+     * Constructor.
+     * @param delegate The event to record raises of and pass everything on to.
+     * @param journal The journal to record raises to.
+     * @param eventId The id to record raises under, to be matched up with an event to replay them against.
+     * @param codec The codec to encode the raised args with.
+     */
+    public JournallingEvent(Event<T> delegate, EventJournal journal, int eventId, ArgsCodec<? super T> codec)
+    {
+        if(delegate == null)
+            throw new NullArgumentException("delegate");
+        
+        if(journal == null)
+            throw new NullArgumentException("journal");
+        
+        if(codec == null)
+            throw new NullArgumentException("codec");
+        
+        this.delegate = delegate;
+        this.journal = journal;
+        this.eventId = eventId;
+        this.codec = codec;
+    }
+    
+    protected final Event<T> delegate;
+    protected final EventJournal journal;
+    protected final int eventId;
+    protected final ArgsCodec<? super T> codec;
+    
+    /**
+     * Gets the event raises are passed on to.
+     * @return The wrapped event.
+     */
+    public Event<T> getDelegate()
+    { return delegate; }
+    
+    /**
+     * Gets the id raises of this event are recorded under.
+     * @return The event id.
+     */
+    public int getEventId()
+    { return eventId; }
+    
+    /**
+     * Records a raise to the journal. Where the args are null, nothing is recorded, and the wrapped event is left to
+     * reject them.
+     * @param sender The object raising the event.
+     * @param args The args being raised.
+     */
+    protected void record(Object sender, T args)
+    {
+        if(args != null)
+            journal.record(eventId, sender, args, codec);
+    }
+    
+    /**
+     * Records a raise to the journal for each of the passed args.
+     * @param sender The object raising the event.
+     * @param args The args being raised, or null, in which case nothing is recorded.
+     */
+    protected void recordAll(Object sender, List<? extends T> args)
+    {
+        if(args == null)
+            return;
+        
+        for(T i : args)
+            record(sender, i);
+    }
+    
+    @Override
+    public Collection<Event<? extends EventArgs>> getDependentEvents(boolean includeThis, boolean includeDependantsCascadingly)
+    { return delegate.getDependentEvents(includeThis, includeDependantsCascadingly); }
+    
+    @Override
+    public Collection<Event<? extends EventArgs>> getDependentEvents()
+    { return delegate.getDependentEvents(); }
+    
+    @Override
+    public Collection<Event<? extends EventArgs>> getDirectlyDependentEvents()
+    { return delegate.getDirectlyDependentEvents(); }
+    
+    @Override
+    public Collection<Event<? extends EventArgs>> getThisAndDependentEvents()
+    { return delegate.getThisAndDependentEvents(); }
+    
+    @Override
+    public Collection<Event<? extends EventArgs>> getThisAndDirectlyDependentEvents()
+    { return delegate.getThisAndDirectlyDependentEvents(); }
+    
+    @Override
+    public Map<Event<? extends EventArgs>, Converger<Object, T, ? extends EventArgs>> getDirectlyDependentEventsAndArgsGetters()
+    { return delegate.getDirectlyDependentEventsAndArgsGetters(); }
+    
+    @Override
+    public Collection<EventListener<T>> getListeners()
+    { return delegate.getListeners(); }
+    
+    @Override
+    public Map<EventListener<T>, Double> getListenersWithPriorities()
+    { return delegate.getListenersWithPriorities(); }
+    
+    @Override
+    public Collection<EventListener<? extends EventArgs>> getDependentListeners(boolean includeListenersOfThis, boolean includeDependantsCascadingly)
+    { return delegate.getDependentListeners(includeListenersOfThis, includeDependantsCascadingly); }
+    
+    @Override
+    public Collection<EventListener<? extends EventArgs>> getDependentListeners()
+    { return delegate.getDependentListeners(); }
+    
+    @Override
+    public Collection<EventListener<? extends EventArgs>> getDirectlyDependentListeners()
+    { return delegate.getDirectlyDependentListeners(); }
+    
+    @Override
+    public Collection<EventListener<? extends EventArgs>> getThisAndDependentListeners()
+    { return delegate.getThisAndDependentListeners(); }
+    
+    @Override
+    public Collection<EventListener<? extends EventArgs>> getThisAndDirectlyDependentListeners()
+    { return delegate.getThisAndDirectlyDependentListeners(); }
+    
+    @Override
+    public void raise(Object sender, T args)
+    {
+        record(sender, args);
+        delegate.raise(sender, args);
+    }
+    
+    @Override
+    public void raisePostEvent(Object sender, T args)
+    { delegate.raisePostEvent(sender, args); }
+    
+    @Override
+    public Future<?> raiseAsync(Object sender, T args, Executor executor)
+    {
+        record(sender, args);
+        return delegate.raiseAsync(sender, args, executor);
+    }
+    
+    @Override
+    public Future<?> raisePostEventAsync(Object sender, T args, Executor executor)
+    { return delegate.raisePostEventAsync(sender, args, executor); }
+    
+    @Override
+    public void raiseBatch(Object sender, List<? extends T> args)
+    {
+        recordAll(sender, args);
+        delegate.raiseBatch(sender, args);
+    }
+    
+    @Override
+    public void raiseBatch(Object sender, List<? extends T> args, BatchOrder order)
+    {
+        recordAll(sender, args);
+        delegate.raiseBatch(sender, args, order);
+    }
+    
+    @Override
+    public void raisePostEventBatch(Object sender, List<? extends T> args)
+    { delegate.raisePostEventBatch(sender, args); }
+    
+    @Override
+    public void raisePostEventBatch(Object sender, List<? extends T> args, BatchOrder order)
+    { delegate.raisePostEventBatch(sender, args, order); }
+    
+    @Override
+    public void raiseAlongside(Object sender, T args, Pair<? extends Event<? extends EventArgs>, ? extends EventArgs> otherEvent)
+    {
+        record(sender, args);
+        delegate.raiseAlongside(sender, args, otherEvent);
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public void raiseAlongside(Object sender, T args, Pair<? extends Event<? extends EventArgs>, ? extends EventArgs>... otherEvents)
+    {
+        record(sender, args);
+        delegate.raiseAlongside(sender, args, otherEvents);
+    }
+    
+    @Override
+    public void raiseAlongside(Object sender, T args, Collection<? extends Pair<? extends Event<? extends EventArgs>, ? extends EventArgs>> otherEvents)
+    {
+        record(sender, args);
+        delegate.raiseAlongside(sender, args, otherEvents);
+    }
+    
+    @Override
+    public void raiseAlongside(Object sender, T args, Map<? extends Event<? extends EventArgs>, ? extends EventArgs> otherEvents)
+    {
+        record(sender, args);
+        delegate.raiseAlongside(sender, args, otherEvents);
+    }
+    
+    @Override
+    public void raiseAlongside(Object sender, T args, boolean shareCancellation, Pair<? extends Event<? extends EventArgs>, ? extends EventArgs> otherEvent)
+    {
+        record(sender, args);
+        delegate.raiseAlongside(sender, args, shareCancellation, otherEvent);
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public void raiseAlongside(Object sender, T args, boolean shareCancellation, Pair<? extends Event<? extends EventArgs>, ? extends EventArgs>... otherEvents)
+    {
+        record(sender, args);
+        delegate.raiseAlongside(sender, args, shareCancellation, otherEvents);
+    }
+    
+    @Override
+    public void raiseAlongside(Object sender, T args, boolean shareCancellation, Collection<? extends Pair<? extends Event<? extends EventArgs>, ? extends EventArgs>> otherEvents)
+    {
+        record(sender, args);
+        delegate.raiseAlongside(sender, args, shareCancellation, otherEvents);
+    }
+    
+    @Override
+    public void raiseAlongside(Object sender, T args, boolean shareCancellation, Map<? extends Event<? extends EventArgs>, ? extends EventArgs> otherEvents)
+    {
+        record(sender, args);
+        delegate.raiseAlongside(sender, args, shareCancellation, otherEvents);
+    }
+    
+    @Override
+    public void raisePostEventAlongside(Object sender, T args, Pair<? extends Event<? extends EventArgs>, ? extends EventArgs> otherEvent)
+    { delegate.raisePostEventAlongside(sender, args, otherEvent); }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public void raisePostEventAlongside(Object sender, T args, Pair<? extends Event<? extends EventArgs>, ? extends EventArgs>... otherEvents)
+    { delegate.raisePostEventAlongside(sender, args, otherEvents); }
+    
+    @Override
+    public void raisePostEventAlongside(Object sender, T args, Collection<? extends Pair<? extends Event<? extends EventArgs>, ? extends EventArgs>> otherEvents)
+    { delegate.raisePostEventAlongside(sender, args, otherEvents); }
+    
+    @Override
+    public void raisePostEventAlongside(Object sender, T args, Map<? extends Event<? extends EventArgs>, ? extends EventArgs> otherEvents)
+    { delegate.raisePostEventAlongside(sender, args, otherEvents); }
+    
+    @Override
+    public void register(EventListener<T> listener)
+    { delegate.register(listener); }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public void register(EventListener<T>... listeners)
+    { delegate.register(listeners); }
+    
+    @Override
+    public void register(Collection<EventListener<T>> listeners)
+    { delegate.register(listeners); }
+    
+    @Override
+    public void register(EventListener<T> listener, double priority)
+    { delegate.register(listener, priority); }
+    
+    @Override
+    public void register(EventListener<T> listener, ListenerPriority priority)
+    { delegate.register(listener, priority); }
+    
+    @Override
+    public void register(EventListener<T>[] listeners, double priority)
+    { delegate.register(listeners, priority); }
+    
+    @Override
+    public void register(EventListener<T>[] listeners, ListenerPriority priority)
+    { delegate.register(listeners, priority); }
+    
+    @Override
+    public void register(Collection<EventListener<T>> listeners, double priority)
+    { delegate.register(listeners, priority); }
+    
+    @Override
+    public void register(Collection<EventListener<T>> listeners, ListenerPriority priority)
+    { delegate.register(listeners, priority); }
+    
+    @Override
+    public void register(double priority, EventListener<T> listener)
+    { delegate.register(priority, listener); }
+    
+    @Override
+    public void register(ListenerPriority priority, EventListener<T> listener)
+    { delegate.register(priority, listener); }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public void register(double priority, EventListener<T>... listeners)
+    { delegate.register(priority, listeners); }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public void register(ListenerPriority priority, EventListener<T>... listeners)
+    { delegate.register(priority, listeners); }
+    
+    @Override
+    public void register(double priority, Collection<EventListener<T>> listeners)
+    { delegate.register(priority, listeners); }
+    
+    @Override
+    public void register(ListenerPriority priority, Collection<EventListener<T>> listeners)
+    { delegate.register(priority, listeners); }
+    
+    @Override
+    public <TArgs extends EventArgs> void register(Event<TArgs> event, Converger<Object, T, TArgs> eventArgsGetter)
+    { delegate.register(event, eventArgsGetter); }
+    
+    @Override
+    public <TArgs extends EventArgs> void register(Converger<Object, T, TArgs> eventArgsGetter, Event<TArgs> event)
+    { delegate.register(eventArgsGetter, event); }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <TArgs extends EventArgs> void register(Converger<Object, T, TArgs> eventArgsGetter,
+                                                   Event<? extends TArgs>... events)
+    { delegate.register(eventArgsGetter, events); }
+    
+    @Override
+    public <TArgs extends EventArgs> void register(Converger<Object, T, TArgs> eventArgsGetter,
+                                                   Collection<? extends Event<? extends TArgs>> events)
+    { delegate.register(eventArgsGetter, events); }
+    
+    @Override
+    public <TArgs extends EventArgs> void register(Event<TArgs> event,
+                                                   Converger<Object, T, TArgs> eventArgsGetter,
+                                                   boolean stronglyRegistered)
+    { delegate.register(event, eventArgsGetter, stronglyRegistered); }
+    
+    @Override
+    public <TArgs extends EventArgs> void register(Converger<Object, T, TArgs> eventArgsGetter,
+                                                   Event<TArgs> event,
+                                                   boolean stronglyRegistered)
+    { delegate.register(eventArgsGetter, event, stronglyRegistered); }
+    
+    @Override
+    public <TArgs extends EventArgs> void register(Converger<Object, T, TArgs> eventArgsGetter,
+                                                   boolean stronglyRegistered,
+                                                   Event<TArgs> event)
+    { delegate.register(eventArgsGetter, stronglyRegistered, event); }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <TArgs extends EventArgs> void register(Converger<Object, T, TArgs> eventArgsGetter,
+                                                   boolean stronglyRegistered,
+                                                   Event<? extends TArgs>... events)
+    { delegate.register(eventArgsGetter, stronglyRegistered, events); }
+    
+    @Override
+    public <TArgs extends EventArgs> void register(Converger<Object, T, TArgs> eventArgsGetter,
+                                                   boolean stronglyRegistered,
+                                                   Collection<? extends Event<? extends TArgs>> events)
+    { delegate.register(eventArgsGetter, stronglyRegistered, events); }
+    
+    @Override
+    public <TArgs extends EventArgs> void register(Converger<Object, T, TArgs> eventArgsGetter,
+                                                   Event<? extends TArgs>[] events,
+                                                   boolean stronglyRegistered)
+    { delegate.register(eventArgsGetter, events, stronglyRegistered); }
+    
+    @Override
+    public <TArgs extends EventArgs> void register(Converger<Object, T, TArgs> eventArgsGetter,
+                                                   Collection<? extends Event<? extends TArgs>> events,
+                                                   boolean stronglyRegistered)
+    { delegate.register(eventArgsGetter, events, stronglyRegistered); }
+    
+    @Override
+    public EventListener<T> deregister(EventListener<T> listener)
+    { return delegate.deregister(listener); }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<EventListener<T>> deregister(EventListener<T>... listeners)
+    { return delegate.deregister(listeners); }
+    
+    @Override
+    public Event<? extends EventArgs> deregister(Event<? extends EventArgs> event)
+    { return delegate.deregister(event); }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<Event<? extends EventArgs>> deregister(Event<? extends EventArgs>... events)
+    { return delegate.deregister(events); }
+}
@@ -72,32 +72,44 @@ public abstract class CSVFileHandler extends FileHandler
     { super(HandlerID, file, logger, CorruptFileMessage); }
 
     
+    /**
+     * Whether or not the header has been read yet from the file currently being interpreted.
+     */
+    boolean headerRead = false;
+    
     @Override
     protected boolean interpretFile(List<String> Lines)
-    {
-        boolean Corrupt = false;
-        List<String> Entries = new ArrayList<String>();
+    { return interpretLines(Lines); }
 
-        stripEmptyLines(Lines);
+    @Override
+    protected void startInterpretingLines()
+    { headerRead = false; }
 
-        if(Lines.isEmpty())
-            Corrupt = true;
-        
-        if(!Lines.get(0).equalsIgnoreCase(getHeader()))
-            Corrupt = true;
+    @Override
+    protected boolean interpretLine(CharSequence line, long lineNumber)
+    {
+        String lineText = line.toString();
 
-        for(int i = 1; i < Lines.size(); i++)
+        if(lineText.trim().equals(""))
+            return true;
+        
+        if(!headerRead)
         {
-            List<String> Fields = splitCSVLine(Lines.get(i));
-            boolean LineIsCorrupt = false;
-
-            if(!interpretRow(Fields))
-                Corrupt = true;
+            headerRead = true;
+            return lineText.equalsIgnoreCase(getHeader());
         }
 
-        return !Corrupt;
+        return interpretRow(splitCSVLine(lineText));
     }
 
+    /**
+     * A file without a header is corrupt.
+     * @return True if a header was read, otherwise false.
+     */
+    @Override
+    protected boolean finishInterpretingLines()
+    { return headerRead; }
+    
     @Override
     protected abstract void onNoFileToInterpret();
 
@@ -1,20 +1,33 @@
 package com.enkigaming.lib.filehandling;
 
 import java.io.BufferedReader;
-import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 // To do: Move the call to 
@@ -75,6 +88,74 @@ public abstract class FileHandler
 
     final List<String> prerequisiteHandlers = new ArrayList<String>();
     
+    /**
+     * The number of chars read from the file at a time when loading.
+     */
+    int readBufferSize = 64 * 1024;
+
+    /**
+     * The lines read so far from the file being loaded, where this handler doesn't interpret each line as it's read.
+     */
+    List<String> linesBeingInterpreted = null;
+
+    /**
+     * The number of bytes written to the file at a time when saving atomically. The encoded data is buffered once,
+     * in a buffer of this size, on its way to the file.
+     */
+    int writeBufferSize = 256 * 1024;
+
+    /**
+     * Whether saves are written to a temporary file and moved over the handled file, rather than written to the
+     * handled file directly.
+     */
+    volatile boolean savesAtomically = true;
+
+    /**
+     * Held while writing the file, so that saves written on different threads are written one at a time. Where both
+     * are needed, taken before the lock on handledFile, which is never held by saveAsync while waiting on the file.
+     */
+    final Object writeBusy = new Object();
+
+    /**
+     * The save queued by saveAsync that hasn't started being written yet, or null if there isn't one. Only accessed
+     * while holding the lock on handledFile.
+     */
+    FutureTask<Void> queuedSave = null;
+
+    /**
+     * What the queued save writes, including whether its data has been passed to preSave yet. Only accessed while
+     * holding the lock on handledFile.
+     */
+    AsyncSaveWrite queuedSaveWrite = null;
+
+    /**
+     * Whether saves queued by saveAsync are being written on the executor. While they are, saveAsync queues saves
+     * behind them rather than submitting them to the executor. Only accessed while holding the lock on handledFile.
+     */
+    boolean writingAsyncSaves = false;
+
+    /**
+     * The save most recently queued by saveAsync, which may have finished, or null if there hasn't been one.
+     */
+    volatile Future<?> lastAsyncSave = null;
+
+    /**
+     * The version of the data most recently passed to preSave by a save queued by saveAsync, where that save hasn't
+     * failed. Only written while holding the lock on handledFile, or while writing that save.
+     */
+    volatile long queuedSaveVersion = 0;
+
+    /**
+     * Incremented each time the handled data is marked as changed. Starts ahead of savedVersion, so that the data is
+     * dirty until it's first loaded from or saved to the file.
+     */
+    final AtomicLong version = new AtomicLong(1);
+
+    /**
+     * The version of the data last loaded from or saved to the file. Only ever increases.
+     */
+    final AtomicLong savedVersion = new AtomicLong(0);
+
     public String getId()
     { return id; }
     
@@ -115,6 +196,72 @@ public abstract class FileHandler
     public void setCorruptFileMessage(String cfm)
     { corruptFileMessage = cfm; }
 
+    /**
+     * Gets whether or not the file is saved atomically: written to a temporary file alongside it and then moved over
+     * it, so that a save interrupted part-way through can't leave a partial file behind.
+     * @return True if the file is saved atomically, otherwise false.
+     */
+    public boolean savesAtomically()
+    { return savesAtomically; }
+
+    /**
+     * Sets whether or not the file should be saved atomically. Saving atomically needs enough free space for a second
+     * copy of the file while saving, but means that a save interrupted part-way through leaves the previously saved
+     * file intact. On by default.
+     * @param savesAtomically Whether or not the file should be saved atomically.
+     */
+    public void setSavesAtomically(boolean savesAtomically)
+    { this.savesAtomically = savesAtomically; }
+
+    /**
+     * Marks the handled data as having changed since it was last loaded or saved, so that the file registry saves it
+     * next time it saves. Should be called after the change has been made.
+     */
+    public void markDirty()
+    { version.incrementAndGet(); }
+
+    /**
+     * Gets whether or not the handled data may have changed since it was last loaded from or saved to the file, or
+     * since it was prepared for a save queued by saveAsync that's still to be written. Where this handler doesn't
+     * track changes, it's always dirty.
+     * @return True if the file should be saved, false if it holds, or is about to hold, the current data.
+     */
+    public boolean isDirty()
+    {
+        if(!tracksChanges())
+            return true;
+
+        long current = version.get();
+        return current != savedVersion.get() && current != queuedSaveVersion;
+    }
+
+    /**
+     * Gets the version of the handled data, which increases each time it's marked dirty.
+     * @return The current version.
+     */
+    public long getVersion()
+    { return version.get(); }
+
+    /**
+     * Records that the file now holds the passed version of the data, unless it already holds a later one.
+     * @param savedVersion The version of the data as of just before it was prepared for saving or loaded.
+     */
+    void markSaved(long savedVersion)
+    {
+        for(long current = this.savedVersion.get();
+            savedVersion > current && !this.savedVersion.compareAndSet(current, savedVersion);
+            current = this.savedVersion.get())
+        { /* Nothin' here */ }
+    }
+
+    /**
+     * Whether this handler calls markDirty whenever its data changes. Where it does, the file registry only saves it
+     * when it's dirty. Where it doesn't, it's saved every time.
+     * @return True if this handler tracks changes to its data, otherwise false.
+     */
+    protected boolean tracksChanges()
+    { return false; }
+
     /**
      * Sets the logger that should be used for sending messages.
      * @param logger The aforementioned logger.
@@ -147,11 +294,50 @@ public abstract class FileHandler
     /**
      * Interprets the contents of the file.
      * This method isolates the logic for the interpretation of the file from the logic for reading from the file, which the handler handles.
+     * Not called when loading where the handler interprets each line as it's read instead, via interpretLine.
+     *
+     * Breaking change as of 9.0.0: the list holds exactly the lines in the file, so the file's first line is at index
+     * 0. Before, it started with an empty string that wasn't in the file, and the file's first line was at index 1.
+     * Overrides that skipped or indexed past that empty string need to be updated.
      * @param Lines The contents of the file, with each line split up into a different string.
      * @return True if file loads flawlessly. False if the file is corrupted.
      */
     protected abstract boolean interpretFile(List<String> lines);
 
+    /**
+     * Is called before the first line of a file is passed to interpretLine, to allow any state kept between lines to
+     * be reset. By default, starts collecting the lines to pass to interpretFile.
+     */
+    protected void startInterpretingLines()
+    { linesBeingInterpreted = new ArrayList<String>(); }
+
+    /**
+     * Interprets a single line of the file, as it's read. Handlers that override this to interpret each line
+     * themselves never hold the whole file in memory, and should also override startInterpretingLines and
+     * finishInterpretingLines. By default, collects the line to pass to interpretFile once the whole file has been
+     * read.
+     * @param line The contents of the line, without the line terminator.
+     * @param lineNumber The line's position in the file, starting at 1.
+     * @return True if the line was interpreted flawlessly. False if it was corrupted.
+     */
+    protected boolean interpretLine(CharSequence line, long lineNumber)
+    {
+        linesBeingInterpreted.add(line.toString());
+        return true;
+    }
+
+    /**
+     * Is called after the last line of a file has been passed to interpretLine, for any checks or interpretation that
+     * needs the whole file to have been read. By default, passes the collected lines to interpretFile.
+     * @return True if the file as a whole was interpreted flawlessly. False if it was corrupted.
+     */
+    protected boolean finishInterpretingLines()
+    {
+        List<String> lines = linesBeingInterpreted;
+        linesBeingInterpreted = null;
+        return interpretFile(lines);
+    }
+
     /**
      * Is called to allow any cleaning-up of the file being loaded to occur.
      */
@@ -164,35 +350,362 @@ public abstract class FileHandler
     protected abstract void onNoFileToInterpret();
 
     /**
-     * Saves the file.
+     * Saves the file. Where a save queued by saveAsync is being written, waits for it to finish first.
      */
     public void save()
     {
         try
         {
-            synchronized(handledFile)
+            synchronized(writeBusy)
             {
-                handledFile.mkdirs();
-                    
-                if(handledFile.exists())
-                    handledFile.delete();
+                synchronized(handledFile)
+                {
+                    // The data prepared for a queued save is about to be replaced and cleaned up by this one, so
+                    // the queued save has to prepare its own again when it's written.
+                    if(queuedSaveWrite != null)
+                        queuedSaveWrite.prepared = false;
+
+                    long savingVersion = version.get();
+                    preSave();
+                    writeSaveFile(savingVersion);
+                }
+            }
+        }
+        catch(IOException exception)
+        { exception.printStackTrace(); }
+    }
 
-                handledFile.createNewFile();
+    /**
+     * Saves the file in the background, where this handler saves asynchronously. buildSaveFile and postSave are
+     * called on a thread of the passed executor, and the calling thread never waits for the file to be written.
+     *
+     * Where nothing's being written, preSave is called on the calling thread. Where a save queued by an earlier call
+     * hasn't started yet, preSave is called again and that save is returned instead of queueing another, so that
+     * saves requested in quick succession are written once, with the latest data. Where a save is being written,
+     * another is queued behind it, or the one already queued behind it is returned, and preSave is called for it on
+     * the executor's thread once the save being written has finished.
+     *
+     * Where this handler doesn't save asynchronously, saves on the calling thread as save does.
+     * @param executor The executor to write the file on.
+     * @return The save that will write the data as of this call or later, which may have been queued by an earlier
+     * call. Where the file couldn't be written, it completes with the IOException as its cause.
+     */
+    public Future<?> saveAsync(Executor executor)
+    {
+        if(!savesAsynchronously())
+        {
+            FutureTask<Void> save = new FutureTask<Void>(new Runnable()
+            {
+                @Override
+                public void run()
+                { save(); }
+            }, null);
 
-                FileWriter fw = new FileWriter(handledFile, true);
-                PrintWriter pw = new PrintWriter(fw);
+            save.run();
+            return save;
+        }
 
-                preSave();
-                buildSaveFile(pw);
+        synchronized(handledFile)
+        {
+            if(queuedSave != null)
+            {
+                if(queuedSaveWrite.prepared)
+                    prepareAsyncSave(queuedSaveWrite);
+
+                return queuedSave;
+            }
+
+            AsyncSaveWrite write = new AsyncSaveWrite();
+            FutureTask<Void> save = new FutureTask<Void>(write);
+
+            if(writingAsyncSaves)
+            {
+                queuedSave = save;
+                queuedSaveWrite = write;
+                lastAsyncSave = save;
+                return save;
+            }
+
+            prepareAsyncSave(write);
+            queuedSave = save;
+            queuedSaveWrite = write;
+            writingAsyncSaves = true;
+
+            try
+            {
+                executor.execute(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    { writeAsyncSaves(); }
+                });
+            }
+            catch(RuntimeException e)
+            {
+                queuedSave = null;
+                queuedSaveWrite = null;
+                writingAsyncSaves = false;
+                queuedSaveVersion = 0;
+                save.cancel(false);
                 postSave();
+                throw e;
+            }
+
+            lastAsyncSave = save;
+            return save;
+        }
+    }
+
+    /**
+     * Passes the data to preSave for the passed save queued by saveAsync. Should only be called while holding the
+     * lock on handledFile.
+     * @param write The save to prepare the data for.
+     */
+    void prepareAsyncSave(AsyncSaveWrite write)
+    {
+        write.prepared = false;
+        write.savingVersion = version.get();
+        preSave();
+        write.prepared = true;
+        queuedSaveVersion = write.savingVersion;
+    }
+
+    /**
+     * Writes the saves queued by saveAsync one after another, until there are none left. Runs on the save executor.
+     */
+    void writeAsyncSaves()
+    {
+        for(;;)
+        {
+            FutureTask<Void> save;
+
+            synchronized(handledFile)
+            {
+                save = queuedSave;
+
+                if(save == null)
+                {
+                    writingAsyncSaves = false;
+                    return;
+                }
 
-                pw.flush();
-                pw.close();
-                fw.close();
+                queuedSave = null;
+                queuedSaveWrite = null;
             }
+
+            save.run();
         }
-        catch(IOException exception)
-        { exception.printStackTrace(); }
+    }
+
+    /**
+     * Writes a save queued by saveAsync, once it's no longer queued.
+     */
+    final class AsyncSaveWrite implements Callable<Void>
+    {
+        /**
+         * Whether the data for this save has been passed to preSave and not cleaned up since. Only accessed while
+         * holding the lock on handledFile.
+         */
+        boolean prepared = false;
+
+        /**
+         * The version of the data as of just before it was passed to preSave. Only accessed while holding the lock
+         * on handledFile, or once this save is no longer queued.
+         */
+        long savingVersion = 0;
+
+        @Override
+        public Void call() throws IOException
+        {
+            synchronized(writeBusy)
+            {
+                synchronized(handledFile)
+                {
+                    if(!prepared)
+                        prepareAsyncSave(this);
+                }
+
+                try
+                { writeSaveFile(savingVersion); }
+                catch(IOException exception)
+                {
+                    queuedSaveVersion = 0;
+                    throw exception;
+                }
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Waits for the most recent save queued by saveAsync to finish being written.
+     * @throws InterruptedException If the calling thread was interrupted while waiting.
+     * @throws IOException If the save couldn't be written.
+     */
+    public void awaitAsyncSave() throws InterruptedException, IOException
+    {
+        Future<?> save = lastAsyncSave;
+
+        if(save == null)
+            return;
+
+        try
+        { save.get(); }
+        catch(ExecutionException exception)
+        {
+            Throwable cause = exception.getCause();
+
+            if(cause instanceof IOException)
+                throw (IOException)cause;
+
+            if(cause instanceof RuntimeException)
+                throw (RuntimeException)cause;
+
+            if(cause instanceof Error)
+                throw (Error)cause;
+
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Whether this handler can be saved asynchronously by saveAsync. Where it can, preSave should take a copy of
+     * everything buildSaveFile needs, as the data may change while buildSaveFile is being called on another thread.
+     * preSave and postSave are called on different threads, so preSave shouldn't leave anything locked for postSave
+     * to unlock.
+     * @return True if saveAsync should call buildSaveFile on another thread, false if it should save on the calling
+     * thread.
+     */
+    protected boolean savesAsynchronously()
+    { return false; }
+
+    /**
+     * Writes the data prepared by preSave to the file, then calls postSave. Should only be called while holding the
+     * lock on writeBusy.
+     * @param savingVersion The version of the data as of just before preSave was called, which the file holds once
+     * written.
+     * @throws IOException If the file couldn't be written.
+     */
+    void writeSaveFile(long savingVersion) throws IOException
+    {
+        try
+        {
+            if(savesAtomically)
+                writeSaveFileAtomically();
+            else
+                writeSaveFileDirectly();
+
+            markSaved(savingVersion);
+        }
+        finally
+        { postSave(); }
+    }
+
+    /**
+     * Deletes the file and writes a new one in its place. Should only be called while holding the lock on writeBusy.
+     * @throws IOException If the file couldn't be written.
+     */
+    void writeSaveFileDirectly() throws IOException
+    {
+        handledFile.mkdirs();
+
+        if(handledFile.exists())
+            handledFile.delete();
+
+        handledFile.createNewFile();
+
+        FileWriter fw = new FileWriter(handledFile, true);
+        PrintWriter pw = new PrintWriter(fw);
+
+        buildSaveFile(pw);
+
+        pw.flush();
+        pw.close();
+        fw.close();
+    }
+
+    /**
+     * Saves the file to a temporary file alongside it, which is written to disk and then moved over the handled file
+     * in one step, after which the folder's entries are written to disk too. Until the move, the previously saved
+     * file is left as it was, so a save interrupted at any point leaves either the old file or the new one, never a
+     * partial one. Should only be called while holding the lock on writeBusy.
+     * @throws IOException If the temporary file couldn't be written, or couldn't be moved over the handled file, in
+     * which case the handled file is left as it was. Or if the folder couldn't be written to disk after the move.
+     */
+    void writeSaveFileAtomically() throws IOException
+    {
+        File folder = handledFile.getAbsoluteFile().getParentFile();
+
+        if(folder != null)
+            folder.mkdirs();
+
+        File tempFile = new File(folder, handledFile.getName() + ".saving");
+        boolean moved = false;
+
+        try
+        {
+            FileChannel channel = FileChannel.open(tempFile.toPath(),
+                                                   StandardOpenOption.WRITE,
+                                                   StandardOpenOption.CREATE,
+                                                   StandardOpenOption.TRUNCATE_EXISTING);
+
+            try
+            {
+                CharsetEncoder encoder = Charset.defaultCharset().newEncoder()
+                                                .onMalformedInput(CodingErrorAction.REPLACE)
+                                                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+                PrintWriter writer = new PrintWriter(Channels.newWriter(channel, encoder, writeBufferSize));
+
+                buildSaveFile(writer);
+                writer.flush();
+
+                if(writer.checkError())
+                    throw new IOException("Couldn't write to " + tempFile + ".");
+
+                channel.force(true);
+            }
+            finally
+            { channel.close(); }
+
+            try
+            { Files.move(tempFile.toPath(), handledFile.toPath(), StandardCopyOption.ATOMIC_MOVE); }
+            catch(AtomicMoveNotSupportedException e)
+            { Files.move(tempFile.toPath(), handledFile.toPath(), StandardCopyOption.REPLACE_EXISTING); }
+
+            moved = true;
+        }
+        finally
+        {
+            if(!moved)
+                tempFile.delete();
+        }
+
+        if(folder != null)
+            forceFolder(folder);
+    }
+
+    /**
+     * Writes the passed folder's entries to disk, so that a file moved into it stays moved if the system goes down
+     * straight after. Does nothing on platforms where folders can't be opened to be written to disk, such as Windows,
+     * which writes them to disk along with the move.
+     * @param folder The folder to write to disk.
+     * @throws IOException If the folder was opened, but couldn't be written to disk.
+     */
+    static void forceFolder(File folder) throws IOException
+    {
+        FileChannel channel;
+
+        try
+        { channel = FileChannel.open(folder.toPath(), StandardOpenOption.READ); }
+        catch(IOException e)
+        { return; }
+
+        try
+        { channel.force(true); }
+        finally
+        { channel.close(); }
     }
 
     /**
@@ -206,30 +719,29 @@ public abstract class FileHandler
             {
                 if(handledFile.exists())
                 {
+                    long loadingVersion = version.get();
                     preInterpretation();
 
-                    DataInputStream input = new DataInputStream(new FileInputStream(handledFile));
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(input));
-
-                    List<String> lines = new ArrayList<String>();
-
-                    for(String i = ""; i != null; i = reader.readLine())
-                        lines.add(i);
+                    BufferedReader reader = null;
 
                     try
                     {
-                        if(!interpretFile(lines))
+                        reader = openReader();
+
+                        if(!interpretLines(reader))
                         {
                             copyFile(handledFile, new File(handledFile.getParentFile(), appendCorruptedNote(handledFile.getName())));
                             print(corruptFileMessage);
                         }
+                        else
+                            markSaved(loadingVersion);
                     }
                     finally
                     {
                         postInterpretation();
 
-                        input.close();
-                        reader.close();
+                        if(reader != null)
+                            reader.close();
                     }
                 }
                 else
@@ -248,6 +760,62 @@ public abstract class FileHandler
         { exception.printStackTrace(); }
     }
 
+    /**
+     * Opens the handled file for reading, decoding it in the platform's default charset. Malformed or unmappable
+     * input is replaced rather than failing the whole load, so that a damaged file is still passed on to be found
+     * corrupt.
+     * @return A reader for the handled file.
+     * @throws IOException If the file couldn't be opened.
+     */
+    BufferedReader openReader() throws IOException
+    {
+        CharsetDecoder decoder = Charset.defaultCharset().newDecoder()
+                                        .onMalformedInput(CodingErrorAction.REPLACE)
+                                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        FileChannel channel = new FileInputStream(handledFile).getChannel();
+        return new BufferedReader(Channels.newReader(channel, decoder, readBufferSize), readBufferSize);
+    }
+
+    /**
+     * Passes each line read from the passed reader to interpretLine, in order.
+     * @param reader The reader to read lines from.
+     * @return True if every line, and the file as a whole, was interpreted flawlessly. False if any was corrupted.
+     * @throws IOException If the lines couldn't be read.
+     */
+    protected boolean interpretLines(BufferedReader reader) throws IOException
+    {
+        boolean intact = true;
+        long lineNumber = 0;
+
+        startInterpretingLines();
+
+        for(String line = reader.readLine(); line != null; line = reader.readLine())
+            if(!interpretLine(line, ++lineNumber))
+                intact = false;
+
+        return finishInterpretingLines() && intact;
+    }
+
+    /**
+     * Passes each of the passed lines to interpretLine, in order. For handlers that interpret files line by line to
+     * implement interpretFile with.
+     * @param lines The lines to interpret, as passed to interpretFile.
+     * @return True if every line, and the file as a whole, was interpreted flawlessly. False if any was corrupted.
+     */
+    protected boolean interpretLines(List<String> lines)
+    {
+        boolean intact = true;
+
+        startInterpretingLines();
+
+        for(int i = 0; i < lines.size(); i++)
+            if(!interpretLine(lines.get(i), i + 1))
+                intact = false;
+
+        return finishInterpretingLines() && intact;
+    }
+
     /**
      * Specifies that this filehandler should only ever load after another has already loaded.
      * @param HandlerID The ID of the filehandler to load after.
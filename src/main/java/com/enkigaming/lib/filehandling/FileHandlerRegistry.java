@@ -1,8 +1,23 @@
 package com.enkigaming.lib.filehandling;
 
+import com.enkigaming.lib.exceptions.NullArgumentException;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 /**
@@ -12,6 +27,157 @@ import java.util.logging.Logger;
  */
 public class FileHandlerRegistry
 {
+    //<editor-fold defaultstate="collapsed" desc="Nested classes">
+    /**
+     * A handler to be loaded, along with the handlers waiting for it to be loaded.
+     */
+    static final class LoadNode
+    {
+        LoadNode(FileHandler handler)
+        { this.handler = handler; }
+        
+        final FileHandler handler;
+        
+        /**
+         * The number of handlers this must load after that haven't finished loading yet. This is loaded once it
+         * reaches zero.
+         */
+        final AtomicInteger prerequisitesLeft = new AtomicInteger();
+        
+        /**
+         * The handlers that must load after this.
+         */
+        final List<LoadNode> dependents = new ArrayList<LoadNode>();
+        
+        /**
+         * Whether or not a handler this must load after failed to load, or wasn't loaded.
+         */
+        volatile boolean prerequisiteFailed = false;
+        
+        /**
+         * Whether or not this has been loaded without throwing.
+         */
+        volatile boolean loaded = false;
+    }
+    
+    /**
+     * A single call of load, loading handlers on a pool as their prerequisites finish loading.
+     */
+    static final class LoadRun
+    {
+        LoadRun(ForkJoinPool pool, int handlerCount)
+        {
+            this.pool = pool;
+            this.finished = new CountDownLatch(handlerCount);
+        }
+        
+        final ForkJoinPool pool;
+        
+        /**
+         * Counted down once for each handler, once it's been loaded or skipped.
+         */
+        final CountDownLatch finished;
+        
+        /**
+         * Exceptions thrown by handlers while loading.
+         */
+        final Queue<Throwable> failures = new ConcurrentLinkedQueue<Throwable>();
+        
+        /**
+         * Queues the passed handler to be loaded. Should only be called once all of its prerequisites have finished.
+         * Where the pool won't accept it, such as where it's been shut down, loads it on the calling thread instead.
+         * @param node The handler to load.
+         */
+        void submit(final LoadNode node)
+        {
+            try
+            {
+                pool.execute(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    { load(node); }
+                });
+            }
+            catch(RejectedExecutionException e)
+            { load(node); }
+        }
+        
+        /**
+         * Loads the passed handler, unless one of its prerequisites failed, then queues any of its dependents that
+         * were only waiting on it.
+         * @param node The handler to load.
+         */
+        void load(LoadNode node)
+        {
+            try
+            {
+                if(!node.prerequisiteFailed)
+                {
+                    node.handler.load();
+                    node.loaded = true;
+                }
+            }
+            catch(Throwable e)
+            { failures.add(e); }
+            finally
+            {
+                finished.countDown();
+                
+                for(LoadNode dependent : node.dependents)
+                {
+                    if(!node.loaded)
+                        dependent.prerequisiteFailed = true;
+                    
+                    if(dependent.prerequisitesLeft.decrementAndGet() == 0)
+                        submit(dependent);
+                }
+            }
+        }
+        
+        /**
+         * Waits for every handler to be loaded or skipped.
+         */
+        void await()
+        {
+            boolean interrupted = false;
+            
+            for(;;)
+            {
+                try
+                {
+                    finished.await();
+                    break;
+                }
+                catch(InterruptedException e)
+                { interrupted = true; }
+            }
+            
+            if(interrupted)
+                Thread.currentThread().interrupt();
+        }
+        
+        /**
+         * Rethrows the first exception thrown by a handler while loading, if any were.
+         */
+        void rethrowFailure()
+        {
+            Throwable failure = failures.peek();
+            
+            if(failure == null)
+                return;
+            
+            if(failure instanceof RuntimeException)
+                throw (RuntimeException)failure;
+            
+            if(failure instanceof Error)
+                throw (Error)failure;
+            
+            throw new RuntimeException(failure);
+        }
+    }
+    //</editor-fold>
+    
     /**
      * Constructs the filehandler registry.
      * @param plugin The bukkit plugin this handles the file handlers for.
@@ -24,6 +190,17 @@ public class FileHandlerRegistry
     
     final List<FileHandler> handlers = new ArrayList<FileHandler>();
     Logger logger;
+    
+    /**
+     * The executor saveAsync writes files on, or null if it hasn't been needed yet.
+     */
+    Executor saveExecutor = null;
+    final Object saveExecutorBusy = new Object();
+    
+    /**
+     * The pool load loads handlers on.
+     */
+    volatile ForkJoinPool loadPool = ForkJoinPool.commonPool();
 
     /**
      * Registers a new filehandler.
@@ -36,84 +213,301 @@ public class FileHandlerRegistry
     }
 
     /**
-     * Saves all registered files.
+     * Saves all registered files that are dirty. Handlers only skip saves where they opt into tracking their changes
+     * via FileHandler.tracksChanges; of EnkiLib's own handlers, only UsernameCache's does, and the rest are saved
+     * every time.
      */
     public void save()
     {
-        synchronized(handlers)
-        {
-            for(FileHandler handler : handlers)
+        for(FileHandler handler : getHandlers())
+            if(handler.isDirty())
                 handler.save();
-        }
     }
     
     /**
-     * Loads all registered files.
+     * Saves all registered files that are dirty in the background, via each handler's saveAsync. Handlers that save
+     * asynchronously only have preSave called on the calling thread, and are written on the save executor. Saves
+     * requested again before they've been written are only written once, and handlers that track changes aren't
+     * dirty while the data they've prepared for a save is unchanged, even before it's been written.
      */
-    public void load()
+    public void saveAsync()
     {
-        print("calling load()");
+        Executor executor = getSaveExecutor();
         
-        Collection<FileHandler> handlersToLoad;
-        Collection<String> handlersLoadedIds = new ArrayList<String>();
+        for(FileHandler handler : getHandlers())
+            if(handler.isDirty())
+                handler.saveAsync(executor);
+    }
+    
+    /**
+     * Waits for all saves queued by saveAsync to be written. Should be called before shutting down, so that the data
+     * saved is written before the process exits.
+     * @throws IOException If any of the saves couldn't be written. Where more than one couldn't, the others are added
+     * to it as suppressed exceptions. Every save is waited for either way.
+     */
+    public void awaitPendingSaves() throws IOException
+    {
+        boolean interrupted = false;
+        IOException failure = null;
         
-        synchronized(handlers)
+        for(FileHandler handler : getHandlers())
         {
-            boolean cantLoadAnyMore = false;
-            handlersToLoad = new ArrayList<FileHandler>(handlers);
-            
-            for(int loadedThisTime = 0; !cantLoadAnyMore && !handlersToLoad.isEmpty(); loadedThisTime = 0)
+            for(;;)
             {
-                print("Attempt to load file handlers");
-                
-                Collection<FileHandler> notLoadedThisRound = new ArrayList<FileHandler>();
-                
-                for(FileHandler currentHandler : handlersToLoad)
+                try
                 {
-                    print("Attempting to load handler: " + currentHandler.getId());
-                    
-                    boolean handlerReady = true;
-                    Collection<String> currentHandlerPrerequisites = currentHandler.getPrerequisiteHandlerIds();
-                    
-                    if(!currentHandlerPrerequisites.isEmpty())
-                        for(String prerequisite : currentHandlerPrerequisites)
-                            if(!handlersLoadedIds.contains(prerequisite))
-                                handlerReady = false;
+                    handler.awaitAsyncSave();
+                    break;
+                }
+                catch(InterruptedException e)
+                { interrupted = true; }
+                catch(IOException e)
+                {
+                    if(failure == null)
+                        failure = e;
+                    else
+                        failure.addSuppressed(e);
                     
-                    if(handlerReady)
+                    break;
+                }
+            }
+        }
+        
+        if(interrupted)
+            Thread.currentThread().interrupt();
+        
+        if(failure != null)
+            throw failure;
+    }
+    
+    /**
+     * Gets the executor saveAsync writes files on. Unless another has been set, this is a single background thread
+     * created when first needed.
+     * @return The save executor.
+     */
+    public Executor getSaveExecutor()
+    {
+        synchronized(saveExecutorBusy)
+        {
+            if(saveExecutor == null)
+            {
+                saveExecutor = Executors.newSingleThreadExecutor(new ThreadFactory()
+                {
+                    @Override
+                    public Thread newThread(Runnable runnable)
                     {
-                        currentHandler.load();
-                        loadedThisTime++;
-                        handlersLoadedIds.add(currentHandler.getId());
+                        Thread thread = new Thread(runnable, "File handler saving");
+                        thread.setDaemon(true);
+                        return thread;
                     }
-                    else
-                        notLoadedThisRound.add(currentHandler);
-                }
-                
-                if(loadedThisTime == 0)
-                    cantLoadAnyMore = true;
-                
-                handlersToLoad = notLoadedThisRound;
+                });
             }
+            
+            return saveExecutor;
+        }
+    }
+    
+    /**
+     * Sets the executor saveAsync should write files on.
+     * @param executor The executor to write files on.
+     */
+    public void setSaveExecutor(Executor executor)
+    {
+        if(executor == null)
+            throw new NullArgumentException("executor");
+        
+        synchronized(saveExecutorBusy)
+        { saveExecutor = executor; }
+    }
+    
+    /**
+     * Gets the registered file handlers.
+     * @return A copy of the registered file handlers, in the order they were registered.
+     */
+    public List<FileHandler> getHandlers()
+    {
+        synchronized(handlers)
+        { return new ArrayList<FileHandler>(handlers); }
+    }
+    
+    /**
+     * Loads all registered files. Handlers are loaded concurrently on the load pool, each as soon as all of the
+     * handlers it must load after have been loaded. Handlers that must load after a handler that isn't registered, or
+     * that are part of or depend on a cycle of handlers that must load after each other, aren't loaded, and the
+     * missing handlers and cycles are printed.
+     *
+     * Where a handler throws while loading, handlers that must load after it aren't loaded, and the first exception
+     * thrown is rethrown once every other handler has finished loading.
+     */
+    public void load()
+    {
+        List<FileHandler> toLoad = getHandlers();
+        Map<String, List<FileHandler>> handlersById = new HashMap<String, List<FileHandler>>();
+        
+        for(FileHandler handler : toLoad)
+        {
+            List<FileHandler> withId = handlersById.get(handler.getId());
+            
+            if(withId == null)
+                handlersById.put(handler.getId(), withId = new ArrayList<FileHandler>());
+            
+            withId.add(handler);
+        }
+        
+        Map<FileHandler, Boolean> loadable = new HashMap<FileHandler, Boolean>();
+        List<String> problems = new ArrayList<String>();
+        
+        for(FileHandler handler : toLoad)
+            checkLoadable(handler, handlersById, loadable, new ArrayList<FileHandler>(), problems);
+        
+        Map<FileHandler, LoadNode> nodes = new LinkedHashMap<FileHandler, LoadNode>();
+        
+        for(FileHandler handler : toLoad)
+            if(loadable.get(handler))
+                nodes.put(handler, new LoadNode(handler));
+        
+        for(LoadNode node : nodes.values())
+        {
+            Set<LoadNode> prerequisites = new HashSet<LoadNode>();
+            
+            for(String prerequisiteId : node.handler.getPrerequisiteHandlerIds())
+                for(FileHandler prerequisite : handlersById.get(prerequisiteId))
+                    prerequisites.add(nodes.get(prerequisite));
+            
+            node.prerequisitesLeft.set(prerequisites.size());
+            
+            for(LoadNode prerequisite : prerequisites)
+                prerequisite.dependents.add(node);
         }
         
-        if(!handlersToLoad.isEmpty())
+        // Gathered before submitting any, as handlers submitted by their prerequisites finishing would otherwise
+        // be seen as having no prerequisites left, and submitted again.
+        List<LoadNode> roots = new ArrayList<LoadNode>();
+        
+        for(LoadNode node : nodes.values())
+            if(node.prerequisitesLeft.get() == 0)
+                roots.add(node);
+        
+        LoadRun run = new LoadRun(getLoadPool(), nodes.size());
+        
+        for(LoadNode root : roots)
+            run.submit(root);
+        
+        run.await();
+        
+        for(String problem : problems)
+            print(problem);
+        
+        List<String> notLoaded = new ArrayList<String>();
+        
+        for(FileHandler handler : toLoad)
+            if(!loadable.get(handler) || !nodes.get(handler).loaded)
+                notLoaded.add(handler.getId());
+        
+        if(!notLoaded.isEmpty())
+            print("The following file handlers weren't loaded: " + join(notLoaded));
+        
+        run.rethrowFailure();
+    }
+    
+    /**
+     * Works out whether or not the passed handler can be loaded: whether all of the handlers it must load after are
+     * registered and can be loaded themselves, without any of them needing to load after it. Adds a description of
+     * any missing handler or cycle found to the passed problems.
+     * @param handler The handler to check.
+     * @param handlersById The registered handlers, by id.
+     * @param loadable Whether or not each handler already checked can be loaded. Updated with the results of this
+     * check.
+     * @param path The handlers being checked that led to this one, each being a handler the last must load after.
+     * @param problems The problems found so far.
+     * @return True if the handler can be loaded, otherwise false.
+     */
+    boolean checkLoadable(FileHandler handler,
+                          Map<String, List<FileHandler>> handlersById,
+                          Map<FileHandler, Boolean> loadable,
+                          List<FileHandler> path,
+                          List<String> problems)
+    {
+        Boolean known = loadable.get(handler);
+        
+        if(known != null)
+            return known;
+        
+        int cycleStart = path.indexOf(handler);
+        
+        if(cycleStart >= 0)
         {
-            String failedToLoad = "";
+            List<String> cycle = new ArrayList<String>();
             
-            for(FileHandler handler : handlersToLoad)
-                failedToLoad += handler.getId() + ", ";
+            for(FileHandler i : path.subList(cycleStart, path.size()))
+                cycle.add(i.getId());
             
-            if(failedToLoad.equalsIgnoreCase(""))
-                failedToLoad = failedToLoad.substring(0, failedToLoad.length() - 2);
+            cycle.add(handler.getId());
+            problems.add("File handlers must load after each other in a cycle: " + join(cycle, " -> "));
+            return false;
+        }
+        
+        boolean canLoad = true;
+        path.add(handler);
+        
+        for(String prerequisiteId : handler.getPrerequisiteHandlerIds())
+        {
+            List<FileHandler> prerequisites = handlersById.get(prerequisiteId);
             
-            print("The following file handlers could not be loaded due to missing handlers or circular prerequisites: ");
-            print(failedToLoad);
+            if(prerequisites == null)
+            {
+                problems.add("File handler " + handler.getId() + " must load after " + prerequisiteId
+                             + ", which isn't registered.");
+                canLoad = false;
+                continue;
+            }
+            
+            for(FileHandler prerequisite : prerequisites)
+                if(!checkLoadable(prerequisite, handlersById, loadable, path, problems))
+                    canLoad = false;
         }
         
-        // Original version. Oh, times were so much simpler back then ...
-//        for(FileHandler i : handlers)
-//            i.load();
+        path.remove(path.size() - 1);
+        loadable.put(handler, canLoad);
+        return canLoad;
+    }
+    
+    static String join(List<String> strings)
+    { return join(strings, ", "); }
+    
+    static String join(List<String> strings, String separator)
+    {
+        StringBuilder joined = new StringBuilder();
+        
+        for(int i = 0; i < strings.size(); i++)
+        {
+            if(i > 0)
+                joined.append(separator);
+            
+            joined.append(strings.get(i));
+        }
+        
+        return joined.toString();
+    }
+    
+    /**
+     * Gets the pool load loads handlers on. Unless another has been set, this is the common fork-join pool.
+     * @return The load pool.
+     */
+    public ForkJoinPool getLoadPool()
+    { return loadPool; }
+    
+    /**
+     * Sets the pool load should load handlers on. Where handlers that don't depend on each other can't safely be
+     * loaded at the same time, a pool with a parallelism of one will load them one at a time.
+     * @param pool The pool to load handlers on.
+     */
+    public void setLoadPool(ForkJoinPool pool)
+    {
+        if(pool == null)
+            throw new NullArgumentException("pool");
+        
+        loadPool = pool;
     }
     
     void print(String toPrint)
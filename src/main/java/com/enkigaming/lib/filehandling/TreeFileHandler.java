@@ -165,6 +165,15 @@ public abstract class TreeFileHandler extends FileHandler
     
     protected String indentLevelText = "    ";
     
+    /**
+     * The state of the tree being built from the file currently being interpreted: the node the tree's base nodes are
+     * added to, the nodes from it down to the last node added, and the maximum number of indents the next line may
+     * have, less one.
+     */
+    TreeNode baseNodeBeingInterpreted;
+    List<TreeNode> hierarchyBeingInterpreted;
+    int maxIndentBeingInterpreted;
+    
     @Override
     protected abstract void preSave();
 
@@ -195,16 +204,44 @@ public abstract class TreeFileHandler extends FileHandler
 
     @Override
     protected boolean interpretFile(List<String> lines)
+    { return interpretLines(lines); }
+    
+    @Override
+    protected void startInterpretingLines()
     {
-        lines = stripEmptyLines(lines);
-        List<NameIndentLevelPair> values = new ArrayList<NameIndentLevelPair>();
-        
-        for(String line : lines)
-            values.add(getValue(new NameIndentLevelPair(line, 0)));
+        baseNodeBeingInterpreted = new TreeNode("This should never appear.");
+        hierarchyBeingInterpreted = new ArrayList<TreeNode>();
+        hierarchyBeingInterpreted.add(baseNodeBeingInterpreted);
+        maxIndentBeingInterpreted = 0;
+    }
+    
+    /**
+     * Adds the line to the tree being built from the file, under the last line read with a lower indent level.
+     * @param line The line to add.
+     * @param lineNumber The line's position in the file.
+     * @return True.
+     */
+    @Override
+    protected boolean interpretLine(CharSequence line, long lineNumber)
+    {
+        String lineText = line.toString();
         
-        fixLevels(values);
+        if(lineText.trim().isEmpty())
+            return true;
         
-        return interpretTree(getTree(values));
+        NameIndentLevelPair value = getValue(new NameIndentLevelPair(lineText, 0));
+        maxIndentBeingInterpreted = fixLevel(value, maxIndentBeingInterpreted);
+        addToTree(hierarchyBeingInterpreted, value);
+        return true;
+    }
+    
+    @Override
+    protected boolean finishInterpretingLines()
+    {
+        List<TreeNode> tree = baseNodeBeingInterpreted.getChildren();
+        baseNodeBeingInterpreted = null;
+        hierarchyBeingInterpreted = null;
+        return interpretTree(tree);
     }
     
     protected void fixLevels(List<NameIndentLevelPair> values)
@@ -212,23 +249,32 @@ public abstract class TreeFileHandler extends FileHandler
         int currentMaxIndent = 0;
         
         for(int i = 0; i < values.size(); i++)
+            currentMaxIndent = fixLevel(values.get(i), currentMaxIndent);
+    }
+    
+    /**
+     * Strips indents from the start of the passed value, up to one more than the passed maximum, adding one to its
+     * indent level for each.
+     * @param current The value to fix the level of.
+     * @param currentMaxIndent The number of indents that may be stripped, less one.
+     * @return The maximum to pass when fixing the level of the next value.
+     */
+    protected int fixLevel(NameIndentLevelPair current, int currentMaxIndent)
+    {
+        boolean done = false;
+        
+        for(int j = 0; j <= currentMaxIndent && !done; j++)
         {
-            NameIndentLevelPair current = values.get(i);
-            boolean done = false;
-            
-            for(int j = 0; j <= currentMaxIndent && !done; j++)
+            if(current.getName().startsWith(indentLevelText))
             {
-                if(current.getName().startsWith(indentLevelText))
-                {
-                    current.setName(current.getName().substring(indentLevelText.length()));
-                    current.setIndentLevel(current.getIndentLevel() + 1);
-                }
-                else
-                    done = true;
+                current.setName(current.getName().substring(indentLevelText.length()));
+                current.setIndentLevel(current.getIndentLevel() + 1);
             }
-            
-            currentMaxIndent = current.getIndentLevel() + 1;
+            else
+                done = true;
         }
+        
+        return current.getIndentLevel() + 1;
     }
     
     List<String> stripEmptyLines(List<String> lines)
@@ -251,26 +297,27 @@ public abstract class TreeFileHandler extends FileHandler
         currentHierarchy.add(baseNode);
         
         for(int i = 0; i < values.size(); i++)
-        {
-            boolean assigned = false;
-            
-            while(!assigned)
-            {
-                if(values.get(i).getIndentLevel() >= currentHierarchy.size() - 1)
-                {
-                    TreeNode node = new TreeNode(values.get(i).getName());
-                    currentHierarchy.get(currentHierarchy.size() - 1).addChild(node);
-                    currentHierarchy.add(node);
-                    assigned = true;
-                }
-                else
-                    currentHierarchy.remove(currentHierarchy.size() - 1);
-            }
-        }
+            addToTree(currentHierarchy, values.get(i));
         
         return baseNode.getChildren();
     }
     
+    /**
+     * Adds a node for the passed value to the tree, under the last node added with a lower indent level.
+     * @param currentHierarchy The nodes from the base node down to the last node added, which is updated to end with
+     * the node added.
+     * @param value The value to add a node for.
+     */
+    protected void addToTree(List<TreeNode> currentHierarchy, NameIndentLevelPair value)
+    {
+        while(value.getIndentLevel() < currentHierarchy.size() - 1)
+            currentHierarchy.remove(currentHierarchy.size() - 1);
+        
+        TreeNode node = new TreeNode(value.getName());
+        currentHierarchy.get(currentHierarchy.size() - 1).addChild(node);
+        currentHierarchy.add(node);
+    }
+    
     protected String appendIndent(String string, int indentLevelToAppend)
     {
         String appendedString = string;
@@ -75,40 +75,36 @@ public abstract class VLSFileHandler extends FileHandler
 
     @Override
     protected boolean interpretFile(List<String> Lines)
-    {
-        List<String> lines = new ArrayList<String>();
-        lines.addAll(Lines);
-        List<String> LinesToRemove = new ArrayList<String>();
-        boolean Corrupt = false;
+    { return interpretLines(Lines); }
 
-        String[] LineByColon;
-        String[] ValuesByComma;
-        String[] ValuesByCommaTrimmed;
+    @Override
+    protected void startInterpretingLines()
+    { /* Nothin' here */ }
 
-        for(String i : lines)
-        {
-            if(i.startsWith("#") || i.trim().equalsIgnoreCase(""))
-                LinesToRemove.add(i);
-        }
+    @Override
+    protected boolean finishInterpretingLines()
+    { return true; }
 
-        for(String i : LinesToRemove)
-            lines.remove(i);
+    @Override
+    protected boolean interpretLine(CharSequence line, long lineNumber)
+    {
+        String Line = line.toString();
 
-        for(String i : lines)
-        {
-            LineByColon = i.split(":", 2);
-            //ValuesByComma = LineByColon[1].trim().split(",");
-            ValuesByComma = SplitByNotInBrackets(LineByColon[1].trim(), ",");
-            ValuesByCommaTrimmed = new String[ValuesByComma.length];
+        if(Line.startsWith("#") || Line.trim().equalsIgnoreCase(""))
+            return true;
 
-            for(int j = 0; j < ValuesByComma.length; j++)
-                ValuesByCommaTrimmed[j] = ValuesByComma[j].trim();
+        String[] LineByColon = Line.split(":", 2);
 
-            if(!InterpretValues(LineByColon[0], ValuesByCommaTrimmed))
-                Corrupt = true;
-        }
+        if(LineByColon.length < 2)
+            return false;
+
+        String[] ValuesByComma = SplitByNotInBrackets(LineByColon[1].trim(), ",");
+        String[] ValuesByCommaTrimmed = new String[ValuesByComma.length];
+
+        for(int j = 0; j < ValuesByComma.length; j++)
+            ValuesByCommaTrimmed[j] = ValuesByComma[j].trim();
 
-        return !Corrupt;
+        return InterpretValues(LineByColon[0], ValuesByCommaTrimmed);
     }
 
     @Override
@@ -1,6 +1,7 @@
 package com.enkigaming.mc.lib.misc;
 
 import com.enkigaming.lib.events.Event;
+import com.enkigaming.lib.events.EventArgsPool;
 import com.enkigaming.lib.events.StandardEvent;
 import com.enkigaming.lib.events.StandardEventArgs;
 import java.util.Collection;
@@ -43,6 +44,16 @@ public class TickCountdownTimer
     
     final Object secondsLeftBusy = new Object();
     
+    /**
+     * The args passed to ticked, reused between ticks rather than creating new ones every second.
+     */
+    final EventArgsPool<TickedArgs> tickedArgsPool = new EventArgsPool<TickedArgs>(1)
+    {
+        @Override
+        protected TickedArgs makeNew()
+        { return new TickedArgs(0); }
+    };
+    
     public Event<TickedArgs> ticked = new StandardEvent<TickedArgs>();
     public Event<FinishedArgs> finished = new StandardEvent<FinishedArgs>();
     
@@ -101,7 +112,8 @@ public class TickCountdownTimer
     {
         synchronized(secondsLeftBusy)
         {
-            TickedArgs args = new TickedArgs(numberOfSecondsLeft - 1);
+            TickedArgs args = tickedArgsPool.take();
+            args.setNumberOfSecondsLeft(numberOfSecondsLeft - 1);
 
             try
             {
@@ -111,7 +123,10 @@ public class TickCountdownTimer
             finally
             {
                 try
-                { ticked.raisePostEvent(this, args); }
+                {
+                    ticked.raisePostEvent(this, args);
+                    tickedArgsPool.giveBack(args);
+                }
                 finally
                 { if(numberOfSecondsLeft <= 0) finish(); }
             }
@@ -1,7 +1,9 @@
 package com.enkigaming.mcforge.lib;
 
+import com.enkigaming.mcforge.lib.commands.EventMetricsCommand;
 import com.enkigaming.mcforge.lib.eventlisteners.PlayerLogInForCachingEventListener;
 import com.enkigaming.mcforge.lib.eventlisteners.WorldSaveEventListener;
+import com.enkigaming.lib.events.QueuedEvent;
 import com.enkigaming.lib.filehandling.FileHandlerRegistry;
 import com.enkigaming.mcforge.lib.eventlisteners.SecondPassedEventListener;
 import com.enkigaming.mcforge.lib.registry.UsernameCache;
@@ -9,8 +11,14 @@ import cpw.mods.fml.common.FMLCommonHandler;
 import cpw.mods.fml.common.Mod;
 import cpw.mods.fml.common.Mod.EventHandler;
 import cpw.mods.fml.common.event.FMLPreInitializationEvent;
+import cpw.mods.fml.common.event.FMLServerStartingEvent;
+import cpw.mods.fml.common.event.FMLServerStoppedEvent;
 import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import net.minecraftforge.common.MinecraftForge;
 
 @Mod(modid = EnkiLib.MODID, name = EnkiLib.NAME, version = EnkiLib.VERSION, acceptableRemoteVersions = "*")
@@ -18,7 +26,7 @@ public class EnkiLib
 {
     public static final String NAME = "EnkiLib";
     public static final String MODID = "EnkiLib";
-    public static final String VERSION = "8.0.0";
+    public static final String VERSION = "9.0.0";
 
     /*
     Versioning:
@@ -41,6 +49,7 @@ public class EnkiLib
     File saveFolder;
     UsernameCache usernameCache;
     FileHandlerRegistry fileHandling;
+    final CopyOnWriteArrayList<QueuedEvent<?>> serverThreadQueues = new CopyOnWriteArrayList<QueuedEvent<?>>();
     
     @EventHandler
     public void preInit(FMLPreInitializationEvent event)
@@ -55,6 +64,22 @@ public class EnkiLib
         System.out.println("EnkiLib loaded!");
     }
     
+    @EventHandler
+    public void serverStarting(FMLServerStartingEvent event)
+    { event.registerServerCommand(new EventMetricsCommand()); }
+    
+    @EventHandler
+    public void serverStopped(FMLServerStoppedEvent event)
+    {
+        try
+        { fileHandling.awaitPendingSaves(); }
+        catch(IOException exception)
+        {
+            System.out.println("EnkiLib couldn't save all of its files before stopping:");
+            exception.printStackTrace();
+        }
+    }
+    
     public static EnkiLib getInstance()
     { return instance; }
     
@@ -64,6 +89,31 @@ public class EnkiLib
     public FileHandlerRegistry getFileHandling()
     { return fileHandling; }
     
+    /**
+     * Drains the passed queued event at the end of every server tick, so that raises queued from other threads are
+     * raised on the server thread.
+     * @param queue The queued event to drain.
+     */
+    public void drainOnServerThread(QueuedEvent<?> queue)
+    {
+        serverThreadQueues.addIfAbsent(queue);
+    }
+    
+    /**
+     * Stops draining the passed queued event every server tick.
+     * @param queue The queued event to stop draining.
+     * @return True if the queued event was being drained, otherwise false.
+     */
+    public boolean stopDrainingOnServerThread(QueuedEvent<?> queue)
+    { return serverThreadQueues.remove(queue); }
+    
+    /**
+     * Gets the queued events drained at the end of every server tick.
+     * @return An unmodifiable view of the queued events.
+     */
+    public Collection<QueuedEvent<?>> getServerThreadQueues()
+    { return Collections.unmodifiableCollection(serverThreadQueues); }
+    
     private void registerEvents()
     {
         FMLCommonHandler.instance().bus().register(new PlayerLogInForCachingEventListener());
@@ -0,0 +1,83 @@
+package com.enkigaming.mcforge.lib.commands;
+
+import com.enkigaming.lib.events.EventMetrics;
+import com.enkigaming.lib.events.RecordingEventMetrics;
+import com.enkigaming.lib.events.StandardEvent;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.util.ChatComponentText;
+
+/**
+ * Server command for recording the time taken by event listeners and dumping what's been recorded.
+ *
+ * /eventmetrics start - Starts recording raises of all StandardEvents and calls of their listeners.
+ * /eventmetrics stop - Stops recording.
+ * /eventmetrics reset - Discards everything recorded so far.
+ * /eventmetrics report [listeners] - Prints what's been recorded, with the listeners that took the longest first.
+ * @author Hanii Puppy <hanii.puppy@googlemail.com>
+ */
+public class EventMetricsCommand extends CommandBase
+{
+    /**
+     * The number of listeners reported where the number isn't specified.
+     */
+    public static final int defaultReportedListeners = 10;
+    
+    @Override
+    public String getCommandName()
+    { return "eventmetrics"; }
+    
+    @Override
+    public String getCommandUsage(ICommandSender sender)
+    { return "/eventmetrics <start|stop|reset|report> [listeners]"; }
+    
+    @Override
+    public int getRequiredPermissionLevel()
+    { return 3; }
+    
+    @Override
+    public void processCommand(ICommandSender sender, String[] args)
+    {
+        if(args.length < 1)
+            throw new WrongUsageException(getCommandUsage(sender));
+        
+        EventMetrics metrics = StandardEvent.getMetrics();
+        
+        if(args[0].equalsIgnoreCase("start"))
+        {
+            if(!(metrics instanceof RecordingEventMetrics))
+                StandardEvent.setMetrics(new RecordingEventMetrics());
+            
+            sender.addChatMessage(new ChatComponentText("Recording event metrics."));
+        }
+        else if(args[0].equalsIgnoreCase("stop"))
+        {
+            StandardEvent.setMetrics(EventMetrics.NONE);
+            sender.addChatMessage(new ChatComponentText("Stopped recording event metrics."));
+        }
+        else if(args[0].equalsIgnoreCase("reset"))
+        {
+            if(metrics instanceof RecordingEventMetrics)
+                ((RecordingEventMetrics)metrics).reset();
+            
+            sender.addChatMessage(new ChatComponentText("Event metrics reset."));
+        }
+        else if(args[0].equalsIgnoreCase("report"))
+        {
+            if(!(metrics instanceof RecordingEventMetrics))
+            {
+                sender.addChatMessage(new ChatComponentText("Event metrics aren't being recorded. Start recording "
+                                                            + "them with /eventmetrics start"));
+                return;
+            }
+            
+            int listeners = args.length < 2 ? defaultReportedListeners : parseIntWithMin(sender, args[1], 0);
+            
+            for(String line : ((RecordingEventMetrics)metrics).getReport(listeners))
+                sender.addChatMessage(new ChatComponentText(line));
+        }
+        else
+            throw new WrongUsageException(getCommandUsage(sender));
+    }
+}
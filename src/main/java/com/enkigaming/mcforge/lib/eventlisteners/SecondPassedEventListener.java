@@ -1,6 +1,8 @@
 package com.enkigaming.mcforge.lib.eventlisteners;
 
+import com.enkigaming.lib.events.QueuedEvent;
 import com.enkigaming.mc.lib.misc.TickCountdownTimer;
+import com.enkigaming.mcforge.lib.EnkiLib;
 import cpw.mods.fml.common.eventhandler.SubscribeEvent;
 import cpw.mods.fml.common.gameevent.TickEvent;
 
@@ -16,5 +18,19 @@ public class SecondPassedEventListener
             tickCounter = 0;
             TickCountdownTimer.passSecond();
         }
+        
+        if(event.phase == TickEvent.Phase.END)
+        {
+            for(QueuedEvent<?> i : EnkiLib.getInstance().getServerThreadQueues())
+            {
+                try
+                { i.drain(); }
+                catch(RuntimeException e)
+                {
+                    System.err.println("Exception thrown while raising queued events on the server thread:");
+                    e.printStackTrace();
+                }
+            }
+        }
     }
 }
\ No newline at end of file
@@ -8,5 +8,5 @@ public class WorldSaveEventListener
 {
     @SubscribeEvent
     public void onWorldSave(WorldEvent.Save event)
-    { EnkiLib.getInstance().getFileHandling().save(); }
+    { EnkiLib.getInstance().getFileHandling().saveAsync(); }
 }
\ No newline at end of file
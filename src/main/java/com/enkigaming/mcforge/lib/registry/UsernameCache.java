@@ -4,6 +4,7 @@ import com.enkigaming.lib.filehandling.CSVFileHandler;
 import com.enkigaming.lib.filehandling.CSVFileHandler.CSVRowMember;
 import com.enkigaming.lib.filehandling.FileHandler;
 import java.io.File;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -64,11 +65,28 @@ public class UsernameCache
             protected void postInterpretation()
             { recordedUsernamesLock.unlock(); }
 
+            @Override
+            protected boolean savesAsynchronously()
+            { return true; }
+
+            @Override
+            protected boolean tracksChanges()
+            { return true; }
+
             @Override
             protected void preSave()
             {
                 recordedUsernamesLock.lock();
-                entryList = new ArrayList<Map.Entry<UUID, String>>(recordedUsernames.entrySet());
+                
+                try
+                {
+                    entryList = new ArrayList<Map.Entry<UUID, String>>(recordedUsernames.size());
+                    
+                    for(Map.Entry<UUID, String> entry : recordedUsernames.entrySet())
+                        entryList.add(new AbstractMap.SimpleImmutableEntry<UUID, String>(entry));
+                }
+                finally
+                { recordedUsernamesLock.unlock(); }
             }
 
             @Override
@@ -83,7 +101,7 @@ public class UsernameCache
 
             @Override
             protected void postSave()
-            { recordedUsernamesLock.lock(); }
+            { entryList = null; }
         };
     }
     
@@ -113,10 +131,16 @@ public class UsernameCache
         
         try
         {
+            String recorded = recordedUsernames.get(playerId);
+            
+            if(recorded != null && recorded.equals(username) && playerId.equals(nameIndex.get(username)))
+                return;
+            
             removeCachedUsername(username);
             
             nameIndex.put(username, playerId);
             recordedUsernames.put(playerId, username);
+            fileHandler.markDirty();
         }
         finally
         { recordedUsernamesLock.unlock(); }
@@ -131,7 +155,10 @@ public class UsernameCache
             UUID toRemove = nameIndex.remove(username);
             
             if(toRemove != null)
+            {
                 recordedUsernames.remove(toRemove);
+                fileHandler.markDirty();
+            }
         }
         finally
         { recordedUsernamesLock.unlock(); }
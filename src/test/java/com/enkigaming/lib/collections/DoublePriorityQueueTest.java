@@ -0,0 +1,83 @@
+package com.enkigaming.lib.collections;
+
+import com.enkigaming.lib.tuples.Triplet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DoublePriorityQueueTest
+{
+    @Test
+    public void testOrdering()
+    {
+        DoublePriorityQueue<String, Integer> queue = new DoublePriorityQueue<String, Integer>(2);
+        
+        queue.add("c", 3.0, 3);
+        queue.add("a", 1.0, 1);
+        queue.add("d", 3.0, 4);
+        queue.add("b", 1.0, 2);
+        queue.add("e", 5.0, 5);
+        queue.add("aa", -1.0, 0);
+        
+        assertEquals("1", 6, queue.size());
+        
+        String[] expectedFirsts = { "aa", "a", "b", "c", "d", "e" };
+        double[] expectedPriorities = { -1.0, 1.0, 1.0, 3.0, 3.0, 5.0 };
+        
+        for(int i = 0; i < expectedFirsts.length; i++)
+        {
+            assertEquals("2." + i, expectedPriorities[i], queue.peekPriority(), 0);
+            assertEquals("3." + i, expectedFirsts[i], queue.peekFirst());
+            assertEquals("4." + i, Integer.valueOf(i), queue.peekThird());
+            queue.skip();
+        }
+        
+        assertTrue("5", queue.isEmpty());
+        assertNull("6", queue.peek());
+        assertNull("7", queue.poll());
+        
+        try
+        {
+            queue.peekPriority();
+            fail("8");
+        }
+        catch(NoSuchElementException e)
+        { /* Expected */ }
+    }
+    
+    @Test
+    public void testAddingWhileDrawing()
+    {
+        DoublePriorityQueue<String, Integer> queue = new DoublePriorityQueue<String, Integer>(1);
+        
+        for(int i = 0; i < 10; i++)
+            queue.add("first" + i, i, i);
+        
+        for(int i = 0; i < 8; i++)
+            queue.skip();
+        
+        queue.add("second", 8.5, 100);
+        queue.add("third", 0, 200);
+        
+        assertEquals("1", 4, queue.size());
+        
+        Triplet<String, Double, Integer> next = queue.poll();
+        assertEquals("2", "third", next.getFirst());
+        assertEquals("3", 0.0, next.getSecond(), 0);
+        assertEquals("4", Integer.valueOf(200), next.getThird());
+        
+        Iterator<Triplet<String, Double, Integer>> iterator = queue.iterator();
+        assertEquals("5", "first8", iterator.next().getFirst());
+        assertEquals("6", "second", iterator.next().getFirst());
+        assertEquals("7", "first9", iterator.next().getFirst());
+        assertFalse("8", iterator.hasNext());
+        assertEquals("9", 3, queue.size());
+        
+        queue.clear();
+        assertTrue("10", queue.isEmpty());
+        
+        queue.offer(new Triplet<String, Double, Integer>("fourth", 1.0, 300));
+        assertEquals("11", "fourth", queue.remove().getFirst());
+    }
+}
@@ -0,0 +1,58 @@
+package com.enkigaming.lib.collections;
+
+import com.enkigaming.lib.encapsulatedfunctions.Transformer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SnapshotCombinedQueueTest
+{
+    static final Transformer<String, Character> firstLetter = new Transformer<String, Character>()
+    {
+        @Override
+        public Character get(String item)
+        { return item.charAt(0); }
+    };
+    
+    @Test
+    public void testMerging()
+    {
+        Queue<String> first = new ArrayDeque<String>(Arrays.asList("a1", "c1", "d1"));
+        Queue<String> second = new ArrayDeque<String>();
+        Queue<String> third = new ArrayDeque<String>(Arrays.asList("a3", "b3", "c3", "e3"));
+        Queue<String> fourth = new ArrayDeque<String>(Arrays.asList("b4", "c4"));
+        
+        Queue<String> combined = new SnapshotCombinedQueue<String>(firstLetter, first, second, third, fourth);
+        
+        assertEquals("1", 9, combined.size());
+        
+        String[] expected = { "a1", "a3", "b3", "b4", "c1", "c3", "c4", "d1", "e3" };
+        
+        for(int i = 0; i < expected.length; i++)
+        {
+            assertEquals("2." + i, expected[i], combined.peek());
+            assertEquals("3." + i, expected[i], combined.poll());
+        }
+        
+        assertTrue("4", combined.isEmpty());
+        assertNull("5", combined.poll());
+        assertTrue("6", first.isEmpty() && third.isEmpty() && fourth.isEmpty());
+    }
+    
+    @Test
+    public void testDrawingPartially()
+    {
+        Queue<String> first = new ArrayDeque<String>(Arrays.asList("a1", "z1"));
+        Queue<String> second = new ArrayDeque<String>(Arrays.asList("b2", "z2"));
+        
+        Queue<String> combined = new SnapshotCombinedQueue<String>(firstLetter, first, second);
+        
+        while(combined.peek().charAt(0) < 'z')
+            combined.remove();
+        
+        assertEquals("1", Arrays.asList("z1"), Arrays.asList(first.toArray()));
+        assertEquals("2", Arrays.asList("z2"), Arrays.asList(second.toArray()));
+    }
+}
@@ -4,6 +4,7 @@ import com.enkigaming.lib.collections.CollectionMethods;
 import com.enkigaming.lib.events.exceptions.EventArgsFinishedBeforeStartedException;
 import com.enkigaming.lib.events.exceptions.EventArgsModifiedWhenImmutableException;
 import com.enkigaming.lib.events.exceptions.EventArgsMultipleUseException;
+import com.enkigaming.lib.events.exceptions.EventArgsResetWhileInUseException;
 import com.enkigaming.lib.events.exceptions.EventArgsStateException;
 import com.enkigaming.lib.events.exceptions.EventArgsUsedPostBeforePreException;
 import org.junit.Test;
@@ -20,7 +21,7 @@ import java.util.Queue;
 
 public abstract class EventArgsTest
 {
-    public abstract EventArgs getNewArgs();
+    public abstract ResettableEventArgs getNewArgs();
     
     public abstract Event<EventArgs> getNewEvent();
     
@@ -561,6 +562,94 @@ public abstract class EventArgsTest
 //        assertSame("4", null, args.getEvent());
     }
     
+    @Test
+    public void testReset()
+    {
+        final ResettableEventArgs args = getNewArgs();
+        EventArgs dependentArgs = getNewArgs();
+        Event<EventArgs> event = getNewEvent();
+        
+        args.getTechnicalAccessor().setEvent(event);
+        makeRelationship(args, dependentArgs);
+        args.setCancelled(true);
+        args.getTechnicalAccessor().markAsUsingPreEvent();
+        
+        new ThrowableAssertion("1.1", EventArgsResetWhileInUseException.class)
+        {
+            @Override
+            public void code()
+            { args.reset(); }
+        };
+        
+        args.getTechnicalAccessor().markAsUsedPreEvent();
+        args.getTechnicalAccessor().makeImmutable();
+        args.getTechnicalAccessor().markAsUsingPostEvent();
+        
+        new ThrowableAssertion("1.2", EventArgsResetWhileInUseException.class)
+        {
+            @Override
+            public void code()
+            { args.reset(); }
+        };
+        
+        args.getTechnicalAccessor().markAsUsedPostEvent();
+        args.reset();
+        
+        assertNull("2.1", args.getEvent());
+        assertFalse("2.2", args.isCancelled());
+        assertTrue("2.3", args.shouldBeMutable());
+        assertTrue("2.4", args.getDependentArgs().isEmpty());
+        
+        new NoThrowableAssertion("2.5", EventArgsStateException.class)
+        {
+            @Override
+            public void code()
+            {
+                args.getTechnicalAccessor().markAsUsingPreEvent();
+                args.getTechnicalAccessor().markAsUsedPreEvent();
+                args.getTechnicalAccessor().markAsUsingPostEvent();
+                args.getTechnicalAccessor().markAsUsedPostEvent();
+            }
+        };
+    }
+    
+    @Test
+    public void testPool()
+    {
+        EventArgsPool<ResettableEventArgs> pool = new EventArgsPool<ResettableEventArgs>(1)
+        {
+            @Override
+            protected ResettableEventArgs makeNew()
+            { return getNewArgs(); }
+        };
+        
+        Event<EventArgs> event = getNewEvent();
+        final ResettableEventArgs args = pool.take();
+        final ResettableEventArgs otherArgs = pool.take();
+        
+        assertNotSame("1", args, otherArgs);
+        
+        event.raise(this, args);
+        
+        new ThrowableAssertion("2", EventArgsResetWhileInUseException.class)
+        {
+            @Override
+            public void code()
+            { args.reset(); }
+        };
+        
+        event.raisePostEvent(this, args);
+        
+        assertTrue("3.1", pool.giveBack(args));
+        assertFalse("3.2", pool.giveBack(otherArgs));
+        assertEquals("3.3", 1, pool.getIdleCount());
+        assertSame("3.4", args, pool.take());
+        assertEquals("3.5", 0, pool.getIdleCount());
+        
+        event.raise(this, args);
+        event.raisePostEvent(this, args);
+    }
+    
     @Test
     public void testListenerQueue()
     {
@@ -0,0 +1,209 @@
+package com.enkigaming.lib.events;
+
+import com.enkigaming.lib.testing.ThrowableAssertion;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class EventBusTest
+{
+    public static class SpecificArgs extends StandardEventArgs
+    {}
+    
+    public static class AnnotatedSubscriber
+    {
+        final List<String> record = new ArrayList<String>();
+        
+        @Listen
+        public void onSpecific(Object sender, SpecificArgs args)
+        { record.add("specific"); }
+        
+        @Listen(priority = ListenerPriority.Early)
+        private void onStandard(Object sender, StandardEventArgs args)
+        { record.add("standard"); }
+        
+        public void notAListener(Object sender, SpecificArgs args)
+        { record.add("not a listener"); }
+    }
+    
+    public static class WeakSubscriber
+    {
+        public WeakSubscriber(List<String> record)
+        { this.record = record; }
+        
+        final List<String> record;
+        
+        @Listen
+        @WeakListener
+        public void onSpecific(Object sender, SpecificArgs args)
+        { record.add("weak"); }
+    }
+    
+    public static class BadlyAnnotatedSubscriber
+    {
+        @Listen
+        public void onSpecific(SpecificArgs args)
+        { /* Listener code */ }
+    }
+    
+    private <T extends EventArgs> EventListener<T> getListenerThatRecords(final List<String> record, final String name)
+    {
+        return new EventListener<T>()
+        {
+            @Override
+            public void onEvent(Object sender, T args)
+            { record.add(name); }
+        };
+    }
+    
+    private void publish(EventBus bus, EventArgs args)
+    {
+        bus.publish(this, args);
+        bus.publishPostEvent(this, args);
+    }
+    
+    @Test
+    public void testSupertypeSubscription()
+    {
+        EventBus bus = new EventBus();
+        List<String> record = new ArrayList<String>();
+        
+        bus.subscribe(SpecificArgs.class, this.<SpecificArgs>getListenerThatRecords(record, "specific"));
+        bus.subscribe(StandardEventArgs.class, this.<StandardEventArgs>getListenerThatRecords(record, "standard"),
+                      ListenerPriority.Early);
+        
+        publish(bus, new SpecificArgs());
+        
+        assertEquals("1.1", 2, record.size());
+        assertEquals("1.2", "standard", record.get(0));
+        assertEquals("1.3", "specific", record.get(1));
+        
+        record.clear();
+        publish(bus, new StandardEventArgs());
+        
+        assertEquals("2.1", 1, record.size());
+        assertEquals("2.2", "standard", record.get(0));
+        
+        // Subscribing to a type that didn't have an event yet, after args of a subtype have already been published.
+        record.clear();
+        bus.subscribe(EventArgs.class, this.<EventArgs>getListenerThatRecords(record, "any"), ListenerPriority.Post);
+        publish(bus, new SpecificArgs());
+        
+        assertEquals("3.1", 3, record.size());
+        assertEquals("3.2", "any", record.get(2));
+    }
+    
+    @Test
+    public void testUnsubscription()
+    {
+        EventBus bus = new EventBus();
+        List<String> record = new ArrayList<String>();
+        EventListener<StandardEventArgs> listener = this.<StandardEventArgs>getListenerThatRecords(record, "standard");
+        
+        bus.subscribe(StandardEventArgs.class, listener);
+        publish(bus, new SpecificArgs());
+        
+        assertEquals("1", 1, record.size());
+        assertSame("2", listener, bus.unsubscribe(StandardEventArgs.class, listener));
+        assertNull("3", bus.unsubscribe(SpecificArgs.class, new EventListener<SpecificArgs>()
+        {
+            @Override
+            public void onEvent(Object sender, SpecificArgs args)
+            { /* Listener code */ }
+        }));
+        
+        publish(bus, new SpecificArgs());
+        
+        assertEquals("4", 1, record.size());
+    }
+    
+    @Test
+    public void testWeakAnnotatedSubscription() throws InterruptedException
+    {
+        EventBus bus = new EventBus();
+        List<String> record = new ArrayList<String>();
+        WeakSubscriber subscriber = new WeakSubscriber(record);
+        List<AnnotatedListener<?>> listeners = bus.subscribeAnnotated(subscriber);
+        
+        assertTrue("1.1", listeners.get(0).isWeak());
+        assertSame("1.2", listeners.get(0), AnnotatedListener.getListenersOf(subscriber).get(0));
+        
+        publish(bus, new SpecificArgs());
+        
+        assertEquals("2", 1, record.size());
+        
+        StandardEvent<?> event = (StandardEvent<?>)bus.getEvent(SpecificArgs.class);
+        listeners = null;
+        subscriber = null;
+        int purged = 0;
+        
+        for(int i = 0; i < 50 && purged == 0; i++)
+        {
+            System.gc();
+            Thread.sleep(10);
+            AnnotatedListener.getListenersOf(new WeakSubscriber(record)); // Discards listeners of collected objects.
+            purged = event.purgeStaleWeakRegistrations();
+        }
+        
+        assertEquals("3", 1, purged);
+        
+        publish(bus, new SpecificArgs());
+        
+        assertEquals("4", 1, record.size());
+    }
+    
+    @Test
+    public void testPublishedArgsEvent()
+    {
+        EventBus bus = new EventBus();
+        List<String> record = new ArrayList<String>();
+        SpecificArgs args = new SpecificArgs();
+        
+        bus.subscribe(StandardEventArgs.class, this.<StandardEventArgs>getListenerThatRecords(record, "standard"));
+        publish(bus, args);
+        
+        assertSame("1", bus.getEvent(SpecificArgs.class), args.getEvent());
+        
+        @SuppressWarnings("unchecked")
+        Event<SpecificArgs> event = (Event<SpecificArgs>)args.getEvent();
+        event.register(this.<SpecificArgs>getListenerThatRecords(record, "specific"));
+        record.clear();
+        publish(bus, new SpecificArgs());
+        
+        assertEquals("2.1", 2, record.size());
+        assertTrue("2.2", record.contains("standard"));
+        assertTrue("2.3", record.contains("specific"));
+    }
+    
+    @Test
+    public void testAnnotatedSubscription()
+    {
+        EventBus bus = new EventBus();
+        AnnotatedSubscriber subscriber = new AnnotatedSubscriber();
+        
+        assertEquals("1", 2, bus.subscribeAnnotated(subscriber).size());
+        
+        publish(bus, new SpecificArgs());
+        
+        assertEquals("2.1", 2, subscriber.record.size());
+        assertEquals("2.2", "standard", subscriber.record.get(0));
+        assertEquals("2.3", "specific", subscriber.record.get(1));
+        
+        assertEquals("3", 2, bus.unsubscribeAnnotated(subscriber));
+        
+        publish(bus, new SpecificArgs());
+        
+        assertEquals("4", 2, subscriber.record.size());
+        assertEquals("5", AnnotatedListener.getListenersOf(subscriber), AnnotatedListener.getListenersOf(subscriber));
+        
+        final BadlyAnnotatedSubscriber badSubscriber = new BadlyAnnotatedSubscriber();
+        
+        new ThrowableAssertion("6", IllegalArgumentException.class)
+        {
+            @Override
+            public void code()
+            { AnnotatedListener.getListenersOf(badSubscriber); }
+        };
+    }
+}
\ No newline at end of file
@@ -13,12 +13,13 @@ import com.enkigaming.lib.tuples.Pair;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 public abstract class EventTest
 {
     public abstract Event<EventArgs> getNewEvent();
     
-    public abstract EventArgs getNewArgs();
+    public abstract ResettableEventArgs getNewArgs();
     
     public void assertThatEventDoesntHaveDependants(String msg, Event<? extends EventArgs> event)
     {
@@ -925,6 +926,196 @@ public abstract class EventTest
         assertAllTrue("3.2", grandparentPreFlag.get(), grandparentPostFlag.get()); // 1, 2
     }
     
+    @Test
+    public void testRegistrationBetweenRaises()
+    {
+        Event<EventArgs> event = getNewEvent(), dependentEvent = getNewEvent();
+        EventArgs args;
+        
+        Converger<Object, EventArgs, EventArgs> argsGetter = new Converger<Object, EventArgs, EventArgs>()
+        {
+            @Override
+            public EventArgs get(Object sender, EventArgs parentArgs)
+            { return getNewArgs(); }
+        };
+        
+        MutableWrapper<Integer> firstCount     = new MutableWrapper<Integer>(0),
+                                secondCount    = new MutableWrapper<Integer>(0),
+                                dependentCount = new MutableWrapper<Integer>(0);
+        
+        EventListener<EventArgs> firstListener  = getListenerThatIncrementsFlag(firstCount);
+        EventListener<EventArgs> secondListener = getListenerThatIncrementsFlag(secondCount);
+        
+        event.register(firstListener);
+        
+        args = getNewArgs();
+        event.raise(this, args);
+        event.raisePostEvent(this, args);
+        
+        assertEquals("1.1", 1, (int)firstCount.get());
+        assertEquals("1.2", 0, (int)secondCount.get());
+        
+        event.register(secondListener, ListenerPriority.Post);
+        event.register(dependentEvent, argsGetter);
+        dependentEvent.register(getListenerThatIncrementsFlag(dependentCount));
+        
+        args = getNewArgs();
+        event.raise(this, args);
+        event.raisePostEvent(this, args);
+        
+        assertEquals("2.1", 2, (int)firstCount.get());
+        assertEquals("2.2", 1, (int)secondCount.get());
+        assertEquals("2.3", 1, (int)dependentCount.get());
+        
+        event.deregister(firstListener);
+        event.deregister(dependentEvent);
+        
+        args = getNewArgs();
+        event.raise(this, args);
+        event.raisePostEvent(this, args);
+        
+        assertEquals("3.1", 2, (int)firstCount.get());
+        assertEquals("3.2", 2, (int)secondCount.get());
+        assertEquals("3.3", 1, (int)dependentCount.get());
+    }
+    
+    public EventListener<EventArgs> getListenerThatRecordsArgs(final List<String> record,
+                                                               final String name,
+                                                               final List<EventArgs> argsToRecordPositionsOf)
+    {
+        return new EventListener<EventArgs>()
+        {
+            @Override
+            public void onEvent(Object sender, EventArgs args)
+            {
+                EventArgs mainArgs = args.getParentArgs() == null ? args : args.getParentArgs();
+                record.add(name + argsToRecordPositionsOf.indexOf(mainArgs));
+            }
+        };
+    }
+    
+    @Test
+    public void testRaiseBatch()
+    {
+        final Event<EventArgs> event = getNewEvent();
+        Event<EventArgs> dependentEvent = getNewEvent();
+        List<String> record = new ArrayList<String>();
+        List<EventArgs> args = new ArrayList<EventArgs>();
+        
+        for(int i = 0; i < 3; i++)
+            args.add(getNewArgs());
+        
+        event.register(getListenerThatRecordsArgs(record, "a", args), ListenerPriority.Early);
+        event.register(getListenerThatRecordsArgs(record, "c", args), ListenerPriority.Post);
+        dependentEvent.register(getListenerThatRecordsArgs(record, "b", args), ListenerPriority.Normal);
+        
+        event.register(dependentEvent, new Converger<Object, EventArgs, EventArgs>()
+        {
+            @Override
+            public EventArgs get(Object sender, EventArgs parentArgs)
+            { return getNewArgs(); }
+        });
+        
+        event.raiseBatch(this, args);
+        assertEquals("1.1", Arrays.asList("a0", "b0", "a1", "b1", "a2", "b2"), record);
+        
+        record.clear();
+        event.raisePostEventBatch(this, args);
+        assertEquals("1.2", Arrays.asList("c0", "c1", "c2"), record);
+        
+        record.clear();
+        args.clear();
+        
+        for(int i = 0; i < 3; i++)
+            args.add(getNewArgs());
+        
+        event.raiseBatch(this, args, BatchOrder.ListenerMajor);
+        assertEquals("2.1", Arrays.asList("a0", "a1", "a2", "b0", "b1", "b2"), record);
+        
+        record.clear();
+        event.raisePostEventBatch(this, args, BatchOrder.ListenerMajor);
+        assertEquals("2.2", Arrays.asList("c0", "c1", "c2"), record);
+        
+        final EventArgs reusedArgs = args.get(0);
+        
+        new ThrowableAssertion("3", EventArgsMultipleUseException.class)
+        {
+            @Override
+            public void code() throws Throwable
+            { event.raiseBatch(EventTest.this, Arrays.asList(reusedArgs)); }
+        };
+    }
+    
+    @Test
+    public void testRaiseBatchListenerMajorWithUnusableArgs()
+    {
+        final Event<EventArgs> event = getNewEvent();
+        final List<String> record = new ArrayList<String>();
+        final EventArgs firstArgs = getNewArgs();
+        final EventArgs secondArgs = getNewArgs();
+        final EventArgs usedArgs = getNewArgs();
+        
+        event.register(getListenerThatRecordsArgs(record, "a", Arrays.asList(firstArgs, secondArgs)),
+                       ListenerPriority.Normal);
+        event.raise(this, usedArgs);
+        record.clear();
+        
+        new ThrowableAssertion("1", EventArgsMultipleUseException.class)
+        {
+            @Override
+            public void code() throws Throwable
+            { event.raiseBatch(EventTest.this, Arrays.asList(firstArgs, firstArgs), BatchOrder.ListenerMajor); }
+        };
+        
+        assertTrue("2", record.isEmpty());
+        event.raise(this, firstArgs);
+        assertEquals("3", Arrays.asList("a0"), record);
+        record.clear();
+        
+        new ThrowableAssertion("4", EventArgsMultipleUseException.class)
+        {
+            @Override
+            public void code() throws Throwable
+            { event.raiseBatch(EventTest.this, Arrays.asList(secondArgs, usedArgs), BatchOrder.ListenerMajor); }
+        };
+        
+        assertTrue("5", record.isEmpty());
+        
+        new ThrowableAssertion("6", EventArgsMultipleUseException.class)
+        {
+            @Override
+            public void code() throws Throwable
+            { event.raise(EventTest.this, secondArgs); }
+        };
+    }
+    
+    @Test
+    public void testRaisePostEventBatchListenerMajorWithDuplicateArgs()
+    {
+        final Event<EventArgs> event = getNewEvent();
+        final List<String> record = new ArrayList<String>();
+        final EventArgs firstArgs = getNewArgs();
+        EventArgs secondArgs = getNewArgs();
+        
+        event.register(getListenerThatRecordsArgs(record, "p", Arrays.asList(firstArgs, secondArgs)),
+                       ListenerPriority.Post);
+        event.raiseBatch(this, Arrays.asList(firstArgs, secondArgs), BatchOrder.ListenerMajor);
+        
+        new ThrowableAssertion("1", EventArgsMultipleUseException.class)
+        {
+            @Override
+            public void code() throws Throwable
+            {
+                event.raisePostEventBatch(EventTest.this, Arrays.asList(firstArgs, firstArgs),
+                                          BatchOrder.ListenerMajor);
+            }
+        };
+        
+        assertTrue("2", record.isEmpty());
+        event.raisePostEventBatch(this, Arrays.asList(firstArgs, secondArgs), BatchOrder.ListenerMajor);
+        assertEquals("3", Arrays.asList("p0", "p1"), record);
+    }
+    
     public EventListener<EventArgs> getListenerThatSetsFlagToTrue(final MutableWrapper<Boolean> flag)
     {
         return new EventListener<EventArgs>()
@@ -0,0 +1,228 @@
+package com.enkigaming.lib.events;
+
+import com.enkigaming.lib.encapsulatedfunctions.Transformer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class QueuedEventTest
+{
+    public static class NumberArgs extends StandardEventArgs
+    {
+        public NumberArgs(int number)
+        { this.number = number; }
+        
+        final int number;
+    }
+    
+    StandardEvent<NumberArgs> getRecordingEvent(final List<Integer> raised)
+    {
+        StandardEvent<NumberArgs> event = new StandardEvent<NumberArgs>();
+        
+        event.register(new EventListener<NumberArgs>()
+        {
+            @Override
+            public void onEvent(Object sender, NumberArgs args)
+            {
+                synchronized(raised)
+                { raised.add(args.number); }
+            }
+        });
+        
+        return event;
+    }
+    
+    @Test
+    public void testDropOldest()
+    {
+        List<Integer> raised = new ArrayList<Integer>();
+        QueuedEvent<NumberArgs> queue
+            = new QueuedEvent<NumberArgs>(getRecordingEvent(raised), 3, BackPressurePolicy.DropOldest);
+        
+        for(int i = 0; i < 5; i++)
+            assertTrue("1." + i, queue.raise(this, new NumberArgs(i)));
+        
+        assertTrue("2.1", raised.isEmpty());
+        assertEquals("2.2", 3, queue.getDepth());
+        assertEquals("2.3", 2, queue.getDroppedCount());
+        
+        assertEquals("3.1", 2, queue.drain(2));
+        assertEquals("3.2", 2, (int)raised.get(0));
+        assertEquals("3.3", 3, (int)raised.get(1));
+        assertEquals("3.4", 1, queue.drain());
+        assertEquals("3.5", 4, (int)raised.get(2));
+        assertEquals("3.6", 0, queue.drain());
+        assertEquals("3.7", 3, queue.getMaxDepth());
+        assertEquals("3.8", 3, queue.getDrainedCount());
+        assertTrue("3.9", queue.getMaxLatency() >= queue.getAverageLatency());
+    }
+    
+    @Test
+    public void testCoalesce()
+    {
+        List<Integer> raised = new ArrayList<Integer>();
+        
+        final List<Integer> keysGot = new ArrayList<Integer>();
+        
+        QueuedEvent<NumberArgs> queue = new QueuedEvent<NumberArgs>(getRecordingEvent(raised), 10,
+                                                                    new Transformer<NumberArgs, Object>()
+        {
+            @Override
+            public Object get(NumberArgs args)
+            {
+                keysGot.add(args.number);
+                return args.number % 2;
+            }
+        });
+        
+        for(int i = 0; i < 5; i++)
+            queue.raise(this, new NumberArgs(i));
+        
+        assertEquals("1.1", 2, queue.getDepth());
+        assertEquals("1.2", 3, queue.getCoalescedCount());
+        assertEquals("1.3", Arrays.asList(0, 1, 2, 3, 4), keysGot);
+        
+        queue.drain();
+        
+        assertEquals("2.1", 2, raised.size());
+        assertEquals("2.2", 4, (int)raised.get(0)); // The even raises, in the place of the first.
+        assertEquals("2.3", 3, (int)raised.get(1));
+        
+        queue.raise(this, new NumberArgs(6));
+        
+        assertEquals("3", 1, queue.getDepth()); // Not coalesced with a raise already drained.
+    }
+    
+    @Test
+    public void testBlock() throws InterruptedException
+    {
+        List<Integer> raised = new ArrayList<Integer>();
+        final QueuedEvent<NumberArgs> queue = new QueuedEvent<NumberArgs>(getRecordingEvent(raised), 2,
+                                                                          BackPressurePolicy.Block, null,
+                                                                          Thread.currentThread());
+        
+        Thread producer = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                for(int i = 0; i < 100; i++)
+                    queue.raise(this, new NumberArgs(i));
+            }
+        };
+        
+        producer.start();
+        
+        while(producer.isAlive() || queue.getDepth() > 0)
+            if(queue.drain() == 0)
+                Thread.sleep(1);
+        
+        producer.join();
+        
+        assertEquals("1", 100, raised.size());
+        
+        for(int i = 0; i < raised.size(); i++)
+            assertEquals("2." + i, i, (int)raised.get(i));
+        
+        assertEquals("3.1", 0, queue.getDroppedCount());
+        assertTrue("3.2", queue.getMaxDepth() <= 2);
+    }
+    
+    @Test
+    public void testBlockWithManyProducers() throws InterruptedException
+    {
+        final List<Integer> raised = new ArrayList<Integer>();
+        final QueuedEvent<NumberArgs> queue = new QueuedEvent<NumberArgs>(getRecordingEvent(raised), 8,
+                                                                          BackPressurePolicy.Block, null,
+                                                                          Thread.currentThread());
+        
+        List<Thread> producers = new ArrayList<Thread>();
+        
+        for(int i = 0; i < 4; i++)
+        {
+            final int producerNumber = i;
+            
+            Thread producer = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    for(int j = 0; j < 1000; j++)
+                        queue.raise(this, new NumberArgs(producerNumber * 1000 + j));
+                }
+            };
+            
+            producers.add(producer);
+            producer.start();
+        }
+        
+        for(Thread producer : producers)
+            while(producer.isAlive())
+                if(queue.drain() == 0)
+                    Thread.yield();
+        
+        queue.drain();
+        
+        assertEquals("1.1", 4000, raised.size());
+        assertEquals("1.2", 0, queue.getDroppedCount());
+        assertTrue("1.3", queue.getMaxDepth() <= 8);
+        
+        int[] lastRaised = { -1, 999, 1999, 2999 };
+        
+        for(int number : raised)
+        {
+            assertEquals("2." + number, lastRaised[number / 1000] + 1, number);
+            lastRaised[number / 1000] = number;
+        }
+    }
+    
+    @Test
+    public void testFullQueueRaisedBeforeConsumerThread()
+    {
+        List<Integer> raised = new ArrayList<Integer>();
+        QueuedEvent<NumberArgs> queue
+            = new QueuedEvent<NumberArgs>(getRecordingEvent(raised), 1, BackPressurePolicy.Block);
+        
+        assertTrue("1.1", queue.raise(this, new NumberArgs(0)));
+        assertFalse("1.2", queue.raise(this, new NumberArgs(1)));
+        assertEquals("1.3", 1, queue.getDroppedCount());
+        
+        assertEquals("2.1", 1, queue.drain());
+        assertEquals("2.2", Arrays.asList(0), raised);
+    }
+    
+    @Test
+    public void testFullQueueRaisedFromConsumerThread()
+    {
+        final List<Integer> raised = new ArrayList<Integer>();
+        StandardEvent<NumberArgs> event = getRecordingEvent(raised);
+        final QueuedEvent<NumberArgs> queue = new QueuedEvent<NumberArgs>(event, 2, BackPressurePolicy.Block);
+        final List<Boolean> queuedFromListener = new ArrayList<Boolean>();
+        
+        event.register(new EventListener<NumberArgs>()
+        {
+            @Override
+            public void onEvent(Object sender, NumberArgs args)
+            {
+                if(args.number == 0)
+                    for(int i = 10; i < 13; i++)
+                        queuedFromListener.add(queue.raise(this, new NumberArgs(i)));
+            }
+        });
+        
+        queue.raise(this, new NumberArgs(0));
+        
+        assertEquals("1.1", 1, queue.drain());
+        assertSame("1.2", Thread.currentThread(), queue.getConsumerThread());
+        assertEquals("1.3", Arrays.asList(true, true, false), queuedFromListener);
+        assertEquals("1.4", 1, queue.getDroppedCount());
+        
+        assertEquals("2.1", 2, queue.getDepth());
+        assertFalse("2.2", queue.raise(this, new NumberArgs(1)));
+        assertEquals("2.3", 2, queue.getDroppedCount());
+        assertEquals("2.4", 2, queue.drain());
+        assertEquals("2.5", Arrays.asList(0, 10, 11), raised);
+    }
+}
@@ -3,7 +3,7 @@ package com.enkigaming.lib.events;
 public class StandardEventArgsTest extends EventArgsTest
 {
     @Override
-    public EventArgs getNewArgs()
+    public ResettableEventArgs getNewArgs()
     { return new StandardEventArgs(); }
 
     @Override
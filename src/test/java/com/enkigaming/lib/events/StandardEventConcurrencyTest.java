@@ -0,0 +1,327 @@
+package com.enkigaming.lib.events;
+
+import com.enkigaming.lib.encapsulatedfunctions.Converger;
+import com.enkigaming.lib.events.exceptions.EventArgsMultipleUseException;
+import com.enkigaming.lib.testing.ThrowableAssertion;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class StandardEventConcurrencyTest
+{
+    @Test
+    public void testRaiseDoesntBlockOnRegistration() throws InterruptedException
+    {
+        final StandardEvent<EventArgs> event = new StandardEvent<EventArgs>();
+        final AtomicInteger timesCalled = new AtomicInteger(0);
+        final CountDownLatch registrationStarted = new CountDownLatch(1);
+        final CountDownLatch raiseFinished = new CountDownLatch(1);
+        
+        event.register(new EventListener<EventArgs>()
+        {
+            @Override
+            public void onEvent(Object sender, EventArgs args)
+            { timesCalled.incrementAndGet(); }
+        });
+        
+        // Simulates a registration that's in progress for as long as the raise is.
+        Thread registeringThread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                synchronized(event.registrationsBusy)
+                {
+                    registrationStarted.countDown();
+                    
+                    try
+                    { raiseFinished.await(10, TimeUnit.SECONDS); }
+                    catch(InterruptedException e)
+                    { Thread.currentThread().interrupt(); }
+                }
+            }
+        });
+        
+        registeringThread.start();
+        assertTrue("1", registrationStarted.await(10, TimeUnit.SECONDS));
+        
+        Thread raisingThread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                EventArgs args = new StandardEventArgs();
+                event.raise(this, args);
+                event.raisePostEvent(this, args);
+                raiseFinished.countDown();
+            }
+        });
+        
+        raisingThread.start();
+        raisingThread.join(5000);
+        
+        assertFalse("2", raisingThread.isAlive());
+        assertEquals("3", 1, timesCalled.get());
+        
+        raiseFinished.countDown();
+        registeringThread.join();
+    }
+    
+    @Test
+    public void testConcurrentRegistrationAndRaising() throws InterruptedException
+    {
+        final StandardEvent<EventArgs> event = new StandardEvent<EventArgs>();
+        final StandardEvent<EventArgs> dependentEvent = new StandardEvent<EventArgs>();
+        final AtomicInteger permanentListenerCalls = new AtomicInteger(0);
+        final AtomicInteger raises = new AtomicInteger(0);
+        final AtomicBoolean stop = new AtomicBoolean(false);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>(null);
+        final int raisesPerThread = 2000;
+        
+        event.register(new EventListener<EventArgs>()
+        {
+            @Override
+            public void onEvent(Object sender, EventArgs args)
+            { permanentListenerCalls.incrementAndGet(); }
+        }, ListenerPriority.Early);
+        
+        Collection<Thread> raisingThreads = new ArrayList<Thread>();
+        Collection<Thread> registeringThreads = new ArrayList<Thread>();
+        
+        for(int i = 0; i < 4; i++)
+            raisingThreads.add(new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        for(int j = 0; j < raisesPerThread; j++)
+                        {
+                            EventArgs args = new StandardEventArgs();
+                            event.raise(this, args);
+                            event.raisePostEvent(this, args);
+                            raises.incrementAndGet();
+                        }
+                    }
+                    catch(Throwable e)
+                    { failure.compareAndSet(null, e); }
+                }
+            }));
+        
+        for(int i = 0; i < 2; i++)
+            registeringThreads.add(new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        while(!stop.get())
+                        {
+                            EventListener<EventArgs> listener = new EventListener<EventArgs>()
+                            {
+                                @Override
+                                public void onEvent(Object sender, EventArgs args)
+                                { /* Listener code */ }
+                            };
+                            
+                            event.register(listener, ListenerPriority.Monitor);
+                            event.register(dependentEvent, new Converger<Object, EventArgs, EventArgs>()
+                            {
+                                @Override
+                                public EventArgs get(Object sender, EventArgs parentArgs)
+                                { return new StandardEventArgs(); }
+                            });
+                            
+                            event.deregister(listener);
+                            event.deregister(dependentEvent);
+                        }
+                    }
+                    catch(Throwable e)
+                    { failure.compareAndSet(null, e); }
+                }
+            }));
+        
+        for(Thread i : registeringThreads)
+            i.start();
+        
+        for(Thread i : raisingThreads)
+            i.start();
+        
+        for(Thread i : raisingThreads)
+            i.join(30000);
+        
+        stop.set(true);
+        
+        for(Thread i : registeringThreads)
+            i.join(30000);
+        
+        if(failure.get() != null)
+            throw new AssertionError(failure.get());
+        
+        assertEquals("1", raisesPerThread * raisingThreads.size(), raises.get());
+        assertEquals("2", raises.get(), permanentListenerCalls.get());
+        assertEquals("3", 1, event.getListeners().size());
+        assertTrue("4", event.getDirectlyDependentEvents().isEmpty());
+    }
+    
+    public EventListener<EventArgs> getListenerThatRecords(final List<String> record, final String name)
+    {
+        return new EventListener<EventArgs>()
+        {
+            @Override
+            public void onEvent(Object sender, EventArgs args)
+            { record.add(name); }
+        };
+    }
+    
+    @Test
+    public void testArgsStateUnderContention() throws InterruptedException
+    {
+        final StandardEventArgs args = new StandardEventArgs();
+        final AtomicInteger timesMarked = new AtomicInteger(0);
+        final AtomicInteger timesRejected = new AtomicInteger(0);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<Thread>();
+        
+        for(int i = 0; i < 8; i++)
+        {
+            Thread thread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    { start.await(10, TimeUnit.SECONDS); }
+                    catch(InterruptedException e)
+                    { Thread.currentThread().interrupt(); }
+                    
+                    for(int j = 0; j < 1000; j++)
+                        args.setCancelled(j % 2 == 0);
+                    
+                    try
+                    {
+                        args.getTechnicalAccessor().markAsUsingPreEvent();
+                        timesMarked.incrementAndGet();
+                    }
+                    catch(EventArgsMultipleUseException e)
+                    { timesRejected.incrementAndGet(); }
+                }
+            });
+            
+            threads.add(thread);
+            thread.start();
+        }
+        
+        start.countDown();
+        
+        for(Thread thread : threads)
+            thread.join(10000);
+        
+        assertEquals("1", 1, timesMarked.get());
+        assertEquals("2", 7, timesRejected.get());
+        assertFalse("3", args.isCancelled());
+        assertTrue("4", args.shouldBeMutable());
+    }
+    
+    @Test
+    public void testRaiseAsync() throws Exception
+    {
+        StandardEvent<EventArgs> event = new StandardEvent<EventArgs>();
+        final List<Runnable> handedOff = new ArrayList<Runnable>();
+        List<String> record = Collections.synchronizedList(new ArrayList<String>());
+        
+        Executor executor = new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            { handedOff.add(command); }
+        };
+        
+        event.register(getListenerThatRecords(record, "post"),    ListenerPriority.Post);
+        event.register(getListenerThatRecords(record, "monitor"), ListenerPriority.Monitor);
+        event.register(getListenerThatRecords(record, "normal"),  ListenerPriority.Normal);
+        
+        EventArgs firstArgs = new StandardEventArgs();
+        EventArgs secondArgs = new StandardEventArgs();
+        
+        Future<?> firstPre = event.raiseAsync(this, firstArgs, executor);
+        Future<?> firstPost = event.raisePostEventAsync(this, firstArgs, executor);
+        Future<?> secondPre = event.raiseAsync(this, secondArgs, executor);
+        Future<?> secondPost = event.raisePostEventAsync(this, secondArgs, executor);
+        
+        assertEquals("1", Arrays.asList("normal", "normal"), record);
+        assertFalse("2", firstArgs.shouldBeMutable());
+        assertFalse("3", firstPre.isDone());
+        assertEquals("4", 1, handedOff.size());
+        
+        handedOff.get(0).run();
+        
+        assertEquals("5", Arrays.asList("normal", "normal", "monitor", "post", "monitor", "post"), record);
+        
+        firstPre.get();
+        firstPost.get();
+        secondPre.get();
+        secondPost.get();
+        
+        handedOff.clear();
+        event.raiseAsync(this, new StandardEventArgs(), executor);
+        assertEquals("6", 1, handedOff.size());
+    }
+    
+    @Test
+    public void testRaiseAsyncExecutorFailure() throws Exception
+    {
+        final StandardEvent<EventArgs> event = new StandardEvent<EventArgs>();
+        final List<Runnable> handedOff = new ArrayList<Runnable>();
+        List<String> record = Collections.synchronizedList(new ArrayList<String>());
+        
+        final Executor failingExecutor = new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            { throw new IllegalStateException("Executor failed."); }
+        };
+        
+        Executor executor = new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            { handedOff.add(command); }
+        };
+        
+        event.register(getListenerThatRecords(record, "post"),    ListenerPriority.Post);
+        event.register(getListenerThatRecords(record, "monitor"), ListenerPriority.Monitor);
+        
+        new ThrowableAssertion("1", IllegalStateException.class)
+        {
+            @Override
+            public void code() throws Throwable
+            { event.raiseAsync(this, new StandardEventArgs(), failingExecutor); }
+        };
+        
+        EventArgs args = new StandardEventArgs();
+        Future<?> pre = event.raiseAsync(this, args, executor);
+        
+        assertEquals("2", 1, handedOff.size());
+        
+        // Marked as used pre-event on this thread, so the post-event raise doesn't have to wait for the monitors.
+        event.raisePostEvent(this, args);
+        handedOff.get(0).run();
+        pre.get();
+        
+        assertEquals("3", Arrays.asList("post", "monitor"), record);
+    }
+}
@@ -1,5 +1,18 @@
 package com.enkigaming.lib.events;
 
+import com.enkigaming.lib.encapsulatedfunctions.Converger;
+import com.enkigaming.lib.events.exceptions.DependentEventCycleException;
+import com.enkigaming.lib.misc.MutableWrapper;
+import com.enkigaming.lib.testing.ThrowableAssertion;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
 public class StandardEventTest extends EventTest
 {
     @Override
@@ -7,6 +20,365 @@ public class StandardEventTest extends EventTest
     { return new StandardEvent<EventArgs>(); }
 
     @Override
-    public EventArgs getNewArgs()
+    public ResettableEventArgs getNewArgs()
     { return new StandardEventArgs(); }
-}
\ No newline at end of file
+    
+    @Test
+    public void testWeakListenerRegistration()
+    {
+        StandardEvent<EventArgs> event = new StandardEvent<EventArgs>();
+        List<EventListener<EventArgs>> weakListeners = new ArrayList<EventListener<EventArgs>>(); // Keeps them alive.
+        
+        EventListener<EventArgs> strongListener = new EventListener<EventArgs>()
+        {
+            @Override
+            public void onEvent(Object sender, EventArgs args)
+            { /* Listener code */ }
+        };
+        
+        for(int i = 0; i < 2; i++)
+        {
+            EventListener<EventArgs> weakListener = new EventListener<EventArgs>()
+            {
+                @WeakListener
+                @Override
+                public void onEvent(Object sender, EventArgs args)
+                { /* Listener code */ }
+            };
+            
+            weakListeners.add(weakListener);
+            event.register(weakListener);
+            
+            assertTrue("1." + i, event.getWeakListeners().contains(weakListener));
+            assertFalse("2." + i, event.getListenersWithPriorities(true, false).containsKey(weakListener));
+        }
+        
+        event.register(strongListener);
+        
+        assertFalse("3", event.getWeakListeners().contains(strongListener));
+        assertEquals("4", 3, event.getListeners().size());
+    }
+    
+    @Test
+    public void testPurgeStaleWeakRegistrations() throws InterruptedException
+    {
+        StandardEvent<EventArgs> event = new StandardEvent<EventArgs>();
+        
+        EventListener<EventArgs> strongListener = new EventListener<EventArgs>()
+        {
+            @Override
+            public void onEvent(Object sender, EventArgs args)
+            { /* Listener code */ }
+        };
+        
+        event.register(strongListener);
+        event.register(new EventListener<EventArgs>()
+        {
+            @WeakListener
+            @Override
+            public void onEvent(Object sender, EventArgs args)
+            { /* Listener code */ }
+        });
+        
+        assertEquals("1", 0, event.purgeStaleWeakRegistrations());
+        
+        int purged = 0;
+        
+        for(int i = 0; i < 50 && purged == 0; i++)
+        {
+            System.gc();
+            Thread.sleep(10);
+            purged = event.purgeStaleWeakRegistrations();
+        }
+        
+        assertEquals("2", 1, purged);
+        assertEquals("3", 1, event.getDispatchPlan().getListenerCount());
+        assertSame("4", strongListener, event.getDispatchPlan().getListener(0));
+    }
+    
+    @Test
+    public void testDependentEventsWithoutListenersAreSkipped()
+    {
+        StandardEvent<EventArgs> event = new StandardEvent<EventArgs>();
+        StandardEvent<EventArgs> idleDependent = new StandardEvent<EventArgs>();
+        StandardEvent<EventArgs> idleDependentsDependent = new StandardEvent<EventArgs>();
+        final AtomicInteger argsGetterCalls = new AtomicInteger(0);
+        
+        Converger<Object, EventArgs, EventArgs> argsGetter = new Converger<Object, EventArgs, EventArgs>()
+        {
+            @Override
+            public EventArgs get(Object sender, EventArgs parentArgs)
+            {
+                argsGetterCalls.incrementAndGet();
+                return new StandardEventArgs();
+            }
+        };
+        
+        event.register(idleDependent, argsGetter);
+        idleDependent.register(idleDependentsDependent, argsGetter);
+        
+        EventArgs args = new StandardEventArgs();
+        event.raise(this, args);
+        event.raisePostEvent(this, args);
+        
+        assertEquals("1.1", 0, argsGetterCalls.get());
+        assertEquals("1.2", 1, event.getSkippedArgsGetterCount());
+        assertTrue("1.3", args.getDependentArgs().isEmpty());
+        
+        MutableWrapper<Integer> timesCalled = new MutableWrapper<Integer>(0);
+        idleDependentsDependent.register(getListenerThatIncrementsFlag(timesCalled));
+        
+        args = new StandardEventArgs();
+        event.raise(this, args);
+        event.raisePostEvent(this, args);
+        
+        assertEquals("2.1", 2, argsGetterCalls.get());
+        assertEquals("2.2", 1, event.getSkippedArgsGetterCount());
+        assertEquals("2.3", 1, (int)timesCalled.get());
+        assertEquals("2.4", 2, args.getDependentArgs().size());
+    }
+    
+    @Test
+    public void testDependencyCyclesAreRejected()
+    {
+        final StandardEvent<EventArgs> top = new StandardEvent<EventArgs>();
+        final StandardEvent<EventArgs> left = new StandardEvent<EventArgs>();
+        final StandardEvent<EventArgs> right = new StandardEvent<EventArgs>();
+        final StandardEvent<EventArgs> bottom = new StandardEvent<EventArgs>();
+        
+        final Converger<Object, EventArgs, EventArgs> argsGetter = new Converger<Object, EventArgs, EventArgs>()
+        {
+            @Override
+            public EventArgs get(Object sender, EventArgs parentArgs)
+            { return new StandardEventArgs(); }
+        };
+        
+        top.register(left, argsGetter);
+        top.register(right, argsGetter);
+        left.register(bottom, argsGetter);
+        right.register(bottom, argsGetter);
+        
+        assertEquals("1.1", 3, top.getDependentEvents().size());
+        assertTrue("1.2", top.getDependentEvents().contains(bottom));
+        
+        new ThrowableAssertion("2.1", DependentEventCycleException.class)
+        {
+            @Override
+            public void code() throws Throwable
+            { top.register(top, argsGetter); }
+        };
+        
+        new ThrowableAssertion("2.2", DependentEventCycleException.class)
+        {
+            @Override
+            public void code() throws Throwable
+            { bottom.register(top, argsGetter); }
+        };
+        
+        assertTrue("2.3", bottom.getDirectlyDependentEvents().isEmpty());
+        
+        MutableWrapper<Integer> timesCalled = new MutableWrapper<Integer>(0);
+        bottom.register(getListenerThatIncrementsFlag(timesCalled));
+        
+        EventArgs args = new StandardEventArgs();
+        top.raise(this, args);
+        top.raisePostEvent(this, args);
+        
+        assertEquals("3.1", 2, (int)timesCalled.get()); // Once via each of left and right.
+        assertEquals("3.2", 4, args.getDependentArgs().size());
+        
+        top.deregister(right);
+        
+        args = new StandardEventArgs();
+        top.raise(this, args);
+        top.raisePostEvent(this, args);
+        
+        assertEquals("4.1", 3, (int)timesCalled.get());
+        assertEquals("4.2", 2, top.getDependentEvents().size());
+    }
+    
+    @Test
+    public void testDependencyClosureIsOnlyRebuiltForDependentEventChanges()
+    {
+        StandardEvent<EventArgs> top = new StandardEvent<EventArgs>();
+        StandardEvent<EventArgs> left = new StandardEvent<EventArgs>();
+        StandardEvent<EventArgs> right = new StandardEvent<EventArgs>();
+        StandardEvent<EventArgs> bottom = new StandardEvent<EventArgs>();
+        StandardEvent<EventArgs> unrelated = new StandardEvent<EventArgs>();
+        
+        Converger<Object, EventArgs, EventArgs> argsGetter = new Converger<Object, EventArgs, EventArgs>()
+        {
+            @Override
+            public EventArgs get(Object sender, EventArgs parentArgs)
+            { return new StandardEventArgs(); }
+        };
+        
+        top.register(left, argsGetter);
+        top.register(right, argsGetter);
+        left.register(bottom, argsGetter);
+        right.register(bottom, argsGetter);
+        
+        StandardEvent.DependencyClosure closure = top.getDependencyClosure();
+        
+        assertEquals("1.1", 4, closure.size());
+        assertSame("1.2", top, closure.getEvent(0));
+        assertSame("1.3", bottom, closure.getEvent(3));
+        
+        MutableWrapper<Integer> timesCalled = new MutableWrapper<Integer>(0);
+        bottom.register(getListenerThatIncrementsFlag(timesCalled));
+        unrelated.register(getListenerThatIncrementsFlag(timesCalled));
+        unrelated.register(new StandardEvent<EventArgs>(), argsGetter);
+        
+        assertSame("2.1", closure, top.getDependencyClosure());
+        
+        bottom.register(unrelated, argsGetter);
+        
+        assertNotSame("3.1", closure, top.getDependencyClosure());
+        assertEquals("3.2", 6, top.getDependencyClosure().size());
+    }
+    
+    @Test
+    public void testMergedPlanIsKeptUntilRegistrationsChange() throws InterruptedException
+    {
+        StandardEvent<EventArgs> event = new StandardEvent<EventArgs>();
+        StandardEvent<EventArgs> dependent = new StandardEvent<EventArgs>();
+        MutableWrapper<Integer> timesCalled = new MutableWrapper<Integer>(0);
+        
+        event.register(dependent, new Converger<Object, EventArgs, EventArgs>()
+        {
+            @Override
+            public EventArgs get(Object sender, EventArgs parentArgs)
+            { return new StandardEventArgs(); }
+        });
+        
+        event.register(getListenerThatIncrementsFlag(timesCalled));
+        event.raise(this, new StandardEventArgs());
+        StandardEvent.MergedPlan plan = event.getMergedPlan();
+        event.raise(this, new StandardEventArgs());
+        
+        assertSame("1.1", plan, event.getMergedPlan());
+        assertEquals("1.2", 2, (int)timesCalled.get());
+        
+        dependent.register(getListenerThatIncrementsFlag(timesCalled));
+        event.raise(this, new StandardEventArgs());
+        
+        assertNotSame("2.1", plan, event.getMergedPlan());
+        assertEquals("2.2", 4, (int)timesCalled.get());
+        
+        EventListener<EventArgs> weakListener = new EventListener<EventArgs>()
+        {
+            @WeakListener
+            @Override
+            public void onEvent(Object sender, EventArgs args)
+            { /* Listener code */ }
+        };
+        
+        WeakReference<EventListener<EventArgs>> weakListenerReference
+            = new WeakReference<EventListener<EventArgs>>(weakListener);
+        
+        dependent.register(weakListener);
+        event.raise(this, new StandardEventArgs());
+        weakListener = null;
+        
+        for(int i = 0; i < 50 && weakListenerReference.get() != null; i++)
+        {
+            System.gc();
+            Thread.sleep(10);
+        }
+        
+        assertNull("3.1", weakListenerReference.get());
+        
+        event.raise(this, new StandardEventArgs());
+        
+        assertEquals("3.2", 8, (int)timesCalled.get());
+    }
+    
+    @Test
+    public void testConcurrentListeners()
+    {
+        StandardEvent<EventArgs> event = new StandardEvent<EventArgs>();
+        final CyclicBarrier bothCalled = new CyclicBarrier(2);
+        final AtomicInteger finished = new AtomicInteger(0);
+        final AtomicInteger failures = new AtomicInteger(0);
+        final AtomicInteger finishedBeforeNextPriority = new AtomicInteger(-1);
+        
+        for(int i = 0; i < 2; i++)
+        {
+            event.register(new EventListener<EventArgs>()
+            {
+                @ConcurrentListener
+                @Override
+                public void onEvent(Object sender, EventArgs args)
+                {
+                    try
+                    { bothCalled.await(5, TimeUnit.SECONDS); } // Only returns where both are called at the same time.
+                    catch(Exception e)
+                    { failures.incrementAndGet(); }
+                    
+                    finished.incrementAndGet();
+                }
+            }, ListenerPriority.Monitor);
+        }
+        
+        event.register(new EventListener<EventArgs>()
+        {
+            @Override
+            public void onEvent(Object sender, EventArgs args)
+            { finishedBeforeNextPriority.set(finished.get()); }
+        }, ListenerPriority.Monitor.getNumericalValue() + 0.5);
+        
+        EventArgs args = new StandardEventArgs();
+        event.raise(this, args);
+        event.raisePostEvent(this, args);
+        
+        assertEquals("1", 0, failures.get());
+        assertEquals("2", 2, finished.get());
+        assertEquals("3", 2, finishedBeforeNextPriority.get());
+    }
+    
+    @Test
+    public void testMetrics()
+    {
+        StandardEvent<EventArgs> event = new StandardEvent<EventArgs>();
+        RecordingEventMetrics metrics = new RecordingEventMetrics();
+        
+        EventListener<EventArgs> cancellingListener = new EventListener<EventArgs>()
+        {
+            @Override
+            public void onEvent(Object sender, EventArgs args)
+            { args.setCancelled(true); }
+        };
+        
+        EventListener<EventArgs> firstListener = getListenerThatIncrementsFlag(new MutableWrapper<Integer>(0));
+        EventListener<EventArgs> secondListener = getListenerThatIncrementsFlag(new MutableWrapper<Integer>(0));
+        event.register(cancellingListener, firstListener, secondListener);
+        StandardEvent.setMetrics(metrics);
+        
+        try
+        {
+            for(int i = 0; i < 4; i++)
+            {
+                EventArgs args = new StandardEventArgs();
+                event.raise(this, args);
+                event.raisePostEvent(this, args);
+            }
+        }
+        finally
+        { StandardEvent.setMetrics(null); }
+        
+        EventArgs unmeasuredArgs = new StandardEventArgs();
+        event.raise(this, unmeasuredArgs);
+        event.raisePostEvent(this, unmeasuredArgs);
+        
+        assertSame("1", EventMetrics.NONE, StandardEvent.getMetrics());
+        assertEquals("2", 4, metrics.getEventRecord(event).getRaiseCount());
+        assertEquals("3", 1.0, metrics.getEventRecord(event).getCancellationRate(), 0);
+        assertEquals("4", 4, metrics.getListenerHistogram(cancellingListener).getCount());
+        assertEquals("5", 4, metrics.getListenerHistogram(firstListener).getCount());
+        assertNotSame("6", metrics.getListenerHistogram(firstListener), metrics.getListenerHistogram(secondListener));
+        assertEquals("7", 4, metrics.getReport(10).size());
+        
+        metrics.reset();
+        assertNull("8", metrics.getEventRecord(event));
+    }
+}
@@ -0,0 +1,12 @@
+package com.enkigaming.lib.events;
+
+public class ThreadConfinedEventArgsTest extends EventArgsTest
+{
+    @Override
+    public ResettableEventArgs getNewArgs()
+    { return new ThreadConfinedEventArgs(); }
+    
+    @Override
+    public Event<EventArgs> getNewEvent()
+    { return new ThreadConfinedEvent<EventArgs>(); }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.enkigaming.lib.events;
+
+import com.enkigaming.lib.exceptions.NullArgumentException;
+import com.enkigaming.lib.testing.ThrowableAssertion;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ThreadConfinedEventTest extends EventTest
+{
+    @Override
+    public Event<EventArgs> getNewEvent()
+    { return new ThreadConfinedEvent<EventArgs>(); }
+    
+    @Override
+    public ResettableEventArgs getNewArgs()
+    { return new ThreadConfinedEventArgs(); }
+    
+    @Test
+    public void testOwnerThread()
+    {
+        final ThreadConfinedEvent<EventArgs> event = new ThreadConfinedEvent<EventArgs>(Thread.currentThread());
+        ThreadConfinedEvent<EventArgs> unownedEvent = new ThreadConfinedEvent<EventArgs>();
+        
+        assertSame("1", Thread.currentThread(), event.getOwnerThread());
+        assertNull("2", unownedEvent.getOwnerThread());
+        assertTrue("3", unownedEvent.checkRegisteringThread());
+        assertTrue("4", unownedEvent.checkRaisingThread());
+        assertSame("5", Thread.currentThread(), unownedEvent.getOwnerThread());
+        
+        ThreadConfinedEvent<EventArgs> otherThreadsEvent = new ThreadConfinedEvent<EventArgs>(new Thread());
+        
+        assertFalse("6", otherThreadsEvent.checkRegisteringThread());
+        assertFalse("7", otherThreadsEvent.checkRaisingThread());
+        
+        final boolean[] listenerCalled = {false};
+        
+        event.register(new EventListener<EventArgs>()
+        {
+            @Override
+            public void onEvent(Object sender, EventArgs args)
+            { listenerCalled[0] = true; }
+        });
+        
+        EventArgs args = new ThreadConfinedEventArgs();
+        Future<?> raise = event.raiseAsync(this, args, new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            { fail("8"); }
+        });
+        
+        assertTrue("9", raise.isDone());
+        assertTrue("10", listenerCalled[0]);
+        assertTrue("11", event.raisePostEventAsync(this, args, new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            { fail("12"); }
+        }).isDone());
+        
+        new ThrowableAssertion("13", NullArgumentException.class)
+        {
+            @Override
+            public void code()
+            { event.raiseAsync(this, new ThreadConfinedEventArgs(), null); }
+        };
+    }
+}
\ No newline at end of file
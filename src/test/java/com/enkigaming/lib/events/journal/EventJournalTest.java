@@ -0,0 +1,119 @@
+package com.enkigaming.lib.events.journal;
+
+import com.enkigaming.lib.events.Event;
+import com.enkigaming.lib.events.EventListener;
+import com.enkigaming.lib.events.StandardEvent;
+import com.enkigaming.lib.events.StandardEventArgs;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class EventJournalTest
+{
+    public static class NumberArgs extends StandardEventArgs
+    {
+        public NumberArgs(int number)
+        { this.number = number; }
+        
+        final int number;
+    }
+    
+    static final ArgsCodec<NumberArgs> codec = new ArgsCodec<NumberArgs>()
+    {
+        @Override
+        public void encode(NumberArgs args, ByteBuffer buffer)
+        { buffer.putInt(args.number); }
+        
+        @Override
+        public NumberArgs decode(ByteBuffer buffer)
+        { return new NumberArgs(buffer.getInt()); }
+    };
+    
+    File getNewJournalFile() throws IOException
+    {
+        File file = File.createTempFile("journal", ".bin");
+        file.deleteOnExit();
+        return file;
+    }
+    
+    void raise(Event<NumberArgs> event, int number)
+    {
+        NumberArgs args = new NumberArgs(number);
+        event.raise(this, args);
+        event.raisePostEvent(this, args);
+    }
+    
+    @Test
+    public void testRecordAndReplay() throws IOException
+    {
+        EventJournal journal = new EventJournal(getNewJournalFile(), 4096);
+        Event<NumberArgs> event = new JournallingEvent<NumberArgs>(new StandardEvent<NumberArgs>(), journal, 7, codec);
+        
+        raise(event, 1);
+        raise(event, 2);
+        raise(event, 3);
+        
+        List<JournalEntry> entries = journal.getEntries();
+        
+        assertEquals("1.1", 3, entries.size());
+        assertEquals("1.2", 7, entries.get(0).getEventId());
+        assertEquals("1.3", EventJournalTest.class.getName(), entries.get(0).getSenderType());
+        assertEquals("1.4", 2, entries.get(1).getArgs().getInt());
+        assertTrue("1.5", entries.get(0).getTimestamp() <= entries.get(2).getTimestamp());
+        
+        final List<Integer> replayed = new ArrayList<Integer>();
+        StandardEvent<NumberArgs> replayTarget = new StandardEvent<NumberArgs>();
+        
+        replayTarget.register(new EventListener<NumberArgs>()
+        {
+            @Override
+            public void onEvent(Object sender, NumberArgs args)
+            { replayed.add(args.number); }
+        });
+        
+        JournalReplayer replayer = new JournalReplayer();
+        replayer.register(7, replayTarget, codec);
+        
+        assertEquals("2.1", 3, replayer.replay(journal));
+        assertEquals("2.2", 3, replayed.size());
+        assertEquals("2.3", 1, (int)replayed.get(0));
+        assertEquals("2.4", 3, (int)replayed.get(2));
+        
+        assertEquals("3", 0, new JournalReplayer().replay(journal));
+        
+        journal.close();
+    }
+    
+    @Test
+    public void testOldestEntriesOverwritten() throws IOException
+    {
+        File file = getNewJournalFile();
+        int entrySize = EventJournal.ENTRY_HEADER_SIZE + EventJournalTest.class.getName().length() + 4;
+        int capacity = entrySize * 9 / 2; // Room for 4 entries, with space left over at the end.
+        EventJournal journal = new EventJournal(file, capacity);
+        Event<NumberArgs> event = new JournallingEvent<NumberArgs>(new StandardEvent<NumberArgs>(), journal, 1, codec);
+        
+        for(int i = 0; i < 10; i++)
+            raise(event, i);
+        
+        List<JournalEntry> entries = journal.getEntries();
+        
+        assertEquals("1.1", 4, entries.size());
+        
+        for(int i = 0; i < entries.size(); i++)
+            assertEquals("1.2." + i, 6 + i, entries.get(i).getArgs().getInt());
+        
+        journal.close();
+        journal = new EventJournal(file, capacity);
+        entries = journal.getEntries();
+        
+        assertEquals("2.1", 4, entries.size());
+        assertEquals("2.2", 9, entries.get(3).getArgs().getInt());
+        
+        journal.close();
+    }
+}
@@ -0,0 +1,188 @@
+package com.enkigaming.lib.filehandling;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class FileHandlerRegistryTest
+{
+    static class RecordingFileHandler extends FileHandler
+    {
+        public RecordingFileHandler(String id, List<String> loadOrder, String... prerequisites)
+        {
+            super(id, new File("FileHandlerRegistryTest-" + id + "-doesn't-exist"));
+            this.loadOrder = loadOrder;
+            
+            for(String prerequisite : prerequisites)
+                mustLoadAfterHandler(prerequisite);
+        }
+        
+        final List<String> loadOrder;
+        
+        @Override
+        protected void preSave()
+        { /* Nothin' here */ }
+        
+        @Override
+        protected void buildSaveFile(PrintWriter writer)
+        { /* Nothin' here */ }
+        
+        @Override
+        protected void postSave()
+        { /* Nothin' here */ }
+        
+        @Override
+        protected void preInterpretation()
+        { /* Nothin' here */ }
+        
+        @Override
+        protected boolean interpretFile(List<String> lines)
+        { return true; }
+        
+        @Override
+        protected void postInterpretation()
+        { /* Nothin' here */ }
+        
+        @Override
+        protected void onNoFileToInterpret()
+        { loadOrder.add(getId()); }
+    }
+    
+    static List<String> makeLogCapture(FileHandlerRegistry registry)
+    {
+        final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        
+        logger.addHandler(new Handler()
+        {
+            @Override
+            public void publish(LogRecord record)
+            { messages.add(record.getMessage()); }
+            
+            @Override
+            public void flush()
+            { /* Nothin' here */ }
+            
+            @Override
+            public void close()
+            { /* Nothin' here */ }
+        });
+        
+        registry.logger = logger;
+        return messages;
+    }
+    
+    @Test
+    public void testLoadsAfterPrerequisites()
+    {
+        List<String> loadOrder = Collections.synchronizedList(new ArrayList<String>());
+        FileHandlerRegistry registry = new FileHandlerRegistry();
+        List<String> messages = makeLogCapture(registry);
+        
+        registry.register(new RecordingFileHandler("Leaf",   loadOrder, "Middle", "Root"));
+        registry.register(new RecordingFileHandler("Middle", loadOrder, "Root"));
+        registry.register(new RecordingFileHandler("Root",   loadOrder));
+        registry.register(new RecordingFileHandler("Other",  loadOrder, "Root"));
+        registry.load();
+        
+        assertEquals("1.1", 4, loadOrder.size());
+        assertEquals("1.2", new HashSet<String>(Arrays.asList("Leaf", "Middle", "Root", "Other")),
+                            new HashSet<String>(loadOrder));
+        assertEquals("1.3", "Root", loadOrder.get(0));
+        assertTrue("1.4", loadOrder.indexOf("Middle") < loadOrder.indexOf("Leaf"));
+        assertTrue("1.5", messages.isEmpty());
+    }
+    
+    @Test
+    public void testReportsCyclesAndMissingPrerequisites()
+    {
+        List<String> loadOrder = Collections.synchronizedList(new ArrayList<String>());
+        FileHandlerRegistry registry = new FileHandlerRegistry();
+        List<String> messages = makeLogCapture(registry);
+        
+        registry.register(new RecordingFileHandler("Blue",   loadOrder, "Red"));
+        registry.register(new RecordingFileHandler("Red",    loadOrder, "Green"));
+        registry.register(new RecordingFileHandler("Green",  loadOrder, "Blue"));
+        registry.register(new RecordingFileHandler("Purple", loadOrder, "Green"));
+        registry.register(new RecordingFileHandler("Yellow", loadOrder, "Missing"));
+        registry.register(new RecordingFileHandler("White",  loadOrder));
+        registry.load();
+        
+        assertEquals("1", Arrays.asList("White"), loadOrder);
+        assertEquals("2.1", 3, messages.size());
+        assertEquals("2.2", "File handlers must load after each other in a cycle: Blue -> Red -> Green -> Blue",
+                            messages.get(0));
+        assertEquals("2.3", "File handler Yellow must load after Missing, which isn't registered.", messages.get(1));
+        assertEquals("2.4", "The following file handlers weren't loaded: Blue, Red, Green, Purple, Yellow",
+                            messages.get(2));
+    }
+    
+    @Test
+    public void testLoadsIndependentHandlersConcurrently()
+    {
+        List<String> loadOrder = Collections.synchronizedList(new ArrayList<String>());
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        FileHandlerRegistry registry = new FileHandlerRegistry();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        registry.setLoadPool(pool);
+        
+        for(String id : Arrays.asList("Blue", "Red"))
+        {
+            registry.register(new RecordingFileHandler(id, loadOrder)
+            {
+                @Override
+                protected void onNoFileToInterpret()
+                {
+                    try
+                    { barrier.await(10, TimeUnit.SECONDS); }
+                    catch(InterruptedException e)
+                    { throw new RuntimeException(e); }
+                    catch(BrokenBarrierException e)
+                    { throw new RuntimeException(e); }
+                    catch(TimeoutException e)
+                    { throw new RuntimeException("Handlers weren't loaded concurrently.", e); }
+                    
+                    super.onNoFileToInterpret();
+                }
+            });
+        }
+        
+        try
+        { registry.load(); }
+        finally
+        { pool.shutdown(); }
+        
+        assertEquals("1", 2, loadOrder.size());
+    }
+    
+    @Test
+    public void testLoadsWherePoolRejects()
+    {
+        List<String> loadOrder = Collections.synchronizedList(new ArrayList<String>());
+        FileHandlerRegistry registry = new FileHandlerRegistry();
+        ForkJoinPool pool = new ForkJoinPool(1);
+        pool.shutdown();
+        registry.setLoadPool(pool);
+        
+        registry.register(new RecordingFileHandler("Leaf", loadOrder, "Root"));
+        registry.register(new RecordingFileHandler("Root", loadOrder));
+        registry.load();
+        
+        assertEquals("1", Arrays.asList("Root", "Leaf"), loadOrder);
+    }
+}
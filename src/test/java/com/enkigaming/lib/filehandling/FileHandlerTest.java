@@ -0,0 +1,615 @@
+package com.enkigaming.lib.filehandling;
+
+import com.enkigaming.lib.filehandling.CSVFileHandler.CSVRowMember;
+import com.enkigaming.lib.filehandling.TreeFileHandler.TreeNode;
+import com.enkigaming.lib.testing.ThrowableAssertion;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class FileHandlerTest
+{
+    static class TestCSVFileHandler extends CSVFileHandler
+    {
+        public TestCSVFileHandler(File file)
+        { super("Test", file); }
+        
+        final List<List<String>> rows = new ArrayList<List<String>>();
+        boolean failSaving = false;
+        
+        @Override
+        protected void onNoFileToInterpret()
+        { /* Nothin' here */ }
+        
+        @Override
+        protected List<String> getColumnNames()
+        { return Arrays.asList("Name", "Colour"); }
+        
+        @Override
+        protected void preInterpretation()
+        { rows.clear(); }
+        
+        @Override
+        protected boolean interpretRow(List<String> row)
+        {
+            rows.add(row);
+            return row.size() == 2;
+        }
+        
+        @Override
+        protected void postInterpretation()
+        { /* Nothin' here */ }
+        
+        @Override
+        protected void preSave()
+        { /* Nothin' here */ }
+        
+        @Override
+        protected List<CSVRowMember> getRow(int rowNumber)
+        {
+            if(failSaving && rowNumber == 1)
+                throw new IllegalStateException("Failed part-way through saving.");
+            
+            if(rowNumber >= rows.size())
+                return null;
+            
+            return Arrays.asList(new CSVRowMember(rows.get(rowNumber).get(0), false),
+                                 new CSVRowMember(rows.get(rowNumber).get(1), true));
+        }
+        
+        @Override
+        protected void postSave()
+        { /* Nothin' here */ }
+    }
+    
+    static class TestTreeFileHandler extends TreeFileHandler
+    {
+        public TestTreeFileHandler(File file)
+        { super("Test", file); }
+        
+        List<TreeNode> tree;
+        
+        @Override
+        protected void preSave()
+        { /* Nothin' here */ }
+        
+        @Override
+        protected List<TreeNode> getTreeStructureOfSaveData()
+        { return tree; }
+        
+        @Override
+        protected void postSave()
+        { /* Nothin' here */ }
+        
+        @Override
+        protected void preInterpretation()
+        { /* Nothin' here */ }
+        
+        @Override
+        protected boolean interpretTree(List<TreeNode> tree)
+        {
+            this.tree = tree;
+            return true;
+        }
+        
+        @Override
+        protected void postInterpretation()
+        { /* Nothin' here */ }
+        
+        @Override
+        protected void onNoFileToInterpret()
+        { /* Nothin' here */ }
+    }
+    
+    File getNewFolder() throws IOException
+    {
+        File folder = File.createTempFile("filehandler", "");
+        folder.delete();
+        folder.mkdirs();
+        folder.deleteOnExit();
+        return folder;
+    }
+    
+    File writeFile(File folder, String name, String... lines) throws IOException
+    {
+        File file = new File(folder, name);
+        PrintWriter writer = new PrintWriter(new FileWriter(file));
+        
+        for(String line : lines)
+            writer.println(line);
+        
+        writer.close();
+        file.deleteOnExit();
+        return file;
+    }
+    
+    boolean hasCorruptedCopy(File folder)
+    {
+        for(File file : folder.listFiles())
+        {
+            if(file.getName().contains("(Corrupted "))
+            {
+                file.delete();
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    @Test
+    public void testCSVLoadsLineByLine() throws IOException
+    {
+        File folder = getNewFolder();
+        TestCSVFileHandler handler = new TestCSVFileHandler(writeFile(folder, "test.csv",
+                                                                      "Name,Colour",
+                                                                      "",
+                                                                      "Blue, \"Navy, light\"",
+                                                                      "   ",
+                                                                      "Red, Crimson"));
+        
+        handler.load();
+        
+        assertEquals("1.1", 2, handler.rows.size());
+        assertEquals("1.2", Arrays.asList("Blue", "Navy, light"), handler.rows.get(0));
+        assertEquals("1.3", Arrays.asList("Red", "Crimson"), handler.rows.get(1));
+        assertFalse("1.4", hasCorruptedCopy(folder));
+        
+        handler = new TestCSVFileHandler(writeFile(folder, "wrongheader.csv", "Name,Shade", "Blue, Navy"));
+        handler.load();
+        
+        assertEquals("2.1", 1, handler.rows.size());
+        assertTrue("2.2", hasCorruptedCopy(folder));
+        
+        handler = new TestCSVFileHandler(writeFile(folder, "empty.csv", "", ""));
+        handler.load();
+        
+        assertEquals("3.1", 0, handler.rows.size());
+        assertTrue("3.2", hasCorruptedCopy(folder));
+    }
+    
+    @Test
+    public void testTreeLoadsLineByLine() throws IOException
+    {
+        File folder = getNewFolder();
+        TestTreeFileHandler handler = new TestTreeFileHandler(writeFile(folder, "test.txt",
+                                                                        "Blue",
+                                                                        "    Navy",
+                                                                        "        Dark",
+                                                                        "",
+                                                                        "    Sky",
+                                                                        "Red"));
+        
+        handler.load();
+        
+        assertEquals("1", 2, handler.tree.size());
+        
+        TreeNode blue = handler.tree.get(0);
+        
+        assertEquals("2.1", "Blue", blue.getName());
+        assertEquals("2.2", 2, blue.getChildren().size());
+        assertEquals("2.3", "Navy", blue.getChildren().get(0).getName());
+        assertEquals("2.4", "Dark", blue.getChildren().get(0).getChildren().get(0).getName());
+        assertEquals("2.5", "Sky", blue.getChildren().get(1).getName());
+        assertEquals("2.6", 0, blue.getChildren().get(1).getChildren().size());
+        
+        assertEquals("3.1", "Red", handler.tree.get(1).getName());
+        assertEquals("3.2", 0, handler.tree.get(1).getChildren().size());
+    }
+    
+    @Test
+    public void testSaveAtomically() throws IOException
+    {
+        File folder = getNewFolder();
+        File file = new File(folder, "test.csv");
+        file.deleteOnExit();
+        final TestCSVFileHandler handler = new TestCSVFileHandler(file);
+        
+        handler.rows.add(Arrays.asList("Blue", "Navy"));
+        handler.rows.add(Arrays.asList("Red", "Crimson"));
+        handler.save();
+        
+        assertTrue("1.1", file.isFile());
+        assertEquals("1.2", 1, folder.listFiles().length);
+        
+        handler.load();
+        
+        assertEquals("2.1", Arrays.asList("Blue", "Navy"), handler.rows.get(0));
+        assertEquals("2.2", Arrays.asList("Red", "Crimson"), handler.rows.get(1));
+        
+        handler.rows.add(Arrays.asList("Green", "Lime"));
+        handler.failSaving = true;
+        
+        new ThrowableAssertion("3.1", IllegalStateException.class)
+        {
+            @Override
+            public void code() throws Throwable
+            { handler.save(); }
+        };
+        
+        assertEquals("3.2", 1, folder.listFiles().length);
+        
+        handler.failSaving = false;
+        handler.load();
+        
+        assertEquals("4.1", 2, handler.rows.size());
+        assertEquals("4.2", Arrays.asList("Red", "Crimson"), handler.rows.get(1));
+        
+        handler.setSavesAtomically(false);
+        handler.rows.add(Arrays.asList("Green", "Lime"));
+        handler.save();
+        handler.load();
+        
+        assertEquals("5", 3, handler.rows.size());
+    }
+    
+    @Test
+    public void testSaveAsync() throws IOException, InterruptedException
+    {
+        File folder = getNewFolder();
+        File file = new File(folder, "test.csv");
+        file.deleteOnExit();
+        
+        final List<String> colours = new ArrayList<String>();
+        final List<String> snapshot = new ArrayList<String>();
+        final List<String> saved = new ArrayList<String>();
+        
+        TestCSVFileHandler handler = new TestCSVFileHandler(file)
+        {
+            @Override
+            protected boolean savesAsynchronously()
+            { return true; }
+            
+            @Override
+            protected void preSave()
+            {
+                snapshot.clear();
+                snapshot.addAll(colours);
+            }
+            
+            @Override
+            protected List<CSVRowMember> getRow(int rowNumber)
+            {
+                if(rowNumber >= snapshot.size())
+                    return null;
+                
+                saved.add(snapshot.get(rowNumber));
+                return Arrays.asList(new CSVRowMember(snapshot.get(rowNumber), false),
+                                     new CSVRowMember(snapshot.get(rowNumber), false));
+            }
+        };
+        
+        final List<Runnable> queued = new ArrayList<Runnable>();
+        
+        Executor executor = new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            { queued.add(command); }
+        };
+        
+        colours.add("Blue");
+        Future<?> first = handler.saveAsync(executor);
+        colours.add("Red");
+        Future<?> second = handler.saveAsync(executor);
+        
+        assertSame("1.1", first, second);
+        assertEquals("1.2", 1, queued.size());
+        assertEquals("1.3", Arrays.asList("Blue", "Red"), snapshot);
+        assertFalse("1.4", file.exists());
+        
+        Thread saving = new Thread(queued.get(0));
+        saving.start();
+        handler.awaitAsyncSave();
+        saving.join();
+        
+        assertTrue("2.1", first.isDone());
+        assertEquals("2.2", Arrays.asList("Blue", "Red"), saved);
+        
+        handler.load();
+        
+        assertEquals("3", 2, handler.rows.size());
+        
+        colours.add("Green");
+        
+        assertNotSame("4.1", first, handler.saveAsync(executor));
+        assertEquals("4.2", 2, queued.size());
+    }
+    
+    @Test
+    public void testDirtyTracking() throws IOException
+    {
+        File folder = getNewFolder();
+        File file = new File(folder, "test.csv");
+        file.deleteOnExit();
+        
+        final List<Integer> saves = new ArrayList<Integer>();
+        
+        TestCSVFileHandler handler = new TestCSVFileHandler(file)
+        {
+            @Override
+            protected boolean tracksChanges()
+            { return true; }
+            
+            @Override
+            protected void preSave()
+            { saves.add(rows.size()); }
+        };
+        
+        FileHandlerRegistry registry = new FileHandlerRegistry();
+        registry.register(handler);
+        
+        assertTrue("1.1", handler.isDirty());
+        
+        registry.save();
+        
+        assertEquals("1.2", 1, saves.size());
+        assertFalse("1.3", handler.isDirty());
+        
+        registry.save();
+        
+        assertEquals("2", 1, saves.size());
+        
+        handler.rows.add(Arrays.asList("Blue", "Navy"));
+        handler.markDirty();
+        
+        assertTrue("3.1", handler.isDirty());
+        
+        registry.save();
+        registry.save();
+        
+        assertEquals("3.2", Arrays.asList(0, 1), saves);
+        assertFalse("3.3", handler.isDirty());
+        
+        handler.markDirty();
+        handler.load();
+        
+        assertFalse("4", handler.isDirty());
+        
+        TestCSVFileHandler untracked = new TestCSVFileHandler(file);
+        untracked.save();
+        
+        assertTrue("5", untracked.isDirty());
+        
+        TestCSVFileHandler async = new TestCSVFileHandler(file)
+        {
+            @Override
+            protected boolean tracksChanges()
+            { return true; }
+            
+            @Override
+            protected boolean savesAsynchronously()
+            { return true; }
+        };
+        
+        final List<Runnable> queued = new ArrayList<Runnable>();
+        
+        Executor executor = new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            { queued.add(command); }
+        };
+        
+        async.saveAsync(executor);
+        
+        assertFalse("6.1", async.isDirty());
+        
+        async.markDirty();
+        
+        assertTrue("6.2", async.isDirty());
+        
+        async.saveAsync(executor);
+        
+        assertFalse("6.3", async.isDirty());
+        assertEquals("6.4", 1, queued.size());
+        
+        queued.get(0).run();
+        
+        assertFalse("6.5", async.isDirty());
+    }
+    
+    @Test
+    public void testSaveAsyncRejected() throws IOException, InterruptedException
+    {
+        File folder = getNewFolder();
+        File file = new File(folder, "test.csv");
+        file.deleteOnExit();
+        
+        final TestCSVFileHandler handler = new TestCSVFileHandler(file)
+        {
+            @Override
+            protected boolean savesAsynchronously()
+            { return true; }
+        };
+        
+        final Executor rejecting = new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            { throw new RejectedExecutionException(); }
+        };
+        
+        new ThrowableAssertion("1", RejectedExecutionException.class)
+        {
+            @Override
+            public void code() throws Throwable
+            { handler.saveAsync(rejecting); }
+        };
+        
+        handler.awaitAsyncSave();
+        
+        Future<?> save = handler.saveAsync(new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            { command.run(); }
+        });
+        
+        assertTrue("2.1", save.isDone());
+        assertTrue("2.2", file.exists());
+    }
+    
+    @Test
+    public void testSaveAsyncWhileWriting() throws IOException, InterruptedException
+    {
+        File folder = getNewFolder();
+        File file = new File(folder, "test.csv");
+        file.deleteOnExit();
+        
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch finishWriting = new CountDownLatch(1);
+        final List<Integer> prepared = new ArrayList<Integer>();
+        
+        final TestCSVFileHandler handler = new TestCSVFileHandler(file)
+        {
+            @Override
+            protected boolean savesAsynchronously()
+            { return true; }
+            
+            @Override
+            protected void preSave()
+            { prepared.add(rows.size()); }
+            
+            @Override
+            protected List<CSVRowMember> getRow(int rowNumber)
+            {
+                if(rowNumber == 0 && prepared.size() == 1)
+                {
+                    writing.countDown();
+                    
+                    try
+                    { finishWriting.await(); }
+                    catch(InterruptedException e)
+                    { throw new IllegalStateException(e); }
+                }
+                
+                return super.getRow(rowNumber);
+            }
+        };
+        
+        Executor executor = new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            { new Thread(command).start(); }
+        };
+        
+        handler.rows.add(Arrays.asList("Blue", "Navy"));
+        Future<?> first = handler.saveAsync(executor);
+        
+        assertTrue("1.1", writing.await(10, TimeUnit.SECONDS));
+        
+        handler.rows.add(Arrays.asList("Red", "Crimson"));
+        Future<?> second = handler.saveAsync(executor);
+        
+        assertNotSame("1.2", first, second);
+        assertSame("1.3", second, handler.saveAsync(executor));
+        assertEquals("1.4", Arrays.asList(1), prepared);
+        
+        finishWriting.countDown();
+        handler.awaitAsyncSave();
+        
+        assertTrue("2.1", first.isDone());
+        assertTrue("2.2", second.isDone());
+        assertEquals("2.3", Arrays.asList(1, 2), prepared);
+        
+        handler.load();
+        
+        assertEquals("3", 2, handler.rows.size());
+    }
+    
+    @Test
+    public void testSaveAsyncFailure() throws IOException, InterruptedException
+    {
+        File folder = getNewFolder();
+        File notAFolder = writeFile(folder, "notafolder.txt", "Blue");
+        
+        final TestCSVFileHandler handler = new TestCSVFileHandler(new File(notAFolder, "test.csv"))
+        {
+            @Override
+            protected boolean savesAsynchronously()
+            { return true; }
+        };
+        
+        final Future<?> save = handler.saveAsync(new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            { command.run(); }
+        });
+        
+        assertTrue("1", save.isDone());
+        
+        new ThrowableAssertion("2", IOException.class)
+        {
+            @Override
+            public void code() throws Throwable
+            { handler.awaitAsyncSave(); }
+        };
+        
+        new ThrowableAssertion("3", ExecutionException.class)
+        {
+            @Override
+            public void code() throws Throwable
+            { save.get(); }
+        };
+    }
+    
+    @Test
+    public void testInterpretFileGetsLinesAsInFile() throws IOException
+    {
+        File folder = getNewFolder();
+        final List<String> interpreted = new ArrayList<String>();
+        
+        FileHandler handler = new FileHandler("Test", writeFile(folder, "test.txt", "Blue", "", "Red"))
+        {
+            @Override
+            protected void preSave()
+            { /* Nothin' here */ }
+            
+            @Override
+            protected void buildSaveFile(PrintWriter writer)
+            { /* Nothin' here */ }
+            
+            @Override
+            protected void postSave()
+            { /* Nothin' here */ }
+            
+            @Override
+            protected void preInterpretation()
+            { /* Nothin' here */ }
+            
+            @Override
+            protected boolean interpretFile(List<String> lines)
+            {
+                interpreted.addAll(lines);
+                return true;
+            }
+            
+            @Override
+            protected void postInterpretation()
+            { /* Nothin' here */ }
+            
+            @Override
+            protected void onNoFileToInterpret()
+            { /* Nothin' here */ }
+        };
+        
+        handler.load();
+        
+        assertEquals("1", Arrays.asList("Blue", "", "Red"), interpreted);
+    }
+}